@@ -493,6 +493,23 @@ public class BesuCommand implements DefaultCommandValues, Runnable {
           "Enable to accept clients certificate signed by a valid CA for client authentication (default: ${DEFAULT-VALUE})")
   private final Boolean isRpcHttpTlsCAClientsEnabled = false;
 
+  @Option(
+      hidden = true,
+      names = {"--Xrpc-http-streaming-write-stall-timeout"},
+      paramLabel = MANDATORY_LONG_FORMAT_HELP,
+      description =
+          "Seconds a client may go without reading a streamed JSON-RPC HTTP response before the response is aborted (default: ${DEFAULT-VALUE})")
+  private final Long rpcHttpStreamingWriteStallTimeout =
+      JsonRpcConfiguration.DEFAULT_STREAMING_WRITE_STALL_TIMEOUT_SEC;
+
+  @Option(
+      hidden = true,
+      names = {"--Xrpc-tracing-threads"},
+      paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
+      description =
+          "Number of transactions replayed in parallel when tracing a block over JSON-RPC (default: ${DEFAULT-VALUE})")
+  private final Integer rpcTracingThreads = JsonRpcConfiguration.DEFAULT_TRACING_THREADS;
+
   @Option(
       names = {"--rpc-ws-enabled"},
       description = "Set to start the JSON-RPC WebSocket service (default: ${DEFAULT-VALUE})")
@@ -691,6 +708,59 @@ public class BesuCommand implements DefaultCommandValues, Runnable {
           "Enable disk-space saving optimization that removes old state that is unlikely to be required (default: true if fast sync is enabled, false otherwise)")
   private Boolean pruningOverride;
 
+  @Option(
+      hidden = true,
+      names = {"--Xworld-state-node-cache-size"},
+      paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
+      description =
+          "Size in megabytes of the cache of world state trie nodes and code read from storage, 0 to disable it (default: ${DEFAULT-VALUE})")
+  private final Integer worldStateNodeCacheSize = 64;
+
+  @Option(
+      hidden = true,
+      names = {"--Xworld-state-snapshot-enabled"},
+      description =
+          "Maintain a flat snapshot of recent world states for single lookup account and storage reads (default: ${DEFAULT-VALUE})")
+  private final Boolean worldStateSnapshotEnabled = false;
+
+  @Option(
+      hidden = true,
+      names = {"--Xworld-state-write-behind-blocks"},
+      paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
+      description =
+          "Number of blocks whose world state changes are buffered in memory and written in a single batch when full syncing or importing blocks, 0 to write every block (default: ${DEFAULT-VALUE})")
+  private final Integer worldStateWriteBehindBlocks = 0;
+
+  @Option(
+      hidden = true,
+      names = {"--Xworld-state-write-behind-max-size"},
+      paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
+      description =
+          "Maximum size in megabytes of buffered world state changes before they are written (default: ${DEFAULT-VALUE})")
+  private final Integer worldStateWriteBehindMaxSize = 64;
+
+  @Option(
+      hidden = true,
+      names = {"--Xparallel-transaction-execution-enabled"},
+      description =
+          "Execute block transactions speculatively in parallel, re-executing any whose reads were invalidated (default: ${DEFAULT-VALUE})")
+  private final Boolean parallelTransactionExecutionEnabled = false;
+
+  @Option(
+      hidden = true,
+      names = {"--Xtransaction-prefetch-enabled"},
+      description =
+          "Read the accounts touched by block transactions in the background ahead of their execution (default: ${DEFAULT-VALUE})")
+  private final Boolean transactionPrefetchEnabled = false;
+
+  @Option(
+      hidden = true,
+      names = {"--Xevm-code-cache-size"},
+      paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
+      description =
+          "Maximum size in megabytes of analysed contract code cached by each EVM (default: ${DEFAULT-VALUE})")
+  private final Integer evmCodeCacheSize = 32;
+
   @Option(
       names = {"--permissions-nodes-config-file-enabled"},
       description = "Enable node level permissions (default: ${DEFAULT-VALUE})")
@@ -1212,6 +1282,9 @@ public class BesuCommand implements DefaultCommandValues, Runnable {
           .isRevertReasonEnabled(isRevertReasonEnabled)
           .storageProvider(keyStorageProvider(keyValueStorageName))
           .isPruningEnabled(isPruningEnabled())
+          .isParallelTransactionExecutionEnabled(parallelTransactionExecutionEnabled)
+          .isTransactionPrefetchEnabled(transactionPrefetchEnabled)
+          .evmCodeCacheSize(evmCodeCacheSize * 1024L * 1024L)
           .pruningConfiguration(prunerOptions.toDomainObject())
           .genesisConfigOverrides(genesisConfigOverrides)
           .targetGasLimit(targetGasLimit == null ? Optional.empty() : Optional.of(targetGasLimit))
@@ -1284,6 +1357,8 @@ public class BesuCommand implements DefaultCommandValues, Runnable {
     jsonRpcConfiguration.setAuthenticationCredentialsFile(rpcHttpAuthenticationCredentialsFile());
     jsonRpcConfiguration.setAuthenticationPublicKeyFile(rpcHttpAuthenticationPublicKeyFile());
     jsonRpcConfiguration.setTlsConfiguration(rpcHttpTlsConfiguration());
+    jsonRpcConfiguration.setStreamingWriteStallTimeoutSec(rpcHttpStreamingWriteStallTimeout);
+    jsonRpcConfiguration.setTracingThreads(rpcTracingThreads);
     return jsonRpcConfiguration;
   }
 
@@ -1652,6 +1727,12 @@ public class BesuCommand implements DefaultCommandValues, Runnable {
                     () -> new StorageException("No KeyValueStorageFactory found for key: " + name)))
         .withCommonConfiguration(pluginCommonConfiguration)
         .withMetricsSystem(getMetricsSystem())
+        .withWorldStateNodeCacheSize(worldStateNodeCacheSize * 1024L * 1024L)
+        .withWorldStateSnapshotEnabled(worldStateSnapshotEnabled)
+        // Fast sync writes world state without processing blocks, so it could not be restored.
+        .withWorldStateWriteBehind(
+            syncMode == SyncMode.FAST ? 0 : worldStateWriteBehindBlocks,
+            worldStateWriteBehindMaxSize * 1024L * 1024L)
         .build();
   }
 
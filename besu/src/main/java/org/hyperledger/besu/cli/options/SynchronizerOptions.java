@@ -56,6 +56,8 @@ public class SynchronizerOptions implements CLIOptions<SynchronizerConfiguration
       "--Xsynchronizer-world-state-min-millis-before-stalling";
   private static final String WORLD_STATE_TASK_CACHE_SIZE_FLAG =
       "--Xsynchronizer-world-state-task-cache-size";
+  private static final String WORLD_STATE_DEPTH_FIRST_ENABLED_FLAG =
+      "--Xsynchronizer-world-state-depth-first-enabled";
 
   @CommandLine.Option(
       names = BLOCK_PROPAGATION_RANGE_FLAG,
@@ -210,6 +212,15 @@ public class SynchronizerOptions implements CLIOptions<SynchronizerConfiguration
   private int worldStateTaskCacheSize =
       SynchronizerConfiguration.DEFAULT_WORLD_STATE_TASK_CACHE_SIZE;
 
+  @CommandLine.Option(
+      names = WORLD_STATE_DEPTH_FIRST_ENABLED_FLAG,
+      hidden = true,
+      defaultValue = "false",
+      description =
+          "Whether to download the deepest pending world state nodes first during fast sync, instead of in the order they were discovered. (default: ${DEFAULT-VALUE})")
+  private Boolean worldStateDepthFirstEnabled =
+      SynchronizerConfiguration.DEFAULT_WORLD_STATE_DEPTH_FIRST_ENABLED;
+
   private SynchronizerOptions() {}
 
   public static SynchronizerOptions create() {
@@ -236,6 +247,7 @@ public class SynchronizerOptions implements CLIOptions<SynchronizerConfiguration
     options.worldStateMaxRequestsWithoutProgress = config.getWorldStateMaxRequestsWithoutProgress();
     options.worldStateMinMillisBeforeStalling = config.getWorldStateMinMillisBeforeStalling();
     options.worldStateTaskCacheSize = config.getWorldStateTaskCacheSize();
+    options.worldStateDepthFirstEnabled = config.isWorldStateDepthFirstEnabled();
     return options;
   }
 
@@ -258,6 +270,7 @@ public class SynchronizerOptions implements CLIOptions<SynchronizerConfiguration
     builder.worldStateMaxRequestsWithoutProgress(worldStateMaxRequestsWithoutProgress);
     builder.worldStateMinMillisBeforeStalling(worldStateMinMillisBeforeStalling);
     builder.worldStateTaskCacheSize(worldStateTaskCacheSize);
+    builder.worldStateDepthFirstEnabled(worldStateDepthFirstEnabled);
     return builder;
   }
 
@@ -295,6 +308,7 @@ public class SynchronizerOptions implements CLIOptions<SynchronizerConfiguration
         WORLD_STATE_MIN_MILLIS_BEFORE_STALLING_FLAG,
         OptionParser.format(worldStateMinMillisBeforeStalling),
         WORLD_STATE_TASK_CACHE_SIZE_FLAG,
-        OptionParser.format(worldStateTaskCacheSize));
+        OptionParser.format(worldStateTaskCacheSize),
+        WORLD_STATE_DEPTH_FIRST_ENABLED_FLAG + "=" + worldStateDepthFirstEnabled);
   }
 }
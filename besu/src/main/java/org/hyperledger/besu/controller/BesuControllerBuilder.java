@@ -44,8 +44,11 @@ import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPoolConfiguration;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPoolFactory;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
+import org.hyperledger.besu.ethereum.mainnet.SpeculativeTransactionExecutor;
+import org.hyperledger.besu.ethereum.mainnet.TransactionPrefetcher;
 import org.hyperledger.besu.ethereum.p2p.config.SubProtocolConfiguration;
 import org.hyperledger.besu.ethereum.storage.StorageProvider;
+import org.hyperledger.besu.ethereum.vm.CodeCache;
 import org.hyperledger.besu.ethereum.worldstate.MarkSweepPruner;
 import org.hyperledger.besu.ethereum.worldstate.Pruner;
 import org.hyperledger.besu.ethereum.worldstate.PrunerConfiguration;
@@ -64,6 +67,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -86,6 +90,9 @@ public abstract class BesuControllerBuilder<C> {
   GasLimitCalculator gasLimitCalculator;
   private StorageProvider storageProvider;
   private boolean isPruningEnabled;
+  private boolean isParallelTransactionExecutionEnabled;
+  private boolean isTransactionPrefetchEnabled;
+  private long evmCodeCacheSize = CodeCache.DEFAULT_MAX_SIZE_IN_BYTES;
   private PrunerConfiguration prunerConfiguration;
   Map<String, String> genesisConfigOverrides;
   private Map<Long, Hash> requiredBlocks = Collections.emptyMap();
@@ -169,6 +176,18 @@ public abstract class BesuControllerBuilder<C> {
     return this;
   }
 
+  public BesuControllerBuilder<C> isParallelTransactionExecutionEnabled(
+      final boolean isParallelTransactionExecutionEnabled) {
+    this.isParallelTransactionExecutionEnabled = isParallelTransactionExecutionEnabled;
+    return this;
+  }
+
+  public BesuControllerBuilder<C> isTransactionPrefetchEnabled(
+      final boolean isTransactionPrefetchEnabled) {
+    this.isTransactionPrefetchEnabled = isTransactionPrefetchEnabled;
+    return this;
+  }
+
   public BesuControllerBuilder<C> pruningConfiguration(
       final PrunerConfiguration prunerConfiguration) {
     this.prunerConfiguration = prunerConfiguration;
@@ -191,6 +210,11 @@ public abstract class BesuControllerBuilder<C> {
     return this;
   }
 
+  public BesuControllerBuilder<C> evmCodeCacheSize(final long evmCodeCacheSize) {
+    this.evmCodeCacheSize = evmCodeCacheSize;
+    return this;
+  }
+
   public BesuController<C> build() {
     checkNotNull(genesisConfig, "Missing genesis config");
     checkNotNull(syncConfig, "Missing sync config");
@@ -209,6 +233,17 @@ public abstract class BesuControllerBuilder<C> {
     prepForBuild();
 
     final ProtocolSchedule<C> protocolSchedule = createProtocolSchedule();
+    if (isParallelTransactionExecutionEnabled) {
+      protocolSchedule.setSpeculativeTransactionExecutor(
+          new SpeculativeTransactionExecutor(
+              SpeculativeTransactionExecutor.createExecutor(
+                  Runtime.getRuntime().availableProcessors(),
+                  SpeculativeTransactionExecutor.DEFAULT_QUEUE_SIZE),
+              metricsSystem));
+    }
+    if (isTransactionPrefetchEnabled) {
+      protocolSchedule.setTransactionPrefetcher(new TransactionPrefetcher(metricsSystem));
+    }
     final GenesisState genesisState = GenesisState.fromConfig(genesisConfig, protocolSchedule);
     final ProtocolContext<C> protocolContext =
         ProtocolContext.init(
@@ -335,6 +370,10 @@ public abstract class BesuControllerBuilder<C> {
 
   protected abstract ProtocolSchedule<C> createProtocolSchedule();
 
+  protected Supplier<CodeCache> codeCacheBuilder() {
+    return () -> new CodeCache(evmCodeCacheSize, metricsSystem);
+  }
+
   protected void validateContext(final ProtocolContext<C> context) {}
 
   protected abstract C createConsensusContext(
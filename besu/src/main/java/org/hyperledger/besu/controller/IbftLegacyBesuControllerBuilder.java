@@ -72,7 +72,8 @@ public class IbftLegacyBesuControllerBuilder extends BesuControllerBuilder<IbftC
     return IbftProtocolSchedule.create(
         genesisConfig.getConfigOptions(genesisConfigOverrides),
         privacyParameters,
-        isRevertReasonEnabled);
+        isRevertReasonEnabled,
+        codeCacheBuilder());
   }
 
   @Override
@@ -28,8 +28,10 @@ import org.hyperledger.besu.ethereum.mainnet.MainnetBlockImporter;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolScheduleBuilder;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSpecBuilder;
+import org.hyperledger.besu.ethereum.vm.CodeCache;
 
 import java.math.BigInteger;
+import java.util.function.Supplier;
 
 /** Defines the protocol behaviours for a blockchain using Clique. */
 public class CliqueProtocolSchedule {
@@ -41,6 +43,15 @@ public class CliqueProtocolSchedule {
       final KeyPair nodeKeys,
       final PrivacyParameters privacyParameters,
       final boolean isRevertReasonEnabled) {
+    return create(config, nodeKeys, privacyParameters, isRevertReasonEnabled, CodeCache::new);
+  }
+
+  public static ProtocolSchedule<CliqueContext> create(
+      final GenesisConfigOptions config,
+      final KeyPair nodeKeys,
+      final PrivacyParameters privacyParameters,
+      final boolean isRevertReasonEnabled,
+      final Supplier<CodeCache> codeCacheBuilder) {
 
     final CliqueConfigOptions cliqueConfig = config.getCliqueConfigOptions();
 
@@ -54,7 +65,8 @@ public class CliqueProtocolSchedule {
                 applyCliqueSpecificModifications(
                     epochManager, cliqueConfig.getBlockPeriodSeconds(), localNodeAddress, builder),
             privacyParameters,
-            isRevertReasonEnabled)
+            isRevertReasonEnabled,
+            codeCacheBuilder)
         .createProtocolSchedule();
   }
 
@@ -65,6 +65,18 @@ public class BlockTimer {
     return currentTimerTask.map(t -> !t.isDone()).orElse(false);
   }
 
+  /**
+   * The timestamp of the block which will be proposed when a timer started for the supplied chain
+   * head expires, assuming the timer expires on time.
+   *
+   * @param chainHeadHeader The header of the chain head
+   * @return the expected timestamp in seconds of the block to be proposed
+   */
+  public long getExpectedBlockTimestamp(final BlockHeader chainHeadHeader) {
+    final long expiryTime = chainHeadHeader.getTimestamp() * 1_000 + minimumTimeBetweenBlocksMillis;
+    return Math.max(expiryTime, clock.millis()) / 1_000;
+  }
+
   /**
    * Starts a timer for the supplied round cancelling any previously active block timer
    *
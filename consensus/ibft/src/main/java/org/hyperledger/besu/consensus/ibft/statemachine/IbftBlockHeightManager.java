@@ -102,6 +102,8 @@ public class IbftBlockHeightManager implements BlockHeightManager {
     currentRound = roundFactory.createNewRound(parentHeader, 0);
     if (finalState.isLocalNodeProposerForRound(currentRound.getRoundIdentifier())) {
       blockTimer.startTimer(currentRound.getRoundIdentifier(), parentHeader);
+      // Select the transactions for the proposal now, rather than when the block timer expires.
+      currentRound.prepareProposal(blockTimer.getExpectedBlockTimestamp(parentHeader));
     }
   }
 
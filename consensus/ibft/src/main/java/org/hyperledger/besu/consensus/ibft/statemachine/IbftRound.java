@@ -85,6 +85,16 @@ public class IbftRound {
     return roundState.getRoundIdentifier();
   }
 
+  /**
+   * Selects transactions for the block this round will propose, so that creating the proposal
+   * only has to process transactions received after this.
+   *
+   * @param headerTimeStampSeconds the expected timestamp of the proposed block
+   */
+  public void prepareProposal(final long headerTimeStampSeconds) {
+    blockCreator.prepareBlock(headerTimeStampSeconds);
+  }
+
   public void createAndSendProposalMessage(final long headerTimeStampSeconds) {
     final Block block = blockCreator.createBlock(headerTimeStampSeconds);
     final IbftExtraData extraData = IbftExtraData.decode(block.getHeader());
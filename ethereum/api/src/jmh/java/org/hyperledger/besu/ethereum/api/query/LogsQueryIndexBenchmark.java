@@ -0,0 +1,113 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.query;
+
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Log;
+import org.hyperledger.besu.ethereum.core.LogTopic;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares finding the logs subscriptions matching each log of a block with a {@link
+ * LogsQueryIndex} against checking every subscription's query.
+ *
+ * <p>Most subscriptions are for a contract address, some with a topic too, and the others for an
+ * event topic from any contract.
+ */
+@State(Scope.Benchmark)
+public class LogsQueryIndexBenchmark {
+
+  private static final int CONTRACTS = 2_000;
+  private static final int EVENTS = 200;
+  private static final int LOGS_PER_BLOCK = 500;
+
+  @Param({"10000"})
+  public int subscriptions;
+
+  private LogsQuery[] queries;
+  private LogsQueryIndex<Integer> index;
+  private Log[] logs;
+
+  @Setup
+  public void createSubscriptionsAndLogs() {
+    final Random random = new Random(42);
+    final Address[] contracts = new Address[CONTRACTS];
+    for (int i = 0; i < CONTRACTS; i++) {
+      contracts[i] = Address.fromHexString(String.format("%040x", i + 1));
+    }
+    final LogTopic[] events = new LogTopic[EVENTS];
+    for (int i = 0; i < EVENTS; i++) {
+      events[i] = LogTopic.wrap(Bytes32.random(random));
+    }
+
+    queries = new LogsQuery[subscriptions];
+    index = new LogsQueryIndex<>();
+    for (int i = 0; i < subscriptions; i++) {
+      final LogsQuery.Builder query = new LogsQuery.Builder();
+      final int kind = random.nextInt(10);
+      if (kind < 8) {
+        query.address(contracts[random.nextInt(CONTRACTS)]);
+      }
+      if (kind >= 5) {
+        query.topics(topic(events[random.nextInt(EVENTS)]));
+      }
+      queries[i] = query.build();
+      index.add(i, queries[i]);
+    }
+
+    logs = new Log[LOGS_PER_BLOCK];
+    for (int i = 0; i < LOGS_PER_BLOCK; i++) {
+      logs[i] =
+          new Log(
+              contracts[random.nextInt(CONTRACTS)],
+              Bytes.EMPTY,
+              List.of(events[random.nextInt(EVENTS)], LogTopic.wrap(Bytes32.random(random))));
+    }
+  }
+
+  @Benchmark
+  public void matchWithIndex(final Blackhole blackhole) {
+    for (final Log log : logs) {
+      index.forEachMatch(log, blackhole::consume);
+    }
+  }
+
+  @Benchmark
+  public void matchEachQuery(final Blackhole blackhole) {
+    for (final Log log : logs) {
+      for (int i = 0; i < queries.length; i++) {
+        if (queries[i].matches(log)) {
+          blackhole.consume(i);
+        }
+      }
+    }
+  }
+
+  private static List<List<LogTopic>> topic(final LogTopic topic) {
+    return Collections.singletonList(Collections.singletonList(topic));
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+
+/**
+ * Sends what is written to it as chunks of an HTTP response. Must be written from a worker thread,
+ * as writes block while the client isn't keeping up with the response. A write fails once the
+ * client hasn't read anything for longer than the write stall timeout, so a client that stops
+ * reading doesn't hold the worker thread forever.
+ */
+class ChunkedResponseOutputStream extends OutputStream {
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+  private static final long DRAIN_CHECK_INTERVAL_MS = 100;
+
+  private final HttpServerResponse response;
+  private final long writeStallTimeoutMillis;
+  private Buffer chunk = Buffer.buffer(CHUNK_SIZE);
+  private boolean closed = false;
+
+  ChunkedResponseOutputStream(
+      final HttpServerResponse response, final long writeStallTimeoutMillis) {
+    this.response = response;
+    this.writeStallTimeoutMillis = writeStallTimeoutMillis;
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    chunk.appendByte((byte) b);
+    if (chunk.length() >= CHUNK_SIZE) {
+      writeChunk();
+    }
+  }
+
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    chunk.appendBytes(b, off, len);
+    if (chunk.length() >= CHUNK_SIZE) {
+      writeChunk();
+    }
+  }
+
+  private void writeChunk() throws IOException {
+    awaitWriteQueueDrained();
+    response.write(chunk);
+    chunk = Buffer.buffer(CHUNK_SIZE);
+  }
+
+  private void awaitWriteQueueDrained() throws IOException {
+    final long deadline =
+        System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(writeStallTimeoutMillis);
+    while (true) {
+      if (response.closed()) {
+        throw new IOException("Connection closed before the response was sent");
+      }
+      if (!response.writeQueueFull()) {
+        return;
+      }
+      final long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remainingMillis <= 0) {
+        throw new IOException(
+            "Client did not read the response for " + writeStallTimeoutMillis + " ms");
+      }
+      final CountDownLatch drained = new CountDownLatch(1);
+      response.drainHandler(done -> drained.countDown());
+      try {
+        // Wake up regularly in case the queue drained before the handler was set.
+        drained.await(Math.min(DRAIN_CHECK_INTERVAL_MS, remainingMillis), TimeUnit.MILLISECONDS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for the client to read the response", e);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    awaitWriteQueueDrained();
+    response.end(chunk);
+  }
+
+  /** Fails the response after something went wrong writing it. */
+  void abort() {
+    closed = true;
+    if (response.closed() || response.ended()) {
+      return;
+    }
+    if (!response.headWritten()) {
+      response.setChunked(false);
+      response.setStatusCode(HttpResponseStatus.INTERNAL_SERVER_ERROR.code()).end();
+    } else {
+      // Part of the result has already been sent, so cut it short to make the failure visible.
+      response.close();
+    }
+  }
+}
@@ -30,6 +30,9 @@ import com.google.common.base.MoreObjects;
 public class JsonRpcConfiguration {
   private static final String DEFAULT_JSON_RPC_HOST = "127.0.0.1";
   public static final int DEFAULT_JSON_RPC_PORT = 8545;
+  public static final long DEFAULT_STREAMING_WRITE_STALL_TIMEOUT_SEC = 60;
+  public static final int DEFAULT_TRACING_THREADS =
+      Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
 
   private boolean enabled;
   private int port;
@@ -41,6 +44,8 @@ public class JsonRpcConfiguration {
   private String authenticationCredentialsFile;
   private File authenticationPublicKeyFile;
   private Optional<TlsConfiguration> tlsConfiguration = Optional.empty();
+  private long streamingWriteStallTimeoutSec = DEFAULT_STREAMING_WRITE_STALL_TIMEOUT_SEC;
+  private int tracingThreads = DEFAULT_TRACING_THREADS;
 
   public static JsonRpcConfiguration createDefault() {
     final JsonRpcConfiguration config = new JsonRpcConfiguration();
@@ -140,6 +145,22 @@ public class JsonRpcConfiguration {
     this.tlsConfiguration = tlsConfiguration;
   }
 
+  public long getStreamingWriteStallTimeoutSec() {
+    return streamingWriteStallTimeoutSec;
+  }
+
+  public void setStreamingWriteStallTimeoutSec(final long streamingWriteStallTimeoutSec) {
+    this.streamingWriteStallTimeoutSec = streamingWriteStallTimeoutSec;
+  }
+
+  public int getTracingThreads() {
+    return tracingThreads;
+  }
+
+  public void setTracingThreads(final int tracingThreads) {
+    this.tracingThreads = tracingThreads;
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
@@ -153,6 +174,8 @@ public class JsonRpcConfiguration {
         .add("authenticationCredentialsFile", authenticationCredentialsFile)
         .add("authenticationPublicKeyFile", authenticationPublicKeyFile)
         .add("tlsConfiguration", tlsConfiguration)
+        .add("streamingWriteStallTimeoutSec", streamingWriteStallTimeoutSec)
+        .add("tracingThreads", tracingThreads)
         .toString();
   }
 
@@ -168,6 +191,8 @@ public class JsonRpcConfiguration {
     return enabled == that.enabled
         && port == that.port
         && authenticationEnabled == that.authenticationEnabled
+        && streamingWriteStallTimeoutSec == that.streamingWriteStallTimeoutSec
+        && tracingThreads == that.tracingThreads
         && Objects.equals(host, that.host)
         && Objects.equals(corsAllowedDomains, that.corsAllowedDomains)
         && Objects.equals(rpcApis, that.rpcApis)
@@ -187,6 +212,8 @@ public class JsonRpcConfiguration {
         hostsWhitelist,
         authenticationEnabled,
         authenticationCredentialsFile,
-        authenticationPublicKeyFile);
+        authenticationPublicKeyFile,
+        streamingWriteStallTimeoutSec,
+        tracingThreads);
   }
 }
@@ -27,11 +27,13 @@ import org.hyperledger.besu.ethereum.api.jsonrpc.internal.JsonRpcRequestContext;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.JsonRpcRequestId;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.exception.InvalidJsonRpcParameters;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.methods.JsonRpcMethod;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.methods.StreamingJsonRpcMethod;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcError;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcErrorResponse;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcNoResponse;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcResponse;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcResponseType;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcStreamingResponse;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcUnauthorizedResponse;
 import org.hyperledger.besu.ethereum.api.tls.TlsClientAuthConfiguration;
 import org.hyperledger.besu.ethereum.api.tls.TlsConfiguration;
@@ -47,6 +49,7 @@ import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
 import org.hyperledger.besu.util.ExceptionUtils;
 import org.hyperledger.besu.util.NetworkUtility;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketException;
 import java.nio.file.Path;
@@ -55,7 +58,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.StringJoiner;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Splitter;
 import com.google.common.collect.Iterables;
@@ -457,8 +462,15 @@ public class JsonRpcHttpService {
     final HttpServerResponse response = routingContext.response();
     vertx.executeBlocking(
         future -> {
-          final JsonRpcResponse jsonRpcResponse = process(request, user);
-          future.complete(jsonRpcResponse);
+          final JsonRpcResponse jsonRpcResponse = process(request, user, true);
+          if (jsonRpcResponse instanceof JsonRpcStreamingResponse) {
+            // Written from this worker thread, so there is no response left to send.
+            stream(
+                (JsonRpcStreamingResponse) jsonRpcResponse, response, request.getString("method"));
+            future.complete();
+          } else {
+            future.complete(jsonRpcResponse);
+          }
         },
         false,
         (res) -> {
@@ -466,6 +478,9 @@ public class JsonRpcHttpService {
             response.setStatusCode(HttpResponseStatus.INTERNAL_SERVER_ERROR.code()).end();
             return;
           }
+          if (res.result() == null) {
+            return;
+          }
 
           final JsonRpcResponse jsonRpcResponse = (JsonRpcResponse) res.result();
           response.setStatusCode(status(jsonRpcResponse).code());
@@ -474,6 +489,29 @@ public class JsonRpcHttpService {
         });
   }
 
+  private void stream(
+      final JsonRpcStreamingResponse jsonRpcResponse,
+      final HttpServerResponse response,
+      final String methodName) {
+    response.setStatusCode(status(jsonRpcResponse).code());
+    response.putHeader("Content-Type", APPLICATION_JSON);
+    response.setChunked(true);
+    final ChunkedResponseOutputStream out =
+        new ChunkedResponseOutputStream(
+            response, TimeUnit.SECONDS.toMillis(config.getStreamingWriteStallTimeoutSec()));
+    // The result is computed while it is written, so this is where the request's time is spent.
+    try (final OperationTimer.TimingContext ignored =
+        requestTimer.labels(methodName).startTimer()) {
+      // Not closed on failure, as that would complete the JSON and end the response normally.
+      final JsonGenerator generator = Json.mapper.getFactory().createGenerator(out);
+      jsonRpcResponse.writeTo(generator);
+      generator.close();
+    } catch (final IOException | RuntimeException e) {
+      LOG.error("Error streaming JSON-RPC response", e);
+      out.abort();
+    }
+  }
+
   private HttpResponseStatus status(final JsonRpcResponse response) {
 
     switch (response.getType()) {
@@ -513,7 +551,7 @@ public class JsonRpcHttpService {
                   final JsonObject req = (JsonObject) obj;
                   final Future<JsonRpcResponse> fut = Future.future();
                   vertx.executeBlocking(
-                      future -> future.complete(process(req, user)),
+                      future -> future.complete(process(req, user, false)),
                       false,
                       ar -> {
                         if (ar.failed()) {
@@ -550,7 +588,8 @@ public class JsonRpcHttpService {
     return result.getType() != JsonRpcResponseType.NONE;
   }
 
-  private JsonRpcResponse process(final JsonObject requestJson, final Optional<User> user) {
+  private JsonRpcResponse process(
+      final JsonObject requestJson, final Optional<User> user, final boolean streamingAllowed) {
     final JsonRpcRequest requestBody;
     Object id = null;
     try {
@@ -574,12 +613,18 @@ public class JsonRpcHttpService {
 
     if (AuthenticationUtils.isPermitted(authenticationService, user, method)) {
       // Generate response
-      try (final OperationTimer.TimingContext ignored =
-          requestTimer.labels(requestBody.getMethod()).startTimer()) {
-        if (user.isPresent()) {
-          return method.response(new JsonRpcRequestContext(requestBody, user.get()));
+      final JsonRpcRequestContext requestContext =
+          user.map(u -> new JsonRpcRequestContext(requestBody, u))
+              .orElseGet(() -> new JsonRpcRequestContext(requestBody));
+      try {
+        if (streamingAllowed && method instanceof StreamingJsonRpcMethod) {
+          // Timed while it is streamed, as that is when its result is computed.
+          return ((StreamingJsonRpcMethod) method).streamingResponse(requestContext);
+        }
+        try (final OperationTimer.TimingContext ignored =
+            requestTimer.labels(requestBody.getMethod()).startTimer()) {
+          return method.response(requestContext);
         }
-        return method.response(new JsonRpcRequestContext(requestBody));
       } catch (final InvalidJsonRpcParameters e) {
         LOG.debug("Invalid Params", e);
         return errorResponse(id, JsonRpcError.INVALID_PARAMS);
@@ -28,7 +28,9 @@ import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.OptionalLong;
 
 import com.google.common.annotations.VisibleForTesting;
 import io.vertx.core.AbstractVerticle;
@@ -136,20 +138,28 @@ public class FilterManager extends AbstractVerticle {
           }
         });
 
-    checkBlockchainForMatchingLogsForFilters();
+    addMatchingLogsToFilters(event.getLogsWithMetadata());
   }
 
-  private void checkBlockchainForMatchingLogsForFilters() {
-    final Collection<LogFilter> logFilters = filterRepository.getFiltersOfType(LogFilter.class);
-    logFilters.forEach(
-        (filter) -> {
-          final long headBlockNumber = blockchainQueries.headBlockNumber();
-          final long toBlockNumber =
-              filter.getToBlock().getNumber().orElse(blockchainQueries.headBlockNumber());
-          final List<LogWithMetadata> logs =
-              blockchainQueries.matchingLogs(headBlockNumber, toBlockNumber, filter.getLogsQuery());
-          filter.addLog(logs);
-        });
+  // The logs come with the event, so the receipts aren't read again for each filter.
+  private void addMatchingLogsToFilters(final List<LogWithMetadata> logs) {
+    for (final LogWithMetadata log : logs) {
+      if (log.isRemoved()) {
+        // Filters only report the logs of the blocks added to the canonical chain.
+        continue;
+      }
+      filterRepository.forEachLogFilterMatching(
+          log,
+          filter -> {
+            final OptionalLong toBlockNumber = filter.getToBlock().getNumber();
+            if (toBlockNumber.isPresent() && log.getBlockNumber() > toBlockNumber.getAsLong()) {
+              return;
+            }
+            synchronized (filter) {
+              filter.addLog(Collections.singletonList(log));
+            }
+          });
+    }
   }
 
   @VisibleForTesting
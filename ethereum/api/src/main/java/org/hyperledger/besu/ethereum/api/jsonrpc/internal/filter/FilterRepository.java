@@ -14,17 +14,22 @@
  */
 package org.hyperledger.besu.ethereum.api.jsonrpc.internal.filter;
 
+import org.hyperledger.besu.ethereum.api.query.LogsQueryIndex;
+import org.hyperledger.besu.ethereum.core.Log;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class FilterRepository {
 
   private final Map<String, Filter> filters = new ConcurrentHashMap<>();
+  private final LogsQueryIndex<LogFilter> logFilters = new LogsQueryIndex<>();
 
   public FilterRepository() {}
 
@@ -72,13 +77,24 @@ public class FilterRepository {
     }
 
     filters.put(filter.getId(), filter);
+    if (filter instanceof LogFilter) {
+      final LogFilter logFilter = (LogFilter) filter;
+      logFilters.add(logFilter, logFilter.getLogsQuery());
+    }
   }
 
   void delete(final String id) {
-    filters.remove(id);
+    final Filter removed = filters.remove(id);
+    if (removed instanceof LogFilter) {
+      logFilters.remove((LogFilter) removed);
+    }
   }
 
   void deleteAll() {
-    filters.clear();
+    new ArrayList<>(filters.keySet()).forEach(this::delete);
+  }
+
+  void forEachLogFilterMatching(final Log log, final Consumer<LogFilter> consumer) {
+    logFilters.forEachMatch(log, consumer);
   }
 }
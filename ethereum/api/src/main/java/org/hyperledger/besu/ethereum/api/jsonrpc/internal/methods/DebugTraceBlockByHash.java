@@ -20,6 +20,7 @@ import org.hyperledger.besu.ethereum.api.jsonrpc.internal.parameters.Transaction
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.BlockTrace;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.BlockTracer;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcResponse;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcStreamingResponse;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcSuccessResponse;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.DebugTraceTransactionResult;
 import org.hyperledger.besu.ethereum.core.Hash;
@@ -29,7 +30,7 @@ import org.hyperledger.besu.ethereum.vm.DebugOperationTracer;
 import java.util.Collection;
 import java.util.function.Supplier;
 
-public class DebugTraceBlockByHash implements JsonRpcMethod {
+public class DebugTraceBlockByHash implements StreamingJsonRpcMethod {
 
   private final Supplier<BlockTracer> blockTracerSupplier;
 
@@ -60,4 +61,20 @@ public class DebugTraceBlockByHash implements JsonRpcMethod {
             .orElse(null);
     return new JsonRpcSuccessResponse(requestContext.getRequest().getId(), results);
   }
+
+  @Override
+  public JsonRpcResponse streamingResponse(final JsonRpcRequestContext requestContext) {
+    final Hash blockHash = requestContext.getRequiredParameter(0, Hash.class);
+    final TraceOptions traceOptions =
+        requestContext
+            .getOptionalParameter(1, TransactionTraceParams.class)
+            .map(TransactionTraceParams::traceOptions)
+            .orElse(TraceOptions.DEFAULT);
+
+    return new JsonRpcStreamingResponse(
+        requestContext.getRequest().getId(),
+        generator ->
+            StreamingDebugTraces.writeBlockTrace(
+                generator, blockTracerSupplier.get(), blockHash, traceOptions));
+  }
 }
@@ -20,6 +20,9 @@ import org.hyperledger.besu.ethereum.api.jsonrpc.internal.parameters.BlockParame
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.parameters.TransactionTraceParams;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.BlockTrace;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.BlockTracer;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcResponse;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcStreamingResponse;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcSuccessResponse;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.DebugTraceTransactionResult;
 import org.hyperledger.besu.ethereum.api.query.BlockchainQueries;
 import org.hyperledger.besu.ethereum.core.Hash;
@@ -29,7 +32,8 @@ import org.hyperledger.besu.ethereum.vm.DebugOperationTracer;
 import java.util.Optional;
 import java.util.function.Supplier;
 
-public class DebugTraceBlockByNumber extends AbstractBlockParameterMethod {
+public class DebugTraceBlockByNumber extends AbstractBlockParameterMethod
+    implements StreamingJsonRpcMethod {
 
   private final Supplier<BlockTracer> blockTracerSupplier;
 
@@ -69,4 +73,28 @@ public class DebugTraceBlockByNumber extends AbstractBlockParameterMethod {
                     .map(DebugTraceTransactionResult::of))
         .orElse(null);
   }
+
+  @Override
+  public JsonRpcResponse streamingResponse(final JsonRpcRequestContext requestContext) {
+    // Latest and pending both resolve to the chain head, as they do for the buffered response.
+    final long blockNumber =
+        blockParameter(requestContext)
+            .getNumber()
+            .orElseGet(() -> getBlockchainQueries().headBlockNumber());
+    final Optional<Hash> blockHash = getBlockchainQueries().getBlockHashByNumber(blockNumber);
+    if (blockHash.isEmpty()) {
+      return new JsonRpcSuccessResponse(requestContext.getRequest().getId(), null);
+    }
+    final TraceOptions traceOptions =
+        requestContext
+            .getOptionalParameter(1, TransactionTraceParams.class)
+            .map(TransactionTraceParams::traceOptions)
+            .orElse(TraceOptions.DEFAULT);
+
+    return new JsonRpcStreamingResponse(
+        requestContext.getRequest().getId(),
+        generator ->
+            StreamingDebugTraces.writeBlockTrace(
+                generator, blockTracerSupplier.get(), blockHash.get(), traceOptions));
+  }
 }
@@ -19,6 +19,7 @@ import org.hyperledger.besu.ethereum.api.jsonrpc.internal.JsonRpcRequestContext;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.parameters.TransactionTraceParams;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.TransactionTracer;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcResponse;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcStreamingResponse;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcSuccessResponse;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.DebugTraceTransactionResult;
 import org.hyperledger.besu.ethereum.api.query.BlockchainQueries;
@@ -29,7 +30,7 @@ import org.hyperledger.besu.ethereum.vm.DebugOperationTracer;
 
 import java.util.Optional;
 
-public class DebugTraceTransaction implements JsonRpcMethod {
+public class DebugTraceTransaction implements StreamingJsonRpcMethod {
 
   private final TransactionTracer transactionTracer;
   private final BlockchainQueries blockchain;
@@ -66,6 +67,27 @@ public class DebugTraceTransaction implements JsonRpcMethod {
     }
   }
 
+  @Override
+  public JsonRpcResponse streamingResponse(final JsonRpcRequestContext requestContext) {
+    final Hash hash = requestContext.getRequiredParameter(0, Hash.class);
+    final Optional<TransactionWithMetadata> transactionWithMetadata =
+        blockchain.transactionByHash(hash);
+    if (transactionWithMetadata.isEmpty()) {
+      return new JsonRpcSuccessResponse(requestContext.getRequest().getId(), null);
+    }
+    final Hash blockHash = transactionWithMetadata.get().getBlockHash().get();
+    final TraceOptions traceOptions =
+        requestContext
+            .getOptionalParameter(1, TransactionTraceParams.class)
+            .map(TransactionTraceParams::traceOptions)
+            .orElse(TraceOptions.DEFAULT);
+    return new JsonRpcStreamingResponse(
+        requestContext.getRequest().getId(),
+        generator ->
+            StreamingDebugTraces.writeTransactionTrace(
+                generator, transactionTracer, blockHash, hash, traceOptions));
+  }
+
   private DebugTraceTransactionResult debugTraceTransactionResult(
       final Hash hash,
       final TransactionWithMetadata transactionWithMetadata,
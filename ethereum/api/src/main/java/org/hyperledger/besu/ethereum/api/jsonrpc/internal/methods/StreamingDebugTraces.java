@@ -0,0 +1,116 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.internal.methods;
+
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.BlockTrace;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.BlockTracer;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.TransactionTrace;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.TransactionTracer;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.StreamingStructLogTracer;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.debug.TraceOptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/** Writes debug traces as the transactions are replayed, for {@link StreamingJsonRpcMethod}s. */
+final class StreamingDebugTraces {
+
+  private StreamingDebugTraces() {}
+
+  /** Writes the same JSON as a {@code DebugTraceTransactionResult}, or null if not found. */
+  static void writeTransactionTrace(
+      final JsonGenerator generator,
+      final TransactionTracer transactionTracer,
+      final Hash blockHash,
+      final Hash transactionHash,
+      final TraceOptions traceOptions)
+      throws IOException {
+    final StreamingStructLogTracer tracer = new StreamingStructLogTracer(traceOptions, generator);
+    final Optional<TransactionTrace> trace =
+        transactionTracer.replayTransaction(blockHash, transactionHash, tracer);
+    if (trace.isPresent()) {
+      tracer.endTransaction(trace.get());
+    } else {
+      // Nothing was traced, so nothing has been written yet either.
+      generator.writeNull();
+    }
+  }
+
+  /** Writes the same JSON as a list of {@code DebugTraceTransactionResult}, or null if none. */
+  static void writeBlockTrace(
+      final JsonGenerator generator,
+      final BlockTracer blockTracer,
+      final Hash blockHash,
+      final TraceOptions traceOptions)
+      throws IOException {
+    final StreamingStructLogTracer tracer = new StreamingStructLogTracer(traceOptions, generator);
+    final TransactionTraceWriter transactionWriter = new TransactionTraceWriter(generator, tracer);
+    final Optional<BlockTrace> trace;
+    try {
+      trace = blockTracer.replay(blockHash, tracer, transactionWriter);
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+    if (trace.isPresent()) {
+      transactionWriter.startArray();
+      generator.writeEndArray();
+    } else {
+      generator.writeNull();
+    }
+  }
+
+  private static class TransactionTraceWriter implements BlockTracer.TransactionListener {
+    private final JsonGenerator generator;
+    private final StreamingStructLogTracer tracer;
+    private boolean arrayStarted = false;
+
+    private TransactionTraceWriter(
+        final JsonGenerator generator, final StreamingStructLogTracer tracer) {
+      this.generator = generator;
+      this.tracer = tracer;
+    }
+
+    // Only started once a transaction is replayed, as null is written if the block isn't found.
+    private void startArray() throws IOException {
+      if (!arrayStarted) {
+        generator.writeStartArray();
+        arrayStarted = true;
+      }
+    }
+
+    @Override
+    public void beforeTransaction(final Transaction transaction) {
+      try {
+        startArray();
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void afterTransaction(final TransactionTrace trace) {
+      try {
+        tracer.endTransaction(trace);
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.internal.methods;
+
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.JsonRpcRequestContext;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcResponse;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcStreamingResponse;
+
+/** A method whose results can be too large to build in memory before sending them. */
+public interface StreamingJsonRpcMethod extends JsonRpcMethod {
+
+  /**
+   * Applies the method to given request, for transports that can send the response as it is
+   * written.
+   *
+   * @param request input data for the JSON-RPC method.
+   * @return a {@link JsonRpcStreamingResponse} computing the result as it is written, or any other
+   *     response when there is no result to stream.
+   */
+  JsonRpcResponse streamingResponse(JsonRpcRequestContext request);
+}
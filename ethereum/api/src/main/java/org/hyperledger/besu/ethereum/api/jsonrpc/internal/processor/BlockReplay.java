@@ -15,36 +15,77 @@
 package org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor;
 
 import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.AbstractWorldUpdater;
+import org.hyperledger.besu.ethereum.core.AbstractWorldUpdater.StackedUpdater;
 import org.hyperledger.besu.ethereum.core.Block;
 import org.hyperledger.besu.ethereum.core.BlockBody;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSpec;
 import org.hyperledger.besu.ethereum.mainnet.TransactionProcessor;
 import org.hyperledger.besu.ethereum.mainnet.TransactionValidationParams;
 import org.hyperledger.besu.ethereum.vm.BlockHashLookup;
+import org.hyperledger.besu.ethereum.vm.OperationTracer;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 public class BlockReplay {
 
+  private static final int RECENT_BLOCKS = 8;
+
   private final ProtocolSchedule<?> protocolSchedule;
   private final Blockchain blockchain;
   private final WorldStateArchive worldStateArchive;
+  // Only created once a block is first replayed in parallel.
+  private final Supplier<ForkJoinPool> pool;
+  // The state before each transaction of recently replayed blocks, by block hash.
+  private final Cache<Hash, List<WorldUpdater>> recentTransactionPreStates =
+      CacheBuilder.newBuilder().maximumSize(RECENT_BLOCKS).softValues().build();
 
   public BlockReplay(
       final ProtocolSchedule<?> protocolSchedule,
       final Blockchain blockchain,
-      final WorldStateArchive worldStateArchive) {
+      final WorldStateArchive worldStateArchive,
+      final Supplier<ForkJoinPool> pool) {
     this.protocolSchedule = protocolSchedule;
     this.blockchain = blockchain;
     this.worldStateArchive = worldStateArchive;
+    this.pool = pool;
+  }
+
+  /**
+   * Creates a pool to replay transactions on in parallel, kept apart from the common pool so
+   * tracing requests don't hold up, or get held up by, the other work running there.
+   *
+   * @param threads the number of transactions replayed at the same time
+   * @return the new pool
+   */
+  public static ForkJoinPool createReplayPool(final int threads) {
+    return new ForkJoinPool(
+        threads,
+        forkJoinPool -> {
+          final ForkJoinWorkerThread thread =
+              ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+          thread.setName("BlockReplay-" + thread.getPoolIndex());
+          return thread;
+        },
+        null,
+        false);
   }
 
   public Optional<BlockTrace> block(
@@ -73,6 +114,108 @@ public class BlockReplay {
     return getBlock(blockHash).flatMap(block -> block(block, action));
   }
 
+  /**
+   * Performs an action for each transaction of a block, in parallel. The block is executed once
+   * to capture the state before each of its transactions, which is kept for a few recent blocks so
+   * replaying them again doesn't execute them again.
+   *
+   * @param block the block to replay
+   * @param action performed for each transaction, with an updater on top of the state before it.
+   *     The updater is only used by that action, but the state below it is shared, so the action
+   *     must not commit the updater it is given.
+   * @return the results of the action in the order of the transactions, or empty if the state to
+   *     replay the block from is unavailable
+   */
+  public Optional<BlockTrace> blockInParallel(
+      final Block block, final ParallelTransactionAction<TransactionTrace> action) {
+    final BlockHeader header = block.getHeader();
+    final List<Transaction> transactions = block.getBody().getTransactions();
+    final TransactionProcessor transactionProcessor =
+        protocolSchedule.getByBlockNumber(header.getNumber()).getTransactionProcessor();
+    final ForkJoinPool replayPool = pool.get();
+    return transactionPreStates(block)
+        .map(
+            preStates -> {
+              try {
+                return replayPool.submit(
+                        () ->
+                            IntStream.range(0, transactions.size())
+                                .parallel()
+                                .mapToObj(
+                                    i ->
+                                        action.performAction(
+                                            transactions.get(i),
+                                            header,
+                                            blockchain,
+                                            preStates.get(i).updater(),
+                                            transactionProcessor))
+                                .collect(Collectors.toList()))
+                    .join();
+              } catch (final RuntimeException e) {
+                // The state may have been pruned since, so don't keep failing on the same entry.
+                recentTransactionPreStates.invalidate(block.getHash());
+                throw e;
+              }
+            })
+        .map(BlockTrace::new);
+  }
+
+  public Optional<BlockTrace> blockInParallel(
+      final Hash blockHash, final ParallelTransactionAction<TransactionTrace> action) {
+    return getBlock(blockHash).flatMap(block -> blockInParallel(block, action));
+  }
+
+  private Optional<List<WorldUpdater>> transactionPreStates(final Block block) {
+    final List<WorldUpdater> cached = recentTransactionPreStates.getIfPresent(block.getHash());
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    final Optional<List<WorldUpdater>> preStates =
+        performActionWithBlock(
+            block.getHeader(),
+            block.getBody(),
+            (body, header, blockchain, mutableWorldState, transactionProcessor) ->
+                Optional.of(
+                    executeTransactions(
+                        body.getTransactions(),
+                        header,
+                        blockchain,
+                        mutableWorldState,
+                        transactionProcessor)));
+    preStates.ifPresent(states -> recentTransactionPreStates.put(block.getHash(), states));
+    return preStates;
+  }
+
+  private List<WorldUpdater> executeTransactions(
+      final List<Transaction> transactions,
+      final BlockHeader header,
+      final Blockchain blockchain,
+      final MutableWorldState mutableWorldState,
+      final TransactionProcessor transactionProcessor) {
+    final BlockHashLookup blockHashLookup = new BlockHashLookup(header, blockchain);
+    final List<WorldUpdater> preStates = new ArrayList<>(transactions.size());
+    // Each transaction is committed to its own updater, stacked on the ones of the transactions
+    // before it, so none of them change once the next transaction starts.
+    WorldUpdater chainedUpdater = mutableWorldState.updater();
+    for (final Transaction transaction : transactions) {
+      if (chainedUpdater instanceof AbstractWorldUpdater.StackedUpdater) {
+        ((StackedUpdater<?, ?>) chainedUpdater).markTransactionBoundary();
+      }
+      preStates.add(chainedUpdater);
+      chainedUpdater = chainedUpdater.updater();
+      transactionProcessor.processTransaction(
+          blockchain,
+          chainedUpdater,
+          header,
+          transaction,
+          header.getCoinbase(),
+          OperationTracer.NO_TRACING,
+          blockHashLookup,
+          false);
+    }
+    return preStates;
+  }
+
   public <T> Optional<T> beforeTransactionInBlock(
       final Hash blockHash, final Hash transactionHash, final TransactionAction<T> action) {
     return performActionWithBlock(
@@ -171,6 +314,16 @@ public class BlockReplay {
         TransactionProcessor transactionProcessor);
   }
 
+  @FunctionalInterface
+  public interface ParallelTransactionAction<T> {
+    T performAction(
+        Transaction transaction,
+        BlockHeader blockHeader,
+        Blockchain blockchain,
+        WorldUpdater worldUpdater,
+        TransactionProcessor transactionProcessor);
+  }
+
   @FunctionalInterface
   public interface TransactionAction<T> {
     T performAction(
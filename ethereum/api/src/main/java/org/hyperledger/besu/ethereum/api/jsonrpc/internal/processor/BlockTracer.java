@@ -14,18 +14,22 @@
  */
 package org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor;
 
-import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.BlockReplay.TransactionAction;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.BlockReplay.ParallelTransactionAction;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
 import org.hyperledger.besu.ethereum.core.AbstractWorldUpdater;
 import org.hyperledger.besu.ethereum.core.AbstractWorldUpdater.StackedUpdater;
 import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Transaction;
 import org.hyperledger.besu.ethereum.core.WorldUpdater;
-import org.hyperledger.besu.ethereum.debug.TraceFrame;
 import org.hyperledger.besu.ethereum.mainnet.TransactionProcessor;
 import org.hyperledger.besu.ethereum.vm.BlockHashLookup;
 import org.hyperledger.besu.ethereum.vm.DebugOperationTracer;
+import org.hyperledger.besu.ethereum.vm.OperationTracer;
 
-import java.util.List;
+import java.util.Collections;
 import java.util.Optional;
 
 /** Used to produce debug traces of blocks */
@@ -39,38 +43,103 @@ public class BlockTracer {
     this.blockReplay = blockReplay;
   }
 
+  /**
+   * Traces the transactions of a block in parallel, each with its own tracer using the options of
+   * the given one.
+   *
+   * @param blockHash the hash of the block to trace
+   * @param tracer the tracer whose options to trace with
+   * @return the trace of the block, or empty if it or the state to replay it is unavailable
+   */
   public Optional<BlockTrace> trace(final Hash blockHash, final DebugOperationTracer tracer) {
-    return blockReplay.block(blockHash, prepareReplayAction(tracer));
+    return blockReplay.blockInParallel(blockHash, prepareParallelReplayAction(tracer));
   }
 
   public Optional<BlockTrace> trace(final Block block, final DebugOperationTracer tracer) {
-    return blockReplay.block(block, prepareReplayAction(tracer));
+    return blockReplay.blockInParallel(block, prepareParallelReplayAction(tracer));
   }
 
-  private TransactionAction<TransactionTrace> prepareReplayAction(
+  /**
+   * Replays a block with a tracer that handles what it traces itself, so the returned traces have
+   * no frames.
+   *
+   * @param blockHash the hash of the block to replay
+   * @param tracer the tracer to execute the transactions with
+   * @param listener notified before and after each transaction is replayed
+   * @return the trace of the block, or empty if it or the state to replay it is unavailable
+   */
+  public Optional<BlockTrace> replay(
+      final Hash blockHash, final OperationTracer tracer, final TransactionListener listener) {
+    return blockReplay.block(
+        blockHash,
+        (transaction, header, blockchain, mutableWorldState, transactionProcessor) -> {
+          listener.beforeTransaction(transaction);
+          final TransactionTrace trace =
+              new TransactionTrace(
+                  transaction,
+                  processTransaction(
+                      transaction,
+                      header,
+                      blockchain,
+                      mutableWorldState,
+                      transactionProcessor,
+                      tracer),
+                  Collections.emptyList());
+          listener.afterTransaction(trace);
+          return trace;
+        });
+  }
+
+  private ParallelTransactionAction<TransactionTrace> prepareParallelReplayAction(
       final DebugOperationTracer tracer) {
-    return (transaction, header, blockchain, mutableWorldState, transactionProcessor) -> {
-      // if we have no prior updater, it must be the first TX, so use the block's initial state
-      if (chainedUpdater == null) {
-        chainedUpdater = mutableWorldState.updater();
-      } else if (chainedUpdater instanceof AbstractWorldUpdater.StackedUpdater) {
-        ((StackedUpdater) chainedUpdater).markTransactionBoundary();
-      }
-      // create an updater for just this tx
-      chainedUpdater = chainedUpdater.updater();
+    return (transaction, header, blockchain, worldUpdater, transactionProcessor) -> {
+      final DebugOperationTracer transactionTracer =
+          new DebugOperationTracer(tracer.getOptions());
       final TransactionProcessor.Result result =
           transactionProcessor.processTransaction(
               blockchain,
-              chainedUpdater,
+              worldUpdater,
               header,
               transaction,
               header.getCoinbase(),
-              tracer,
+              transactionTracer,
               new BlockHashLookup(header, blockchain),
               false);
-      final List<TraceFrame> traceFrames = tracer.copyTraceFrames();
-      tracer.reset();
-      return new TransactionTrace(transaction, result, traceFrames);
+      return new TransactionTrace(transaction, result, transactionTracer.getTraceFrames());
     };
   }
+
+  private TransactionProcessor.Result processTransaction(
+      final Transaction transaction,
+      final BlockHeader header,
+      final Blockchain blockchain,
+      final MutableWorldState mutableWorldState,
+      final TransactionProcessor transactionProcessor,
+      final OperationTracer tracer) {
+    // if we have no prior updater, it must be the first TX, so use the block's initial state
+    if (chainedUpdater == null) {
+      chainedUpdater = mutableWorldState.updater();
+    } else if (chainedUpdater instanceof AbstractWorldUpdater.StackedUpdater) {
+      ((StackedUpdater) chainedUpdater).markTransactionBoundary();
+    }
+    // create an updater for just this tx
+    chainedUpdater = chainedUpdater.updater();
+    return transactionProcessor.processTransaction(
+        blockchain,
+        chainedUpdater,
+        header,
+        transaction,
+        header.getCoinbase(),
+        tracer,
+        new BlockHashLookup(header, blockchain),
+        false);
+  }
+
+  /** Notified of each transaction replayed by {@link #replay}. */
+  public interface TransactionListener {
+
+    void beforeTransaction(Transaction transaction);
+
+    void afterTransaction(TransactionTrace trace);
+  }
 }
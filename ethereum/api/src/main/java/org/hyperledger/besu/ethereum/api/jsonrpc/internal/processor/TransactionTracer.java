@@ -18,7 +18,9 @@ import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.mainnet.TransactionProcessor.Result;
 import org.hyperledger.besu.ethereum.vm.BlockHashLookup;
 import org.hyperledger.besu.ethereum.vm.DebugOperationTracer;
+import org.hyperledger.besu.ethereum.vm.OperationTracer;
 
+import java.util.Collections;
 import java.util.Optional;
 
 /** Used to produce debug traces of transactions */
@@ -32,6 +34,24 @@ public class TransactionTracer {
 
   public Optional<TransactionTrace> traceTransaction(
       final Hash blockHash, final Hash transactionHash, final DebugOperationTracer tracer) {
+    return replayTransaction(blockHash, transactionHash, tracer)
+        .map(
+            trace ->
+                new TransactionTrace(
+                    trace.getTransaction(), trace.getResult(), tracer.getTraceFrames()));
+  }
+
+  /**
+   * Replays a transaction with a tracer that handles what it traces itself, so the returned trace
+   * has no frames.
+   *
+   * @param blockHash the hash of the block containing the transaction
+   * @param transactionHash the hash of the transaction to replay
+   * @param tracer the tracer to execute the transaction with
+   * @return the trace of the transaction, or empty if it or the state to replay it is unavailable
+   */
+  public Optional<TransactionTrace> replayTransaction(
+      final Hash blockHash, final Hash transactionHash, final OperationTracer tracer) {
     return blockReplay.beforeTransactionInBlock(
         blockHash,
         transactionHash,
@@ -46,7 +66,7 @@ public class TransactionTracer {
                   tracer,
                   new BlockHashLookup(header, blockchain),
                   false);
-          return new TransactionTrace(transaction, result, tracer.getTraceFrames());
+          return new TransactionTrace(transaction, result, Collections.emptyList());
         });
   }
 }
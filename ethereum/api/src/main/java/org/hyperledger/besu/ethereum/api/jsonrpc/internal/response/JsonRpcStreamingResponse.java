@@ -0,0 +1,70 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.internal.response;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * A successful response whose result is computed while it is being written, so that large results
+ * can be sent as they are produced instead of being held in memory first.
+ */
+public class JsonRpcStreamingResponse implements JsonRpcResponse {
+
+  private final Object id;
+  private final ResultWriter resultWriter;
+
+  public JsonRpcStreamingResponse(final Object id, final ResultWriter resultWriter) {
+    this.id = id;
+    this.resultWriter = resultWriter;
+  }
+
+  public Object getId() {
+    return id;
+  }
+
+  @Override
+  public JsonRpcResponseType getType() {
+    return JsonRpcResponseType.SUCCESS;
+  }
+
+  /**
+   * Writes the whole response, computing its result along the way.
+   *
+   * @param generator the generator to write the response to
+   * @throws IOException if writing the response failed
+   */
+  public void writeTo(final JsonGenerator generator) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("jsonrpc", getVersion());
+    generator.writeObjectField("id", id);
+    generator.writeFieldName("result");
+    resultWriter.writeResult(generator);
+    generator.writeEndObject();
+  }
+
+  @FunctionalInterface
+  public interface ResultWriter {
+
+    /**
+     * Writes a single JSON value.
+     *
+     * @param generator the generator to write the value to
+     * @throws IOException if writing the value failed
+     */
+    void writeResult(JsonGenerator generator) throws IOException;
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.internal.results;
+
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.TransactionTrace;
+import org.hyperledger.besu.ethereum.core.Gas;
+import org.hyperledger.besu.ethereum.core.ModificationNotAllowedException;
+import org.hyperledger.besu.ethereum.debug.TraceOptions;
+import org.hyperledger.besu.ethereum.vm.ExceptionalHaltReason;
+import org.hyperledger.besu.ethereum.vm.MessageFrame;
+import org.hyperledger.besu.ethereum.vm.OperationTracer;
+import org.hyperledger.besu.ethereum.vm.ehalt.ExceptionalHaltException;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * Writes the same JSON as {@link DebugTraceTransactionResult} for each transaction it traces, but
+ * writes each struct log as soon as its operation is executed instead of keeping a {@link
+ * org.hyperledger.besu.ethereum.debug.TraceFrame} for every operation until the transaction is
+ * done. The stack, memory and storage are read straight from the message frame while being written,
+ * so the memory held doesn't grow with the number of operations.
+ *
+ * <p>The struct logs are written first, as they are produced, followed by the gas used, whether
+ * the transaction failed and its return value.
+ */
+public class StreamingStructLogTracer implements OperationTracer {
+
+  private static final UInt256 UINT256_32 = UInt256.valueOf(32);
+
+  private final TraceOptions options;
+  private final JsonGenerator generator;
+  private boolean transactionStarted = false;
+  // Writing can fail while tracing, where it can't be reported, so it is thrown once done instead.
+  private IOException writeFailure;
+
+  public StreamingStructLogTracer(final TraceOptions options, final JsonGenerator generator) {
+    this.options = options;
+    this.generator = generator;
+  }
+
+  @Override
+  public void traceExecution(
+      final MessageFrame frame,
+      final Optional<Gas> currentGasCost,
+      final ExecuteOperation executeOperation)
+      throws ExceptionalHaltException {
+    final EnumSet<ExceptionalHaltReason> exceptionalHaltReasons =
+        EnumSet.copyOf(frame.getExceptionalHaltReasons());
+    if (writeFailure == null) {
+      try {
+        startTransaction();
+        generator.writeStartObject();
+        generator.writeNumberField("pc", frame.getPC());
+        generator.writeStringField("op", frame.getCurrentOperation().getName());
+        generator.writeNumberField("gas", frame.getRemainingGas().toLong());
+        generator.writeNumberField("gasCost", currentGasCost.map(Gas::toLong).orElse(0L));
+        generator.writeNumberField("depth", frame.getMessageStackDepth() + 1);
+        writeStack(frame);
+      } catch (final IOException e) {
+        writeFailure = e;
+      }
+    }
+    try {
+      executeOperation.execute();
+    } finally {
+      if (writeFailure == null) {
+        try {
+          writeMemory(frame);
+          writeStorage(frame);
+          generator.writeFieldName("reason");
+          writeHexOrNull(frame.getRevertReason());
+          if (!exceptionalHaltReasons.isEmpty()) {
+            generator.writeArrayFieldStart("error");
+            for (final ExceptionalHaltReason reason : exceptionalHaltReasons) {
+              generator.writeString(reason.name());
+            }
+            generator.writeEndArray();
+          }
+          generator.writeEndObject();
+        } catch (final IOException e) {
+          writeFailure = e;
+        }
+      }
+    }
+    frame.reset();
+  }
+
+  /**
+   * Completes the JSON of a traced transaction.
+   *
+   * @param trace the trace of the transaction, without frames
+   * @throws IOException if writing the transaction, or any of its struct logs, failed
+   */
+  public void endTransaction(final TransactionTrace trace) throws IOException {
+    if (writeFailure != null) {
+      throw writeFailure;
+    }
+    startTransaction();
+    generator.writeEndArray();
+    generator.writeNumberField("gas", trace.getGas());
+    generator.writeBooleanField("failed", !trace.getResult().isSuccessful());
+    generator.writeStringField(
+        "returnValue", trace.getResult().getOutput().toString().substring(2));
+    generator.writeEndObject();
+    transactionStarted = false;
+  }
+
+  private void startTransaction() throws IOException {
+    if (!transactionStarted) {
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("structLogs");
+      transactionStarted = true;
+    }
+  }
+
+  private void writeStack(final MessageFrame frame) throws IOException {
+    generator.writeFieldName("stack");
+    if (!options.isStackEnabled()) {
+      generator.writeNull();
+      return;
+    }
+    generator.writeStartArray();
+    // Bottom of the stack first
+    for (int i = frame.stackSize() - 1; i >= 0; i--) {
+      generator.writeString(frame.getStackItem(i).toShortHexString());
+    }
+    generator.writeEndArray();
+  }
+
+  private void writeMemory(final MessageFrame frame) throws IOException {
+    generator.writeFieldName("memory");
+    if (!options.isMemoryEnabled()) {
+      generator.writeNull();
+      return;
+    }
+    generator.writeStartArray();
+    final int wordCount = frame.memoryWordSize().intValue();
+    for (int i = 0; i < wordCount; i++) {
+      generator.writeString(
+          frame.readMemory(UInt256.valueOf(i * 32L), UINT256_32).toShortHexString());
+    }
+    generator.writeEndArray();
+  }
+
+  private void writeStorage(final MessageFrame frame) throws IOException {
+    generator.writeFieldName("storage");
+    if (!options.isStorageEnabled()) {
+      generator.writeNull();
+      return;
+    }
+    Map<UInt256, UInt256> storage;
+    try {
+      storage =
+          new TreeMap<>(
+              frame
+                  .getWorldState()
+                  .getAccount(frame.getRecipientAddress())
+                  .getMutable()
+                  .getUpdatedStorage());
+    } catch (final ModificationNotAllowedException e) {
+      storage = Map.of();
+    }
+    generator.writeStartObject();
+    for (final Map.Entry<UInt256, UInt256> entry : storage.entrySet()) {
+      generator.writeStringField(
+          entry.getKey().toBytes().toUnprefixedHexString(),
+          entry.getValue().toBytes().toUnprefixedHexString());
+    }
+    generator.writeEndObject();
+  }
+
+  private void writeHexOrNull(final Optional<Bytes> value) throws IOException {
+    if (value.isPresent()) {
+      generator.writeString(value.get().toShortHexString());
+    } else {
+      generator.writeNull();
+    }
+  }
+}
@@ -33,20 +33,25 @@ import org.hyperledger.besu.ethereum.mainnet.ScheduleBasedBlockHeaderFunctions;
 import org.hyperledger.besu.metrics.ObservableMetricsSystem;
 
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 public class DebugJsonRpcMethods extends ApiGroupJsonRpcMethods {
 
   private final BlockchainQueries blockchainQueries;
   private final ProtocolSchedule<?> protocolSchedule;
   private final ObservableMetricsSystem metricsSystem;
+  private final Supplier<ForkJoinPool> replayPool;
 
   DebugJsonRpcMethods(
       final BlockchainQueries blockchainQueries,
       final ProtocolSchedule<?> protocolSchedule,
-      final ObservableMetricsSystem metricsSystem) {
+      final ObservableMetricsSystem metricsSystem,
+      final Supplier<ForkJoinPool> replayPool) {
     this.blockchainQueries = blockchainQueries;
     this.protocolSchedule = protocolSchedule;
     this.metricsSystem = metricsSystem;
+    this.replayPool = replayPool;
   }
 
   @Override
@@ -60,7 +65,8 @@ public class DebugJsonRpcMethods extends ApiGroupJsonRpcMethods {
         new BlockReplay(
             protocolSchedule,
             blockchainQueries.getBlockchain(),
-            blockchainQueries.getWorldStateArchive());
+            blockchainQueries.getWorldStateArchive(),
+            replayPool);
 
     return mapOf(
         new DebugTraceTransaction(blockchainQueries, new TransactionTracer(blockReplay)),
@@ -24,16 +24,22 @@ import org.hyperledger.besu.ethereum.api.query.BlockchainQueries;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 public class TraceJsonRpcMethods extends ApiGroupJsonRpcMethods {
 
   private final BlockchainQueries blockchainQueries;
   private final ProtocolSchedule<?> protocolSchedule;
+  private final Supplier<ForkJoinPool> replayPool;
 
   TraceJsonRpcMethods(
-      final BlockchainQueries blockchainQueries, final ProtocolSchedule<?> protocolSchedule) {
+      final BlockchainQueries blockchainQueries,
+      final ProtocolSchedule<?> protocolSchedule,
+      final Supplier<ForkJoinPool> replayPool) {
     this.blockchainQueries = blockchainQueries;
     this.protocolSchedule = protocolSchedule;
+    this.replayPool = replayPool;
   }
 
   @Override
@@ -48,7 +54,8 @@ public class TraceJsonRpcMethods extends ApiGroupJsonRpcMethods {
         new BlockReplay(
             protocolSchedule,
             blockchainQueries.getBlockchain(),
-            blockchainQueries.getWorldStateArchive());
+            blockchainQueries.getWorldStateArchive(),
+            replayPool);
     return mapOf(
         new TraceReplayBlockTransactions(() -> new BlockTracer(blockReplay), blockchainQueries));
   }
@@ -15,10 +15,13 @@
 package org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription;
 
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.JsonRpcResult;
+import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.logs.LogsSubscription;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request.SubscribeRequest;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request.SubscriptionType;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request.UnsubscribeRequest;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.response.SubscriptionResponse;
+import org.hyperledger.besu.ethereum.api.query.LogsQueryIndex;
+import org.hyperledger.besu.ethereum.core.Log;
 import org.hyperledger.besu.metrics.BesuMetricCategory;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.metrics.Counter;
@@ -51,6 +54,7 @@ public class SubscriptionManager extends AbstractVerticle {
   private final AtomicLong subscriptionCounter = new AtomicLong(0);
   private final Map<Long, Subscription> subscriptions = new ConcurrentHashMap<>();
   private final SubscriptionBuilder subscriptionBuilder = new SubscriptionBuilder();
+  private final LogsQueryIndex<LogsSubscription> logsSubscriptions = new LogsQueryIndex<>();
   private final LabelledMetric<Counter> subscribeCounter;
   private final LabelledMetric<Counter> unsubscribeCounter;
 
@@ -82,6 +86,10 @@ public class SubscriptionManager extends AbstractVerticle {
     final Subscription subscription =
         subscriptionBuilder.build(subscriptionId, request.getConnectionId(), request);
     subscriptions.put(subscription.getSubscriptionId(), subscription);
+    if (subscription instanceof LogsSubscription) {
+      final LogsSubscription logsSubscription = (LogsSubscription) subscription;
+      logsSubscriptions.add(logsSubscription, logsSubscription.getLogsQuery());
+    }
 
     return subscription.getSubscriptionId();
   }
@@ -104,6 +112,9 @@ public class SubscriptionManager extends AbstractVerticle {
 
   private void destroySubscription(final long subscriptionId) {
     final Subscription removed = subscriptions.remove(subscriptionId);
+    if (removed instanceof LogsSubscription) {
+      logsSubscriptions.remove((LogsSubscription) removed);
+    }
     if (removed != null) {
       unsubscribeCounter.labels(removed.getSubscriptionType().getCode()).inc();
     }
@@ -133,6 +144,18 @@ public class SubscriptionManager extends AbstractVerticle {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Calls the consumer for each logs subscription matching the log, found from an index of their
+   * addresses and topics rather than by checking every subscription.
+   *
+   * @param log the log to find the subscriptions for
+   * @param consumer called with each matching subscription
+   */
+  public void forEachLogsSubscriptionMatching(
+      final Log log, final Consumer<LogsSubscription> consumer) {
+    logsSubscriptions.forEachMatch(log, consumer);
+  }
+
   public void sendMessage(final Long subscriptionId, final JsonRpcResult msg) {
     final SubscriptionResponse response = new SubscriptionResponse(subscriptionId, msg);
 
@@ -16,7 +16,6 @@ package org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.logs;
 
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.LogResult;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.SubscriptionManager;
-import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.request.SubscriptionType;
 import org.hyperledger.besu.ethereum.core.LogWithMetadata;
 
 import java.util.function.Consumer;
@@ -31,11 +30,10 @@ public class LogsSubscriptionService implements Consumer<LogWithMetadata> {
 
   @Override
   public void accept(final LogWithMetadata logWithMetadata) {
-    subscriptionManager.subscriptionsOfType(SubscriptionType.LOGS, LogsSubscription.class).stream()
-        .filter(logsSubscription -> logsSubscription.getLogsQuery().matches(logWithMetadata))
-        .forEach(
-            logsSubscription ->
-                subscriptionManager.sendMessage(
-                    logsSubscription.getSubscriptionId(), new LogResult(logWithMetadata)));
+    subscriptionManager.forEachLogsSubscriptionMatching(
+        logWithMetadata,
+        logsSubscription ->
+            subscriptionManager.sendMessage(
+                logsSubscription.getSubscriptionId(), new LogResult(logWithMetadata)));
   }
 }
@@ -26,7 +26,6 @@ import org.hyperledger.besu.ethereum.core.BlockBody;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.LogWithMetadata;
-import org.hyperledger.besu.ethereum.core.LogsBloomFilter;
 import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.Transaction;
 import org.hyperledger.besu.ethereum.core.TransactionReceipt;
@@ -35,33 +34,35 @@ import org.hyperledger.besu.ethereum.core.WorldState;
 import org.hyperledger.besu.ethereum.eth.manager.EthScheduler;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
 
-import java.io.EOFException;
-import java.io.IOException;
-import java.io.RandomAccessFile;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.Lists;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt256;
 
 public class BlockchainQueries {
-  private static final Logger LOG = LogManager.getLogger();
+  private static final int RECEIPTS_BATCH_SIZE = 64;
 
   private final WorldStateArchive worldStateArchive;
   private final Blockchain blockchain;
   private final Optional<Path> cachePath;
   private final Optional<TransactionLogBloomCacher> transactionLogBloomCacher;
+  // Only started once a query spans several segments of the log bloom cache.
+  private final Supplier<ForkJoinPool> logsQueryPool =
+      Suppliers.memoize(BlockchainQueries::createLogsQueryPool);
 
   public BlockchainQueries(final Blockchain blockchain, final WorldStateArchive worldStateArchive) {
     this(blockchain, worldStateArchive, Optional.empty(), Optional.empty());
@@ -184,7 +185,7 @@ public class BlockchainQueries {
   public Integer getTransactionCount(final Hash blockHeaderHash) {
     return blockchain
         .getBlockBody(blockHeaderHash)
-        .map(body -> body.getTransactions().size())
+        .map(BlockBody::getTransactionCount)
         .orElse(-1);
   }
 
@@ -360,10 +361,7 @@ public class BlockchainQueries {
                                 .getTotalDifficultyByHash(blockHeaderHash)
                                 .map(
                                     (td) -> {
-                                      final List<Hash> txs =
-                                          body.getTransactions().stream()
-                                              .map(Transaction::getHash)
-                                              .collect(Collectors.toList());
+                                      final List<Hash> txs = body.getTransactionHashes();
                                       final List<Hash> ommers =
                                           body.getOmmers().stream()
                                               .map(BlockHeader::getHash)
@@ -529,79 +527,119 @@ public class BlockchainQueries {
    */
   public List<LogWithMetadata> matchingLogs(
       final long fromBlockNumber, final long toBlockNumber, final LogsQuery query) {
-    final List<LogWithMetadata> result = new ArrayList<>();
-    final long startSegment = fromBlockNumber / BLOCKS_PER_BLOOM_CACHE;
-    final long endSegment = toBlockNumber / BLOCKS_PER_BLOOM_CACHE;
-    long currentStep = fromBlockNumber;
-    for (long segment = startSegment; segment <= endSegment; segment++) {
-      final long thisSegment = segment;
-      final long thisStep = currentStep;
-      final long nextStep = (segment + 1) * BLOCKS_PER_BLOOM_CACHE;
-      result.addAll(
-          cachePath
-              .map(path -> path.resolve("logBloom-" + thisSegment + ".cache"))
-              .filter(Files::isRegularFile)
-              .map(
-                  cacheFile ->
-                      matchingLogsCached(
-                          thisSegment * BLOCKS_PER_BLOOM_CACHE,
-                          thisStep % BLOCKS_PER_BLOOM_CACHE,
-                          Math.min(toBlockNumber, nextStep - 1) % BLOCKS_PER_BLOOM_CACHE,
-                          query,
-                          cacheFile))
-              .orElseGet(
-                  () ->
-                      matchingLogsUncached(
-                          thisStep,
-                          Math.min(toBlockNumber, Math.min(toBlockNumber, nextStep - 1)),
-                          query)));
-      currentStep = nextStep;
+    final long fromSegment = fromBlockNumber / BLOCKS_PER_BLOOM_CACHE;
+    final long toSegment = toBlockNumber / BLOCKS_PER_BLOOM_CACHE;
+    // Segments are scanned in parallel on a pool of their own, so long ranges don't hold up the
+    // other work on the common pool, while the receipts of the candidates are read in batches.
+    final List<Hash> candidateBlockHashes =
+        fromSegment == toSegment
+            ? candidateBlockHashes(fromSegment, fromBlockNumber, toBlockNumber, query)
+            : logsQueryPool
+                .get()
+                .submit(
+                    () ->
+                        candidateBlockHashesInParallel(
+                            fromSegment, toSegment, fromBlockNumber, toBlockNumber, query))
+                .join();
+    return Lists.partition(candidateBlockHashes, RECEIPTS_BATCH_SIZE).stream()
+        .flatMap(batch -> matchingLogs(batch, query).stream())
+        .collect(Collectors.toList());
+  }
+
+  private List<Hash> candidateBlockHashesInParallel(
+      final long fromSegment,
+      final long toSegment,
+      final long fromBlockNumber,
+      final long toBlockNumber,
+      final LogsQuery query) {
+    return LongStream.rangeClosed(fromSegment, toSegment)
+        .parallel()
+        .mapToObj(
+            segment ->
+                candidateBlockHashes(
+                    segment,
+                    Math.max(fromBlockNumber, segment * BLOCKS_PER_BLOOM_CACHE),
+                    Math.min(toBlockNumber, (segment + 1) * BLOCKS_PER_BLOOM_CACHE - 1),
+                    query))
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+  }
+
+  private static ForkJoinPool createLogsQueryPool() {
+    return new ForkJoinPool(
+        Runtime.getRuntime().availableProcessors(),
+        forkJoinPool -> {
+          final ForkJoinWorkerThread thread =
+              ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+          thread.setName("LogsQuery-" + thread.getPoolIndex());
+          return thread;
+        },
+        null,
+        false);
+  }
+
+  private List<Hash> candidateBlockHashes(
+      final long segment,
+      final long fromBlockNumber,
+      final long toBlockNumber,
+      final LogsQuery query) {
+    // The cacher knows when segments change so keeps them mapped, otherwise each query maps them.
+    final Optional<LogBloomCacheSegment> cachedSegment =
+        transactionLogBloomCacher.isPresent()
+            ? transactionLogBloomCacher.get().getSegment(segment)
+            : cachePath.flatMap(path -> LogBloomCacheSegment.open(path, segment));
+    if (cachedSegment.isEmpty()) {
+      return candidateBlockHashesUncached(fromBlockNumber, toBlockNumber, query);
     }
-    return result;
+    final long segmentStart = segment * BLOCKS_PER_BLOOM_CACHE;
+    final List<Hash> candidateBlockHashes = new ArrayList<>();
+    cachedSegment
+        .get()
+        .forEachCandidate(
+            (int) (fromBlockNumber - segmentStart),
+            (int) (toBlockNumber - segmentStart),
+            query,
+            offset ->
+                blockchain
+                    .getBlockHashByNumber(segmentStart + offset)
+                    .ifPresent(candidateBlockHashes::add));
+    // The blooms of the latest blocks of the segment may not be cached yet.
+    final long firstUncachedBlock = segmentStart + cachedSegment.get().size();
+    candidateBlockHashes.addAll(
+        candidateBlockHashesUncached(
+            Math.max(fromBlockNumber, firstUncachedBlock), toBlockNumber, query));
+    return candidateBlockHashes;
   }
 
-  private List<LogWithMetadata> matchingLogsUncached(
+  private List<Hash> candidateBlockHashesUncached(
       final long fromBlockNumber, final long toBlockNumber, final LogsQuery query) {
     // rangeClosed handles the inverted from/to situations automatically with zero results.
     return LongStream.rangeClosed(fromBlockNumber, toBlockNumber)
         .mapToObj(blockchain::getBlockHeader)
-        // Use takeWhile instead of clamping on toBlockNumber/headBlockNumber because it may get an
-        // extra block or two for a query that has a toBlockNumber past chain head.  Similarly this
-        // handles the case when fromBlockNumber is past chain head.
+        // Use takeWhile instead of clamping on toBlockNumber/headBlockNumber because it may get
+        // an extra block or two for a query that has a toBlockNumber past chain head. Similarly
+        // this handles the case when fromBlockNumber is past chain head.
         .takeWhile(Optional::isPresent)
         .map(Optional::get)
         .filter(header -> query.couldMatch(header.getLogsBloom()))
-        .flatMap(header -> matchingLogs(header.getHash(), query).stream())
+        .map(BlockHeader::getHash)
         .collect(Collectors.toList());
   }
 
-  private List<LogWithMetadata> matchingLogsCached(
-      final long segmentStart,
-      final long offset,
-      final long endOffset,
-      final LogsQuery query,
-      final Path cacheFile) {
+  private List<LogWithMetadata> matchingLogs(final List<Hash> blockHashes, final LogsQuery query) {
+    if (blockHashes.isEmpty()) {
+      return Collections.emptyList();
+    }
     final List<LogWithMetadata> results = new ArrayList<>();
-    try (final RandomAccessFile raf = new RandomAccessFile(cacheFile.toFile(), "r")) {
-      raf.seek(offset * 256);
-      final byte[] bloomBuff = new byte[256];
-      final Bytes bytesValue = Bytes.wrap(bloomBuff);
-      for (long pos = offset; pos <= endOffset; pos++) {
-        try {
-          raf.readFully(bloomBuff);
-        } catch (final EOFException e) {
-          break;
-        }
-        final LogsBloomFilter logsBloom = new LogsBloomFilter(bytesValue);
-        if (query.couldMatch(logsBloom)) {
-          results.addAll(
-              matchingLogs(
-                  blockchain.getBlockHashByNumber(segmentStart + pos).orElseThrow(), query));
-        }
+    final List<Optional<List<TransactionReceipt>>> receipts =
+        blockchain.getAllTxReceipts(blockHashes);
+    for (int i = 0; i < blockHashes.size(); i++) {
+      final Hash blockHash = blockHashes.get(i);
+      final Optional<BlockHeader> blockHeader = blockchain.getBlockHeader(blockHash);
+      if (blockHeader.isPresent()) {
+        // receipts should exist if the header exists, so throwing is ok.
+        results.addAll(matchingLogs(blockHeader.get(), receipts.get(i).orElseThrow(), query));
       }
-    } catch (final IOException e) {
-      e.printStackTrace(System.out);
-      LOG.error("Error reading cached log blooms", e);
     }
     return results;
   }
@@ -613,9 +651,17 @@ public class BlockchainQueries {
     }
     // receipts and transactions should exist if the header exists, so throwing is ok.
     final List<TransactionReceipt> receipts = blockchain.getTxReceipts(blockHash).orElseThrow();
+    return matchingLogs(blockHeader.get(), receipts, query);
+  }
+
+  private List<LogWithMetadata> matchingLogs(
+      final BlockHeader blockHeader,
+      final List<TransactionReceipt> receipts,
+      final LogsQuery query) {
+    final Hash blockHash = blockHeader.getHash();
     final List<Transaction> transactions =
         blockchain.getBlockBody(blockHash).orElseThrow().getTransactions();
-    final long number = blockHeader.get().getNumber();
+    final long number = blockHeader.getNumber();
     final boolean removed = !blockchain.blockIsOnCanonicalChain(blockHash);
     return IntStream.range(0, receipts.size())
         .mapToObj(
@@ -0,0 +1,190 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.query;
+
+import static org.hyperledger.besu.ethereum.api.query.TransactionLogBloomCacher.BLOCKS_PER_BLOOM_CACHE;
+
+import org.hyperledger.besu.ethereum.core.LogTopic;
+import org.hyperledger.besu.ethereum.core.LogsBloomFilter;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * The logs blooms of a segment of the log bloom cache stored bit by bit: for each of the bits of a
+ * bloom, a bitset of the blocks of the segment whose bloom has it set.
+ *
+ * <p>A value is in a bloom if the bits it sets are all set, so the blocks whose bloom could match
+ * a query are found by combining the bitsets of the bits of its addresses and topics, a word of 64
+ * blocks at a time, rather than checking the bloom of each block.
+ */
+class LogBloomBitSlices {
+
+  private static final int BLOOM_BITS = LogsBloomFilter.BYTE_SIZE * Byte.SIZE;
+  private static final int SLICE_SIZE =
+      (BLOCKS_PER_BLOOM_CACHE + Long.SIZE - 1) / Long.SIZE * Long.BYTES;
+  static final int FILE_SIZE = BLOOM_BITS * SLICE_SIZE;
+
+  private final ByteBuffer slices;
+
+  private LogBloomBitSlices(final ByteBuffer slices) {
+    this.slices = slices.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  static Path file(final Path cacheDir, final long segment) {
+    return cacheDir.resolve("logBloomBits-" + segment + ".cache");
+  }
+
+  /**
+   * Maps the bit slices of a segment.
+   *
+   * @param cacheDir the log bloom cache directory
+   * @param segment the segment number
+   * @return the bit slices, or empty if the segment was cached without them
+   * @throws IOException if the file can't be mapped
+   */
+  static Optional<LogBloomBitSlices> open(final Path cacheDir, final long segment)
+      throws IOException {
+    final Path file = file(cacheDir, segment);
+    if (!Files.isRegularFile(file) || Files.size(file) != FILE_SIZE) {
+      return Optional.empty();
+    }
+    return Optional.of(new LogBloomBitSlices(LogBloomCacheSegment.map(file)));
+  }
+
+  /**
+   * Calls the consumer with the offset in the segment of each block from {@code fromOffset} to
+   * {@code toOffset} whose bloom could match the query, in order.
+   *
+   * @param fromOffset the offset of the first block to check (inclusive)
+   * @param toOffset the offset of the last block to check (inclusive)
+   * @param query the query to match
+   * @param consumer called with the offset of each block that could match
+   */
+  void forEachCandidate(
+      final int fromOffset, final int toOffset, final LogsQuery query, final IntConsumer consumer) {
+    if (fromOffset > toOffset) {
+      return;
+    }
+    // Each clause holds alternatives, one of which must be in the bloom, each given by its bits.
+    final int[][][] clauses = clauses(query);
+    final int lastWord = toOffset / Long.SIZE;
+    for (int word = fromOffset / Long.SIZE; word <= lastWord; word++) {
+      long candidates = -1L;
+      if (word == fromOffset / Long.SIZE) {
+        candidates &= -1L << (fromOffset % Long.SIZE);
+      }
+      if (word == lastWord) {
+        candidates &= -1L >>> (Long.SIZE - 1 - toOffset % Long.SIZE);
+      }
+      for (int clause = 0; clause < clauses.length && candidates != 0; clause++) {
+        long anyAlternative = 0;
+        for (final int[] bits : clauses[clause]) {
+          long allBits = -1L;
+          for (final int bit : bits) {
+            allBits &= slices.getLong(bit * SLICE_SIZE + word * Long.BYTES);
+          }
+          anyAlternative |= allBits;
+        }
+        candidates &= anyAlternative;
+      }
+      while (candidates != 0) {
+        consumer.accept(word * Long.SIZE + Long.numberOfTrailingZeros(candidates));
+        candidates &= candidates - 1;
+      }
+    }
+  }
+
+  private static int[][][] clauses(final LogsQuery query) {
+    final List<int[][]> clauses = new ArrayList<>();
+    if (!query.getAddresses().isEmpty()) {
+      clauses.add(query.getAddresses().stream().map(LogBloomBitSlices::bits).toArray(int[][]::new));
+    }
+    for (final List<LogTopic> topics : query.getTopics()) {
+      // A null topic matches any topic at its position.
+      if (!topics.isEmpty() && !topics.contains(null)) {
+        clauses.add(topics.stream().map(LogBloomBitSlices::bits).toArray(int[][]::new));
+      }
+    }
+    return clauses.toArray(new int[0][][]);
+  }
+
+  private static int[] bits(final Bytes value) {
+    final byte[] bloom = LogsBloomFilter.builder().insertBytes(value).build().toArrayUnsafe();
+    return IntStream.range(0, BLOOM_BITS).filter(bit -> isSet(bloom, bit)).toArray();
+  }
+
+  private static boolean isSet(final byte[] bloom, final int bit) {
+    return (bloom[bit / Byte.SIZE] & (1 << (bit % Byte.SIZE))) != 0;
+  }
+
+  /**
+   * Sets the bits of a block's bloom in the bit slices of a segment held in memory, in which its
+   * bits are all cleared.
+   *
+   * @param slices the contents of a bit slices file
+   * @param offset the offset of the block in its segment
+   * @param bloom the block's logs bloom
+   */
+  static void addToSlices(final byte[] slices, final int offset, final byte[] bloom) {
+    for (int bit = 0; bit < BLOOM_BITS; bit++) {
+      if (isSet(bloom, bit)) {
+        slices[bit * SLICE_SIZE + offset / Byte.SIZE] |= (byte) (1 << (offset % Byte.SIZE));
+      }
+    }
+  }
+
+  /**
+   * Writes a block's bloom to the bit slices of a segment in its bit slices file, replacing the
+   * bloom previously written for the block if any.
+   *
+   * @param file the bit slices file, which is created if it doesn't exist
+   * @param offset the offset of the block in its segment
+   * @param bloom the block's logs bloom
+   * @throws IOException if the bit slices file can't be updated
+   */
+  static void writeToFile(final Path file, final int offset, final byte[] bloom)
+      throws IOException {
+    try (final RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      if (raf.length() < FILE_SIZE) {
+        raf.setLength(FILE_SIZE);
+      }
+      // The block has one bit in each slice, so only the bytes holding them are read and written
+      // rather than mapping the whole file. Most are left unchanged for a block with few logs.
+      final int mask = 1 << (offset % Byte.SIZE);
+      for (int bit = 0; bit < BLOOM_BITS; bit++) {
+        final long position = (long) bit * SLICE_SIZE + offset / Byte.SIZE;
+        raf.seek(position);
+        final int current = raf.readUnsignedByte();
+        final int updated = isSet(bloom, bit) ? current | mask : current & ~mask;
+        if (updated != current) {
+          raf.seek(position);
+          raf.write(updated);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.query;
+
+import static org.hyperledger.besu.ethereum.api.query.TransactionLogBloomCacher.BLOCKS_PER_BLOOM_CACHE;
+
+import org.hyperledger.besu.ethereum.core.LogsBloomFilter;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.IntConsumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * A segment of the log bloom cache, memory mapped to find the blocks whose logs could match a
+ * query.
+ *
+ * <p>The blooms file of a segment holds the logs bloom of each of its blocks in order. Its summary
+ * file holds, for each group of {@code BLOCKS_PER_SUMMARY} blocks, the union of their blooms, from
+ * the largest groups to the smallest, so that whole groups that can't match are skipped. A summary
+ * may match blocks that no longer do but never misses one, and a segment without a complete
+ * summary file has every bloom checked.
+ *
+ * <p>Segments cached with {@link LogBloomBitSlices} are searched with them instead, the blooms file
+ * then only telling how many of the blocks of the segment are cached.
+ */
+class LogBloomCacheSegment {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int[] BLOCKS_PER_SUMMARY = {10_000, 1_000};
+  private static final int[] SUMMARY_LEVEL_START = new int[BLOCKS_PER_SUMMARY.length];
+  static final int SUMMARY_FILE_SIZE;
+
+  static {
+    int summaries = 0;
+    for (int level = 0; level < BLOCKS_PER_SUMMARY.length; level++) {
+      SUMMARY_LEVEL_START[level] = summaries;
+      summaries += BLOCKS_PER_BLOOM_CACHE / BLOCKS_PER_SUMMARY[level];
+    }
+    SUMMARY_FILE_SIZE = summaries * LogsBloomFilter.BYTE_SIZE;
+  }
+
+  private final ByteBuffer blooms;
+  private final Optional<ByteBuffer> summaries;
+  private final Optional<LogBloomBitSlices> bitSlices;
+
+  private LogBloomCacheSegment(
+      final ByteBuffer blooms,
+      final Optional<ByteBuffer> summaries,
+      final Optional<LogBloomBitSlices> bitSlices) {
+    this.blooms = blooms;
+    this.summaries = summaries;
+    this.bitSlices = bitSlices;
+  }
+
+  static Path bloomsFile(final Path cacheDir, final long segment) {
+    return cacheDir.resolve("logBloom-" + segment + ".cache");
+  }
+
+  static Path summaryFile(final Path cacheDir, final long segment) {
+    return cacheDir.resolve("logBloomSummary-" + segment + ".cache");
+  }
+
+  /**
+   * Maps the files of a cached segment.
+   *
+   * @param cacheDir the log bloom cache directory
+   * @param segment the segment number
+   * @return the segment, or empty if it isn't cached
+   */
+  static Optional<LogBloomCacheSegment> open(final Path cacheDir, final long segment) {
+    final Path bloomsFile = bloomsFile(cacheDir, segment);
+    if (!Files.isRegularFile(bloomsFile)) {
+      return Optional.empty();
+    }
+    try {
+      final Path summaryFile = summaryFile(cacheDir, segment);
+      final Optional<ByteBuffer> summaries =
+          Files.isRegularFile(summaryFile) && Files.size(summaryFile) == SUMMARY_FILE_SIZE
+              ? Optional.of(map(summaryFile))
+              : Optional.empty();
+      return Optional.of(
+          new LogBloomCacheSegment(
+              map(bloomsFile), summaries, LogBloomBitSlices.open(cacheDir, segment)));
+    } catch (final IOException e) {
+      LOG.error("Error reading cached log blooms", e);
+      return Optional.empty();
+    }
+  }
+
+  static ByteBuffer map(final Path file) throws IOException {
+    // The mapping remains valid once the channel is closed.
+    try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+  /**
+   * Returns the number of blocks at the start of the segment whose bloom is cached.
+   *
+   * @return the number of cached blocks
+   */
+  int size() {
+    return blooms.capacity() / LogsBloomFilter.BYTE_SIZE;
+  }
+
+  /**
+   * Calls the consumer with the offset in the segment of each cached block from {@code
+   * fromOffset} to {@code toOffset} whose bloom could match the query, in order.
+   *
+   * @param fromOffset the offset of the first block to check (inclusive)
+   * @param toOffset the offset of the last block to check (inclusive)
+   * @param query the query to match
+   * @param consumer called with the offset of each block that could match
+   */
+  void forEachCandidate(
+      final int fromOffset, final int toOffset, final LogsQuery query, final IntConsumer consumer) {
+    final int lastOffset = Math.min(toOffset, size() - 1);
+    if (bitSlices.isPresent()) {
+      bitSlices.get().forEachCandidate(fromOffset, lastOffset, query, consumer);
+      return;
+    }
+    final int firstLevel = summaries.isPresent() ? 0 : BLOCKS_PER_SUMMARY.length;
+    forEachCandidate(firstLevel, fromOffset, lastOffset, query, consumer);
+  }
+
+  private void forEachCandidate(
+      final int level,
+      final int fromOffset,
+      final int toOffset,
+      final LogsQuery query,
+      final IntConsumer consumer) {
+    if (level == BLOCKS_PER_SUMMARY.length) {
+      for (int offset = fromOffset; offset <= toOffset; offset++) {
+        if (query.couldMatch(bloomAt(blooms, offset))) {
+          consumer.accept(offset);
+        }
+      }
+      return;
+    }
+    final int groupSize = BLOCKS_PER_SUMMARY[level];
+    for (int group = fromOffset / groupSize; group <= toOffset / groupSize; group++) {
+      if (query.couldMatch(bloomAt(summaries.get(), SUMMARY_LEVEL_START[level] + group))) {
+        forEachCandidate(
+            level + 1,
+            Math.max(fromOffset, group * groupSize),
+            Math.min(toOffset, (group + 1) * groupSize - 1),
+            query,
+            consumer);
+      }
+    }
+  }
+
+  private static LogsBloomFilter bloomAt(final ByteBuffer buffer, final int index) {
+    return new LogsBloomFilter(
+        Bytes.wrapByteBuffer(buffer, index * LogsBloomFilter.BYTE_SIZE, LogsBloomFilter.BYTE_SIZE));
+  }
+
+  /**
+   * Adds a block's bloom to the summaries of a segment held in memory.
+   *
+   * @param summaries the contents of a summary file
+   * @param offset the offset of the block in its segment
+   * @param bloom the block's logs bloom
+   */
+  static void addToSummaries(final byte[] summaries, final int offset, final byte[] bloom) {
+    for (int level = 0; level < BLOCKS_PER_SUMMARY.length; level++) {
+      final int position = summaryPosition(level, offset);
+      for (int i = 0; i < LogsBloomFilter.BYTE_SIZE; i++) {
+        summaries[position + i] |= bloom[i];
+      }
+    }
+  }
+
+  /**
+   * Adds a block's bloom to the summaries of a segment in its summary file.
+   *
+   * @param summaryFile the summary file, which is created if it doesn't exist
+   * @param offset the offset of the block in its segment
+   * @param bloom the block's logs bloom
+   * @throws IOException if the summary file can't be updated
+   */
+  static void addToSummaryFile(final Path summaryFile, final int offset, final byte[] bloom)
+      throws IOException {
+    try (final RandomAccessFile file = new RandomAccessFile(summaryFile.toFile(), "rw")) {
+      if (file.length() < SUMMARY_FILE_SIZE) {
+        file.setLength(SUMMARY_FILE_SIZE);
+      }
+      final byte[] summary = new byte[LogsBloomFilter.BYTE_SIZE];
+      for (int level = 0; level < BLOCKS_PER_SUMMARY.length; level++) {
+        final int position = summaryPosition(level, offset);
+        file.seek(position);
+        file.readFully(summary);
+        for (int i = 0; i < LogsBloomFilter.BYTE_SIZE; i++) {
+          summary[i] |= bloom[i];
+        }
+        file.seek(position);
+        file.write(summary);
+      }
+    }
+  }
+
+  private static int summaryPosition(final int level, final int offset) {
+    return (SUMMARY_LEVEL_START[level] + offset / BLOCKS_PER_SUMMARY[level])
+        * LogsBloomFilter.BYTE_SIZE;
+  }
+}
@@ -67,6 +67,14 @@ public class LogsQuery {
             .collect(toUnmodifiableList());
   }
 
+  public List<Address> getAddresses() {
+    return addresses;
+  }
+
+  public List<List<LogTopic>> getTopics() {
+    return topics;
+  }
+
   public boolean couldMatch(final LogsBloomFilter bloom) {
     return (addressBlooms.isEmpty() || addressBlooms.stream().anyMatch(bloom::couldContain))
         && (topicsBlooms.isEmpty()
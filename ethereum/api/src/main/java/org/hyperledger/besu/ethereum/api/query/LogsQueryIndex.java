@@ -0,0 +1,167 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.query;
+
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Log;
+import org.hyperledger.besu.ethereum.core.LogTopic;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Finds which of many {@link LogsQuery}s match a log, without checking each of them.
+ *
+ * <p>Each query is indexed under the addresses it matches or, if it matches any address, under
+ * the topics it matches at its first position that doesn't accept any topic. Only the queries
+ * indexed under the log's address, one of its topics at the same position, or matching any log
+ * are then checked against it. As each query is indexed under a single address or topic position,
+ * and a log has a single address and topic per position, each matching query is found once.
+ *
+ * <p>Queries can be added and removed while logs are being matched.
+ *
+ * @param <T> the type of what the queries are registered for
+ */
+public class LogsQueryIndex<T> {
+
+  private final Map<T, LogsQuery> queries = new ConcurrentHashMap<>();
+  private final Map<Address, Set<T>> byAddress = new ConcurrentHashMap<>();
+  // By topic, for each topic position.
+  private final List<Map<LogTopic, Set<T>>> byTopic = new CopyOnWriteArrayList<>();
+  private final Set<T> matchingAnyLog = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Adds a query to the index.
+   *
+   * @param key what the query is for, which must not already have a query in this index
+   * @param query the query
+   */
+  public void add(final T key, final LogsQuery query) {
+    if (queries.putIfAbsent(key, query) != null) {
+      throw new IllegalArgumentException("A query is already indexed for " + key);
+    }
+    if (!query.getAddresses().isEmpty()) {
+      query.getAddresses().forEach(address -> addTo(byAddress, address, key));
+      return;
+    }
+    final int position = firstSpecificTopicPosition(query);
+    if (position < 0) {
+      matchingAnyLog.add(key);
+      return;
+    }
+    synchronized (byTopic) {
+      while (byTopic.size() <= position) {
+        byTopic.add(new ConcurrentHashMap<>());
+      }
+    }
+    final Map<LogTopic, Set<T>> topicIndex = byTopic.get(position);
+    query.getTopics().get(position).forEach(topic -> addTo(topicIndex, topic, key));
+  }
+
+  /**
+   * Removes the query for a key from the index, if there is one.
+   *
+   * @param key what the query was added for
+   */
+  public void remove(final T key) {
+    final LogsQuery query = queries.remove(key);
+    if (query == null) {
+      return;
+    }
+    if (!query.getAddresses().isEmpty()) {
+      query.getAddresses().forEach(address -> removeFrom(byAddress, address, key));
+      return;
+    }
+    final int position = firstSpecificTopicPosition(query);
+    if (position < 0) {
+      matchingAnyLog.remove(key);
+      return;
+    }
+    final Map<LogTopic, Set<T>> topicIndex = byTopic.get(position);
+    query.getTopics().get(position).forEach(topic -> removeFrom(topicIndex, topic, key));
+  }
+
+  /**
+   * Calls the consumer once for each key whose query matches the log.
+   *
+   * @param log the log to match
+   * @param consumer called with the key of each matching query
+   */
+  public void forEachMatch(final Log log, final Consumer<T> consumer) {
+    forEachMatch(byAddress.get(log.getLogger()), log, consumer);
+    final List<LogTopic> topics = log.getTopics();
+    for (int position = 0; position < Math.min(topics.size(), byTopic.size()); position++) {
+      forEachMatch(byTopic.get(position).get(topics.get(position)), log, consumer);
+    }
+    forEachMatch(matchingAnyLog, log, consumer);
+  }
+
+  private void forEachMatch(final Set<T> candidates, final Log log, final Consumer<T> consumer) {
+    if (candidates == null) {
+      return;
+    }
+    for (final T key : candidates) {
+      final LogsQuery query = queries.get(key);
+      // The query may have been removed since the candidates were read.
+      if (query != null && query.matches(log)) {
+        consumer.accept(key);
+      }
+    }
+  }
+
+  public boolean isEmpty() {
+    return queries.isEmpty();
+  }
+
+  public int size() {
+    return queries.size();
+  }
+
+  private static int firstSpecificTopicPosition(final LogsQuery query) {
+    final List<List<LogTopic>> topics = query.getTopics();
+    for (int position = 0; position < topics.size(); position++) {
+      final Collection<LogTopic> alternatives = topics.get(position);
+      if (!alternatives.isEmpty() && !alternatives.contains(null)) {
+        return position;
+      }
+    }
+    return -1;
+  }
+
+  private static <K, T> void addTo(final Map<K, Set<T>> index, final K indexKey, final T key) {
+    // Added within compute so that a concurrent removal can't drop the set it is added to.
+    index.compute(
+        indexKey,
+        (k, keys) -> {
+          final Set<T> updated = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+          updated.add(key);
+          return updated;
+        });
+  }
+
+  private static <K, T> void removeFrom(final Map<K, Set<T>> index, final K indexKey, final T key) {
+    index.computeIfPresent(
+        indexKey,
+        (k, keys) -> {
+          keys.remove(key);
+          return keys.isEmpty() ? null : keys;
+        });
+  }
+}
@@ -19,6 +19,8 @@ package org.hyperledger.besu.ethereum.api.query;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 import org.hyperledger.besu.ethereum.chain.Blockchain;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
@@ -34,6 +36,7 @@ import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -49,6 +52,7 @@ public class TransactionLogBloomCacher {
   public static final int BLOCKS_PER_BLOOM_CACHE = 100_000;
   private static final int BLOOM_BITS_LENGTH = 256;
   private final Map<Long, Boolean> cachedSegments;
+  private final Map<Long, LogBloomCacheSegment> openSegments = new ConcurrentHashMap<>();
 
   private final Lock submissionLock = new ReentrantLock();
 
@@ -71,14 +75,6 @@ public class TransactionLogBloomCacher {
     ensurePreviousSegmentsArePresent(blockchain.getChainHeadBlockNumber());
   }
 
-  private static File calculateCacheFileName(final String name, final Path cacheDir) {
-    return cacheDir.resolve("logBloom-" + name + ".cache").toFile();
-  }
-
-  private static File calculateCacheFileName(final long blockNumber, final Path cacheDir) {
-    return calculateCacheFileName(Long.toString(blockNumber / BLOCKS_PER_BLOOM_CACHE), cacheDir);
-  }
-
   public CachingStatus generateLogBloomCache(final long start, final long stop) {
     checkArgument(
         start % BLOCKS_PER_BLOOM_CACHE == 0, "Start block must be at the beginning of a file");
@@ -95,15 +91,7 @@ public class TransactionLogBloomCacher {
       }
       for (long blockNum = start; blockNum < stop; blockNum += BLOCKS_PER_BLOOM_CACHE) {
         LOG.info("Caching segment at {}", blockNum);
-        final File cacheFile = calculateCacheFileName(blockNum, cacheDir);
-        blockchain
-            .getBlockHeader(blockNum)
-            .ifPresent(
-                blockHeader ->
-                    cacheLogsBloomForBlockHeader(blockHeader, Optional.of(cacheFile), false));
-        try (final FileOutputStream fos = new FileOutputStream(cacheFile)) {
-          fillCacheFile(blockNum, blockNum + BLOCKS_PER_BLOOM_CACHE, fos);
-        }
+        cacheSegment(blockNum / BLOCKS_PER_BLOOM_CACHE);
       }
     } catch (final Exception e) {
       LOG.error("Unhandled caching exception", e);
@@ -114,15 +102,60 @@ public class TransactionLogBloomCacher {
     return cachingStatus;
   }
 
+  private void cacheSegment(final long segment) throws IOException {
+    final Path bloomsFile = LogBloomCacheSegment.bloomsFile(cacheDir, segment);
+    final Path summaryFile = LogBloomCacheSegment.summaryFile(cacheDir, segment);
+    final Path tempBloomsFile = cacheDir.resolve(bloomsFile.getFileName() + ".tmp");
+    final Path tempSummaryFile = cacheDir.resolve(summaryFile.getFileName() + ".tmp");
+    final Path bitSlicesFile = LogBloomBitSlices.file(cacheDir, segment);
+    final Path tempBitSlicesFile = cacheDir.resolve(bitSlicesFile.getFileName() + ".tmp");
+    final byte[] summaries = new byte[LogBloomCacheSegment.SUMMARY_FILE_SIZE];
+    final byte[] bitSlices = new byte[LogBloomBitSlices.FILE_SIZE];
+    // The summaries and bit slices may not include the new blooms until they are written too.
+    try {
+      Files.deleteIfExists(summaryFile);
+      Files.deleteIfExists(bitSlicesFile);
+      final long startBlock = segment * BLOCKS_PER_BLOOM_CACHE;
+      try (final FileOutputStream fos = new FileOutputStream(tempBloomsFile.toFile())) {
+        fillCacheFile(startBlock, startBlock + BLOCKS_PER_BLOOM_CACHE, fos, summaries, bitSlices);
+      }
+      Files.write(tempSummaryFile, summaries);
+      Files.write(tempBitSlicesFile, bitSlices);
+      // The files are replaced rather than rewritten as queries may have them memory mapped.
+      Files.move(tempBloomsFile, bloomsFile, REPLACE_EXISTING, ATOMIC_MOVE);
+      Files.move(tempSummaryFile, summaryFile, REPLACE_EXISTING, ATOMIC_MOVE);
+      Files.move(tempBitSlicesFile, bitSlicesFile, REPLACE_EXISTING, ATOMIC_MOVE);
+    } finally {
+      openSegments.remove(segment);
+    }
+  }
+
+  /**
+   * Returns a cached segment to query, its files only being mapped again once it is written to.
+   *
+   * @param segment the segment number
+   * @return the segment, or empty if it isn't cached
+   */
+  Optional<LogBloomCacheSegment> getSegment(final long segment) {
+    return Optional.ofNullable(
+        openSegments.computeIfAbsent(
+            segment, s -> LogBloomCacheSegment.open(cacheDir, s).orElse(null)));
+  }
+
   private void fillCacheFile(
-      final long startBlock, final long stopBlock, final FileOutputStream fos) throws IOException {
+      final long startBlock,
+      final long stopBlock,
+      final FileOutputStream fos,
+      final byte[] summaries,
+      final byte[] bitSlices)
+      throws IOException {
     long blockNum = startBlock;
     while (blockNum < stopBlock) {
       final Optional<BlockHeader> maybeHeader = blockchain.getBlockHeader(blockNum);
       if (maybeHeader.isEmpty()) {
         break;
       }
-      fillCacheFileWithBlock(maybeHeader.get(), fos);
+      fillCacheFileWithBlock(maybeHeader.get(), fos, summaries, bitSlices);
       cachingStatus.currentBlock = blockNum;
       blockNum++;
     }
@@ -138,14 +171,44 @@ public class TransactionLogBloomCacher {
       if (ensureChecks) {
         ensurePreviousSegmentsArePresent(blockNumber);
       }
-      final File cacheFile = reusedCacheFile.orElse(calculateCacheFileName(blockNumber, cacheDir));
-      if (!cacheFile.exists()) {
+      final long segment = blockNumber / BLOCKS_PER_BLOOM_CACHE;
+      final int offset = (int) (blockNumber % BLOCKS_PER_BLOOM_CACHE);
+      final File cacheFile =
+          reusedCacheFile.orElse(LogBloomCacheSegment.bloomsFile(cacheDir, segment).toFile());
+      // Writing past the end of the file would zero-fill the blocks in between, which then read as
+      // cached blocks without logs, so the segment is generated again from the headers instead.
+      // The block is already on the canonical chain, so it is included.
+      if (offset > cacheFile.length() / BLOOM_BITS_LENGTH) {
+        LOG.debug(
+            "Regenerating logs bloom cache segment {} to cache the blocks before {}",
+            segment,
+            blockNumber);
+        cacheSegment(segment);
+        return;
+      }
+      final boolean newSegment = !cacheFile.exists();
+      if (newSegment) {
         Files.createFile(cacheFile.toPath());
       }
-      try (RandomAccessFile writer = new RandomAccessFile(cacheFile, "rw")) {
-        final long offset = (blockNumber / BLOCKS_PER_BLOOM_CACHE) * BLOOM_BITS_LENGTH;
-        writer.seek(offset);
-        writer.write(ensureBloomBitsAreCorrectLength(blockHeader.getLogsBloom().toArray()));
+      final byte[] bloom = ensureBloomBitsAreCorrectLength(blockHeader.getLogsBloom().toArray());
+      try {
+        try (RandomAccessFile writer = new RandomAccessFile(cacheFile, "rw")) {
+          writer.seek((long) offset * BLOOM_BITS_LENGTH);
+          writer.write(bloom);
+        }
+        // Segments cached without summaries or bit slices have all their blooms checked, so they
+        // are only started along with the segment.
+        final Path summaryFile = LogBloomCacheSegment.summaryFile(cacheDir, segment);
+        if (newSegment || Files.exists(summaryFile)) {
+          LogBloomCacheSegment.addToSummaryFile(summaryFile, offset, bloom);
+        }
+        final Path bitSlicesFile = LogBloomBitSlices.file(cacheDir, segment);
+        if (newSegment || Files.exists(bitSlicesFile)) {
+          LogBloomBitSlices.writeToFile(bitSlicesFile, offset, bloom);
+        }
+      } finally {
+        // An open segment's mapping doesn't cover the blooms appended since, nor new files.
+        openSegments.remove(segment);
       }
     } catch (IOException e) {
       LOG.error("Unhandled caching exception.", e);
@@ -173,9 +236,17 @@ public class TransactionLogBloomCacher {
     }
   }
 
-  private void fillCacheFileWithBlock(final BlockHeader blockHeader, final FileOutputStream fos)
+  private void fillCacheFileWithBlock(
+      final BlockHeader blockHeader,
+      final FileOutputStream fos,
+      final byte[] summaries,
+      final byte[] bitSlices)
       throws IOException {
-    fos.write(ensureBloomBitsAreCorrectLength(blockHeader.getLogsBloom().toArray()));
+    final byte[] bloom = ensureBloomBitsAreCorrectLength(blockHeader.getLogsBloom().toArray());
+    fos.write(bloom);
+    final int offset = (int) (blockHeader.getNumber() % BLOCKS_PER_BLOOM_CACHE);
+    LogBloomCacheSegment.addToSummaries(summaries, offset, bloom);
+    LogBloomBitSlices.addToSlices(bitSlices, offset, bloom);
   }
 
   private byte[] ensureBloomBitsAreCorrectLength(final byte[] logs) {
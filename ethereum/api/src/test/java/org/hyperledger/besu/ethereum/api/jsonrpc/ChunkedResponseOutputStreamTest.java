@@ -0,0 +1,55 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import org.junit.Test;
+
+public class ChunkedResponseOutputStreamTest {
+
+  private final HttpServerResponse response = mock(HttpServerResponse.class);
+
+  @Test
+  public void writeFailsWhenTheClientStopsReading() {
+    when(response.writeQueueFull()).thenReturn(true);
+    final ChunkedResponseOutputStream out = new ChunkedResponseOutputStream(response, 200);
+
+    assertThatThrownBy(() -> out.write(new byte[128 * 1024]))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("did not read");
+    verify(response, never()).write(any(Buffer.class));
+  }
+
+  @Test
+  public void writeFailsWhenTheConnectionIsClosed() {
+    when(response.writeQueueFull()).thenReturn(true);
+    when(response.closed()).thenReturn(true);
+    final ChunkedResponseOutputStream out = new ChunkedResponseOutputStream(response, 60_000);
+
+    assertThatThrownBy(() -> out.write(new byte[128 * 1024]))
+        .isInstanceOf(IOException.class)
+        .hasMessageContaining("closed");
+  }
+}
@@ -19,6 +19,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -37,6 +38,8 @@ import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.LogWithMetadata;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -79,34 +82,32 @@ public class FilterManagerLogFilterTest {
   }
 
   @Test
-  public void shouldCheckMatchingLogsWhenRecordedNewBlockEvent() {
-    when(blockchainQueries.headBlockNumber()).thenReturn(100L);
-
+  public void shouldUseLogsOfNewBlockEventInsteadOfReadingThemAgain() {
     filterManager.installLogFilter(latest(), latest(), logsQuery());
     recordNewBlockEvent();
 
-    verify(blockchainQueries).matchingLogs(eq(100L), eq(100L), eq(logsQuery()));
+    verify(blockchainQueries, never()).matchingLogs(anyLong(), anyLong(), any());
   }
 
   @Test
-  public void shouldUseHeadBlockAsFromBlockNumberWhenCheckingLogsForChanges() {
-    when(blockchainQueries.headBlockNumber()).thenReturn(3L);
+  public void shouldNotAddLogsOfBlocksAfterToBlock() {
+    final LogWithMetadata logInRange = logWithMetadata(10L, false);
+    final LogWithMetadata logAfterRange = logWithMetadata(11L, false);
 
-    filterManager.installLogFilter(blockNum(1L), blockNum(10L), logsQuery());
-    recordNewBlockEvent();
+    final String filterId =
+        filterManager.installLogFilter(blockNum(1L), blockNum(10L), logsQuery());
+    recordBlockEvent(logInRange);
+    recordBlockEvent(logAfterRange);
 
-    verify(blockchainQueries).matchingLogs(eq(3L), eq(10L), eq(logsQuery()));
+    assertThat(filterManager.logsChanges(filterId)).isEqualTo(Lists.newArrayList(logInRange));
   }
 
   @Test
   public void shouldReturnLogWhenLogFilterMatches() {
     final LogWithMetadata log = logWithMetadata();
-    when(blockchainQueries.headBlockNumber()).thenReturn(100L);
-    when(blockchainQueries.matchingLogs(eq(100L), eq(100L), eq(logsQuery())))
-        .thenReturn(Lists.newArrayList(log));
 
     final String filterId = filterManager.installLogFilter(latest(), latest(), logsQuery());
-    recordNewBlockEvent();
+    recordBlockEvent(log);
 
     final List<LogWithMetadata> retrievedLogs = filterManager.logsChanges(filterId);
 
@@ -114,13 +115,47 @@ public class FilterManagerLogFilterTest {
   }
 
   @Test
-  public void shouldCheckLogsForEveryLogFilter() {
-    filterManager.installLogFilter(latest(), latest(), logsQuery());
-    filterManager.installLogFilter(latest(), latest(), logsQuery());
-    filterManager.installLogFilter(latest(), latest(), logsQuery());
-    recordNewBlockEvent();
+  public void shouldNotReturnLogWhenLogFilterDoesNotMatch() {
+    final LogsQuery otherAddressQuery =
+        new LogsQuery.Builder().address(Address.fromHexString("0x1")).build();
+
+    final String filterId = filterManager.installLogFilter(latest(), latest(), otherAddressQuery);
+    recordBlockEvent(logWithMetadata());
+
+    assertThat(filterManager.logsChanges(filterId)).isEqualTo(Collections.emptyList());
+  }
+
+  @Test
+  public void shouldNotReturnRemovedLogs() {
+    final String filterId = filterManager.installLogFilter(latest(), latest(), logsQuery());
+    recordBlockEvent(logWithMetadata(100L, true));
+
+    assertThat(filterManager.logsChanges(filterId)).isEqualTo(Collections.emptyList());
+  }
 
-    verify(blockchainQueries, times(3)).matchingLogs(anyLong(), anyLong(), any());
+  @Test
+  public void shouldAddLogsToEveryMatchingLogFilter() {
+    final LogWithMetadata log = logWithMetadata();
+    final List<String> filterIds =
+        Lists.newArrayList(
+            filterManager.installLogFilter(latest(), latest(), logsQuery()),
+            filterManager.installLogFilter(latest(), latest(), logsQuery()),
+            filterManager.installLogFilter(latest(), latest(), logsQuery()));
+    recordBlockEvent(log);
+
+    for (final String filterId : filterIds) {
+      assertThat(filterManager.logsChanges(filterId)).isEqualTo(Lists.newArrayList(log));
+    }
+  }
+
+  @Test
+  public void shouldNotAddLogsToUninstalledLogFilter() {
+    final String filterId = filterManager.installLogFilter(latest(), latest(), logsQuery());
+    final LogFilter filter = filterRepository.getFilter(filterId, LogFilter.class).get();
+    filterManager.uninstallFilter(filterId);
+    recordBlockEvent(logWithMetadata());
+
+    assertThat(filter.logs()).isEqualTo(Collections.emptyList());
   }
 
   @Test
@@ -133,12 +168,9 @@ public class FilterManagerLogFilterTest {
 
   @Test
   public void shouldClearLogsAfterGettingLogChanges() {
-    when(blockchainQueries.matchingLogs(anyLong(), anyLong(), any()))
-        .thenReturn(Lists.newArrayList(logWithMetadata()));
-
     final String filterId = filterManager.installLogFilter(latest(), latest(), logsQuery());
-    recordNewBlockEvent();
-    recordNewBlockEvent();
+    recordBlockEvent(logWithMetadata());
+    recordBlockEvent(logWithMetadata());
 
     assertThat(filterManager.logsChanges(filterId).size()).isEqualTo(2);
     assertThat(filterManager.logsChanges(filterId).size()).isEqualTo(0);
@@ -153,6 +185,13 @@ public class FilterManagerLogFilterTest {
         blockchainQueries.getBlockchain());
   }
 
+  private void recordBlockEvent(final LogWithMetadata... logs) {
+    filterManager.recordBlockEvent(
+        BlockAddedEvent.createForHeadAdvancement(
+            new BlockDataGenerator().block(), Arrays.asList(logs)),
+        blockchainQueries.getBlockchain());
+  }
+
   @Test
   public void getLogsForAbsentFilterReturnsNull() {
     assertThat(filterManager.logs("NOTTHERE")).isNull();
@@ -192,16 +231,20 @@ public class FilterManagerLogFilterTest {
   }
 
   private LogWithMetadata logWithMetadata() {
+    return logWithMetadata(100L, false);
+  }
+
+  private LogWithMetadata logWithMetadata(final long blockNumber, final boolean removed) {
     return new LogWithMetadata(
         0,
-        100L,
+        blockNumber,
         Hash.ZERO,
         Hash.ZERO,
         0,
         Address.fromHexString("0x0"),
         Bytes.EMPTY,
         Lists.newArrayList(),
-        false);
+        removed);
   }
 
   private LogsQuery logsQuery() {
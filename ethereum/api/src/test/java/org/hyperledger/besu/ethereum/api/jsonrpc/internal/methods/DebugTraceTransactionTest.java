@@ -24,6 +24,7 @@ import org.hyperledger.besu.ethereum.api.jsonrpc.internal.JsonRpcRequest;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.JsonRpcRequestContext;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.TransactionTrace;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.TransactionTracer;
+import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcStreamingResponse;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.response.JsonRpcSuccessResponse;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.DebugTraceTransactionResult;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.StructLog;
@@ -38,6 +39,7 @@ import org.hyperledger.besu.ethereum.debug.TraceFrame;
 import org.hyperledger.besu.ethereum.mainnet.TransactionProcessor.Result;
 import org.hyperledger.besu.ethereum.vm.ExceptionalHaltReason;
 
+import java.io.StringWriter;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -45,6 +47,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.tuweni.bytes.Bytes;
 import org.junit.Test;
 
@@ -176,4 +181,51 @@ public class DebugTraceTransactionTest {
 
     assertThat(response.getResult()).isNull();
   }
+
+  @Test
+  public void shouldStreamTheSameResultAsTheBufferedResponse() throws Exception {
+    final TransactionWithMetadata transactionWithMetadata =
+        new TransactionWithMetadata(transaction, 12L, blockHash, 2);
+    final Object[] params = new Object[] {transactionHash};
+    final JsonRpcRequestContext request =
+        new JsonRpcRequestContext(new JsonRpcRequest("2.0", "debug_traceTransaction", params));
+    final Result result = mock(Result.class);
+    final TransactionTrace transactionTrace =
+        new TransactionTrace(transaction, result, Collections.emptyList());
+    when(transaction.getGasLimit()).thenReturn(100L);
+    when(result.getGasRemaining()).thenReturn(27L);
+    when(result.getOutput()).thenReturn(Bytes.fromHexString("1234"));
+    when(result.isSuccessful()).thenReturn(true);
+    when(blockchain.transactionByHash(transactionHash))
+        .thenReturn(Optional.of(transactionWithMetadata));
+    when(transactionTracer.replayTransaction(eq(blockHash), eq(transactionHash), any()))
+        .thenReturn(Optional.of(transactionTrace));
+
+    final JsonRpcStreamingResponse response =
+        (JsonRpcStreamingResponse) debugTraceTransaction.streamingResponse(request);
+    final ObjectMapper mapper = new ObjectMapper();
+    final StringWriter output = new StringWriter();
+    try (final JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+      response.writeTo(generator);
+    }
+
+    final JsonNode expected =
+        mapper.valueToTree(
+            new JsonRpcSuccessResponse(
+                request.getRequest().getId(), new DebugTraceTransactionResult(transactionTrace)));
+    assertThat(mapper.readTree(output.toString())).isEqualTo(expected);
+  }
+
+  @Test
+  public void shouldNotStreamTheTransactionIfNotFound() {
+    final Object[] params = new Object[] {transactionHash};
+    final JsonRpcRequestContext request =
+        new JsonRpcRequestContext(new JsonRpcRequest("2.0", "debug_traceTransaction", params));
+    when(blockchain.transactionByHash(transactionHash)).thenReturn(Optional.empty());
+
+    final JsonRpcSuccessResponse response =
+        (JsonRpcSuccessResponse) debugTraceTransaction.streamingResponse(request);
+
+    assertThat(response.getResult()).isNull();
+  }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.besu.ethereum.core.InMemoryStorageProvider.createInMemoryWorldStateArchive;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockBody;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.MutableAccount;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.ProcessableBlockHeader;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.debug.TraceOptions;
+import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
+import org.hyperledger.besu.ethereum.mainnet.ProtocolSpec;
+import org.hyperledger.besu.ethereum.mainnet.TransactionProcessor;
+import org.hyperledger.besu.ethereum.mainnet.TransactionProcessor.Result;
+import org.hyperledger.besu.ethereum.vm.BlockHashLookup;
+import org.hyperledger.besu.ethereum.vm.DebugOperationTracer;
+import org.hyperledger.besu.ethereum.vm.OperationTracer;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BlockTracerTest {
+
+  private static final Address ACCOUNT = Address.fromHexString("0x1");
+
+  @SuppressWarnings("unchecked")
+  private final ProtocolSchedule<Void> protocolSchedule = mock(ProtocolSchedule.class);
+
+  @SuppressWarnings("unchecked")
+  private final ProtocolSpec<Void> protocolSpec = mock(ProtocolSpec.class);
+
+  private final Blockchain blockchain = mock(Blockchain.class);
+  private final WorldStateArchive worldStateArchive = mock(WorldStateArchive.class);
+  private final TransactionProcessor transactionProcessor = mock(TransactionProcessor.class);
+  private final BlockHeader parentHeader = mock(BlockHeader.class);
+  private final BlockHeader blockHeader = mock(BlockHeader.class);
+  private final Result result = mock(Result.class);
+  private final List<Transaction> transactions =
+      Arrays.asList(mock(Transaction.class), mock(Transaction.class), mock(Transaction.class));
+  private final Block block =
+      new Block(blockHeader, new BlockBody(transactions, Collections.emptyList()));
+  private final Map<Transaction, Wei> tracedBalances = new ConcurrentHashMap<>();
+
+  private final BlockReplay blockReplay =
+      new BlockReplay(protocolSchedule, blockchain, worldStateArchive, ForkJoinPool::commonPool);
+
+  @Before
+  public void setUp() {
+    final MutableWorldState worldState = createInMemoryWorldStateArchive().getMutable();
+    final WorldUpdater updater = worldState.updater();
+    updater.createAccount(ACCOUNT).getMutable().setBalance(Wei.ZERO);
+    updater.commit();
+    worldState.persist();
+
+    when(blockHeader.getHash()).thenReturn(Hash.fromHexString("0x2"));
+    when(blockHeader.getParentHash()).thenReturn(Hash.fromHexString("0x1"));
+    when(blockHeader.getNumber()).thenReturn(1L);
+    when(blockchain.getBlockHeader(Hash.fromHexString("0x1")))
+        .thenReturn(Optional.of(parentHeader));
+    when(parentHeader.getStateRoot()).thenReturn(worldState.rootHash());
+    when(worldStateArchive.getMutable(worldState.rootHash())).thenReturn(Optional.of(worldState));
+    when(protocolSchedule.getByBlockNumber(1L)).thenReturn(protocolSpec);
+    when(protocolSpec.getTransactionProcessor()).thenReturn(transactionProcessor);
+
+    // Each transaction increments the balance, recording the balance it started from when traced.
+    when(transactionProcessor.processTransaction(
+            eq(blockchain),
+            any(WorldUpdater.class),
+            any(ProcessableBlockHeader.class),
+            any(Transaction.class),
+            any(),
+            any(OperationTracer.class),
+            any(BlockHashLookup.class),
+            anyBoolean()))
+        .thenAnswer(
+            invocation -> {
+              final WorldUpdater worldUpdater = invocation.<WorldUpdater>getArgument(1).updater();
+              final MutableAccount account = worldUpdater.getAccount(ACCOUNT).getMutable();
+              if (invocation.getArgument(5) instanceof DebugOperationTracer) {
+                tracedBalances.put(invocation.getArgument(3), account.getBalance());
+              }
+              account.setBalance(account.getBalance().add(Wei.of(1)));
+              worldUpdater.commit();
+              return result;
+            });
+  }
+
+  @Test
+  public void shouldTraceEachTransactionFromTheStateLeftByThePreviousOnes() {
+    final Optional<BlockTrace> blockTrace =
+        new BlockTracer(blockReplay).trace(block, new DebugOperationTracer(TraceOptions.DEFAULT));
+
+    assertThat(blockTrace).isPresent();
+    assertThat(
+            blockTrace.get().getTransactionTraces().stream()
+                .map(TransactionTrace::getTransaction)
+                .collect(Collectors.toList()))
+        .isEqualTo(transactions);
+    assertThat(tracedBalances)
+        .containsEntry(transactions.get(0), Wei.ZERO)
+        .containsEntry(transactions.get(1), Wei.of(1))
+        .containsEntry(transactions.get(2), Wei.of(2));
+  }
+
+  @Test
+  public void shouldNotExecuteRecentlyTracedBlockAgain() {
+    new BlockTracer(blockReplay).trace(block, new DebugOperationTracer(TraceOptions.DEFAULT));
+    tracedBalances.clear();
+    final Optional<BlockTrace> blockTrace =
+        new BlockTracer(blockReplay).trace(block, new DebugOperationTracer(TraceOptions.DEFAULT));
+
+    assertThat(blockTrace).isPresent();
+    assertThat(tracedBalances)
+        .containsEntry(transactions.get(0), Wei.ZERO)
+        .containsEntry(transactions.get(1), Wei.of(1))
+        .containsEntry(transactions.get(2), Wei.of(2));
+    verify(worldStateArchive, times(1)).getMutable(any(Hash.class));
+  }
+}
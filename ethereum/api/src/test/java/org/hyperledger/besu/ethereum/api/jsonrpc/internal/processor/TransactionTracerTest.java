@@ -40,6 +40,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -91,7 +92,9 @@ public class TransactionTracerTest {
   @Before
   public void setUp() throws Exception {
     transactionTracer =
-        new TransactionTracer(new BlockReplay(protocolSchedule, blockchain, worldStateArchive));
+        new TransactionTracer(
+            new BlockReplay(
+                protocolSchedule, blockchain, worldStateArchive, ForkJoinPool::commonPool));
     when(transaction.getHash()).thenReturn(transactionHash);
     when(otherTransaction.getHash()).thenReturn(otherTransactionHash);
     when(blockHeader.getNumber()).thenReturn(12L);
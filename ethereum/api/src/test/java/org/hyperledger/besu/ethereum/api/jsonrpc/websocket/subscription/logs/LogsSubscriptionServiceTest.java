@@ -17,14 +17,15 @@ package org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.logs;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.LogResult;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.results.Quantity;
 import org.hyperledger.besu.ethereum.api.jsonrpc.websocket.subscription.SubscriptionManager;
 import org.hyperledger.besu.ethereum.api.query.LogsQuery;
+import org.hyperledger.besu.ethereum.api.query.LogsQueryIndex;
 import org.hyperledger.besu.ethereum.chain.MutableBlockchain;
 import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.Block;
@@ -47,7 +48,6 @@ import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import com.google.common.collect.Lists;
 import org.apache.tuweni.bytes.Bytes;
 import org.junit.Before;
 import org.junit.Test;
@@ -362,7 +362,14 @@ public class LogsSubscriptionServiceTest {
   }
 
   private void registerSubscriptions(final List<LogsSubscription> subscriptions) {
-    when(subscriptionManager.subscriptionsOfType(any(), any()))
-        .thenReturn(Lists.newArrayList(subscriptions));
+    final LogsQueryIndex<LogsSubscription> index = new LogsQueryIndex<>();
+    subscriptions.forEach(subscription -> index.add(subscription, subscription.getLogsQuery()));
+    doAnswer(
+            invocation -> {
+              index.forEachMatch(invocation.getArgument(0), invocation.getArgument(1));
+              return null;
+            })
+        .when(subscriptionManager)
+        .forEachLogsSubscriptionMatching(any(), any());
   }
 }
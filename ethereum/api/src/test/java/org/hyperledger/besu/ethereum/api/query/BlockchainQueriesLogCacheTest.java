@@ -115,7 +115,12 @@ public class BlockchainQueriesLogCacheTest {
     when(blockchain.getBlockHashByNumber(anyLong())).thenReturn(Optional.of(testHash));
     when(blockchain.getBlockHeader(any())).thenReturn(Optional.of(fakeHeader));
     when(blockchain.getBlockHeader(anyLong())).thenReturn(Optional.of(fakeHeader));
-    when(blockchain.getTxReceipts(any())).thenReturn(Optional.of(Collections.emptyList()));
+    when(blockchain.getAllTxReceipts(any()))
+        .thenAnswer(
+            invocation ->
+                Collections.nCopies(
+                    invocation.<List<Hash>>getArgument(0).size(),
+                    Optional.of(Collections.emptyList())));
     when(blockchain.getBlockBody(any())).thenReturn(Optional.of(fakeBody));
     blockchainQueries =
         new BlockchainQueries(
@@ -140,7 +145,8 @@ public class BlockchainQueriesLogCacheTest {
     // 4 ranges of 3 hits a piece = 12 calls - 97-99, 98-00, 99-01, 00-02
     verify(blockchain, times(12)).getBlockHashByNumber(anyLong());
     verify(blockchain, times(12)).getBlockHeader(testHash);
-    verify(blockchain, times(12)).getTxReceipts(testHash);
+    // receipts are fetched in one batch per query
+    verify(blockchain, times(4)).getAllTxReceipts(any());
     verify(blockchain, times(12)).getBlockBody(testHash);
     verify(blockchain, times(12)).blockIsOnCanonicalChain(testHash);
 
@@ -167,7 +173,7 @@ public class BlockchainQueriesLogCacheTest {
 
     // called on both halves of the seam
     verify(blockchain, times(12)).getBlockHeader(testHash);
-    verify(blockchain, times(12)).getTxReceipts(testHash);
+    verify(blockchain, times(4)).getAllTxReceipts(any());
     verify(blockchain, times(12)).getBlockBody(testHash);
     verify(blockchain, times(12)).blockIsOnCanonicalChain(testHash);
 
@@ -189,7 +195,8 @@ public class BlockchainQueriesLogCacheTest {
     // 4 ranges of 3 hits a piece = 12 calls - 97-99, 98-00, 99-01, 00-02
     verify(blockchain, times(12)).getBlockHeader(anyLong());
     verify(blockchain, times(12)).getBlockHeader(testHash);
-    verify(blockchain, times(12)).getTxReceipts(testHash);
+    // receipts are fetched in one batch per query
+    verify(blockchain, times(4)).getAllTxReceipts(any());
     verify(blockchain, times(12)).getBlockBody(testHash);
     verify(blockchain, times(12)).blockIsOnCanonicalChain(testHash);
 
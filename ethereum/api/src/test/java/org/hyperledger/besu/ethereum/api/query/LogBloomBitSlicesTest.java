@@ -0,0 +1,152 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.query;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Log;
+import org.hyperledger.besu.ethereum.core.LogTopic;
+import org.hyperledger.besu.ethereum.core.LogsBloomFilter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogBloomBitSlicesTest {
+
+  private static final Address ADDRESS_1 = Address.fromHexString("0x1");
+  private static final Address ADDRESS_2 = Address.fromHexString("0x2");
+  private static final LogTopic TOPIC_1 = LogTopic.fromHexString("0x" + "11".repeat(32));
+  private static final LogTopic TOPIC_2 = LogTopic.fromHexString("0x" + "22".repeat(32));
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  private Path cacheDir;
+
+  @Before
+  public void setUp() {
+    cacheDir = folder.getRoot().toPath();
+  }
+
+  @Test
+  public void shouldFindBlocksWithAnyOfTheAddresses() throws IOException {
+    write(3, bloom(ADDRESS_1));
+    write(64, bloom(ADDRESS_2));
+    write(65, bloom(Address.fromHexString("0x3")));
+    write(99_999, bloom(ADDRESS_1, TOPIC_1));
+
+    final LogsQuery query = new LogsQuery.Builder().addresses(ADDRESS_1, ADDRESS_2).build();
+
+    assertThat(candidates(0, 99_999, query)).containsExactly(3, 64, 99_999);
+  }
+
+  @Test
+  public void shouldFindBlocksWithTheAddressAndTopics() throws IOException {
+    write(1, bloom(ADDRESS_1, TOPIC_1, TOPIC_2));
+    write(2, bloom(ADDRESS_1, TOPIC_1));
+    write(3, bloom(ADDRESS_2, TOPIC_1, TOPIC_2));
+
+    final LogsQuery query =
+        new LogsQuery.Builder()
+            .address(ADDRESS_1)
+            .topics(List.of(singletonList(TOPIC_1), singletonList(TOPIC_2)))
+            .build();
+
+    assertThat(candidates(0, 10, query)).containsExactly(1);
+  }
+
+  @Test
+  public void shouldIgnoreTopicPositionsMatchingAnyTopic() throws IOException {
+    write(1, bloom(ADDRESS_1, TOPIC_2));
+    write(2, bloom(ADDRESS_2, TOPIC_1));
+
+    final LogsQuery query =
+        new LogsQuery.Builder()
+            .topics(List.of(Arrays.asList(TOPIC_1, null), singletonList(TOPIC_2)))
+            .build();
+
+    assertThat(candidates(0, 10, query)).containsExactly(1);
+  }
+
+  @Test
+  public void shouldOnlyFindBlocksInRange() throws IOException {
+    for (int offset = 60; offset < 200; offset++) {
+      write(offset, bloom(ADDRESS_1));
+    }
+
+    final LogsQuery query = new LogsQuery.Builder().address(ADDRESS_1).build();
+
+    assertThat(candidates(63, 63, query)).containsExactly(63);
+    assertThat(candidates(126, 129, query)).containsExactly(126, 127, 128, 129);
+    assertThat(candidates(10, 59, query)).isEmpty();
+  }
+
+  @Test
+  public void shouldReplaceBloomOfRewrittenBlock() throws IOException {
+    write(5, bloom(ADDRESS_1));
+    write(5, bloom(ADDRESS_2));
+
+    assertThat(candidates(0, 10, new LogsQuery.Builder().address(ADDRESS_1).build())).isEmpty();
+    assertThat(candidates(0, 10, new LogsQuery.Builder().address(ADDRESS_2).build()))
+        .containsExactly(5);
+  }
+
+  @Test
+  public void shouldWriteTheSameSlicesInMemoryAndToFile() throws IOException {
+    final byte[] slices = new byte[LogBloomBitSlices.FILE_SIZE];
+    LogBloomBitSlices.addToSlices(slices, 7, bloom(ADDRESS_1, TOPIC_1));
+    LogBloomBitSlices.addToSlices(slices, 70_000, bloom(ADDRESS_2));
+    write(7, bloom(ADDRESS_1, TOPIC_1));
+    write(70_000, bloom(ADDRESS_2));
+
+    assertThat(Files.readAllBytes(LogBloomBitSlices.file(cacheDir, 0))).isEqualTo(slices);
+  }
+
+  @Test
+  public void shouldNotOpenSlicesThatWereNotWritten() throws IOException {
+    assertThat(LogBloomBitSlices.open(cacheDir, 0)).isEmpty();
+  }
+
+  private void write(final int offset, final byte[] bloom) throws IOException {
+    LogBloomBitSlices.writeToFile(LogBloomBitSlices.file(cacheDir, 0), offset, bloom);
+  }
+
+  private List<Integer> candidates(final int fromOffset, final int toOffset, final LogsQuery query)
+      throws IOException {
+    final List<Integer> candidates = new ArrayList<>();
+    LogBloomBitSlices.open(cacheDir, 0)
+        .orElseThrow()
+        .forEachCandidate(fromOffset, toOffset, query, candidates::add);
+    return candidates;
+  }
+
+  private static byte[] bloom(final Address address, final LogTopic... topics) {
+    return LogsBloomFilter.builder()
+        .insertLog(new Log(address, Bytes.EMPTY, Arrays.asList(topics)))
+        .build()
+        .toArray();
+  }
+}
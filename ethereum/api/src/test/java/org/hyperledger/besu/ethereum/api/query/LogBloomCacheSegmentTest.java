@@ -0,0 +1,206 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.besu.ethereum.api.query.TransactionLogBloomCacher.BLOCKS_PER_BLOOM_CACHE;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.Log;
+import org.hyperledger.besu.ethereum.core.LogsBloomFilter;
+import org.hyperledger.besu.ethereum.eth.manager.EthScheduler;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LogBloomCacheSegmentTest {
+
+  private static final Address ADDRESS = Address.fromHexString("0x123456");
+  private static final LogsBloomFilter ADDRESS_BLOOM =
+      LogsBloomFilter.builder().insertLog(new Log(ADDRESS, Bytes.EMPTY, List.of())).build();
+  private static final LogsQuery QUERY = new LogsQuery.Builder().address(ADDRESS).build();
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Mock private Blockchain blockchain;
+  @Mock private EthScheduler scheduler;
+  private Path cacheDir;
+  private TransactionLogBloomCacher cacher;
+
+  @Before
+  public void setUp() {
+    cacheDir = folder.getRoot().toPath();
+    cacher = new TransactionLogBloomCacher(blockchain, cacheDir, scheduler);
+  }
+
+  @Test
+  public void shouldFindBlocksCachedAsTheyAreAdded() {
+    cacheBlock(BLOCKS_PER_BLOOM_CACHE, LogsBloomFilter.empty());
+    cacheBlock(BLOCKS_PER_BLOOM_CACHE + 1, ADDRESS_BLOOM);
+    cacheBlock(BLOCKS_PER_BLOOM_CACHE + 2, LogsBloomFilter.empty());
+    cacheBlock(BLOCKS_PER_BLOOM_CACHE + 3, ADDRESS_BLOOM);
+
+    final LogBloomCacheSegment segment = LogBloomCacheSegment.open(cacheDir, 1).orElseThrow();
+
+    assertThat(segment.size()).isEqualTo(4);
+    assertThat(candidates(segment, 0, BLOCKS_PER_BLOOM_CACHE - 1)).containsExactly(1, 3);
+    assertThat(candidates(segment, 2, 2)).isEmpty();
+  }
+
+  @Test
+  public void shouldCacheTheBlocksBeforeABlockCachedPartwayThroughANewSegment() {
+    givenCanonicalChain(
+        BLOCKS_PER_BLOOM_CACHE + 25_000, BLOCKS_PER_BLOOM_CACHE + 1_500, BLOCKS_PER_BLOOM_CACHE);
+
+    cacheBlock(BLOCKS_PER_BLOOM_CACHE + 25_000, LogsBloomFilter.empty());
+
+    final LogBloomCacheSegment segment = LogBloomCacheSegment.open(cacheDir, 1).orElseThrow();
+    assertThat(segment.size()).isEqualTo(25_001);
+    assertThat(candidates(segment, 0, BLOCKS_PER_BLOOM_CACHE - 1)).containsExactly(0, 1_500);
+
+    cacheBlock(BLOCKS_PER_BLOOM_CACHE + 25_001, ADDRESS_BLOOM);
+    assertThat(candidates(LogBloomCacheSegment.open(cacheDir, 1).orElseThrow(), 1, 25_001))
+        .containsExactly(1_500, 25_001);
+  }
+
+  @Test
+  public void shouldSkipBlocksExcludedBySummaries() throws IOException {
+    givenCanonicalChain(5_000, 1);
+    cacheBlock(5_000, LogsBloomFilter.empty());
+    Files.delete(LogBloomBitSlices.file(cacheDir, 0));
+    // Written behind the summaries' back, so only found when every bloom is checked.
+    try (final RandomAccessFile file =
+        new RandomAccessFile(LogBloomCacheSegment.bloomsFile(cacheDir, 0).toFile(), "rw")) {
+      file.seek(5_000 * LogsBloomFilter.BYTE_SIZE);
+      file.write(ADDRESS_BLOOM.toArray());
+    }
+
+    assertThat(candidates(LogBloomCacheSegment.open(cacheDir, 0).orElseThrow(), 0, 5_000))
+        .containsExactly(1);
+
+    Files.delete(LogBloomCacheSegment.summaryFile(cacheDir, 0));
+    assertThat(candidates(LogBloomCacheSegment.open(cacheDir, 0).orElseThrow(), 0, 5_000))
+        .containsExactly(1, 5_000);
+  }
+
+  @Test
+  public void shouldNotStartSummariesForSegmentsCachedWithoutThem() throws IOException {
+    Files.write(LogBloomCacheSegment.bloomsFile(cacheDir, 0), ADDRESS_BLOOM.toArray());
+    cacheBlock(1, ADDRESS_BLOOM);
+
+    assertThat(Files.exists(LogBloomCacheSegment.summaryFile(cacheDir, 0))).isFalse();
+    assertThat(Files.exists(LogBloomBitSlices.file(cacheDir, 0))).isFalse();
+    assertThat(candidates(LogBloomCacheSegment.open(cacheDir, 0).orElseThrow(), 0, 1))
+        .containsExactly(0, 1);
+  }
+
+  @Test
+  public void shouldGenerateBloomsAndSummariesOfSegment() {
+    when(blockchain.getBlockHeader(anyLong()))
+        .thenAnswer(
+            invocation -> {
+              final long number = invocation.getArgument(0);
+              final LogsBloomFilter bloom =
+                  number == 1_500 ? ADDRESS_BLOOM : LogsBloomFilter.empty();
+              return number < 3_000 ? Optional.of(header(number, bloom)) : Optional.empty();
+            });
+
+    cacher.generateLogBloomCache(0, BLOCKS_PER_BLOOM_CACHE);
+
+    final LogBloomCacheSegment segment = LogBloomCacheSegment.open(cacheDir, 0).orElseThrow();
+    assertThat(Files.exists(LogBloomCacheSegment.summaryFile(cacheDir, 0))).isTrue();
+    assertThat(Files.exists(LogBloomBitSlices.file(cacheDir, 0))).isTrue();
+    assertThat(segment.size()).isEqualTo(3_000);
+    assertThat(candidates(segment, 0, BLOCKS_PER_BLOOM_CACHE - 1)).containsExactly(1_500);
+  }
+
+  @Test
+  public void shouldMapSegmentsAgainOnlyOnceTheyAreWrittenTo() {
+    givenCanonicalChain(1_500, 1_500);
+    cacher.generateLogBloomCache(0, BLOCKS_PER_BLOOM_CACHE);
+
+    final LogBloomCacheSegment segment = cacher.getSegment(0).orElseThrow();
+    assertThat(cacher.getSegment(0)).containsSame(segment);
+    assertThat(segment.size()).isEqualTo(1_501);
+
+    cacheBlock(1_501, ADDRESS_BLOOM);
+    final LogBloomCacheSegment appended = cacher.getSegment(0).orElseThrow();
+    assertThat(appended).isNotSameAs(segment);
+    assertThat(candidates(appended, 0, 1_501)).containsExactly(1_500, 1_501);
+
+    cacher.generateLogBloomCache(0, BLOCKS_PER_BLOOM_CACHE);
+    final LogBloomCacheSegment regenerated = cacher.getSegment(0).orElseThrow();
+    assertThat(regenerated).isNotSameAs(appended);
+    assertThat(candidates(regenerated, 0, 1_501)).containsExactly(1_500);
+  }
+
+  @Test
+  public void shouldNotOpenSegmentsThatAreNotCached() {
+    assertThat(LogBloomCacheSegment.open(cacheDir, 0)).isEmpty();
+    assertThat(cacher.getSegment(0)).isEmpty();
+  }
+
+  private void givenCanonicalChain(final long headNumber, final long... blocksWithLogs) {
+    when(blockchain.getBlockHeader(anyLong()))
+        .thenAnswer(
+            invocation -> {
+              final long number = invocation.getArgument(0);
+              final LogsBloomFilter bloom =
+                  LongStream.of(blocksWithLogs).anyMatch(block -> block == number)
+                      ? ADDRESS_BLOOM
+                      : LogsBloomFilter.empty();
+              return number <= headNumber ? Optional.of(header(number, bloom)) : Optional.empty();
+            });
+  }
+
+  private void cacheBlock(final long number, final LogsBloomFilter bloom) {
+    cacher.cacheLogsBloomForBlockHeader(header(number, bloom), Optional.empty(), false);
+  }
+
+  private static BlockHeader header(final long number, final LogsBloomFilter bloom) {
+    return new BlockHeaderTestFixture()
+        .number(number)
+        .logsBloom(bloom)
+        .buildHeader();
+  }
+
+  private static List<Integer> candidates(
+      final LogBloomCacheSegment segment, final int fromOffset, final int toOffset) {
+    final List<Integer> candidates = new ArrayList<>();
+    segment.forEachCandidate(fromOffset, toOffset, QUERY, candidates::add);
+    return candidates;
+  }
+}
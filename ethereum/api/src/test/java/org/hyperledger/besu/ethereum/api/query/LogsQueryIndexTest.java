@@ -0,0 +1,133 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.api.query;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Log;
+import org.hyperledger.besu.ethereum.core.LogTopic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Test;
+
+public class LogsQueryIndexTest {
+
+  private static final Address ADDRESS_1 = Address.fromHexString("0x1");
+  private static final Address ADDRESS_2 = Address.fromHexString("0x2");
+  private static final LogTopic TOPIC_1 = LogTopic.fromHexString("0x" + "11".repeat(32));
+  private static final LogTopic TOPIC_2 = LogTopic.fromHexString("0x" + "22".repeat(32));
+  private static final List<LogTopic> ANY_TOPIC = singletonList(null);
+
+  private final LogsQueryIndex<String> index = new LogsQueryIndex<>();
+
+  @Test
+  public void shouldMatchQueriesByAddress() {
+    index.add("address1", new LogsQuery.Builder().address(ADDRESS_1).build());
+    index.add("address2", new LogsQuery.Builder().address(ADDRESS_2).build());
+    index.add("bothAddresses", new LogsQuery.Builder().addresses(ADDRESS_1, ADDRESS_2).build());
+
+    assertThat(matches(log(ADDRESS_1))).containsExactlyInAnyOrder("address1", "bothAddresses");
+  }
+
+  @Test
+  public void shouldMatchQueriesByTopicAtTheSamePosition() {
+    index.add("topic1First", topicsQuery(singletonList(TOPIC_1)));
+    index.add("topic1Second", topicsQuery(ANY_TOPIC, singletonList(TOPIC_1)));
+    index.add("topic2First", topicsQuery(singletonList(TOPIC_2)));
+
+    assertThat(matches(log(ADDRESS_1, TOPIC_1, TOPIC_2))).containsExactly("topic1First");
+    assertThat(matches(log(ADDRESS_1, TOPIC_2, TOPIC_1)))
+        .containsExactlyInAnyOrder("topic1Second", "topic2First");
+  }
+
+  @Test
+  public void shouldCheckTheWholeQueryOfIndexedCandidates() {
+    index.add(
+        "addressAndTopic",
+        new LogsQuery.Builder()
+            .address(ADDRESS_1)
+            .topics(singletonList(singletonList(TOPIC_1)))
+            .build());
+
+    assertThat(matches(log(ADDRESS_1, TOPIC_2))).isEmpty();
+    assertThat(matches(log(ADDRESS_1, TOPIC_1))).containsExactly("addressAndTopic");
+  }
+
+  @Test
+  public void shouldCheckQueriesWithoutAddressOrSpecificTopicsAgainstEveryLog() {
+    index.add("any", new LogsQuery.Builder().build());
+    index.add("anyFirstTopic", topicsQuery(ANY_TOPIC));
+
+    assertThat(matches(log(ADDRESS_1, TOPIC_1))).containsExactlyInAnyOrder("any", "anyFirstTopic");
+    assertThat(matches(log(ADDRESS_2))).containsExactly("any");
+  }
+
+  @Test
+  public void shouldMatchEachQueryOnce() {
+    index.add(
+        "repeated",
+        new LogsQuery.Builder()
+            .addresses(ADDRESS_1, ADDRESS_1)
+            .topics(singletonList(asList(TOPIC_1, TOPIC_1)))
+            .build());
+
+    assertThat(matches(log(ADDRESS_1, TOPIC_1))).containsExactly("repeated");
+  }
+
+  @Test
+  public void shouldNotMatchRemovedQueries() {
+    index.add("address", new LogsQuery.Builder().address(ADDRESS_1).build());
+    index.add("topic", topicsQuery(singletonList(TOPIC_1)));
+    index.add("any", new LogsQuery.Builder().build());
+
+    index.remove("address");
+    index.remove("topic");
+    index.remove("any");
+
+    assertThat(matches(log(ADDRESS_1, TOPIC_1))).isEmpty();
+    assertThat(index.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void shouldRejectASecondQueryForTheSameKey() {
+    index.add("key", new LogsQuery.Builder().address(ADDRESS_1).build());
+
+    assertThatThrownBy(() -> index.add("key", new LogsQuery.Builder().address(ADDRESS_2).build()))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(matches(log(ADDRESS_2))).isEmpty();
+  }
+
+  private List<String> matches(final Log log) {
+    final List<String> matches = new ArrayList<>();
+    index.forEachMatch(log, matches::add);
+    return matches;
+  }
+
+  @SafeVarargs
+  private static LogsQuery topicsQuery(final List<LogTopic>... topics) {
+    return new LogsQuery.Builder().topics(asList(topics)).build();
+  }
+
+  private static Log log(final Address address, final LogTopic... topics) {
+    return new Log(address, Bytes.EMPTY, asList(topics));
+  }
+}
@@ -75,6 +75,9 @@ public abstract class AbstractBlockCreator<C> implements AsyncBlockCreator {
 
   private final AtomicBoolean isCancelled = new AtomicBoolean(false);
 
+  private final Object candidateBlockLock = new Object();
+  private Optional<CandidateBlock> candidateBlock = Optional.empty();
+
   public AbstractBlockCreator(
       final Address coinbase,
       final ExtraDataCalculator extraDataCalculator,
@@ -125,16 +128,50 @@ public abstract class AbstractBlockCreator<C> implements AsyncBlockCreator {
     return createBlock(Optional.of(transactions), Optional.of(ommers), timestamp);
   }
 
+  /**
+   * Selects pending transactions for the block with the given timestamp ahead of it being created.
+   * The selected transactions are applied to a candidate block which {@link #createBlock(long)}
+   * continues from when called with the same timestamp, so it only has to process transactions
+   * added to the pool after the last preparation.
+   *
+   * <p>May be called repeatedly while waiting to create the block, each call extending the
+   * candidate with the transactions which have become available since the previous call.
+   *
+   * @param timestamp the timestamp of the block which is expected to be created.
+   */
+  public void prepareBlock(final long timestamp) {
+    synchronized (candidateBlockLock) {
+      if (isCancelled.get()) {
+        return;
+      }
+      try {
+        final CandidateBlock candidate =
+            candidateBlock
+                .filter(existing -> existing.getTimestamp() == timestamp)
+                .orElseGet(() -> createCandidateBlock(timestamp));
+        candidateBlock = Optional.of(candidate);
+        candidate.getTransactionSelector().buildTransactionListForBlock();
+      } catch (final CancellationException ex) {
+        LOG.trace("Preparing block was interrupted.");
+      } catch (final Exception ex) {
+        // Creating the block will start from scratch and report the failure if it persists.
+        LOG.debug("Failed to prepare block with timestamp {}", timestamp, ex);
+        candidateBlock = Optional.empty();
+      }
+    }
+  }
+
   private Block createBlock(
       final Optional<List<Transaction>> maybeTransactions,
       final Optional<List<BlockHeader>> maybeOmmers,
       final long timestamp) {
     try {
-      final ProcessableBlockHeader processableBlockHeader = createPendingBlockHeader(timestamp);
-
-      throwIfStopped();
-
-      final MutableWorldState disposableWorldState = duplicateWorldStateAtParent();
+      final CandidateBlock candidate =
+          maybeTransactions.isPresent()
+              ? createCandidateBlock(timestamp)
+              : takeCandidateBlock(timestamp).orElseGet(() -> createCandidateBlock(timestamp));
+      final ProcessableBlockHeader processableBlockHeader = candidate.getProcessableBlockHeader();
+      final MutableWorldState disposableWorldState = candidate.getWorldState();
 
       throwIfStopped();
 
@@ -143,7 +180,9 @@ public abstract class AbstractBlockCreator<C> implements AsyncBlockCreator {
       throwIfStopped();
 
       final BlockTransactionSelector.TransactionSelectionResults transactionResults =
-          selectTransactions(processableBlockHeader, disposableWorldState, maybeTransactions);
+          maybeTransactions.isPresent()
+              ? candidate.getTransactionSelector().evaluateTransactions(maybeTransactions.get())
+              : candidate.getTransactionSelector().buildTransactionListForBlock();
 
       throwIfStopped();
 
@@ -189,11 +228,35 @@ public abstract class AbstractBlockCreator<C> implements AsyncBlockCreator {
     }
   }
 
-  private BlockTransactionSelector.TransactionSelectionResults selectTransactions(
+  private Optional<CandidateBlock> takeCandidateBlock(final long timestamp) {
+    synchronized (candidateBlockLock) {
+      final Optional<CandidateBlock> candidate =
+          candidateBlock.filter(existing -> existing.getTimestamp() == timestamp);
+      // The candidate's world state is modified when the block is created, so it can't be reused.
+      candidateBlock = Optional.empty();
+      return candidate;
+    }
+  }
+
+  private CandidateBlock createCandidateBlock(final long timestamp) {
+    final ProcessableBlockHeader processableBlockHeader = createPendingBlockHeader(timestamp);
+
+    throwIfStopped();
+
+    final MutableWorldState disposableWorldState = duplicateWorldStateAtParent();
+
+    throwIfStopped();
+
+    return new CandidateBlock(
+        timestamp,
+        processableBlockHeader,
+        disposableWorldState,
+        createTransactionSelector(processableBlockHeader, disposableWorldState));
+  }
+
+  private BlockTransactionSelector createTransactionSelector(
       final ProcessableBlockHeader processableBlockHeader,
-      final MutableWorldState disposableWorldState,
-      final Optional<List<Transaction>> transactions)
-      throws RuntimeException {
+      final MutableWorldState disposableWorldState) {
     final long blockNumber = processableBlockHeader.getNumber();
 
     final TransactionProcessor transactionProcessor =
@@ -202,23 +265,16 @@ public abstract class AbstractBlockCreator<C> implements AsyncBlockCreator {
     final MainnetBlockProcessor.TransactionReceiptFactory transactionReceiptFactory =
         protocolSchedule.getByBlockNumber(blockNumber).getTransactionReceiptFactory();
 
-    final BlockTransactionSelector selector =
-        new BlockTransactionSelector(
-            transactionProcessor,
-            protocolContext.getBlockchain(),
-            disposableWorldState,
-            pendingTransactions,
-            processableBlockHeader,
-            transactionReceiptFactory,
-            minTransactionGasPrice,
-            isCancelled::get,
-            miningBeneficiary);
-
-    if (transactions.isPresent()) {
-      return selector.evaluateTransactions(transactions.get());
-    } else {
-      return selector.buildTransactionListForBlock();
-    }
+    return new BlockTransactionSelector(
+        transactionProcessor,
+        protocolContext.getBlockchain(),
+        disposableWorldState,
+        pendingTransactions,
+        processableBlockHeader,
+        transactionReceiptFactory,
+        minTransactionGasPrice,
+        isCancelled::get,
+        miningBeneficiary);
   }
 
   private MutableWorldState duplicateWorldStateAtParent() {
@@ -320,4 +376,39 @@ public abstract class AbstractBlockCreator<C> implements AsyncBlockCreator {
 
   protected abstract BlockHeader createFinalBlockHeader(
       final SealableBlockHeader sealableBlockHeader);
+
+  /** A block under construction, with the transactions selected so far applied to its state. */
+  private static class CandidateBlock {
+    private final long timestamp;
+    private final ProcessableBlockHeader processableBlockHeader;
+    private final MutableWorldState worldState;
+    private final BlockTransactionSelector transactionSelector;
+
+    CandidateBlock(
+        final long timestamp,
+        final ProcessableBlockHeader processableBlockHeader,
+        final MutableWorldState worldState,
+        final BlockTransactionSelector transactionSelector) {
+      this.timestamp = timestamp;
+      this.processableBlockHeader = processableBlockHeader;
+      this.worldState = worldState;
+      this.transactionSelector = transactionSelector;
+    }
+
+    long getTimestamp() {
+      return timestamp;
+    }
+
+    ProcessableBlockHeader getProcessableBlockHeader() {
+      return processableBlockHeader;
+    }
+
+    MutableWorldState getWorldState() {
+      return worldState;
+    }
+
+    BlockTransactionSelector getTransactionSelector() {
+      return transactionSelector;
+    }
+  }
 }
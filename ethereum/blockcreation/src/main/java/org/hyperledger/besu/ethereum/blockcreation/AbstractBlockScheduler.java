@@ -17,9 +17,15 @@ package org.hyperledger.besu.ethereum.blockcreation;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 
 import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import com.google.common.base.Stopwatch;
 
 public abstract class AbstractBlockScheduler {
 
+  private static final long PREPARE_BLOCK_INTERVAL_MILLIS = 500;
+
   protected final Clock clock;
 
   public AbstractBlockScheduler(final Clock clock) {
@@ -28,9 +34,32 @@ public abstract class AbstractBlockScheduler {
 
   public long waitUntilNextBlockCanBeMined(final BlockHeader parentHeader)
       throws InterruptedException {
+    return waitUntilNextBlockCanBeMined(parentHeader, timestamp -> {});
+  }
+
+  /**
+   * Waits until the next block can be mined, repeatedly calling <i>prepareBlock</i> with the
+   * timestamp of that block while waiting so a candidate block can be kept up to date.
+   *
+   * @param parentHeader the header of the parent of the block to be mined
+   * @param prepareBlock called with the timestamp of the block to be mined
+   * @return the timestamp of the block to be mined
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public long waitUntilNextBlockCanBeMined(
+      final BlockHeader parentHeader, final LongConsumer prepareBlock) throws InterruptedException {
     final BlockCreationTimeResult result = getNextTimestamp(parentHeader);
 
-    Thread.sleep(result.millisecondsUntilValid);
+    final Stopwatch stopwatch = Stopwatch.createStarted();
+    long remainingMillis = result.millisecondsUntilValid;
+    while (remainingMillis > 0) {
+      prepareBlock.accept(result.timestampForHeader);
+      remainingMillis = result.millisecondsUntilValid - stopwatch.elapsed(TimeUnit.MILLISECONDS);
+      if (remainingMillis > 0) {
+        Thread.sleep(Math.min(remainingMillis, PREPARE_BLOCK_INTERVAL_MILLIS));
+        remainingMillis = result.millisecondsUntilValid - stopwatch.elapsed(TimeUnit.MILLISECONDS);
+      }
+    }
 
     return result.timestampForHeader;
   }
@@ -116,7 +116,10 @@ public class BlockMiner<C, M extends AbstractBlockCreator<C>> implements Runnabl
     // ahead of the parent, and still within allowable clock tolerance.
     LOG.trace("Started a mining operation.");
 
-    final long newBlockTimestamp = scheduler.waitUntilNextBlockCanBeMined(parentHeader);
+    // Transactions are selected while waiting, so creating the block only has to process the
+    // transactions received since the last selection.
+    final long newBlockTimestamp =
+        scheduler.waitUntilNextBlockCanBeMined(parentHeader, minerBlockCreator::prepareBlock);
 
     final Stopwatch stopwatch = Stopwatch.createStarted();
     LOG.trace("Mining a new block with timestamp {}", newBlockTimestamp);
@@ -16,6 +16,7 @@ package org.hyperledger.besu.ethereum.blockcreation;
 
 import org.hyperledger.besu.ethereum.chain.Blockchain;
 import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.ProcessableBlockHeader;
 import org.hyperledger.besu.ethereum.core.Transaction;
@@ -30,7 +31,9 @@ import org.hyperledger.besu.ethereum.mainnet.TransactionValidationParams;
 import org.hyperledger.besu.ethereum.mainnet.TransactionValidator;
 import org.hyperledger.besu.ethereum.vm.BlockHashLookup;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.function.Supplier;
 
@@ -53,8 +56,10 @@ import com.google.common.collect.Lists;
  *   <li>The amount of gas consumed when executing all transactions.
  * </ul>
  *
- * Once "used" this class must be discarded and another created. This class contains state which is
- * not cleared between executions of buildTransactionListForBlock().
+ * This class contains state which is not cleared between executions of
+ * buildTransactionListForBlock(). Executing it again continues the same block, only processing
+ * transactions which haven't been selected yet, so a candidate block can be kept up to date as new
+ * transactions arrive. Once the block has been created this class must be discarded.
  */
 public class BlockTransactionSelector {
 
@@ -65,12 +70,14 @@ public class BlockTransactionSelector {
   public static class TransactionSelectionResults {
 
     private final List<Transaction> transactions = Lists.newArrayList();
+    private final Set<Hash> transactionHashes = new HashSet<>();
     private final List<TransactionReceipt> receipts = Lists.newArrayList();
     private long cumulativeGasUsed = 0;
 
     private void update(
         final Transaction transaction, final TransactionReceipt receipt, final long gasUsed) {
       transactions.add(transaction);
+      transactionHashes.add(transaction.getHash());
       receipts.add(receipt);
       cumulativeGasUsed += gasUsed;
     }
@@ -79,6 +86,10 @@ public class BlockTransactionSelector {
       return transactions;
     }
 
+    private boolean isSelected(final Transaction transaction) {
+      return transactionHashes.contains(transaction.getHash());
+    }
+
     public List<TransactionReceipt> getReceipts() {
       return receipts;
     }
@@ -126,6 +137,8 @@ public class BlockTransactionSelector {
   long running process.
   If running in a thread, it can be cancelled via the isCancelled supplier (which will result
   in this throwing an CancellationException).
+  Transactions selected by a previous execution are skipped, so executing this again only adds
+  the transactions which have become available since.
    */
   public TransactionSelectionResults buildTransactionListForBlock() {
     pendingTransactions.selectTransactions(this::evaluateTransaction);
@@ -157,6 +170,11 @@ public class BlockTransactionSelector {
       throw new CancellationException("Cancelled during transaction selection.");
     }
 
+    if (transactionSelectionResult.isSelected(transaction)) {
+      // Already applied to the world state by a previous selection for this block.
+      return TransactionSelectionResult.CONTINUE;
+    }
+
     if (transactionTooLargeForBlock(transaction)) {
       if (blockOccupancyAboveThreshold()) {
         return TransactionSelectionResult.COMPLETE_OPERATION;
@@ -19,6 +19,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.hyperledger.besu.config.GenesisConfigFile;
@@ -510,6 +512,47 @@ public class BlockTransactionSelectorTest {
     assertThat(results.getTransactions().size()).isEqualTo(0);
   }
 
+  @Test
+  public void repeatedSelectionOnlyProcessesTransactionsNotAlreadySelected() {
+    final Transaction transaction1 = createTransaction(0);
+    final Transaction transaction2 = createTransaction(1);
+    pendingTransactions.addRemoteTransaction(transaction1);
+
+    when(transactionProcessor.processTransaction(
+            any(), any(), any(), any(), any(), any(), anyBoolean(), any()))
+        .thenReturn(
+            MainnetTransactionProcessor.Result.successful(
+                new ArrayList<>(), 0, Bytes.EMPTY, ValidationResult.valid()));
+
+    final ProcessableBlockHeader blockHeader = createBlockWithGasLimit(5000);
+
+    final Address miningBeneficiary = AddressHelpers.ofValue(1);
+
+    final BlockTransactionSelector selector =
+        new BlockTransactionSelector(
+            transactionProcessor,
+            blockchain,
+            worldState,
+            pendingTransactions,
+            blockHeader,
+            this::createReceipt,
+            Wei.ZERO,
+            isCancelled,
+            miningBeneficiary);
+
+    selector.buildTransactionListForBlock();
+    pendingTransactions.addRemoteTransaction(transaction2);
+    final BlockTransactionSelector.TransactionSelectionResults results =
+        selector.buildTransactionListForBlock();
+
+    assertThat(results.getTransactions()).containsExactly(transaction1, transaction2);
+    assertThat(results.getReceipts().size()).isEqualTo(2);
+    assertThat(results.getCumulativeGasUsed()).isEqualTo(200);
+    verify(transactionProcessor, times(1))
+        .processTransaction(
+            any(), any(), any(), eq(transaction1), any(), any(), anyBoolean(), any());
+  }
+
   private Transaction createTransaction(final int transactionNumber) {
     return Transaction.builder()
         .gasLimit(100)
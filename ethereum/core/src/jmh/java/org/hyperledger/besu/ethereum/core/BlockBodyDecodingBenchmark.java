@@ -0,0 +1,108 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.core;
+
+import org.hyperledger.besu.ethereum.mainnet.MainnetBlockHeaderFunctions;
+import org.hyperledger.besu.ethereum.rlp.BytesValueRLPOutput;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.rlp.RLPInput;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares decoding a stored block body and its receipts up front with decoding them lazily from
+ * slices of their encoding, both when only the transaction hashes are needed and when every
+ * transaction and log is read.
+ */
+@State(Scope.Thread)
+public class BlockBodyDecodingBenchmark {
+
+  private static final BlockHeaderFunctions BLOCK_HEADER_FUNCTIONS =
+      new MainnetBlockHeaderFunctions();
+
+  @Param({"10", "200"})
+  public int transactionCount;
+
+  private Bytes encodedBody;
+  private Bytes encodedReceipts;
+
+  @Setup
+  public void prepare() {
+    final BlockDataGenerator generator = new BlockDataGenerator(1);
+    final BlockBody body =
+        new BlockBody(
+            new ArrayList<>(generator.transactions(transactionCount)), Collections.emptyList());
+    encodedBody = RLP.encode(body::writeTo);
+
+    final List<TransactionReceipt> receipts = new ArrayList<>();
+    for (int i = 0; i < transactionCount; i++) {
+      receipts.add(generator.receipt(generator.logs(2, 3)));
+    }
+    final BytesValueRLPOutput out = new BytesValueRLPOutput();
+    out.writeList(receipts, TransactionReceipt::writeToWithRevertReason);
+    encodedReceipts = out.encoded();
+  }
+
+  @Benchmark
+  public List<Hash> eagerBodyTransactionHashes() {
+    return BlockBody.readFrom(RLP.input(encodedBody), BLOCK_HEADER_FUNCTIONS)
+        .getTransactionHashes();
+  }
+
+  @Benchmark
+  public List<Hash> lazyBodyTransactionHashes() {
+    return BlockBody.readLazilyFrom(RLP.input(encodedBody), BLOCK_HEADER_FUNCTIONS)
+        .getTransactionHashes();
+  }
+
+  @Benchmark
+  public List<Transaction> eagerBodyTransactions() {
+    return BlockBody.readFrom(RLP.input(encodedBody), BLOCK_HEADER_FUNCTIONS).getTransactions();
+  }
+
+  @Benchmark
+  public List<Transaction> lazyBodyTransactions() {
+    return BlockBody.readLazilyFrom(RLP.input(encodedBody), BLOCK_HEADER_FUNCTIONS)
+        .getTransactions();
+  }
+
+  @Benchmark
+  public List<TransactionReceipt> receiptsWithoutLogs() {
+    return readReceipts();
+  }
+
+  @Benchmark
+  public int receiptsWithLogs() {
+    int logCount = 0;
+    for (final TransactionReceipt receipt : readReceipts()) {
+      logCount += receipt.getLogs().size();
+    }
+    return logCount;
+  }
+
+  private List<TransactionReceipt> readReceipts() {
+    final RLPInput input = RLP.input(encodedReceipts);
+    return input.readList(TransactionReceipt::readFrom);
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import static java.util.Collections.emptyList;
+
+import org.hyperledger.besu.config.StubGenesisConfigOptions;
+import org.hyperledger.besu.crypto.SECP256K1.KeyPair;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.ExecutionContextTestFixture;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.InMemoryStorageProvider;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.PrivacyParameters;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.TransactionTestFixture;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Replays a block shaped like a typical mainnet block through the block processor, once
+ * sequentially and once with speculative parallel transaction execution. The block mixes plain
+ * transfers, token style calls that only touch storage owned by their sender, calls to a shared
+ * counter that always conflict, and senders with several transactions in the same block.
+ */
+@State(Scope.Thread)
+public class SpeculativeBlockProcessingBenchmark {
+
+  private static final BigInteger CHAIN_ID = BigInteger.valueOf(2018);
+  // Increments the storage slot keyed by the caller.
+  private static final Bytes TOKEN_CODE = Bytes.fromHexString("0x3354600101335500");
+  // Increments storage slot 0.
+  private static final Bytes COUNTER_CODE = Bytes.fromHexString("0x60005460010160005500");
+  private static final Address TOKEN = Address.fromHexString("0x100");
+  private static final Address COUNTER = Address.fromHexString("0x101");
+
+  @Param({"200"})
+  public int transactionCount;
+
+  @Param({"1", "4", "16"})
+  public int threads;
+
+  private final Random random = new Random(42);
+
+  private ExecutorService executorService;
+  private Blockchain blockchain;
+  private WorldStateArchive worldStateArchive;
+  private Hash initialStateRoot;
+  private BlockHeader blockHeader;
+  private List<Transaction> transactions;
+  private MainnetBlockProcessor sequentialProcessor;
+  private MainnetBlockProcessor speculativeProcessor;
+
+  @Setup
+  public void prepare() {
+    final ProtocolSpec<Void> protocolSpec =
+        new ProtocolScheduleBuilder<>(
+                new StubGenesisConfigOptions().istanbulBlock(0),
+                CHAIN_ID,
+                Function.identity(),
+                new PrivacyParameters(),
+                false)
+            .createProtocolSchedule()
+            .getByBlockNumber(1);
+    sequentialProcessor = createBlockProcessor(protocolSpec);
+    speculativeProcessor = createBlockProcessor(protocolSpec);
+    executorService = Executors.newFixedThreadPool(threads);
+    speculativeProcessor.setSpeculativeTransactionExecutor(
+        new SpeculativeTransactionExecutor(executorService, new NoOpMetricsSystem()));
+    blockchain = ExecutionContextTestFixture.create().getBlockchain();
+
+    worldStateArchive = InMemoryStorageProvider.createInMemoryWorldStateArchive();
+    final MutableWorldState worldState = worldStateArchive.getMutable();
+    final WorldUpdater updater = worldState.updater();
+    updater.createAccount(TOKEN).getMutable().setCode(TOKEN_CODE);
+    updater.createAccount(COUNTER).getMutable().setCode(COUNTER_CODE);
+
+    transactions = new ArrayList<>(transactionCount);
+    KeyPair sender = null;
+    long nonce = 0;
+    for (int i = 0; i < transactionCount; i++) {
+      // Roughly one transaction in ten comes from the same sender as the previous one.
+      if (sender == null || random.nextInt(10) != 0) {
+        sender = KeyPair.generate();
+        nonce = 0;
+        updater.createAccount(Address.extract(sender.getPublicKey()), 0, Wei.fromEth(10));
+      }
+      transactions.add(createTransaction(sender, nonce++));
+    }
+    updater.commit();
+    worldState.persist();
+    initialStateRoot = worldState.rootHash();
+    blockHeader =
+        new BlockHeaderTestFixture()
+            .number(1)
+            .gasLimit(transactionCount * 100_000L)
+            .coinbase(Address.fromHexString("0xc0ffee"))
+            .buildHeader();
+  }
+
+  @TearDown
+  public void cleanUp() {
+    executorService.shutdownNow();
+  }
+
+  @Benchmark
+  public Hash sequential() {
+    return processBlock(sequentialProcessor);
+  }
+
+  @Benchmark
+  public Hash speculative() {
+    return processBlock(speculativeProcessor);
+  }
+
+  private Hash processBlock(final MainnetBlockProcessor blockProcessor) {
+    final MutableWorldState worldState = worldStateArchive.getMutable(initialStateRoot).get();
+    blockProcessor.processBlock(blockchain, worldState, blockHeader, transactions, emptyList());
+    return worldState.rootHash();
+  }
+
+  private Transaction createTransaction(final KeyPair sender, final long nonce) {
+    final TransactionTestFixture transaction =
+        new TransactionTestFixture()
+            .sender(Address.extract(sender.getPublicKey()))
+            .nonce(nonce)
+            .gasLimit(100_000);
+    final int kind = random.nextInt(10);
+    if (kind < 6) {
+      final Bytes recipientSeed = Bytes.ofUnsignedLong(random.nextLong());
+      transaction.to(Optional.of(Address.extract(Hash.hash(recipientSeed))));
+    } else if (kind < 9) {
+      transaction.to(Optional.of(TOKEN)).value(Wei.ZERO);
+    } else {
+      transaction.to(Optional.of(COUNTER)).value(Wei.ZERO);
+    }
+    return transaction.createTransaction(sender);
+  }
+
+  private static MainnetBlockProcessor createBlockProcessor(final ProtocolSpec<Void> protocolSpec) {
+    return new MainnetBlockProcessor(
+        protocolSpec.getTransactionProcessor(),
+        protocolSpec.getTransactionReceiptFactory(),
+        protocolSpec.getBlockReward(),
+        protocolSpec.getMiningBeneficiaryCalculator(),
+        false);
+  }
+}
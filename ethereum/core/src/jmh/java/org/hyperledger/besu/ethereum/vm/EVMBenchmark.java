@@ -0,0 +1,107 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import org.hyperledger.besu.config.StubGenesisConfigOptions;
+import org.hyperledger.besu.ethereum.core.Gas;
+import org.hyperledger.besu.ethereum.core.PrivacyParameters;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.mainnet.ProtocolScheduleBuilder;
+import org.hyperledger.besu.ethereum.vm.ehalt.ExceptionalHaltException;
+import org.hyperledger.besu.ethereum.vm.operations.OperationBenchmarkHelper;
+
+import java.math.BigInteger;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Runs complete contracts through the interpreter loop, with and without an operation tracer so
+ * both the untraced fast path and the traced path are measured. Run with {@code -prof gc} to see
+ * the allocation rate alongside the throughput.
+ */
+@State(Scope.Thread)
+public class EVMBenchmark {
+
+  // Loops 4096 times over PUSH/MUL/ADD/MOD/POP and the loop counter bookkeeping.
+  private static final Bytes ARITHMETIC_CODE =
+      Bytes.fromHexString("0x6110005b6003600502600701600b0650600190038060035700");
+  // Loops 256 times storing the loop counter in the slot it names, then loading it back.
+  private static final Bytes STORAGE_CODE =
+      Bytes.fromHexString("0x6101005b808055805450600190038060035700");
+
+  private static final Gas INITIAL_GAS = Gas.of(100_000_000);
+
+  // Does the same as NO_TRACING but is a different tracer, so the traced path is taken.
+  private static final OperationTracer PASS_THROUGH_TRACER =
+      (frame, currentGasCost, executeOperation) -> executeOperation.execute();
+
+  @Param({"arithmetic", "storage"})
+  public String contract;
+
+  @Param({"false", "true"})
+  public boolean traced;
+
+  private OperationBenchmarkHelper operationBenchmarkHelper;
+  private EVM evm;
+  private WorldUpdater worldState;
+  private Code code;
+  private OperationTracer operationTracer;
+
+  @Setup
+  public void prepare() throws Exception {
+    operationBenchmarkHelper = OperationBenchmarkHelper.create();
+    evm =
+        new ProtocolScheduleBuilder<>(
+                new StubGenesisConfigOptions().istanbulBlock(0),
+                BigInteger.ONE,
+                Function.identity(),
+                new PrivacyParameters(),
+                false)
+            .createProtocolSchedule()
+            .getByBlockNumber(0)
+            .getEvm();
+    final MessageFrame frame = operationBenchmarkHelper.createMessageFrame();
+    worldState = frame.getWorldState();
+    worldState.getOrCreate(frame.getRecipientAddress());
+    code = new Code(contract.equals("storage") ? STORAGE_CODE : ARITHMETIC_CODE);
+    operationTracer = traced ? PASS_THROUGH_TRACER : OperationTracer.NO_TRACING;
+  }
+
+  @TearDown
+  public void cleanUp() throws Exception {
+    operationBenchmarkHelper.cleanUp();
+  }
+
+  @Benchmark
+  public Gas runContract() throws ExceptionalHaltException {
+    final MessageFrame frame =
+        operationBenchmarkHelper
+            .createMessageFrameBuilder()
+            .worldState(worldState.updater())
+            .initialGas(INITIAL_GAS)
+            .code(code)
+            .build();
+    frame.setState(MessageFrame.State.CODE_EXECUTING);
+    evm.runToHalt(frame, operationTracer);
+    return frame.getRemainingGas();
+  }
+}
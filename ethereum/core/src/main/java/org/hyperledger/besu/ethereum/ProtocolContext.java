@@ -19,15 +19,27 @@ import org.hyperledger.besu.ethereum.chain.BlockchainStorage;
 import org.hyperledger.besu.ethereum.chain.DefaultBlockchain;
 import org.hyperledger.besu.ethereum.chain.GenesisState;
 import org.hyperledger.besu.ethereum.chain.MutableBlockchain;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.mainnet.BlockProcessor;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.storage.StorageProvider;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
 import org.hyperledger.besu.ethereum.worldstate.WorldStatePreimageStorage;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateSnapshotStorage;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
 import java.util.function.BiFunction;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 /**
  * Holds the mutable state used to track the current context of the protocol. This is primarily the
  * blockchain and world state archive, but can also hold arbitrary context required by a particular
@@ -36,6 +48,8 @@ import java.util.function.BiFunction;
  * @param <C> the type of the consensus algorithm context
  */
 public class ProtocolContext<C> {
+  private static final Logger LOG = LogManager.getLogger();
+
   private final MutableBlockchain blockchain;
   private final WorldStateArchive worldStateArchive;
   private final C consensusState;
@@ -64,9 +78,15 @@ public class ProtocolContext<C> {
     final MutableBlockchain blockchain =
         DefaultBlockchain.createMutable(genesisState.getBlock(), blockchainStorage, metricsSystem);
 
+    final Optional<WorldStateSnapshotStorage> snapshotStorage =
+        storageProvider.createWorldStateSnapshotStorage();
     final WorldStateArchive worldStateArchive =
-        new WorldStateArchive(worldStateStorage, preimageStorage);
+        new WorldStateArchive(worldStateStorage, preimageStorage, snapshotStorage);
     genesisState.writeStateTo(worldStateArchive.getMutable());
+    if (storageProvider.isWorldStateWriteBehindEnabled()) {
+      restoreChainHeadWorldState(blockchain, worldStateArchive, protocolSchedule);
+    }
+    snapshotStorage.ifPresent(snapshot -> followChainHead(blockchain, snapshot));
 
     return new ProtocolContext<>(
         blockchain,
@@ -74,6 +94,61 @@ public class ProtocolContext<C> {
         consensusContextFactory.apply(blockchain, worldStateArchive));
   }
 
+  private static void followChainHead(
+      final MutableBlockchain blockchain, final WorldStateSnapshotStorage snapshotStorage) {
+    snapshotStorage.setChainHead(blockchain.getChainHeadHeader().getStateRoot());
+    blockchain.observeBlockAdded(
+        (event, __) -> {
+          if (event.isNewCanonicalHead()) {
+            snapshotStorage.setChainHead(event.getBlock().getHeader().getStateRoot());
+          }
+        });
+  }
+
+  /**
+   * Processes the blocks after the most recent block with an available world state again, so the
+   * world state of the chain head is restored after buffered world state changes were lost.
+   */
+  private static void restoreChainHeadWorldState(
+      final MutableBlockchain blockchain,
+      final WorldStateArchive worldStateArchive,
+      final ProtocolSchedule<?> protocolSchedule) {
+    final Deque<Block> blocksToProcess = new ArrayDeque<>();
+    BlockHeader header = blockchain.getChainHeadHeader();
+    while (!worldStateArchive.isWorldStateAvailable(header.getStateRoot())) {
+      final Hash hash = header.getHash();
+      final Hash parentHash = header.getParentHash();
+      blocksToProcess.push(
+          blockchain
+              .getBlockByHash(hash)
+              .orElseThrow(() -> new IllegalStateException("Missing block " + hash)));
+      header =
+          blockchain
+              .getBlockHeader(parentHash)
+              .orElseThrow(() -> new IllegalStateException("Missing block " + parentHash));
+    }
+    if (blocksToProcess.isEmpty()) {
+      return;
+    }
+
+    LOG.info(
+        "World state of blocks {} to {} was not written, processing them again",
+        header.getNumber() + 1,
+        blockchain.getChainHeadBlockNumber());
+    final MutableWorldState worldState = worldStateArchive.getMutable(header.getStateRoot()).get();
+    for (final Block block : blocksToProcess) {
+      final BlockProcessor blockProcessor =
+          protocolSchedule.getByBlockNumber(block.getHeader().getNumber()).getBlockProcessor();
+      final BlockProcessor.Result result =
+          blockProcessor.processBlock(blockchain, worldState, block);
+      if (!result.isSuccessful()
+          || !worldState.rootHash().equals(block.getHeader().getStateRoot())) {
+        throw new IllegalStateException(
+            "Unable to restore the world state of block " + block.getHeader().getNumber());
+      }
+    }
+  }
+
   public MutableBlockchain getBlockchain() {
     return blockchain;
   }
@@ -26,6 +26,7 @@ import org.hyperledger.besu.ethereum.core.TransactionReceipt;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /** An interface for reading data from the blockchain. */
 public interface Blockchain {
@@ -143,6 +144,18 @@ public interface Blockchain {
    */
   Optional<List<TransactionReceipt>> getTxReceipts(Hash blockHeaderHash);
 
+  /**
+   * Given a list of block hashes, returns the transaction receipts of each block, fetched as a
+   * single batch where the underlying storage supports it.
+   *
+   * @param blockHeaderHashes The header hashes of the blocks we're querying.
+   * @return The transaction receipts of each block, in the same order as the hashes.
+   */
+  default List<Optional<List<TransactionReceipt>>> getAllTxReceipts(
+      final List<Hash> blockHeaderHashes) {
+    return blockHeaderHashes.stream().map(this::getTxReceipts).collect(Collectors.toList());
+  }
+
   /**
    * Retrieves the header hash of the block at the given height in the canonical chain.
    *
@@ -23,6 +23,7 @@ import org.hyperledger.besu.ethereum.core.TransactionReceipt;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public interface BlockchainStorage {
 
@@ -36,6 +37,11 @@ public interface BlockchainStorage {
 
   Optional<List<TransactionReceipt>> getTransactionReceipts(Hash blockHash);
 
+  default List<Optional<List<TransactionReceipt>>> getAllTransactionReceipts(
+      final List<Hash> blockHashes) {
+    return blockHashes.stream().map(this::getTransactionReceipts).collect(Collectors.toList());
+  }
+
   Optional<Hash> getBlockHash(long blockNumber);
 
   Optional<Difficulty> getTotalDifficulty(Hash blockHash);
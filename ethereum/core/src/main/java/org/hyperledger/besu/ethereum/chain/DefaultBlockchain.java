@@ -189,6 +189,12 @@ public class DefaultBlockchain implements MutableBlockchain {
     return blockchainStorage.getTransactionReceipts(blockHeaderHash);
   }
 
+  @Override
+  public List<Optional<List<TransactionReceipt>>> getAllTxReceipts(
+      final List<Hash> blockHeaderHashes) {
+    return blockchainStorage.getAllTransactionReceipts(blockHeaderHashes);
+  }
+
   @Override
   public Optional<Hash> getBlockHashByNumber(final long number) {
     return blockchainStorage.getBlockHash(number);
@@ -57,8 +57,7 @@ public class Block {
     out.startList();
 
     header.writeTo(out);
-    out.writeList(body.getTransactions(), Transaction::writeTo);
-    out.writeList(body.getOmmers(), BlockHeader::writeTo);
+    body.writeListsTo(out);
 
     out.endList();
   }
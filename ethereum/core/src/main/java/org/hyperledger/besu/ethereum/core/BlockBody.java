@@ -14,24 +14,51 @@
  */
 package org.hyperledger.besu.ethereum.core;
 
+import org.hyperledger.besu.ethereum.rlp.RLP;
 import org.hyperledger.besu.ethereum.rlp.RLPInput;
 import org.hyperledger.besu.ethereum.rlp.RLPOutput;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Suppliers;
+import org.apache.tuweni.bytes.Bytes;
 
 public class BlockBody implements org.hyperledger.besu.plugin.data.BlockBody {
 
   private static final BlockBody EMPTY =
       new BlockBody(Collections.emptyList(), Collections.emptyList());
 
-  private final List<Transaction> transactions;
-  private final List<BlockHeader> ommers;
+  private final Supplier<List<Transaction>> transactions;
+  private final Supplier<List<BlockHeader>> ommers;
+  // The RLP encoded transaction and ommer lists, when this body was read lazily.
+  private final Optional<Bytes> encodedTransactions;
+  private final Optional<Bytes> encodedOmmers;
 
   public BlockBody(final List<Transaction> transactions, final List<BlockHeader> ommers) {
-    this.transactions = transactions;
-    this.ommers = ommers;
+    this.transactions = Suppliers.ofInstance(transactions);
+    this.ommers = Suppliers.ofInstance(ommers);
+    this.encodedTransactions = Optional.empty();
+    this.encodedOmmers = Optional.empty();
+  }
+
+  private BlockBody(
+      final Bytes encodedTransactions,
+      final Bytes encodedOmmers,
+      final BlockHeaderFunctions blockHeaderFunctions) {
+    this.transactions =
+        Suppliers.memoize(() -> RLP.input(encodedTransactions).readList(Transaction::readFrom));
+    this.ommers =
+        Suppliers.memoize(
+            () ->
+                RLP.input(encodedOmmers)
+                    .readList(rlp -> BlockHeader.readFrom(rlp, blockHeaderFunctions)));
+    this.encodedTransactions = Optional.of(encodedTransactions);
+    this.encodedOmmers = Optional.of(encodedOmmers);
   }
 
   public static BlockBody empty() {
@@ -41,13 +68,39 @@ public class BlockBody implements org.hyperledger.besu.plugin.data.BlockBody {
   /** @return The list of transactions of the block. */
   @Override
   public List<Transaction> getTransactions() {
-    return transactions;
+    return transactions.get();
   }
 
   /** @return The list of ommers of the block. */
   @Override
   public List<BlockHeader> getOmmers() {
-    return ommers;
+    return ommers.get();
+  }
+
+  /**
+   * Returns the hashes of the transactions of the block. For a body read lazily, these are
+   * calculated from the encoded transactions without decoding them.
+   *
+   * @return The hashes of the transactions of the block.
+   */
+  public List<Hash> getTransactionHashes() {
+    return encodedTransactions
+        .map(encoded -> RLP.input(encoded).readList(rlp -> Hash.hash(rlp.readAsRlp().raw())))
+        .orElseGet(
+            () ->
+                getTransactions().stream().map(Transaction::getHash).collect(Collectors.toList()));
+  }
+
+  /**
+   * Returns the number of transactions in the block. For a body read lazily, this is counted from
+   * the encoded transactions without decoding them.
+   *
+   * @return The number of transactions in the block.
+   */
+  public int getTransactionCount() {
+    return encodedTransactions
+        .map(encoded -> RLP.input(encoded).enterList())
+        .orElseGet(() -> getTransactions().size());
   }
 
   /**
@@ -57,11 +110,26 @@ public class BlockBody implements org.hyperledger.besu.plugin.data.BlockBody {
    */
   public void writeTo(final RLPOutput output) {
     output.startList();
-    output.writeList(getTransactions(), Transaction::writeTo);
-    output.writeList(getOmmers(), BlockHeader::writeTo);
+    writeListsTo(output);
     output.endList();
   }
 
+  /**
+   * Writes the transaction and ommer lists, reusing their original encoding if this body was read
+   * lazily.
+   *
+   * @param output Output to write to
+   */
+  void writeListsTo(final RLPOutput output) {
+    if (encodedTransactions.isPresent() && encodedOmmers.isPresent()) {
+      output.writeRLPUnsafe(encodedTransactions.get());
+      output.writeRLPUnsafe(encodedOmmers.get());
+    } else {
+      output.writeList(getTransactions(), Transaction::writeTo);
+      output.writeList(getOmmers(), BlockHeader::writeTo);
+    }
+  }
+
   public static BlockBody readFrom(
       final RLPInput input, final BlockHeaderFunctions blockHeaderFunctions) {
     input.enterList();
@@ -74,6 +142,26 @@ public class BlockBody implements org.hyperledger.besu.plugin.data.BlockBody {
     return body;
   }
 
+  /**
+   * Reads a block body whose transactions and ommers are only decoded when they are first
+   * accessed, keeping their encoding so the body can be written again without re-encoding it.
+   *
+   * <p>As decoding errors are only reported when the transactions or ommers are accessed, this
+   * should only be used for bodies that are known to be well formed, such as those from storage.
+   *
+   * @param input The input to read the block body from
+   * @param blockHeaderFunctions The functions to compute the hash of the ommers
+   * @return The block body
+   */
+  public static BlockBody readLazilyFrom(
+      final RLPInput input, final BlockHeaderFunctions blockHeaderFunctions) {
+    input.enterList();
+    final Bytes encodedTransactions = input.readAsRlp().raw();
+    final Bytes encodedOmmers = input.readAsRlp().raw();
+    input.leaveList();
+    return new BlockBody(encodedTransactions, encodedOmmers, blockHeaderFunctions);
+  }
+
   @Override
   public boolean equals(final Object obj) {
     if (obj == this) {
@@ -83,20 +171,21 @@ public class BlockBody implements org.hyperledger.besu.plugin.data.BlockBody {
       return false;
     }
     final BlockBody other = (BlockBody) obj;
-    return transactions.equals(other.transactions) && ommers.equals(other.ommers);
+    return getTransactions().equals(other.getTransactions())
+        && getOmmers().equals(other.getOmmers());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(transactions, ommers);
+    return Objects.hash(getTransactions(), getOmmers());
   }
 
   @Override
   public String toString() {
     final StringBuilder sb = new StringBuilder();
     sb.append("BlockBody{");
-    sb.append("transactions=").append(transactions).append(", ");
-    sb.append("ommers=").append(ommers);
+    sb.append("transactions=").append(getTransactions()).append(", ");
+    sb.append("ommers=").append(getOmmers());
     return sb.append("}").toString();
   }
 }
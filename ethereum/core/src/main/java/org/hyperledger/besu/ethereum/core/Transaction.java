@@ -75,11 +75,15 @@ public class Transaction implements org.hyperledger.besu.plugin.data.Transaction
   // Caches the hash used to uniquely identify the transaction.
   protected volatile Hash hash;
 
+  // The RLP encoding the transaction was read from, reused to hash and write it.
+  private volatile Bytes encoded;
+
   public static Builder builder() {
     return new Builder();
   }
 
-  public static Transaction readFrom(final RLPInput input) throws RLPException {
+  public static Transaction readFrom(final RLPInput rlpInput) throws RLPException {
+    final RLPInput input = rlpInput.readAsRlp();
     input.enterList();
 
     final Builder builder =
@@ -110,7 +114,9 @@ public class Transaction implements org.hyperledger.besu.plugin.data.Transaction
     input.leaveList();
 
     chainId.ifPresent(builder::chainId);
-    return builder.signature(signature).build();
+    final Transaction transaction = builder.signature(signature).build();
+    transaction.encoded = input.raw();
+    return transaction;
   }
 
   /**
@@ -290,6 +296,10 @@ public class Transaction implements org.hyperledger.besu.plugin.data.Transaction
    * @param out the output to write the transaction to
    */
   public void writeTo(final RLPOutput out) {
+    if (encoded != null) {
+      out.writeRLPUnsafe(encoded);
+      return;
+    }
     out.startList();
 
     out.writeLongScalar(getNonce());
@@ -339,7 +349,7 @@ public class Transaction implements org.hyperledger.besu.plugin.data.Transaction
   @Override
   public Hash getHash() {
     if (hash == null) {
-      final Bytes rlp = RLP.encode(this::writeTo);
+      final Bytes rlp = encoded != null ? encoded : RLP.encode(this::writeTo);
       hash = Hash.hash(rlp);
     }
     return hash;
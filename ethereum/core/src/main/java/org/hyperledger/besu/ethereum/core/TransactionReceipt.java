@@ -22,8 +22,10 @@ import org.hyperledger.besu.ethereum.rlp.RLPOutput;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Suppliers;
 import org.apache.tuweni.bytes.Bytes;
 
 /**
@@ -43,11 +45,13 @@ public class TransactionReceipt {
 
   private final Hash stateRoot;
   private final long cumulativeGasUsed;
-  private final List<Log> logs;
+  private final Supplier<List<Log>> logs;
   private final LogsBloomFilter bloomFilter;
   private final int status;
   private final TransactionReceiptType transactionReceiptType;
   private final Optional<Bytes> revertReason;
+  // The RLP encoding the receipt was read from, reused when writing it in the same form.
+  private final Optional<Bytes> encoded;
 
   /**
    * Creates an instance of a state root-encoded transaction receipt.
@@ -66,18 +70,10 @@ public class TransactionReceipt {
         stateRoot,
         NONEXISTENT,
         cumulativeGasUsed,
-        logs,
+        Suppliers.ofInstance(logs),
         LogsBloomFilter.builder().insertLogs(logs).build(),
-        revertReason);
-  }
-
-  private TransactionReceipt(
-      final Hash stateRoot,
-      final long cumulativeGasUsed,
-      final List<Log> logs,
-      final LogsBloomFilter bloomFilter,
-      final Optional<Bytes> revertReason) {
-    this(stateRoot, NONEXISTENT, cumulativeGasUsed, logs, bloomFilter, revertReason);
+        revertReason,
+        Optional.empty());
   }
 
   /**
@@ -97,27 +93,20 @@ public class TransactionReceipt {
         null,
         status,
         cumulativeGasUsed,
-        logs,
+        Suppliers.ofInstance(logs),
         LogsBloomFilter.builder().insertLogs(logs).build(),
-        revertReason);
-  }
-
-  private TransactionReceipt(
-      final int status,
-      final long cumulativeGasUsed,
-      final List<Log> logs,
-      final LogsBloomFilter bloomFilter,
-      final Optional<Bytes> revertReason) {
-    this(null, status, cumulativeGasUsed, logs, bloomFilter, revertReason);
+        revertReason,
+        Optional.empty());
   }
 
   private TransactionReceipt(
       final Hash stateRoot,
       final int status,
       final long cumulativeGasUsed,
-      final List<Log> logs,
+      final Supplier<List<Log>> logs,
       final LogsBloomFilter bloomFilter,
-      final Optional<Bytes> revertReason) {
+      final Optional<Bytes> revertReason,
+      final Optional<Bytes> encoded) {
     this.stateRoot = stateRoot;
     this.cumulativeGasUsed = cumulativeGasUsed;
     this.status = status;
@@ -126,6 +115,7 @@ public class TransactionReceipt {
     transactionReceiptType =
         stateRoot == null ? TransactionReceiptType.STATUS : TransactionReceiptType.ROOT;
     this.revertReason = revertReason;
+    this.encoded = encoded;
   }
 
   /**
@@ -142,6 +132,10 @@ public class TransactionReceipt {
   }
 
   private void writeTo(final RLPOutput out, final boolean withRevertReason) {
+    if (encoded.isPresent() && (withRevertReason || revertReason.isEmpty())) {
+      out.writeRLPUnsafe(encoded.get());
+      return;
+    }
     out.startList();
 
     // Determine whether it's a state root-encoded transaction receipt
@@ -153,7 +147,7 @@ public class TransactionReceipt {
     }
     out.writeLongScalar(cumulativeGasUsed);
     out.writeBytes(bloomFilter);
-    out.writeList(logs, Log::writeTo);
+    out.writeList(getLogs(), Log::writeTo);
     if (withRevertReason && revertReason.isPresent()) {
       out.writeBytes(revertReason.get());
     }
@@ -173,12 +167,16 @@ public class TransactionReceipt {
   /**
    * Creates a transaction receipt for the given RLP
    *
-   * @param input the RLP-encoded transaction receipt
+   * <p>The logs are only decoded when they are first accessed, and the receipt keeps its encoding
+   * so it can be written again without re-encoding it.
+   *
+   * @param rlpInput the RLP-encoded transaction receipt
    * @param revertReasonAllowed whether the rlp input is allowed to have a revert reason
    * @return the transaction receipt
    */
   public static TransactionReceipt readFrom(
-      final RLPInput input, final boolean revertReasonAllowed) {
+      final RLPInput rlpInput, final boolean revertReasonAllowed) {
+    final RLPInput input = rlpInput.readAsRlp();
     input.enterList();
 
     try {
@@ -186,10 +184,14 @@ public class TransactionReceipt {
       // correct transaction receipt encoding to use.
       final RLPInput firstElement = input.readAsRlp();
       final long cumulativeGas = input.readLongScalar();
-      // The logs below will populate the bloom filter upon construction.
       // TODO consider validating that the logs and bloom filter match.
       final LogsBloomFilter bloomFilter = LogsBloomFilter.readFrom(input);
-      final List<Log> logs = input.readList(Log::readFrom);
+      final RLPInput logsInput = input.readAsRlp();
+      if (!logsInput.nextIsList()) {
+        throw new RLPException("Expected TransactionReceipt logs to be a list");
+      }
+      final Supplier<List<Log>> logs = Suppliers.memoize(() -> logsInput.readList(Log::readFrom));
+      final Optional<Bytes> encoded = Optional.of(input.raw());
       final Optional<Bytes> revertReason;
       if (input.isEndOfCurrentList()) {
         revertReason = Optional.empty();
@@ -204,10 +206,12 @@ public class TransactionReceipt {
       // byte for success (0x01) or failure (0x80).
       if (firstElement.raw().size() == 1) {
         final int status = firstElement.readIntScalar();
-        return new TransactionReceipt(status, cumulativeGas, logs, bloomFilter, revertReason);
+        return new TransactionReceipt(
+            null, status, cumulativeGas, logs, bloomFilter, revertReason, encoded);
       } else {
         final Hash stateRoot = Hash.wrap(firstElement.readBytes32());
-        return new TransactionReceipt(stateRoot, cumulativeGas, logs, bloomFilter, revertReason);
+        return new TransactionReceipt(
+            stateRoot, NONEXISTENT, cumulativeGas, logs, bloomFilter, revertReason, encoded);
       }
     } finally {
       input.leaveList();
@@ -238,7 +242,7 @@ public class TransactionReceipt {
    * @return the logs generated by the transaction
    */
   public List<Log> getLogs() {
-    return logs;
+    return logs.get();
   }
 
   /**
@@ -276,7 +280,7 @@ public class TransactionReceipt {
       return false;
     }
     final TransactionReceipt other = (TransactionReceipt) obj;
-    return logs.equals(other.getLogs())
+    return getLogs().equals(other.getLogs())
         && stateRoot.equals(other.stateRoot)
         && cumulativeGasUsed == other.getCumulativeGasUsed()
         && status == other.status;
@@ -284,7 +288,7 @@ public class TransactionReceipt {
 
   @Override
   public int hashCode() {
-    return Objects.hash(logs, stateRoot, cumulativeGasUsed);
+    return Objects.hash(getLogs(), stateRoot, cumulativeGasUsed);
   }
 
   @Override
@@ -292,7 +296,7 @@ public class TransactionReceipt {
     return MoreObjects.toStringHelper(this)
         .add("stateRoot", stateRoot)
         .add("cumulativeGasUsed", cumulativeGasUsed)
-        .add("logs", logs)
+        .add("logs", getLogs())
         .add("bloomFilter", bloomFilter)
         .add("status", status)
         .add("transactionReceiptType", transactionReceiptType)
@@ -28,6 +28,7 @@ import org.hyperledger.besu.ethereum.vm.BlockHashLookup;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import com.google.common.collect.ImmutableList;
 import org.apache.logging.log4j.LogManager;
@@ -89,6 +90,11 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
 
   private final MiningBeneficiaryCalculator miningBeneficiaryCalculator;
 
+  private Optional<TransactionPrefetcher> transactionPrefetcher = Optional.empty();
+
+  private Optional<SpeculativeTransactionExecutor> speculativeTransactionExecutor =
+      Optional.empty();
+
   public AbstractBlockProcessor(final AbstractBlockProcessor blockProcessor) {
     this(
         blockProcessor.transactionProcessor,
@@ -119,51 +125,96 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
       final List<Transaction> transactions,
       final List<BlockHeader> ommers) {
 
-    long gasUsed = 0;
-    final List<TransactionReceipt> receipts = new ArrayList<>();
-
-    for (final Transaction transaction : transactions) {
-      final long remainingGasBudget = blockHeader.getGasLimit() - gasUsed;
-      if (Long.compareUnsigned(transaction.getGasLimit(), remainingGasBudget) > 0) {
-        LOG.warn(
-            "Transaction processing error: transaction gas limit {} exceeds available block budget remaining {}",
-            transaction.getGasLimit(),
-            remainingGasBudget);
-        return AbstractBlockProcessor.Result.failed();
+    final Optional<TransactionPrefetcher.BlockPrefetch> prefetch =
+        transactionPrefetcher.map(prefetcher -> prefetcher.prefetch(worldState, transactions));
+    final Optional<SpeculativeTransactionExecutor.BlockSpeculation> speculation =
+        speculativeTransactionExecutor.map(
+            executor ->
+                executor.speculate(
+                    transactionProcessor,
+                    blockchain,
+                    worldState,
+                    blockHeader,
+                    transactions,
+                    miningBeneficiaryCalculator.calculateBeneficiary(blockHeader)));
+
+    try {
+      long gasUsed = 0;
+      final List<TransactionReceipt> receipts = new ArrayList<>();
+
+      for (int i = 0; i < transactions.size(); i++) {
+        final Transaction transaction = transactions.get(i);
+        final int transactionIndex = i;
+        final long remainingGasBudget = blockHeader.getGasLimit() - gasUsed;
+        if (Long.compareUnsigned(transaction.getGasLimit(), remainingGasBudget) > 0) {
+          LOG.warn(
+              "Transaction processing error: transaction gas limit {} exceeds available block budget remaining {}",
+              transaction.getGasLimit(),
+              remainingGasBudget);
+          return AbstractBlockProcessor.Result.failed();
+        }
+
+        final WorldUpdater worldStateUpdater = worldState.updater();
+        final BlockHashLookup blockHashLookup = new BlockHashLookup(blockHeader, blockchain);
+        final Address miningBeneficiary =
+            miningBeneficiaryCalculator.calculateBeneficiary(blockHeader);
+
+        prefetch.ifPresent(p -> p.transactionStarted(transaction));
+        final TransactionProcessor.Result result =
+            speculation
+                .flatMap(s -> s.apply(transactionIndex, worldState, worldStateUpdater))
+                .orElseGet(
+                    () ->
+                        transactionProcessor.processTransaction(
+                            blockchain,
+                            worldStateUpdater,
+                            blockHeader,
+                            transaction,
+                            miningBeneficiary,
+                            blockHashLookup,
+                            true,
+                            TransactionValidationParams.processingBlock()));
+        if (result.isInvalid()) {
+          return AbstractBlockProcessor.Result.failed();
+        }
+
+        worldStateUpdater.commit();
+        gasUsed = transaction.getGasLimit() - result.getGasRemaining() + gasUsed;
+        final TransactionReceipt transactionReceipt =
+            transactionReceiptFactory.create(result, worldState, gasUsed);
+        receipts.add(transactionReceipt);
       }
 
-      final WorldUpdater worldStateUpdater = worldState.updater();
-      final BlockHashLookup blockHashLookup = new BlockHashLookup(blockHeader, blockchain);
-      final Address miningBeneficiary =
-          miningBeneficiaryCalculator.calculateBeneficiary(blockHeader);
-
-      final TransactionProcessor.Result result =
-          transactionProcessor.processTransaction(
-              blockchain,
-              worldStateUpdater,
-              blockHeader,
-              transaction,
-              miningBeneficiary,
-              blockHashLookup,
-              true,
-              TransactionValidationParams.processingBlock());
-      if (result.isInvalid()) {
+      if (!rewardCoinbase(worldState, blockHeader, ommers, skipZeroBlockRewards)) {
         return AbstractBlockProcessor.Result.failed();
       }
 
-      worldStateUpdater.commit();
-      gasUsed = transaction.getGasLimit() - result.getGasRemaining() + gasUsed;
-      final TransactionReceipt transactionReceipt =
-          transactionReceiptFactory.create(result, worldState, gasUsed);
-      receipts.add(transactionReceipt);
+      worldState.persist();
+      return AbstractBlockProcessor.Result.successful(receipts);
+    } finally {
+      // Speculative executions that haven't started are of no use once processing has stopped.
+      speculation.ifPresent(SpeculativeTransactionExecutor.BlockSpeculation::cancel);
     }
+  }
 
-    if (!rewardCoinbase(worldState, blockHeader, ommers, skipZeroBlockRewards)) {
-      return AbstractBlockProcessor.Result.failed();
-    }
+  /**
+   * Enables speculative parallel execution of the transactions of each processed block.
+   *
+   * @param speculativeTransactionExecutor the executor used to run the speculative executions.
+   */
+  public void setSpeculativeTransactionExecutor(
+      final SpeculativeTransactionExecutor speculativeTransactionExecutor) {
+    this.speculativeTransactionExecutor = Optional.of(speculativeTransactionExecutor);
+  }
 
-    worldState.persist();
-    return AbstractBlockProcessor.Result.successful(receipts);
+  /**
+   * Enables reading the accounts touched by the transactions of each processed block ahead of their
+   * execution.
+   *
+   * @param transactionPrefetcher the prefetcher used to read the accounts.
+   */
+  public void setTransactionPrefetcher(final TransactionPrefetcher transactionPrefetcher) {
+    this.transactionPrefetcher = Optional.of(transactionPrefetcher);
   }
 
   abstract boolean rewardCoinbase(
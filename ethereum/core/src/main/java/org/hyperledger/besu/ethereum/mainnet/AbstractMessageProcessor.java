@@ -17,6 +17,7 @@ package org.hyperledger.besu.ethereum.mainnet;
 import org.hyperledger.besu.ethereum.core.Account;
 import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.ModificationNotAllowedException;
+import org.hyperledger.besu.ethereum.vm.Code;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 import org.hyperledger.besu.ethereum.vm.OperationTracer;
@@ -161,6 +162,16 @@ public abstract class AbstractMessageProcessor {
     }
   }
 
+  /**
+   * Returns the code of the specified account, analysed for the EVM this processor runs.
+   *
+   * @param account the account whose code to return, or null if the account does not exist
+   * @return the account's code
+   */
+  public Code getCode(final Account account) {
+    return evm.getCode(account);
+  }
+
   public void process(final MessageFrame frame, final OperationTracer operationTracer) {
     if (frame.getState() == MessageFrame.State.NOT_STARTED) {
       start(frame, operationTracer);
@@ -144,7 +144,7 @@ public class ClassicProtocolSpecs {
             chainId, configContractSizeLimit, configStackSizeLimit, enableRevertReason)
         .evmBuilder(MainnetEvmRegistries::constantinople)
         .gasCalculator(ConstantinopleFixGasCalculator::new)
-        .evmBuilder(gasCalculator -> MainnetEvmRegistries.constantinople(gasCalculator))
+        .evmBuilder(MainnetEvmRegistries::constantinople)
         .precompileContractRegistryBuilder(MainnetPrecompiledContractRegistries::istanbul)
         .name("Agharta");
   }
@@ -158,8 +158,9 @@ public class ClassicProtocolSpecs {
             chainId, configContractSizeLimit, configStackSizeLimit, enableRevertReason)
         .gasCalculator(AztlanGasCalculator::new)
         .evmBuilder(
-            gasCalculator ->
-                MainnetEvmRegistries.aztlan(gasCalculator, chainId.orElse(BigInteger.ZERO)))
+            (gasCalculator, codeCache) ->
+                MainnetEvmRegistries.aztlan(
+                    gasCalculator, codeCache, chainId.orElse(BigInteger.ZERO)))
         .precompileContractRegistryBuilder(MainnetPrecompiledContractRegistries::istanbul)
         .name("Aztlan");
   }
@@ -15,6 +15,7 @@
 package org.hyperledger.besu.ethereum.mainnet;
 
 import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.vm.CodeCache;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.OperationRegistry;
@@ -104,57 +105,60 @@ import org.apache.tuweni.bytes.Bytes32;
 /** Provides EVMs supporting the appropriate operations for mainnet hard forks. */
 abstract class MainnetEvmRegistries {
 
-  static EVM frontier(final GasCalculator gasCalculator) {
+  static EVM frontier(final GasCalculator gasCalculator, final CodeCache codeCache) {
     final OperationRegistry registry = new OperationRegistry();
 
-    registerFrontierOpcodes(registry, gasCalculator, Account.DEFAULT_VERSION);
+    registerFrontierOpcodes(registry, gasCalculator, codeCache, Account.DEFAULT_VERSION);
 
-    return new EVM(registry, gasCalculator);
+    return new EVM(registry, gasCalculator, codeCache);
   }
 
-  static EVM homestead(final GasCalculator gasCalculator) {
+  static EVM homestead(final GasCalculator gasCalculator, final CodeCache codeCache) {
     final OperationRegistry registry = new OperationRegistry();
 
-    registerHomesteadOpcodes(registry, gasCalculator, Account.DEFAULT_VERSION);
+    registerHomesteadOpcodes(registry, gasCalculator, codeCache, Account.DEFAULT_VERSION);
 
-    return new EVM(registry, gasCalculator);
+    return new EVM(registry, gasCalculator, codeCache);
   }
 
-  static EVM byzantium(final GasCalculator gasCalculator) {
+  static EVM byzantium(final GasCalculator gasCalculator, final CodeCache codeCache) {
     final OperationRegistry registry = new OperationRegistry();
 
-    registerByzantiumOpcodes(registry, gasCalculator, Account.DEFAULT_VERSION);
+    registerByzantiumOpcodes(registry, gasCalculator, codeCache, Account.DEFAULT_VERSION);
 
-    return new EVM(registry, gasCalculator);
+    return new EVM(registry, gasCalculator, codeCache);
   }
 
-  static EVM constantinople(final GasCalculator gasCalculator) {
+  static EVM constantinople(final GasCalculator gasCalculator, final CodeCache codeCache) {
     final OperationRegistry registry = new OperationRegistry();
 
-    registerConstantinopleOpcodes(registry, gasCalculator, Account.DEFAULT_VERSION);
+    registerConstantinopleOpcodes(registry, gasCalculator, codeCache, Account.DEFAULT_VERSION);
 
-    return new EVM(registry, gasCalculator);
+    return new EVM(registry, gasCalculator, codeCache);
   }
 
-  static EVM istanbul(final GasCalculator gasCalculator, final BigInteger chainId) {
+  static EVM istanbul(
+      final GasCalculator gasCalculator, final CodeCache codeCache, final BigInteger chainId) {
     final OperationRegistry registry = new OperationRegistry();
 
-    registerIstanbulOpcodes(registry, gasCalculator, Account.DEFAULT_VERSION, chainId);
+    registerIstanbulOpcodes(registry, gasCalculator, codeCache, Account.DEFAULT_VERSION, chainId);
 
-    return new EVM(registry, gasCalculator);
+    return new EVM(registry, gasCalculator, codeCache);
   }
 
-  static EVM aztlan(final GasCalculator gasCalculator, final BigInteger chainId) {
+  static EVM aztlan(
+      final GasCalculator gasCalculator, final CodeCache codeCache, final BigInteger chainId) {
     final OperationRegistry registry = new OperationRegistry();
 
-    registerAztlanOpcodes(registry, gasCalculator, Account.DEFAULT_VERSION, chainId);
+    registerAztlanOpcodes(registry, gasCalculator, codeCache, Account.DEFAULT_VERSION, chainId);
 
-    return new EVM(registry, gasCalculator);
+    return new EVM(registry, gasCalculator, codeCache);
   }
 
   private static void registerFrontierOpcodes(
       final OperationRegistry registry,
       final GasCalculator gasCalculator,
+      final CodeCache codeCache,
       final int accountVersion) {
     registry.put(new AddOperation(gasCalculator), accountVersion);
     registry.put(new AddOperation(gasCalculator), accountVersion);
@@ -217,8 +221,8 @@ abstract class MainnetEvmRegistries {
     registry.put(new StopOperation(gasCalculator), accountVersion);
     registry.put(new SelfDestructOperation(gasCalculator), accountVersion);
     registry.put(new CreateOperation(gasCalculator), accountVersion);
-    registry.put(new CallOperation(gasCalculator), accountVersion);
-    registry.put(new CallCodeOperation(gasCalculator), accountVersion);
+    registry.put(new CallOperation(gasCalculator, codeCache), accountVersion);
+    registry.put(new CallCodeOperation(gasCalculator, codeCache), accountVersion);
 
     // Register the PUSH1, PUSH2, ..., PUSH32 operations.
     for (int i = 1; i <= 32; ++i) {
@@ -244,27 +248,30 @@ abstract class MainnetEvmRegistries {
   private static void registerHomesteadOpcodes(
       final OperationRegistry registry,
       final GasCalculator gasCalculator,
+      final CodeCache codeCache,
       final int accountVersion) {
-    registerFrontierOpcodes(registry, gasCalculator, accountVersion);
-    registry.put(new DelegateCallOperation(gasCalculator), accountVersion);
+    registerFrontierOpcodes(registry, gasCalculator, codeCache, accountVersion);
+    registry.put(new DelegateCallOperation(gasCalculator, codeCache), accountVersion);
   }
 
   private static void registerByzantiumOpcodes(
       final OperationRegistry registry,
       final GasCalculator gasCalculator,
+      final CodeCache codeCache,
       final int accountVersion) {
-    registerHomesteadOpcodes(registry, gasCalculator, accountVersion);
+    registerHomesteadOpcodes(registry, gasCalculator, codeCache, accountVersion);
     registry.put(new ReturnDataCopyOperation(gasCalculator), accountVersion);
     registry.put(new ReturnDataSizeOperation(gasCalculator), accountVersion);
     registry.put(new RevertOperation(gasCalculator), accountVersion);
-    registry.put(new StaticCallOperation(gasCalculator), accountVersion);
+    registry.put(new StaticCallOperation(gasCalculator, codeCache), accountVersion);
   }
 
   private static void registerConstantinopleOpcodes(
       final OperationRegistry registry,
       final GasCalculator gasCalculator,
+      final CodeCache codeCache,
       final int accountVersion) {
-    registerByzantiumOpcodes(registry, gasCalculator, accountVersion);
+    registerByzantiumOpcodes(registry, gasCalculator, codeCache, accountVersion);
     registry.put(new Create2Operation(gasCalculator), accountVersion);
     registry.put(new SarOperation(gasCalculator), accountVersion);
     registry.put(new ShlOperation(gasCalculator), accountVersion);
@@ -275,9 +282,10 @@ abstract class MainnetEvmRegistries {
   private static void registerIstanbulOpcodes(
       final OperationRegistry registry,
       final GasCalculator gasCalculator,
+      final CodeCache codeCache,
       final int accountVersion,
       final BigInteger chainId) {
-    registerConstantinopleOpcodes(registry, gasCalculator, accountVersion);
+    registerConstantinopleOpcodes(registry, gasCalculator, codeCache, accountVersion);
     registry.put(
         new ChainIdOperation(gasCalculator, Bytes32.leftPad(Bytes.of(chainId.toByteArray()))),
         Account.DEFAULT_VERSION);
@@ -290,9 +298,10 @@ abstract class MainnetEvmRegistries {
   private static void registerAztlanOpcodes(
       final OperationRegistry registry,
       final GasCalculator gasCalculator,
+      final CodeCache codeCache,
       final int accountVersion,
       final BigInteger chainId) {
-    registerConstantinopleOpcodes(registry, gasCalculator, accountVersion);
+    registerConstantinopleOpcodes(registry, gasCalculator, codeCache, accountVersion);
     registry.put(
         new ChainIdOperation(gasCalculator, Bytes32.leftPad(Bytes.of(chainId.toByteArray()))),
         Account.DEFAULT_VERSION);
@@ -299,8 +299,9 @@ public abstract class MainnetProtocolSpecs {
             chainId, configContractSizeLimit, configStackSizeLimit, enableRevertReason)
         .gasCalculator(IstanbulGasCalculator::new)
         .evmBuilder(
-            gasCalculator ->
-                MainnetEvmRegistries.istanbul(gasCalculator, chainId.orElse(BigInteger.ZERO)))
+            (gasCalculator, codeCache) ->
+                MainnetEvmRegistries.istanbul(
+                    gasCalculator, codeCache, chainId.orElse(BigInteger.ZERO)))
         .precompileContractRegistryBuilder(MainnetPrecompiledContractRegistries::istanbul)
         .contractCreationProcessorBuilder(
             (gasCalculator, evm) ->
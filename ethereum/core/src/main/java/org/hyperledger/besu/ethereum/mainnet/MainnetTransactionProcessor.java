@@ -272,7 +272,7 @@ public class MainnetTransactionProcessor implements TransactionProcessor {
               .sender(senderAddress)
               .value(transaction.getValue())
               .apparentValue(transaction.getValue())
-              .code(new Code(contract != null ? contract.getCode() : Bytes.EMPTY))
+              .code(messageCallProcessor.getCode(contract))
               .blockHeader(blockHeader)
               .depth(0)
               .completer(c -> {})
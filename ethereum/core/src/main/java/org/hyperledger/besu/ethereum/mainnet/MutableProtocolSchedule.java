@@ -78,4 +78,16 @@ public class MutableProtocolSchedule<C> implements ProtocolSchedule<C> {
   public void setTransactionFilter(final TransactionFilter transactionFilter) {
     protocolSpecs.forEach(spec -> spec.getSpec().setTransactionFilter(transactionFilter));
   }
+
+  @Override
+  public void setSpeculativeTransactionExecutor(
+      final SpeculativeTransactionExecutor speculativeTransactionExecutor) {
+    protocolSpecs.forEach(
+        spec -> spec.getSpec().setSpeculativeTransactionExecutor(speculativeTransactionExecutor));
+  }
+
+  @Override
+  public void setTransactionPrefetcher(final TransactionPrefetcher transactionPrefetcher) {
+    protocolSpecs.forEach(spec -> spec.getSpec().setTransactionPrefetcher(transactionPrefetcher));
+  }
 }
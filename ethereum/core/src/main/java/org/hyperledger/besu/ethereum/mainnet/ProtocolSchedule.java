@@ -26,4 +26,9 @@ public interface ProtocolSchedule<C> {
   Optional<BigInteger> getChainId();
 
   void setTransactionFilter(TransactionFilter transactionFilter);
+
+  void setSpeculativeTransactionExecutor(
+      SpeculativeTransactionExecutor speculativeTransactionExecutor);
+
+  void setTransactionPrefetcher(TransactionPrefetcher transactionPrefetcher);
 }
@@ -288,4 +288,18 @@ public class ProtocolSpec<C> {
   public void setTransactionFilter(final TransactionFilter transactionFilter) {
     transactionValidator.setTransactionFilter(transactionFilter);
   }
+
+  public void setSpeculativeTransactionExecutor(
+      final SpeculativeTransactionExecutor speculativeTransactionExecutor) {
+    if (blockProcessor instanceof AbstractBlockProcessor) {
+      ((AbstractBlockProcessor) blockProcessor)
+          .setSpeculativeTransactionExecutor(speculativeTransactionExecutor);
+    }
+  }
+
+  public void setTransactionPrefetcher(final TransactionPrefetcher transactionPrefetcher) {
+    if (blockProcessor instanceof AbstractBlockProcessor) {
+      ((AbstractBlockProcessor) blockProcessor).setTransactionPrefetcher(transactionPrefetcher);
+    }
+  }
 }
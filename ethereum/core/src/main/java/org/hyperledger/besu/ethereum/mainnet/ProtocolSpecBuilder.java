@@ -26,6 +26,7 @@ import org.hyperledger.besu.ethereum.core.Wei;
 import org.hyperledger.besu.ethereum.mainnet.precompiles.privacy.PrivacyPrecompiledContract;
 import org.hyperledger.besu.ethereum.privacy.PrivateTransactionProcessor;
 import org.hyperledger.besu.ethereum.privacy.PrivateTransactionValidator;
+import org.hyperledger.besu.ethereum.vm.CodeCache;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 
@@ -40,7 +41,8 @@ public class ProtocolSpecBuilder<T> {
   private BlockHeaderFunctions blockHeaderFunctions;
   private MainnetBlockProcessor.TransactionReceiptFactory transactionReceiptFactory;
   private DifficultyCalculator<T> difficultyCalculator;
-  private Function<GasCalculator, EVM> evmBuilder;
+  private BiFunction<GasCalculator, CodeCache, EVM> evmBuilder;
+  private Supplier<CodeCache> codeCacheBuilder = CodeCache::new;
   private Function<GasCalculator, TransactionValidator> transactionValidatorBuilder;
   private Function<DifficultyCalculator<T>, BlockHeaderValidator<T>> blockHeaderValidatorBuilder;
   private Function<DifficultyCalculator<T>, BlockHeaderValidator<T>> ommerHeaderValidatorBuilder;
@@ -93,11 +95,17 @@ public class ProtocolSpecBuilder<T> {
     return this;
   }
 
-  public ProtocolSpecBuilder<T> evmBuilder(final Function<GasCalculator, EVM> evmBuilder) {
+  public ProtocolSpecBuilder<T> evmBuilder(
+      final BiFunction<GasCalculator, CodeCache, EVM> evmBuilder) {
     this.evmBuilder = evmBuilder;
     return this;
   }
 
+  public ProtocolSpecBuilder<T> codeCacheBuilder(final Supplier<CodeCache> codeCacheBuilder) {
+    this.codeCacheBuilder = codeCacheBuilder;
+    return this;
+  }
+
   public ProtocolSpecBuilder<T> transactionValidatorBuilder(
       final Function<GasCalculator, TransactionValidator> transactionValidatorBuilder) {
     this.transactionValidatorBuilder = transactionValidatorBuilder;
@@ -218,6 +226,7 @@ public class ProtocolSpecBuilder<T> {
     return new ProtocolSpecBuilder<R>()
         .gasCalculator(gasCalculatorBuilder)
         .evmBuilder(evmBuilder)
+        .codeCacheBuilder(codeCacheBuilder)
         .transactionValidatorBuilder(transactionValidatorBuilder)
         .privateTransactionValidatorBuilder(privateTransactionValidatorBuilder)
         .contractCreationProcessorBuilder(contractCreationProcessorBuilder)
@@ -244,6 +253,7 @@ public class ProtocolSpecBuilder<T> {
   public ProtocolSpec<T> build(final ProtocolSchedule<T> protocolSchedule) {
     checkNotNull(gasCalculatorBuilder, "Missing gasCalculator");
     checkNotNull(evmBuilder, "Missing operation registry");
+    checkNotNull(codeCacheBuilder, "Missing code cache");
     checkNotNull(transactionValidatorBuilder, "Missing transaction validator");
     checkNotNull(privateTransactionValidatorBuilder, "Missing private transaction validator");
     checkNotNull(contractCreationProcessorBuilder, "Missing contract creation processor");
@@ -266,7 +276,8 @@ public class ProtocolSpecBuilder<T> {
     checkNotNull(privacyParameters, "Missing privacy parameters");
 
     final GasCalculator gasCalculator = gasCalculatorBuilder.get();
-    final EVM evm = evmBuilder.apply(gasCalculator);
+    // Each EVM gets its own code cache, as cached code keeps the analysis of the EVM running it.
+    final EVM evm = evmBuilder.apply(gasCalculator, codeCacheBuilder.get());
     final PrecompiledContractConfiguration precompiledContractConfiguration =
         new PrecompiledContractConfiguration(gasCalculator, privacyParameters);
     final TransactionValidator transactionValidator =
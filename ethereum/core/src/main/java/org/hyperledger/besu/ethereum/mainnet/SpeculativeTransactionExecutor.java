@@ -0,0 +1,356 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Gas;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.ProcessableBlockHeader;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.core.WorldView;
+import org.hyperledger.besu.ethereum.vm.BlockHashLookup;
+import org.hyperledger.besu.ethereum.vm.MessageFrame;
+import org.hyperledger.besu.ethereum.vm.OperationTracer;
+import org.hyperledger.besu.ethereum.vm.Words;
+import org.hyperledger.besu.ethereum.vm.ehalt.ExceptionalHaltException;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Executes the transactions of a block optimistically in parallel, each one against its own copy of
+ * the world state as it was at the start of the block. The block processor then walks the
+ * transactions in block order: a speculative result is only used if every account and storage slot
+ * it read still holds the same value once the preceding transactions have been applied, in which
+ * case its updates are replayed onto the actual world state. Otherwise the transaction is executed
+ * again sequentially, so the resulting state and receipts are always those of sequential execution.
+ *
+ * <p>Every transaction credits the mining beneficiary, which would make them all conflict with each
+ * other. When the only stale read is the beneficiary account and the execution never observed that
+ * account beyond paying it, the credit is rebased onto the actual balance instead.
+ *
+ * <p>The executions run on a dedicated executor with a bounded queue. When the queue is full, the
+ * remaining transactions of the block are executed sequentially.
+ */
+public class SpeculativeTransactionExecutor {
+
+  private static final Logger LOG = LogManager.getLogger();
+  private static final int MIN_TRANSACTIONS = 2;
+  public static final int DEFAULT_QUEUE_SIZE = 1024;
+
+  private final Executor executor;
+  private final Counter committedCounter;
+  private final Counter reexecutedCounter;
+
+  public SpeculativeTransactionExecutor(
+      final Executor executor, final MetricsSystem metricsSystem) {
+    this.executor = executor;
+    this.committedCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "speculative_transactions_committed_total",
+            "Number of transactions whose speculative execution was used during block processing");
+    this.reexecutedCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "speculative_transactions_reexecuted_total",
+            "Number of transactions executed again because their speculative reads were stale");
+  }
+
+  public static ExecutorService createExecutor(final int threads, final int queueSize) {
+    return new ThreadPoolExecutor(
+        threads,
+        threads,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueSize),
+        new ThreadFactoryBuilder()
+            .setNameFormat("SpeculativeTransactionExecutor-%d")
+            .setDaemon(true)
+            .build());
+  }
+
+  /**
+   * Starts executing {@code transactions} speculatively. Must be called before any of them is
+   * applied to {@code worldState}.
+   *
+   * @param transactionProcessor the processor used to execute each transaction.
+   * @param blockchain the blockchain the block is being processed for.
+   * @param worldState the world state at the start of the block.
+   * @param blockHeader the header of the block being processed.
+   * @param transactions the transactions of the block, in block order.
+   * @param miningBeneficiary the account credited with the transaction fees.
+   * @return the speculative executions, one for each transaction.
+   */
+  BlockSpeculation speculate(
+      final TransactionProcessor transactionProcessor,
+      final Blockchain blockchain,
+      final MutableWorldState worldState,
+      final ProcessableBlockHeader blockHeader,
+      final List<Transaction> transactions,
+      final Address miningBeneficiary) {
+    if (transactions.size() < MIN_TRANSACTIONS) {
+      return new BlockSpeculation(Collections.emptyList(), miningBeneficiary);
+    }
+    final List<CompletableFuture<Optional<SpeculativeResult>>> results =
+        new ArrayList<>(transactions.size());
+    final Set<Address> senders = new HashSet<>();
+    for (final Transaction transaction : transactions) {
+      if (!isIndependentCandidate(transaction, senders, miningBeneficiary)) {
+        results.add(null);
+        continue;
+      }
+      // Each execution gets its own copy, taken before the block starts mutating the state.
+      final MutableWorldState initialState = worldState.copy();
+      if (initialState == null) {
+        return new BlockSpeculation(Collections.emptyList(), miningBeneficiary);
+      }
+      try {
+        results.add(
+            CompletableFuture.supplyAsync(
+                () ->
+                    execute(
+                        transactionProcessor,
+                        blockchain,
+                        initialState,
+                        blockHeader,
+                        transaction,
+                        miningBeneficiary),
+                executor));
+      } catch (final RejectedExecutionException e) {
+        LOG.trace("Speculation queue is full, executing the remaining transactions sequentially");
+        break;
+      }
+    }
+    return new BlockSpeculation(results, miningBeneficiary);
+  }
+
+  private static boolean isIndependentCandidate(
+      final Transaction transaction, final Set<Address> senders, final Address miningBeneficiary) {
+    final Address sender;
+    try {
+      sender = transaction.getSender();
+    } catch (final IllegalStateException e) {
+      return false;
+    }
+    // A later transaction from the same sender always reads a stale nonce, so don't bother.
+    return senders.add(sender) && !sender.equals(miningBeneficiary);
+  }
+
+  private static Optional<SpeculativeResult> execute(
+      final TransactionProcessor transactionProcessor,
+      final Blockchain blockchain,
+      final MutableWorldState initialState,
+      final ProcessableBlockHeader blockHeader,
+      final Transaction transaction,
+      final Address miningBeneficiary) {
+    try {
+      final SpeculativeWorldUpdater updater = new SpeculativeWorldUpdater(initialState);
+      final BeneficiaryAccessTracer tracer = new BeneficiaryAccessTracer(miningBeneficiary);
+      final TransactionProcessor.Result result =
+          transactionProcessor.processTransaction(
+              blockchain,
+              updater,
+              blockHeader,
+              transaction,
+              miningBeneficiary,
+              tracer,
+              new BlockHashLookup(blockHeader, blockchain),
+              false,
+              TransactionValidationParams.processingBlock());
+      final boolean beneficiaryObserved =
+          tracer.isBeneficiaryAccessed()
+              || transaction.getTo().filter(miningBeneficiary::equals).isPresent();
+      return Optional.of(new SpeculativeResult(updater, result, beneficiaryObserved));
+    } catch (final RuntimeException e) {
+      LOG.trace("Speculative execution of transaction {} failed", transaction.getHash(), e);
+      return Optional.empty();
+    }
+  }
+
+  /** The speculative executions of the transactions of one block. */
+  class BlockSpeculation {
+    private final List<CompletableFuture<Optional<SpeculativeResult>>> results;
+    private final Address miningBeneficiary;
+
+    private BlockSpeculation(
+        final List<CompletableFuture<Optional<SpeculativeResult>>> results,
+        final Address miningBeneficiary) {
+      this.results = results;
+      this.miningBeneficiary = miningBeneficiary;
+    }
+
+    /**
+     * Applies the speculative execution of a transaction if it is still valid.
+     *
+     * @param index the position of the transaction in the block.
+     * @param worldState the actual world state, with all preceding transactions applied.
+     * @param target the updater the transaction would otherwise be executed against.
+     * @return the result of the transaction if its updates were applied to {@code target}, empty
+     *     if it must be executed normally.
+     */
+    Optional<TransactionProcessor.Result> apply(
+        final int index, final WorldView worldState, final WorldUpdater target) {
+      final CompletableFuture<Optional<SpeculativeResult>> future =
+          index < results.size() ? results.get(index) : null;
+      if (future == null) {
+        return Optional.empty();
+      }
+      final Optional<SpeculativeResult> applied =
+          future.join().filter(speculative -> applyIfValid(speculative, worldState, target));
+      if (applied.isPresent()) {
+        committedCounter.inc();
+      } else {
+        reexecutedCounter.inc();
+      }
+      return applied.map(speculative -> speculative.result);
+    }
+
+    /**
+     * Cancels the speculative executions that haven't started yet, once the block processor no
+     * longer needs them because it stopped processing the block.
+     */
+    void cancel() {
+      for (final CompletableFuture<Optional<SpeculativeResult>> result : results) {
+        if (result != null) {
+          result.cancel(false);
+        }
+      }
+    }
+
+    private boolean applyIfValid(
+        final SpeculativeResult speculative,
+        final WorldView worldState,
+        final WorldUpdater target) {
+      final SpeculativeWorldUpdater updater = speculative.updater;
+      if (updater.hasUnverifiableReads()) {
+        return false;
+      }
+      final Set<Address> conflicts = updater.conflictingReads(worldState);
+      if (conflicts.isEmpty()) {
+        updater.applyTo(target, Optional.empty());
+        return true;
+      }
+      if (conflicts.equals(Collections.singleton(miningBeneficiary))
+          && !speculative.beneficiaryObserved
+          && updater.balanceIncrease(miningBeneficiary).isPresent()) {
+        updater.applyTo(target, Optional.of(miningBeneficiary));
+        return true;
+      }
+      return false;
+    }
+  }
+
+  private static class SpeculativeResult {
+    private final SpeculativeWorldUpdater updater;
+    private final TransactionProcessor.Result result;
+    private final boolean beneficiaryObserved;
+
+    private SpeculativeResult(
+        final SpeculativeWorldUpdater updater,
+        final TransactionProcessor.Result result,
+        final boolean beneficiaryObserved) {
+      this.updater = updater;
+      this.result = result;
+      this.beneficiaryObserved = beneficiaryObserved;
+    }
+  }
+
+  /**
+   * Detects whether the EVM observes the mining beneficiary account in any way other than paying
+   * it the transaction fee: by running code as that account or by passing its address to an
+   * operation that reads account state or whose gas cost depends on it.
+   */
+  private static class BeneficiaryAccessTracer implements OperationTracer {
+    private final Address miningBeneficiary;
+    private boolean beneficiaryAccessed = false;
+
+    private BeneficiaryAccessTracer(final Address miningBeneficiary) {
+      this.miningBeneficiary = miningBeneficiary;
+    }
+
+    @Override
+    public void traceExecution(
+        final MessageFrame frame,
+        final Optional<Gas> currentGasCost,
+        final ExecuteOperation executeOperation)
+        throws ExceptionalHaltException {
+      if (!beneficiaryAccessed) {
+        beneficiaryAccessed = accessesBeneficiary(frame);
+      }
+      executeOperation.execute();
+    }
+
+    @Override
+    public void tracePrecompileCall(
+        final MessageFrame frame, final Gas gasRequirement, final Bytes output) {
+      if (miningBeneficiary.equals(frame.getContractAddress())) {
+        beneficiaryAccessed = true;
+      }
+    }
+
+    private boolean accessesBeneficiary(final MessageFrame frame) {
+      if (miningBeneficiary.equals(frame.getRecipientAddress())
+          || miningBeneficiary.equals(frame.getContractAddress())) {
+        return true;
+      }
+      switch (frame.getCurrentOperation().getOpcode()) {
+        case 0x31: // BALANCE
+        case 0x3B: // EXTCODESIZE
+        case 0x3C: // EXTCODECOPY
+        case 0x3F: // EXTCODEHASH
+        case 0xFF: // SELFDESTRUCT
+          return isBeneficiaryOnStack(frame, 0);
+        case 0xF1: // CALL
+        case 0xF2: // CALLCODE
+        case 0xF4: // DELEGATECALL
+        case 0xFA: // STATICCALL
+          return isBeneficiaryOnStack(frame, 1);
+        default:
+          return false;
+      }
+    }
+
+    private boolean isBeneficiaryOnStack(final MessageFrame frame, final int offset) {
+      return frame.stackSize() > offset
+          && miningBeneficiary.equals(Words.toAddress(frame.getStackItem(offset)));
+    }
+
+    boolean isBeneficiaryAccessed() {
+      return beneficiaryAccessed;
+    }
+  }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import org.hyperledger.besu.ethereum.core.AbstractWorldUpdater;
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.AccountStorageEntry;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.MutableAccount;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.core.WorldView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * A {@link WorldUpdater} used to execute a transaction speculatively against the world state as it
+ * was at the start of the block. Every account and storage slot read from that state is recorded,
+ * so that once the preceding transactions have been applied the read set can be checked against
+ * the actual state. If every read still returns the same value the transaction would have executed
+ * identically, and its buffered updates can be replayed on top of the actual state.
+ *
+ * <p>Updates are never committed directly; use {@link #applyTo(WorldUpdater, Optional)} instead.
+ */
+class SpeculativeWorldUpdater
+    extends AbstractWorldUpdater<SpeculativeWorldUpdater.ReadRecordingWorldView, Account> {
+
+  SpeculativeWorldUpdater(final WorldView world) {
+    super(new ReadRecordingWorldView(world));
+  }
+
+  @Override
+  protected Account getForMutation(final Address address) {
+    return wrappedWorldView().get(address);
+  }
+
+  @Override
+  public Collection<UpdateTrackingAccount<? extends Account>> getTouchedAccounts() {
+    return new ArrayList<>(updatedAccounts());
+  }
+
+  @Override
+  public Collection<Address> getDeletedAccountAddresses() {
+    return new ArrayList<>(deletedAccounts());
+  }
+
+  @Override
+  public void revert() {
+    deletedAccounts().clear();
+    updatedAccounts().clear();
+  }
+
+  @Override
+  public void commit() {
+    throw new UnsupportedOperationException(
+        "Speculative updates must be validated and replayed onto the actual world state");
+  }
+
+  /**
+   * Returns the addresses for which a recorded read no longer matches {@code world}, either
+   * because the account itself changed or because one of its storage slots that was read did.
+   *
+   * @param world the world state the transaction is about to be applied to.
+   * @return the addresses whose reads are stale, empty if the speculative execution is valid.
+   */
+  Set<Address> conflictingReads(final WorldView world) {
+    final ReadRecordingWorldView reads = wrappedWorldView();
+    final Set<Address> conflicts = new HashSet<>();
+    reads.accountReads.forEach(
+        (address, observed) -> {
+          if (!sameAccountState(observed.orElse(null), world.get(address))) {
+            conflicts.add(address);
+          }
+        });
+    reads.storageReads.forEach(
+        (address, slots) -> {
+          if (conflicts.contains(address)) {
+            return;
+          }
+          final Account account = world.get(address);
+          for (final Map.Entry<UInt256, UInt256> slot : slots.entrySet()) {
+            final UInt256 actual =
+                account == null ? UInt256.ZERO : account.getStorageValue(slot.getKey());
+            if (!actual.equals(slot.getValue())) {
+              conflicts.add(address);
+              return;
+            }
+          }
+        });
+    return conflicts;
+  }
+
+  /**
+   * Whether the execution read something that cannot be validated afterwards, such as a range of
+   * storage entries.
+   *
+   * @return true if the speculative execution must be discarded regardless of the read set.
+   */
+  boolean hasUnverifiableReads() {
+    return wrappedWorldView().unverifiableReads;
+  }
+
+  /**
+   * The increase in balance of {@code address} made by this execution, relative to the balance it
+   * read from the initial state.
+   *
+   * @param address the account to inspect.
+   * @return the balance increase, or empty if the account was not updated, was deleted, or did not
+   *     strictly increase in balance.
+   */
+  Optional<Wei> balanceIncrease(final Address address) {
+    return updatedAccounts().stream()
+        .filter(account -> account.getAddress().equals(address))
+        .findFirst()
+        .flatMap(
+            updated -> {
+              final Wei initial =
+                  wrappedWorldView()
+                      .accountReads
+                      .getOrDefault(address, Optional.empty())
+                      .map(Account::getBalance)
+                      .orElse(Wei.ZERO);
+              return updated.getBalance().compareTo(initial) > 0
+                  ? Optional.of(updated.getBalance().subtract(initial))
+                  : Optional.empty();
+            });
+  }
+
+  /**
+   * Replays the buffered updates onto {@code target}, reproducing the same account trackers that
+   * executing the transaction directly against {@code target} would have produced.
+   *
+   * @param target the updater of the actual world state.
+   * @param rebasedAccount an account whose update is replaced by crediting it with the balance
+   *     increase reported by {@link #balanceIncrease(Address)}, if any.
+   */
+  void applyTo(final WorldUpdater target, final Optional<Address> rebasedAccount) {
+    deletedAccounts().forEach(target::deleteAccount);
+    for (final UpdateTrackingAccount<Account> update : updatedAccounts()) {
+      final Address address = update.getAddress();
+      if (rebasedAccount.filter(address::equals).isPresent()) {
+        balanceIncrease(address)
+            .ifPresent(value -> target.getOrCreate(address).getMutable().incrementBalance(value));
+        continue;
+      }
+      final MutableAccount account =
+          update.getWrappedAccount() == null
+              ? target.createAccount(address, update.getNonce(), update.getBalance()).getMutable()
+              : target.getAccount(address).getMutable();
+      account.setNonce(update.getNonce());
+      account.setBalance(update.getBalance());
+      if (update.codeWasUpdated()) {
+        account.setCode(update.getCode());
+        account.setVersion(update.getVersion());
+      }
+      if (update.getStorageWasCleared()) {
+        account.clearStorage();
+      }
+      update.getUpdatedStorage().forEach(account::setStorageValue);
+    }
+  }
+
+  private static boolean sameAccountState(final Account observed, final Account actual) {
+    if (observed == null || actual == null) {
+      return observed == actual;
+    }
+    return observed.getNonce() == actual.getNonce()
+        && observed.getBalance().equals(actual.getBalance())
+        && observed.getCodeHash().equals(actual.getCodeHash())
+        && observed.getVersion() == actual.getVersion();
+  }
+
+  static class ReadRecordingWorldView implements WorldView {
+    private final WorldView world;
+    private final Map<Address, Optional<Account>> accountReads = new HashMap<>();
+    private final Map<Address, Map<UInt256, UInt256>> storageReads = new HashMap<>();
+    private boolean unverifiableReads = false;
+
+    private ReadRecordingWorldView(final WorldView world) {
+      this.world = world;
+    }
+
+    @Override
+    public Account get(final Address address) {
+      final Account account = world.get(address);
+      accountReads.putIfAbsent(address, Optional.ofNullable(account));
+      return account == null ? null : new ReadRecordingAccount(account);
+    }
+
+    private void recordStorageRead(final Address address, final UInt256 key, final UInt256 value) {
+      storageReads.computeIfAbsent(address, a -> new HashMap<>()).putIfAbsent(key, value);
+    }
+
+    private class ReadRecordingAccount implements Account {
+      private final Account account;
+
+      private ReadRecordingAccount(final Account account) {
+        this.account = account;
+      }
+
+      @Override
+      public Address getAddress() {
+        return account.getAddress();
+      }
+
+      @Override
+      public Hash getAddressHash() {
+        return account.getAddressHash();
+      }
+
+      @Override
+      public long getNonce() {
+        return account.getNonce();
+      }
+
+      @Override
+      public Wei getBalance() {
+        return account.getBalance();
+      }
+
+      @Override
+      public Bytes getCode() {
+        return account.getCode();
+      }
+
+      @Override
+      public Hash getCodeHash() {
+        return account.getCodeHash();
+      }
+
+      @Override
+      public boolean hasCode() {
+        return account.hasCode();
+      }
+
+      @Override
+      public int getVersion() {
+        return account.getVersion();
+      }
+
+      @Override
+      public UInt256 getStorageValue(final UInt256 key) {
+        final UInt256 value = account.getStorageValue(key);
+        recordStorageRead(account.getAddress(), key, value);
+        return value;
+      }
+
+      @Override
+      public UInt256 getOriginalStorageValue(final UInt256 key) {
+        // Nothing has been written on top of the initial state yet, so this is the current value.
+        final UInt256 value = account.getOriginalStorageValue(key);
+        recordStorageRead(account.getAddress(), key, value);
+        return value;
+      }
+
+      @Override
+      public NavigableMap<Bytes32, AccountStorageEntry> storageEntriesFrom(
+          final Bytes32 startKeyHash, final int limit) {
+        unverifiableReads = true;
+        return account.storageEntriesFrom(startKeyHash, limit);
+      }
+    }
+  }
+}
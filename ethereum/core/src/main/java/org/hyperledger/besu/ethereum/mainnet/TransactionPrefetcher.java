@@ -0,0 +1,194 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.WorldState;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Prepares a block's transactions for sequential execution. Senders are recovered in parallel and
+ * the call blocks until every signature has been processed. The accounts and code the transactions
+ * are about to touch are then read from copies of the world state in the background, so that the
+ * underlying storage caches are warm by the time the transaction loop reaches them.
+ *
+ * <p>The work runs on a dedicated executor with a bounded queue. When the queue is full, senders
+ * are recovered on the calling thread and the remaining accounts are not prefetched.
+ */
+public class TransactionPrefetcher {
+
+  private static final Logger LOG = LogManager.getLogger();
+  private static final int TRANSACTIONS_PER_TASK = 16;
+  private static final int ACCOUNTS_PER_TASK = 16;
+  private static final int DEFAULT_QUEUE_SIZE = 1024;
+
+  private final ExecutorService executor;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+
+  public TransactionPrefetcher(final MetricsSystem metricsSystem) {
+    this(
+        createExecutor(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_QUEUE_SIZE),
+        metricsSystem);
+  }
+
+  public TransactionPrefetcher(final ExecutorService executor, final MetricsSystem metricsSystem) {
+    this.executor = executor;
+    this.hitCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "transaction_prefetch_hits_total",
+            "Number of transactions whose accounts had been prefetched by the time they were executed");
+    this.missCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "transaction_prefetch_misses_total",
+            "Number of transactions executed before their accounts had been prefetched");
+  }
+
+  public static ExecutorService createExecutor(final int threads, final int queueSize) {
+    return new ThreadPoolExecutor(
+        threads,
+        threads,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueSize),
+        new ThreadFactoryBuilder()
+            .setNameFormat("TransactionPrefetcher-%d")
+            .setDaemon(true)
+            .build());
+  }
+
+  public BlockPrefetch prefetch(
+      final MutableWorldState worldState, final List<Transaction> transactions) {
+    final BlockPrefetch blockPrefetch = new BlockPrefetch();
+    if (transactions.isEmpty()) {
+      return blockPrefetch;
+    }
+    final List<CompletableFuture<Set<Address>>> recoveries = new ArrayList<>();
+    for (final List<Transaction> batch : Lists.partition(transactions, TRANSACTIONS_PER_TASK)) {
+      recoveries.add(supply(() -> recoverTouchedAddresses(batch)));
+    }
+    final Set<Address> touchedAddresses = new HashSet<>();
+    recoveries.forEach(recovery -> touchedAddresses.addAll(recovery.join()));
+
+    for (final List<Address> batch :
+        Lists.partition(new ArrayList<>(touchedAddresses), ACCOUNTS_PER_TASK)) {
+      // Each task reads from its own copy, taken here before the caller starts mutating the state.
+      final WorldState copy = worldState.copy();
+      if (copy == null) {
+        return blockPrefetch;
+      }
+      try {
+        executor.execute(() -> warmAccounts(copy, batch, blockPrefetch));
+      } catch (final RejectedExecutionException e) {
+        LOG.trace("Prefetch queue is full, skipping the remaining accounts");
+        return blockPrefetch;
+      }
+    }
+    return blockPrefetch;
+  }
+
+  private <R> CompletableFuture<R> supply(final Supplier<R> task) {
+    try {
+      return CompletableFuture.supplyAsync(task, executor);
+    } catch (final RejectedExecutionException e) {
+      // The queue is full, so do the work now rather than wait for room.
+      return CompletableFuture.completedFuture(task.get());
+    }
+  }
+
+  private Set<Address> recoverTouchedAddresses(final List<Transaction> transactions) {
+    final Set<Address> addresses = new HashSet<>();
+    for (final Transaction transaction : transactions) {
+      try {
+        addresses.add(transaction.getSender());
+        transaction.getTo().ifPresent(addresses::add);
+      } catch (final IllegalStateException e) {
+        // Invalid signatures are reported when the transaction is validated during execution.
+      }
+    }
+    return addresses;
+  }
+
+  private void warmAccounts(
+      final WorldState worldState,
+      final List<Address> addresses,
+      final BlockPrefetch blockPrefetch) {
+    try {
+      for (final Address address : addresses) {
+        final Account account = worldState.get(address);
+        if (account != null) {
+          account.getCode();
+        }
+        blockPrefetch.prefetchedAddresses.add(address);
+      }
+    } catch (final RuntimeException e) {
+      LOG.trace("Failed to prefetch accounts", e);
+    }
+  }
+
+  /** The accounts prefetched so far for a block's transactions. */
+  public class BlockPrefetch {
+    private final Set<Address> prefetchedAddresses = ConcurrentHashMap.newKeySet();
+
+    private BlockPrefetch() {}
+
+    /**
+     * Records that a transaction is about to be executed, counting a hit if its sender and
+     * recipient have already been prefetched and a miss otherwise.
+     *
+     * @param transaction the transaction about to be executed
+     */
+    public void transactionStarted(final Transaction transaction) {
+      final Address sender;
+      try {
+        sender = transaction.getSender();
+      } catch (final IllegalStateException e) {
+        return;
+      }
+      if (prefetchedAddresses.contains(sender)
+          && transaction.getTo().map(prefetchedAddresses::contains).orElse(true)) {
+        hitCounter.inc();
+      } else {
+        missCounter.inc();
+      }
+    }
+  }
+}
@@ -17,10 +17,12 @@ package org.hyperledger.besu.ethereum.storage;
 import org.hyperledger.besu.ethereum.chain.BlockchainStorage;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.worldstate.WorldStatePreimageStorage;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateSnapshotStorage;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 
 import java.io.Closeable;
+import java.util.Optional;
 
 public interface StorageProvider extends Closeable {
 
@@ -32,5 +34,19 @@ public interface StorageProvider extends Closeable {
 
   KeyValueStorage createPruningStorage();
 
+  default Optional<WorldStateSnapshotStorage> createWorldStateSnapshotStorage() {
+    return Optional.empty();
+  }
+
+  /**
+   * Whether world state changes are buffered in memory and written behind block imports, in which
+   * case the world state of the most recent blocks may be missing after an unclean shutdown.
+   *
+   * @return true if world state writes are buffered
+   */
+  default boolean isWorldStateWriteBehindEnabled() {
+    return false;
+  }
+
   boolean isWorldStateIterable();
 }
@@ -30,6 +30,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import org.apache.tuweni.bytes.Bytes;
@@ -81,7 +82,7 @@ public class KeyValueStoragePrefixedKeyBlockchainStorage implements BlockchainSt
   @Override
   public Optional<BlockBody> getBlockBody(final Hash blockHash) {
     return get(BLOCK_BODY_PREFIX, blockHash)
-        .map(bytes -> BlockBody.readFrom(RLP.input(bytes), blockHeaderFunctions));
+        .map(bytes -> BlockBody.readLazilyFrom(RLP.input(bytes), blockHeaderFunctions));
   }
 
   @Override
@@ -89,6 +90,19 @@ public class KeyValueStoragePrefixedKeyBlockchainStorage implements BlockchainSt
     return get(TRANSACTION_RECEIPTS_PREFIX, blockHash).map(this::rlpDecodeTransactionReceipts);
   }
 
+  @Override
+  public List<Optional<List<TransactionReceipt>>> getAllTransactionReceipts(
+      final List<Hash> blockHashes) {
+    final List<byte[]> keys =
+        blockHashes.stream()
+            .map(blockHash -> Bytes.concatenate(TRANSACTION_RECEIPTS_PREFIX, blockHash))
+            .map(Bytes::toArrayUnsafe)
+            .collect(Collectors.toList());
+    return storage.getAll(keys).stream()
+        .map(value -> value.map(Bytes::wrap).map(this::rlpDecodeTransactionReceipts))
+        .collect(Collectors.toList());
+  }
+
   @Override
   public Optional<Hash> getBlockHash(final long blockNumber) {
     return get(BLOCK_HASH_PREFIX, UInt256.valueOf(blockNumber).toBytes()).map(this::bytesToHash);
@@ -19,10 +19,13 @@ import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.mainnet.ScheduleBasedBlockHeaderFunctions;
 import org.hyperledger.besu.ethereum.storage.StorageProvider;
 import org.hyperledger.besu.ethereum.worldstate.WorldStatePreimageStorage;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateSnapshotStorage;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
+import org.hyperledger.besu.ethereum.worldstate.WriteBehindWorldStateStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 
 import java.io.IOException;
+import java.util.Optional;
 
 public class KeyValueStorageProvider implements StorageProvider {
 
@@ -31,6 +34,10 @@ public class KeyValueStorageProvider implements StorageProvider {
   private final KeyValueStorage worldStatePreimageStorage;
   private final KeyValueStorage pruningStorage;
   private final boolean isWorldStateIterable;
+  private final TrieNodeCache worldStateNodeCache;
+  private final Optional<KeyValueStorage> worldStateSnapshotStorage;
+  private final Optional<WorldStateSnapshotStorage> worldStateSnapshot;
+  private final Optional<WriteBehindWorldStateStorage> worldStateWriteBehind;
 
   public KeyValueStorageProvider(
       final KeyValueStorage blockchainStorage,
@@ -38,11 +45,50 @@ public class KeyValueStorageProvider implements StorageProvider {
       final KeyValueStorage worldStatePreimageStorage,
       final KeyValueStorage pruningStorage,
       final boolean isWorldStateIterable) {
+    this(
+        blockchainStorage,
+        worldStateStorage,
+        worldStatePreimageStorage,
+        pruningStorage,
+        isWorldStateIterable,
+        TrieNodeCache.NONE,
+        Optional.empty(),
+        0,
+        0);
+  }
+
+  public KeyValueStorageProvider(
+      final KeyValueStorage blockchainStorage,
+      final KeyValueStorage worldStateStorage,
+      final KeyValueStorage worldStatePreimageStorage,
+      final KeyValueStorage pruningStorage,
+      final boolean isWorldStateIterable,
+      final TrieNodeCache worldStateNodeCache,
+      final Optional<KeyValueStorage> worldStateSnapshotStorage,
+      final int worldStateWriteBehindBlocks,
+      final long worldStateWriteBehindBytes) {
     this.blockchainStorage = blockchainStorage;
     this.worldStateStorage = worldStateStorage;
     this.worldStatePreimageStorage = worldStatePreimageStorage;
     this.pruningStorage = pruningStorage;
     this.isWorldStateIterable = isWorldStateIterable;
+    this.worldStateNodeCache = worldStateNodeCache;
+    this.worldStateSnapshotStorage = worldStateSnapshotStorage;
+    // Buffered changes must be visible to every reader, so the write-behind storage is shared.
+    this.worldStateWriteBehind =
+        worldStateWriteBehindBlocks > 0
+            ? Optional.of(
+                new WriteBehindWorldStateStorage(
+                    new WorldStateKeyValueStorage(worldStateStorage, worldStateNodeCache),
+                    worldStateWriteBehindBlocks,
+                    worldStateWriteBehindBytes))
+            : Optional.empty();
+    // The snapshot keeps its diff layers in memory, so it is shared by every world state too.
+    this.worldStateSnapshot =
+        worldStateSnapshotStorage.map(
+            storage ->
+                new LayeredWorldStateSnapshotStorage(
+                    new WorldStateSnapshotKeyValueStorage(storage), createWorldStateStorage()));
   }
 
   @Override
@@ -53,7 +99,10 @@ public class KeyValueStorageProvider implements StorageProvider {
 
   @Override
   public WorldStateStorage createWorldStateStorage() {
-    return new WorldStateKeyValueStorage(worldStateStorage);
+    if (worldStateWriteBehind.isPresent()) {
+      return worldStateWriteBehind.get();
+    }
+    return new WorldStateKeyValueStorage(worldStateStorage, worldStateNodeCache);
   }
 
   @Override
@@ -66,6 +115,16 @@ public class KeyValueStorageProvider implements StorageProvider {
     return pruningStorage;
   }
 
+  @Override
+  public Optional<WorldStateSnapshotStorage> createWorldStateSnapshotStorage() {
+    return worldStateSnapshot;
+  }
+
+  @Override
+  public boolean isWorldStateWriteBehindEnabled() {
+    return worldStateWriteBehind.isPresent();
+  }
+
   @Override
   public boolean isWorldStateIterable() {
     return isWorldStateIterable;
@@ -73,8 +132,17 @@ public class KeyValueStorageProvider implements StorageProvider {
 
   @Override
   public void close() throws IOException {
+    if (worldStateWriteBehind.isPresent()) {
+      worldStateWriteBehind.get().flush();
+    }
+    if (worldStateSnapshot.isPresent()) {
+      worldStateSnapshot.get().close();
+    }
     blockchainStorage.close();
     worldStateStorage.close();
     pruningStorage.close();
+    if (worldStateSnapshotStorage.isPresent()) {
+      worldStateSnapshotStorage.get().close();
+    }
   }
 }
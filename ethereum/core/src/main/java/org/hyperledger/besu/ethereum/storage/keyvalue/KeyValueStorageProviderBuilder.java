@@ -18,6 +18,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.BLOCKCHAIN;
 import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.PRUNING_STATE;
 import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.WORLD_STATE;
+import static org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier.WORLD_STATE_SNAPSHOT;
 
 import org.hyperledger.besu.plugin.services.BesuConfiguration;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
@@ -25,13 +26,20 @@ import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageFactory;
 import org.hyperledger.besu.services.kvstore.LimitedInMemoryKeyValueStorage;
 
+import java.util.Optional;
+
 public class KeyValueStorageProviderBuilder {
 
   private static final long DEFAULT_WORLD_STATE_PRE_IMAGE_CACHE_SIZE = 5_000L;
+  public static final long DEFAULT_WORLD_STATE_NODE_CACHE_SIZE_BYTES = 64L * 1024 * 1024;
 
   private KeyValueStorageFactory storageFactory;
   private BesuConfiguration commonConfiguration;
   private MetricsSystem metricsSystem;
+  private long worldStateNodeCacheSize = DEFAULT_WORLD_STATE_NODE_CACHE_SIZE_BYTES;
+  private boolean worldStateSnapshotEnabled = false;
+  private int worldStateWriteBehindBlocks = 0;
+  private long worldStateWriteBehindBytes = 0;
 
   public KeyValueStorageProviderBuilder withStorageFactory(
       final KeyValueStorageFactory storageFactory) {
@@ -50,6 +58,25 @@ public class KeyValueStorageProviderBuilder {
     return this;
   }
 
+  public KeyValueStorageProviderBuilder withWorldStateNodeCacheSize(
+      final long worldStateNodeCacheSize) {
+    this.worldStateNodeCacheSize = worldStateNodeCacheSize;
+    return this;
+  }
+
+  public KeyValueStorageProviderBuilder withWorldStateSnapshotEnabled(
+      final boolean worldStateSnapshotEnabled) {
+    this.worldStateSnapshotEnabled = worldStateSnapshotEnabled;
+    return this;
+  }
+
+  public KeyValueStorageProviderBuilder withWorldStateWriteBehind(
+      final int worldStateWriteBehindBlocks, final long worldStateWriteBehindBytes) {
+    this.worldStateWriteBehindBlocks = worldStateWriteBehindBlocks;
+    this.worldStateWriteBehindBytes = worldStateWriteBehindBytes;
+    return this;
+  }
+
   public KeyValueStorageProvider build() {
     checkNotNull(storageFactory, "Cannot build a storage provider without a storage factory.");
     checkNotNull(
@@ -60,11 +87,31 @@ public class KeyValueStorageProviderBuilder {
     final KeyValueStorage worldStatePreImageStorage =
         new LimitedInMemoryKeyValueStorage(DEFAULT_WORLD_STATE_PRE_IMAGE_CACHE_SIZE);
 
+    final KeyValueStorage blockchainStorage =
+        storageFactory.create(BLOCKCHAIN, commonConfiguration, metricsSystem);
+    final KeyValueStorage worldStateStorage =
+        storageFactory.create(WORLD_STATE, commonConfiguration, metricsSystem);
+    final KeyValueStorage pruningStorage =
+        storageFactory.create(PRUNING_STATE, commonConfiguration, metricsSystem);
+    final boolean isSegmentIsolationSupported = storageFactory.isSegmentIsolationSupported();
+
+    // Without segment isolation the snapshot would share a keyspace with the trie nodes and be
+    // swept away by the pruner.
+    final Optional<KeyValueStorage> worldStateSnapshotStorage =
+        worldStateSnapshotEnabled && isSegmentIsolationSupported
+            ? Optional.of(
+                storageFactory.create(WORLD_STATE_SNAPSHOT, commonConfiguration, metricsSystem))
+            : Optional.empty();
+
     return new KeyValueStorageProvider(
-        storageFactory.create(BLOCKCHAIN, commonConfiguration, metricsSystem),
-        storageFactory.create(WORLD_STATE, commonConfiguration, metricsSystem),
+        blockchainStorage,
+        worldStateStorage,
         worldStatePreImageStorage,
-        storageFactory.create(PRUNING_STATE, commonConfiguration, metricsSystem),
-        storageFactory.isSegmentIsolationSupported());
+        pruningStorage,
+        isSegmentIsolationSupported,
+        new TrieNodeCache(worldStateNodeCacheSize, metricsSystem),
+        worldStateSnapshotStorage,
+        worldStateWriteBehindBlocks,
+        worldStateWriteBehindBytes);
   }
 }
@@ -0,0 +1,388 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.keyvalue;
+
+import org.hyperledger.besu.ethereum.trie.MerkleTrieException;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateSnapshotStorage;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * Keeps the changes of recently persisted world states in memory as diff layers on top of the flat
+ * copy on disk. Each layer holds the changes from its parent state, so blocks on competing forks
+ * each get their own layer. Layers further than the retained number of blocks behind the canonical
+ * head are folded into the flat copy, and layers that no longer lead back to it are dropped.
+ *
+ * <p>The layers are only kept in memory. On close the layers leading to the chain head are folded
+ * into the flat copy; after an unclean shutdown the flat copy can't reach the head any more and is
+ * generated again.
+ */
+public class LayeredWorldStateSnapshotStorage implements WorldStateSnapshotStorage {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  // Enough to follow reorgs without regenerating the flat copy.
+  private static final int DEFAULT_RETAINED_LAYERS = 128;
+  private static final int GENERATION_BATCH_SIZE = 10_000;
+
+  private final WorldStateSnapshotKeyValueStorage diskLayer;
+  private final WorldStateStorage worldStateStorage;
+  private final int retainedLayers;
+  private final ExecutorService generatorExecutor;
+  private final Map<Bytes32, DiffLayer> diffLayers = new ConcurrentHashMap<>();
+  private final AtomicBoolean generating = new AtomicBoolean(false);
+  private volatile boolean regenerationRequired = false;
+  private volatile boolean closed = false;
+  private Optional<Bytes32> chainHead = Optional.empty();
+
+  public LayeredWorldStateSnapshotStorage(
+      final WorldStateSnapshotKeyValueStorage diskLayer,
+      final WorldStateStorage worldStateStorage) {
+    this(
+        diskLayer,
+        worldStateStorage,
+        DEFAULT_RETAINED_LAYERS,
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setPriority(Thread.MIN_PRIORITY)
+                .setNameFormat("SnapshotGenerator-%d")
+                .build()));
+  }
+
+  public LayeredWorldStateSnapshotStorage(
+      final WorldStateSnapshotKeyValueStorage diskLayer,
+      final WorldStateStorage worldStateStorage,
+      final int retainedLayers,
+      final ExecutorService generatorExecutor) {
+    this.diskLayer = diskLayer;
+    this.worldStateStorage = worldStateStorage;
+    this.retainedLayers = retainedLayers;
+    this.generatorExecutor = generatorExecutor;
+  }
+
+  @Override
+  public Optional<Bytes> getAccount(final Bytes32 stateRoot, final Bytes32 accountHash) {
+    Bytes32 root = stateRoot;
+    for (int depth = 0; depth <= diffLayers.size(); depth++) {
+      final DiffLayer layer = diffLayers.get(root);
+      if (layer == null) {
+        return diskLayer.getAccount(root, accountHash);
+      }
+      final Bytes account = layer.accounts.get(accountHash);
+      if (account != null) {
+        return Optional.of(account);
+      }
+      root = layer.parentRoot;
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<Bytes> getStorageValue(
+      final Bytes32 stateRoot, final Bytes32 accountHash, final Bytes32 slotHash) {
+    Bytes32 root = stateRoot;
+    for (int depth = 0; depth <= diffLayers.size(); depth++) {
+      final DiffLayer layer = diffLayers.get(root);
+      if (layer == null) {
+        return diskLayer.getStorageValue(root, accountHash, slotHash);
+      }
+      final Map<Bytes32, Bytes> slots = layer.storage.get(accountHash);
+      if (slots != null && slots.containsKey(slotHash)) {
+        return Optional.of(slots.get(slotHash));
+      }
+      if (layer.clearedStorage.contains(accountHash)) {
+        return Optional.of(Bytes.EMPTY);
+      }
+      root = layer.parentRoot;
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<NavigableMap<Bytes32, Bytes>> getStorageEntriesFrom(
+      final Bytes32 stateRoot,
+      final Bytes32 accountHash,
+      final Bytes32 startSlotHash,
+      final int limit) {
+    // Ranges are only served from the flat copy, so any layer touching the account's storage on the
+    // way down sends the caller back to the trie.
+    Bytes32 root = stateRoot;
+    for (int depth = 0; depth <= diffLayers.size(); depth++) {
+      final DiffLayer layer = diffLayers.get(root);
+      if (layer == null) {
+        return diskLayer.getStorageEntriesFrom(root, accountHash, startSlotHash, limit);
+      }
+      if (layer.storage.containsKey(accountHash) || layer.clearedStorage.contains(accountHash)) {
+        return Optional.empty();
+      }
+      root = layer.parentRoot;
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public synchronized void setChainHead(final Bytes32 stateRoot) {
+    if (closed) {
+      return;
+    }
+    chainHead = Optional.of(stateRoot);
+    final Optional<List<DiffLayer>> path = pathToDiskLayer(stateRoot);
+    if (path.isEmpty() || regenerationRequired) {
+      LOG.info("Generating the world state snapshot of state {}", stateRoot);
+      regenerationRequired = false;
+      diffLayers.clear();
+      diskLayer.startGeneration(stateRoot);
+      scheduleGeneration();
+      return;
+    }
+    // The path runs from the head down, so the deepest layers are folded first.
+    final List<DiffLayer> layers = path.get();
+    for (int i = layers.size() - 1; i >= retainedLayers; i--) {
+      flatten(layers.get(i));
+    }
+    pruneUnreachableLayers();
+    if (diskLayer.isGenerating()) {
+      scheduleGeneration();
+    }
+  }
+
+  private Optional<List<DiffLayer>> pathToDiskLayer(final Bytes32 stateRoot) {
+    final Optional<Bytes32> diskRoot = diskLayer.getSnapshotRoot();
+    if (diskRoot.isEmpty()) {
+      return Optional.empty();
+    }
+    final List<DiffLayer> path = new ArrayList<>();
+    Bytes32 root = stateRoot;
+    while (!root.equals(diskRoot.get())) {
+      final DiffLayer layer = diffLayers.get(root);
+      if (layer == null || path.size() > diffLayers.size()) {
+        return Optional.empty();
+      }
+      path.add(layer);
+      root = layer.parentRoot;
+    }
+    return Optional.of(path);
+  }
+
+  private void flatten(final DiffLayer layer) {
+    final WorldStateSnapshotKeyValueStorage.Updater updater = diskLayer.updater();
+    layer.clearedStorage.forEach(updater::clearStorage);
+    layer.storage.forEach(
+        (accountHash, slots) ->
+            slots.forEach(
+                (slotHash, value) -> {
+                  if (value.isEmpty()) {
+                    updater.removeStorageValue(accountHash, slotHash);
+                  } else {
+                    updater.putStorageValue(accountHash, slotHash, value);
+                  }
+                }));
+    layer.accounts.forEach(
+        (accountHash, account) -> {
+          if (account.isEmpty()) {
+            updater.removeAccount(accountHash);
+          } else {
+            updater.putAccount(accountHash, account);
+          }
+        });
+    // Readers check the root of the flat copy, so the layer can go once the copy has moved past it.
+    updater.commit(layer.parentRoot, layer.root);
+    diffLayers.remove(layer.root);
+  }
+
+  private void pruneUnreachableLayers() {
+    final Set<Bytes32> reachable = new HashSet<>();
+    diskLayer.getSnapshotRoot().ifPresent(reachable::add);
+    final Set<Bytes32> unreachable = new HashSet<>();
+    for (final DiffLayer layer : List.copyOf(diffLayers.values())) {
+      final List<Bytes32> walked = new ArrayList<>();
+      Bytes32 root = layer.root;
+      while (!reachable.contains(root) && !unreachable.contains(root)) {
+        final DiffLayer current = diffLayers.get(root);
+        if (current == null || walked.size() > diffLayers.size()) {
+          unreachable.add(root);
+          break;
+        }
+        walked.add(root);
+        root = current.parentRoot;
+      }
+      if (reachable.contains(root)) {
+        reachable.addAll(walked);
+      } else {
+        unreachable.addAll(walked);
+      }
+    }
+    unreachable.forEach(diffLayers::remove);
+  }
+
+  private void scheduleGeneration() {
+    if (!generating.compareAndSet(false, true)) {
+      return;
+    }
+    generatorExecutor.execute(
+        () -> {
+          try {
+            boolean complete = false;
+            while (!closed && !complete) {
+              complete = diskLayer.generate(worldStateStorage, GENERATION_BATCH_SIZE);
+            }
+            if (complete) {
+              LOG.info("Generated the world state snapshot");
+            }
+          } catch (final MerkleTrieException e) {
+            // The trie of the state being generated is no longer complete, start over from the
+            // next chain head.
+            LOG.warn("Unable to generate the world state snapshot: {}", e.getMessage());
+            regenerationRequired = true;
+          } finally {
+            generating.set(false);
+          }
+        });
+  }
+
+  @Override
+  public Updater updater() {
+    return new Updater();
+  }
+
+  /** Folds the layers leading to the chain head into the flat copy so they survive a restart. */
+  @Override
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    generatorExecutor.shutdown();
+    try {
+      if (!generatorExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+        LOG.warn("Timed out waiting for the world state snapshot generator to stop");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    chainHead
+        .flatMap(this::pathToDiskLayer)
+        .ifPresent(
+            path -> {
+              for (int i = path.size() - 1; i >= 0; i--) {
+                flatten(path.get(i));
+              }
+            });
+    diffLayers.clear();
+  }
+
+  /**
+   * The changes between two world states. Removed accounts and storage slots are recorded as
+   * {@link Bytes#EMPTY}, and storage slots of an account whose storage was cleared are the ones
+   * written after clearing it.
+   */
+  private static class DiffLayer {
+    private final Bytes32 parentRoot;
+    private final Bytes32 root;
+    private final Map<Bytes32, Bytes> accounts;
+    private final Set<Bytes32> clearedStorage;
+    private final Map<Bytes32, Map<Bytes32, Bytes>> storage;
+
+    private DiffLayer(
+        final Bytes32 parentRoot,
+        final Bytes32 root,
+        final Map<Bytes32, Bytes> accounts,
+        final Set<Bytes32> clearedStorage,
+        final Map<Bytes32, Map<Bytes32, Bytes>> storage) {
+      this.parentRoot = parentRoot;
+      this.root = root;
+      this.accounts = accounts;
+      this.clearedStorage = clearedStorage;
+      this.storage = storage;
+    }
+  }
+
+  public class Updater implements WorldStateSnapshotStorage.Updater {
+
+    private Map<Bytes32, Bytes> accounts = new HashMap<>();
+    private Set<Bytes32> clearedStorage = new HashSet<>();
+    private Map<Bytes32, Map<Bytes32, Bytes>> storage = new HashMap<>();
+
+    private Updater() {}
+
+    @Override
+    public Updater putAccount(final Bytes32 accountHash, final Bytes account) {
+      accounts.put(accountHash, account);
+      return this;
+    }
+
+    @Override
+    public Updater removeAccount(final Bytes32 accountHash) {
+      accounts.put(accountHash, Bytes.EMPTY);
+      return this;
+    }
+
+    @Override
+    public Updater putStorageValue(
+        final Bytes32 accountHash, final Bytes32 slotHash, final Bytes value) {
+      storage.computeIfAbsent(accountHash, __ -> new HashMap<>()).put(slotHash, value);
+      return this;
+    }
+
+    @Override
+    public Updater removeStorageValue(final Bytes32 accountHash, final Bytes32 slotHash) {
+      storage.computeIfAbsent(accountHash, __ -> new HashMap<>()).put(slotHash, Bytes.EMPTY);
+      return this;
+    }
+
+    @Override
+    public Updater clearStorage(final Bytes32 accountHash) {
+      clearedStorage.add(accountHash);
+      return this;
+    }
+
+    @Override
+    public void commit(final Bytes32 fromRoot, final Bytes32 toRoot) {
+      // A state the flat copy already describes, such as a block imported again, needs no layer.
+      if (!fromRoot.equals(toRoot)
+          && !diskLayer.getSnapshotRoot().map(toRoot::equals).orElse(false)) {
+        diffLayers.put(toRoot, new DiffLayer(fromRoot, toRoot, accounts, clearedStorage, storage));
+      }
+      rollback();
+    }
+
+    @Override
+    public void rollback() {
+      accounts = new HashMap<>();
+      clearedStorage = new HashSet<>();
+      storage = new HashMap<>();
+    }
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.keyvalue;
+
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * A size-bounded cache of encoded trie nodes and code, keyed by their hash. Values are held as
+ * plain byte arrays and the cache is weighted by the number of bytes retained, so the bound is
+ * expressed in bytes rather than in entries.
+ *
+ * <p>Because entries are content-addressed they never go stale, only missing. The only thing that
+ * can invalidate an entry is removal of the underlying node, which is why explicit node removals
+ * must go through {@link #invalidate(Bytes32)} and pruning through {@link #startPruning()} and
+ * {@link #finishPruning(Predicate)}.
+ *
+ * <p>A node read from storage just before it is pruned could otherwise be cached after the pruner
+ * invalidated it. Values read from storage are therefore added with {@link #putLoaded} and the
+ * generation returned by {@link #loadGeneration()} before reading them, and are dropped again if a
+ * pruning started since.
+ */
+public class TrieNodeCache {
+
+  public static final TrieNodeCache NONE = new TrieNodeCache(0);
+
+  // Rough per-entry overhead for the key, the array header and the cache bookkeeping.
+  private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+  private final Cache<Bytes32, byte[]> cache;
+  private final boolean enabled;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+  // Odd while pruning.
+  private final AtomicLong generation = new AtomicLong();
+
+  public TrieNodeCache(final long maxSizeInBytes) {
+    this(maxSizeInBytes, new NoOpMetricsSystem());
+  }
+
+  public TrieNodeCache(final long maxSizeInBytes, final MetricsSystem metricsSystem) {
+    this.enabled = maxSizeInBytes > 0;
+    final Counter evictionCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "world_state_node_cache_evictions_total",
+            "Number of world state nodes evicted from the node cache");
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(Math.max(0, maxSizeInBytes))
+            .<Bytes32, byte[]>weigher((key, value) -> ENTRY_OVERHEAD_BYTES + value.length)
+            .removalListener(
+                notification -> {
+                  if (notification.wasEvicted()) {
+                    evictionCounter.inc();
+                  }
+                })
+            .build();
+    this.hitCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "world_state_node_cache_hits_total",
+            "Number of world state node reads served from the node cache");
+    this.missCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "world_state_node_cache_misses_total",
+            "Number of world state node reads that missed the node cache");
+    metricsSystem.createLongGauge(
+        BesuMetricCategory.BLOCKCHAIN,
+        "world_state_node_cache_entries",
+        "Current number of world state nodes held in the node cache",
+        cache::size);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public Optional<Bytes> get(final Bytes32 hash) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    final byte[] value = cache.getIfPresent(hash);
+    if (value == null) {
+      missCounter.inc();
+      return Optional.empty();
+    }
+    hitCounter.inc();
+    return Optional.of(Bytes.wrap(value));
+  }
+
+  /**
+   * Returns the generation to pass to {@link #putLoaded} for a value about to be read from storage.
+   *
+   * @return the current generation
+   */
+  public long loadGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Caches a value read from storage, unless a pruning was in progress or started since {@code
+   * loadGeneration} was obtained, as the value may have been pruned since it was read.
+   *
+   * @param hash the hash of the value
+   * @param value the value read from storage
+   * @param loadGeneration the generation obtained before reading the value
+   */
+  public void putLoaded(final Bytes32 hash, final byte[] value, final long loadGeneration) {
+    if (!enabled || loadGeneration % 2 != 0) {
+      return;
+    }
+    cache.put(hash, value);
+    // Any pruning starting after this check invalidates the value once it has removed nodes.
+    if (generation.get() != loadGeneration) {
+      cache.invalidate(hash);
+    }
+  }
+
+  public void invalidate(final Bytes32 hash) {
+    if (enabled) {
+      cache.invalidate(hash);
+    }
+  }
+
+  /** Stops values read from storage from being cached until the pruning finishes. */
+  public void startPruning() {
+    generation.incrementAndGet();
+  }
+
+  /**
+   * Invalidates the cached values that are no longer in use once they have been pruned from
+   * storage.
+   *
+   * @param inUseCheck tells whether a key is still in use
+   */
+  public void finishPruning(final Predicate<byte[]> inUseCheck) {
+    try {
+      if (enabled) {
+        cache.asMap().keySet().removeIf(key -> !inUseCheck.test(key.toArrayUnsafe()));
+      }
+    } finally {
+      generation.incrementAndGet();
+    }
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  long size() {
+    return cache.size();
+  }
+}
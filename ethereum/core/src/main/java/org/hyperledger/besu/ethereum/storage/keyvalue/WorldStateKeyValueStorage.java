@@ -33,9 +33,16 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
 
   private final Subscribers<NodesAddedListener> nodeAddedListeners = Subscribers.create();
   private final KeyValueStorage keyValueStorage;
+  private final TrieNodeCache nodeCache;
 
   public WorldStateKeyValueStorage(final KeyValueStorage keyValueStorage) {
+    this(keyValueStorage, TrieNodeCache.NONE);
+  }
+
+  public WorldStateKeyValueStorage(
+      final KeyValueStorage keyValueStorage, final TrieNodeCache nodeCache) {
     this.keyValueStorage = keyValueStorage;
+    this.nodeCache = nodeCache;
   }
 
   @Override
@@ -43,7 +50,7 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
     if (codeHash.equals(Hash.EMPTY)) {
       return Optional.of(Bytes.EMPTY);
     } else {
-      return keyValueStorage.get(codeHash.toArrayUnsafe()).map(Bytes::wrap);
+      return getCached(codeHash);
     }
   }
 
@@ -61,7 +68,7 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
     if (nodeHash.equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH)) {
       return Optional.of(MerklePatriciaTrie.EMPTY_TRIE_NODE);
     } else {
-      return keyValueStorage.get(nodeHash.toArrayUnsafe()).map(Bytes::wrap);
+      return getCached(nodeHash);
     }
   }
 
@@ -72,10 +79,54 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
     } else if (hash.equals(Hash.EMPTY)) {
       return Optional.of(Bytes.EMPTY);
     } else {
-      return keyValueStorage.get(hash.toArrayUnsafe()).map(Bytes::wrap);
+      return getCached(hash);
     }
   }
 
+  @Override
+  public List<Optional<Bytes>> getNodeData(final List<Bytes32> hashes) {
+    final List<Optional<Bytes>> result = new ArrayList<>(hashes.size());
+    final List<Integer> missingIndexes = new ArrayList<>();
+    final List<byte[]> missingKeys = new ArrayList<>();
+    for (final Bytes32 hash : hashes) {
+      final Optional<Bytes> value;
+      if (hash.equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH)) {
+        value = Optional.of(MerklePatriciaTrie.EMPTY_TRIE_NODE);
+      } else if (hash.equals(Hash.EMPTY)) {
+        value = Optional.of(Bytes.EMPTY);
+      } else {
+        value = nodeCache.get(hash);
+        if (value.isEmpty()) {
+          missingIndexes.add(result.size());
+          missingKeys.add(hash.toArrayUnsafe());
+        }
+      }
+      result.add(value);
+    }
+    if (!missingKeys.isEmpty()) {
+      final long loadGeneration = nodeCache.loadGeneration();
+      final List<Optional<byte[]>> loaded = keyValueStorage.getAll(missingKeys);
+      for (int i = 0; i < missingIndexes.size(); i++) {
+        final int index = missingIndexes.get(i);
+        final Bytes32 hash = hashes.get(index);
+        loaded.get(i).ifPresent(bytes -> nodeCache.putLoaded(hash, bytes, loadGeneration));
+        result.set(index, loaded.get(i).map(Bytes::wrap));
+      }
+    }
+    return result;
+  }
+
+  private Optional<Bytes> getCached(final Bytes32 hash) {
+    final Optional<Bytes> cached = nodeCache.get(hash);
+    if (cached.isPresent()) {
+      return cached;
+    }
+    final long loadGeneration = nodeCache.loadGeneration();
+    final Optional<byte[]> value = keyValueStorage.get(hash.toArrayUnsafe());
+    value.ifPresent(bytes -> nodeCache.putLoaded(hash, bytes, loadGeneration));
+    return value.map(Bytes::wrap);
+  }
+
   @Override
   public boolean isWorldStateAvailable(final Bytes32 rootHash) {
     return getAccountStateTrieNode(rootHash).isPresent();
@@ -83,12 +134,17 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
 
   @Override
   public Updater updater() {
-    return new Updater(keyValueStorage.startTransaction(), nodeAddedListeners);
+    return new Updater(keyValueStorage.startTransaction(), nodeAddedListeners, nodeCache);
   }
 
   @Override
   public long prune(final Predicate<byte[]> inUseCheck) {
-    return keyValueStorage.removeAllKeysUnless(inUseCheck);
+    nodeCache.startPruning();
+    try {
+      return keyValueStorage.removeAllKeysUnless(inUseCheck);
+    } finally {
+      nodeCache.finishPruning(inUseCheck);
+    }
   }
 
   @Override
@@ -105,17 +161,28 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
 
     private final KeyValueStorageTransaction transaction;
     private final Subscribers<NodesAddedListener> nodeAddedListeners;
+    private final TrieNodeCache nodeCache;
     private final List<Bytes32> addedNodes = new ArrayList<>();
+    private final List<Bytes32> removedNodes = new ArrayList<>();
 
     public Updater(
         final KeyValueStorageTransaction transaction,
         final Subscribers<NodesAddedListener> nodeAddedListeners) {
+      this(transaction, nodeAddedListeners, TrieNodeCache.NONE);
+    }
+
+    public Updater(
+        final KeyValueStorageTransaction transaction,
+        final Subscribers<NodesAddedListener> nodeAddedListeners,
+        final TrieNodeCache nodeCache) {
       this.transaction = transaction;
       this.nodeAddedListeners = nodeAddedListeners;
+      this.nodeCache = nodeCache;
     }
 
     @Override
     public Updater removeAccountStateTrieNode(final Bytes32 nodeHash) {
+      removedNodes.add(nodeHash);
       transaction.remove(nodeHash.toArrayUnsafe());
       return this;
     }
@@ -158,6 +225,7 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
     public void commit() {
       nodeAddedListeners.forEach(listener -> listener.onNodesAdded(addedNodes));
       transaction.commit();
+      removedNodes.forEach(nodeCache::invalidate);
     }
 
     @Override
@@ -0,0 +1,437 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.keyvalue;
+
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.trie.StoredMerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageIterator;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * Stores the flat copy of a single world state in a dedicated key-value segment. Accounts are keyed
+ * by their 32 byte hash and storage slots by the 64 byte concatenation of account hash and slot
+ * hash, so neither can collide with the shorter metadata keys.
+ *
+ * <p>Every commit is numbered, and storage values are stored prefixed with the number of the commit
+ * that wrote them. Clearing the storage of an account only records the commit number under a 33
+ * byte key, after which slots written by earlier commits read as unset. This keeps the cost of a
+ * self-destruct independent of the size of the account's storage; the stale slots stay on disk
+ * until they are overwritten.
+ *
+ * <p>The copy is generated from the trie in ascending order of account hash. While generation is in
+ * progress only the accounts before the generator marker are served, and commits only apply changes
+ * to those accounts; the generator picks up the rest from the trie of whatever root the copy has
+ * moved to by then.
+ */
+public class WorldStateSnapshotKeyValueStorage {
+
+  private static final byte[] SNAPSHOT_ROOT_KEY =
+      "snapshotRoot".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] SNAPSHOT_COMMIT_NUMBER_KEY =
+      "snapshotCommitNumber".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] SNAPSHOT_GENERATOR_MARKER_KEY =
+      "snapshotGeneratorMarker".getBytes(StandardCharsets.UTF_8);
+  private static final Bytes STORAGE_CLEARED_SUFFIX = Bytes.of(0);
+  private static final int STORAGE_KEY_LENGTH = 2 * Bytes32.SIZE;
+
+  private final KeyValueStorage keyValueStorage;
+  // Guards the snapshot root and generator marker so a reader never observes values from a
+  // different root than the one it checked against.
+  private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+  private volatile Optional<Bytes32> snapshotRoot;
+  private volatile Optional<Bytes32> generatorMarker;
+  private long commitNumber;
+
+  public WorldStateSnapshotKeyValueStorage(final KeyValueStorage keyValueStorage) {
+    this.keyValueStorage = keyValueStorage;
+    this.snapshotRoot = keyValueStorage.get(SNAPSHOT_ROOT_KEY).map(Bytes32::wrap);
+    this.generatorMarker = keyValueStorage.get(SNAPSHOT_GENERATOR_MARKER_KEY).map(Bytes32::wrap);
+    this.commitNumber =
+        keyValueStorage
+            .get(SNAPSHOT_COMMIT_NUMBER_KEY)
+            .map(value -> Bytes.wrap(value).toLong())
+            .orElse(0L);
+  }
+
+  /**
+   * Returns the root of the world state the flat copy describes.
+   *
+   * @return the root, or empty if the copy has never been generated
+   */
+  public Optional<Bytes32> getSnapshotRoot() {
+    return snapshotRoot;
+  }
+
+  public boolean isGenerating() {
+    return generatorMarker.isPresent();
+  }
+
+  public Optional<Bytes> getAccount(final Bytes32 stateRoot, final Bytes32 accountHash) {
+    if (!describes(stateRoot, accountHash)) {
+      return Optional.empty();
+    }
+    final Lock lock = rwLock.readLock();
+    lock.lock();
+    try {
+      if (!describes(stateRoot, accountHash)) {
+        return Optional.empty();
+      }
+      return Optional.of(
+          keyValueStorage.get(accountHash.toArrayUnsafe()).map(Bytes::wrap).orElse(Bytes.EMPTY));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Optional<Bytes> getStorageValue(
+      final Bytes32 stateRoot, final Bytes32 accountHash, final Bytes32 slotHash) {
+    if (!describes(stateRoot, accountHash)) {
+      return Optional.empty();
+    }
+    final Lock lock = rwLock.readLock();
+    lock.lock();
+    try {
+      if (!describes(stateRoot, accountHash)) {
+        return Optional.empty();
+      }
+      final Optional<byte[]> entry = keyValueStorage.get(storageKey(accountHash, slotHash));
+      if (entry.isEmpty()) {
+        return Optional.of(Bytes.EMPTY);
+      }
+      final Bytes storedEntry = Bytes.wrap(entry.get());
+      return Optional.of(
+          writtenAt(storedEntry) >= clearedAt(accountHash)
+              ? storedEntry.slice(Long.BYTES)
+              : Bytes.EMPTY);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public Optional<NavigableMap<Bytes32, Bytes>> getStorageEntriesFrom(
+      final Bytes32 stateRoot,
+      final Bytes32 accountHash,
+      final Bytes32 startSlotHash,
+      final int limit) {
+    if (!describes(stateRoot, accountHash)) {
+      return Optional.empty();
+    }
+    final Lock lock = rwLock.readLock();
+    lock.lock();
+    try (final KeyValueStorageIterator iterator =
+        keyValueStorage.iteratorWithPrefix(accountHash.toArrayUnsafe())) {
+      if (!describes(stateRoot, accountHash)) {
+        return Optional.empty();
+      }
+      final long clearedAt = clearedAt(accountHash);
+      final NavigableMap<Bytes32, Bytes> entries = new TreeMap<>();
+      iterator.seek(storageKey(accountHash, startSlotHash));
+      while (entries.size() < limit && iterator.hasNext()) {
+        final Map.Entry<byte[], byte[]> entry = iterator.next();
+        // The prefix also matches the account itself and its storage cleared marker.
+        if (entry.getKey().length != STORAGE_KEY_LENGTH) {
+          continue;
+        }
+        final Bytes storedEntry = Bytes.wrap(entry.getValue());
+        if (writtenAt(storedEntry) >= clearedAt) {
+          entries.put(Bytes32.wrap(entry.getKey(), Bytes32.SIZE), storedEntry.slice(Long.BYTES));
+        }
+      }
+      return Optional.of(entries);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Starts generating the flat copy of a world state from scratch. Until generation completes only
+   * the accounts generated so far are served.
+   *
+   * @param stateRoot the root of the world state to generate the copy of
+   */
+  public void startGeneration(final Bytes32 stateRoot) {
+    final Lock lock = rwLock.writeLock();
+    lock.lock();
+    try {
+      final KeyValueStorageTransaction transaction = keyValueStorage.startTransaction();
+      transaction.put(SNAPSHOT_ROOT_KEY, stateRoot.toArrayUnsafe());
+      transaction.put(SNAPSHOT_GENERATOR_MARKER_KEY, Bytes32.ZERO.toArrayUnsafe());
+      transaction.commit();
+      snapshotRoot = Optional.of(stateRoot);
+      generatorMarker = Optional.of(Bytes32.ZERO);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Generates the next batch of accounts from the trie of the world state the copy describes. Any
+   * entries left in the batch's range by an earlier copy are removed first.
+   *
+   * @param worldStateStorage the storage of the trie to generate the copy from
+   * @param maxEntries the number of accounts, and of storage slots per write, to generate
+   * @return true once the whole copy has been generated
+   */
+  public boolean generate(final WorldStateStorage worldStateStorage, final int maxEntries) {
+    final Lock lock = rwLock.writeLock();
+    lock.lock();
+    try {
+      if (snapshotRoot.isEmpty() || generatorMarker.isEmpty()) {
+        return true;
+      }
+      final NavigableMap<Bytes32, Bytes> accounts =
+          new TreeMap<>(
+              new StoredMerklePatriciaTrie<Bytes32, Bytes>(
+                      worldStateStorage::getAccountStateTrieNode,
+                      snapshotRoot.get(),
+                      Function.identity(),
+                      Function.identity())
+                  .entriesFrom(generatorMarker.get(), maxEntries + 1));
+      final Optional<Bytes32> nextMarker =
+          accounts.size() > maxEntries
+              ? Optional.of(accounts.pollLastEntry().getKey())
+              : Optional.empty();
+      final long number = commitNumber + 1;
+      final Bytes stamp = Bytes.ofUnsignedLong(number);
+
+      KeyValueStorageTransaction transaction = keyValueStorage.startTransaction();
+      removeRange(
+          transaction,
+          generatorMarker.get(),
+          nextMarker.map(Bytes32::toArrayUnsafe).orElse(new byte[0]));
+      for (final Map.Entry<Bytes32, Bytes> account : accounts.entrySet()) {
+        transaction.put(account.getKey().toArrayUnsafe(), account.getValue().toArrayUnsafe());
+        final Bytes32 storageRoot =
+            StateTrieAccountValue.readFrom(RLP.input(account.getValue())).getStorageRoot();
+        if (storageRoot.equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH)) {
+          continue;
+        }
+        final MerklePatriciaTrie<Bytes32, Bytes> storageTrie =
+            new StoredMerklePatriciaTrie<>(
+                worldStateStorage::getAccountStorageTrieNode,
+                storageRoot,
+                Function.identity(),
+                Function.identity());
+        // Large storage is written in chunks. Nothing is served before the marker moves past the
+        // account, and an interrupted batch is removed and generated again.
+        Optional<Bytes32> slotHash = Optional.of(Bytes32.ZERO);
+        while (slotHash.isPresent()) {
+          final NavigableMap<Bytes32, Bytes> slots =
+              new TreeMap<>(storageTrie.entriesFrom(slotHash.get(), maxEntries + 1));
+          slotHash =
+              slots.size() > maxEntries
+                  ? Optional.of(slots.pollLastEntry().getKey())
+                  : Optional.empty();
+          for (final Map.Entry<Bytes32, Bytes> slot : slots.entrySet()) {
+            transaction.put(
+                storageKey(account.getKey(), slot.getKey()),
+                Bytes.concatenate(stamp, slot.getValue()).toArrayUnsafe());
+          }
+          if (slotHash.isPresent()) {
+            transaction.commit();
+            transaction = keyValueStorage.startTransaction();
+          }
+        }
+      }
+      if (nextMarker.isPresent()) {
+        transaction.put(SNAPSHOT_GENERATOR_MARKER_KEY, nextMarker.get().toArrayUnsafe());
+      } else {
+        transaction.remove(SNAPSHOT_GENERATOR_MARKER_KEY);
+      }
+      transaction.put(SNAPSHOT_COMMIT_NUMBER_KEY, stamp.toArrayUnsafe());
+      transaction.commit();
+      commitNumber = number;
+      generatorMarker = nextMarker;
+      return nextMarker.isEmpty();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void removeRange(
+      final KeyValueStorageTransaction transaction, final Bytes32 fromKey, final byte[] toKey) {
+    try (final KeyValueStorageIterator iterator =
+        keyValueStorage.iterator(fromKey.toArrayUnsafe(), toKey)) {
+      while (iterator.hasNext()) {
+        final byte[] key = iterator.next().getKey();
+        // The metadata keys are shorter than an account hash.
+        if (key.length >= Bytes32.SIZE) {
+          transaction.remove(key);
+        }
+      }
+    }
+  }
+
+  private long clearedAt(final Bytes32 accountHash) {
+    return keyValueStorage
+        .get(storageClearedKey(accountHash))
+        .map(value -> Bytes.wrap(value).toLong())
+        .orElse(0L);
+  }
+
+  private static long writtenAt(final Bytes storedEntry) {
+    return storedEntry.slice(0, Long.BYTES).toLong();
+  }
+
+  private boolean describes(final Bytes32 stateRoot, final Bytes32 accountHash) {
+    return snapshotRoot.map(stateRoot::equals).orElse(false) && isGenerated(accountHash);
+  }
+
+  private boolean isGenerated(final Bytes32 accountHash) {
+    return generatorMarker.map(marker -> accountHash.compareTo(marker) < 0).orElse(true);
+  }
+
+  public Updater updater() {
+    return new Updater();
+  }
+
+  private static byte[] storageKey(final Bytes32 accountHash, final Bytes32 slotHash) {
+    return Bytes.concatenate(accountHash, slotHash).toArrayUnsafe();
+  }
+
+  private static byte[] storageClearedKey(final Bytes32 accountHash) {
+    return Bytes.concatenate(accountHash, STORAGE_CLEARED_SUFFIX).toArrayUnsafe();
+  }
+
+  /**
+   * Buffers the changes until {@link #commit(Bytes32, Bytes32)}, as storage values can only be
+   * stamped once the number of the commit applying them is known.
+   */
+  public class Updater {
+
+    private final Map<Bytes32, Optional<Bytes>> accounts = new HashMap<>();
+    private final Map<Bytes, Optional<Bytes>> storageValues = new HashMap<>();
+    private final Set<Bytes32> clearedStorage = new HashSet<>();
+
+    private Updater() {}
+
+    public Updater putAccount(final Bytes32 accountHash, final Bytes account) {
+      accounts.put(accountHash, Optional.of(account));
+      return this;
+    }
+
+    public Updater removeAccount(final Bytes32 accountHash) {
+      accounts.put(accountHash, Optional.empty());
+      return this;
+    }
+
+    public Updater putStorageValue(
+        final Bytes32 accountHash, final Bytes32 slotHash, final Bytes value) {
+      storageValues.put(Bytes.concatenate(accountHash, slotHash), Optional.of(value));
+      return this;
+    }
+
+    public Updater removeStorageValue(final Bytes32 accountHash, final Bytes32 slotHash) {
+      storageValues.put(Bytes.concatenate(accountHash, slotHash), Optional.empty());
+      return this;
+    }
+
+    /**
+     * Removes every storage slot of an account without enumerating them. Slots put by this same
+     * updater remain visible.
+     *
+     * @param accountHash the hash of the account address
+     * @return this updater
+     */
+    public Updater clearStorage(final Bytes32 accountHash) {
+      clearedStorage.add(accountHash);
+      return this;
+    }
+
+    /**
+     * Applies the pending changes if the copy currently describes {@code fromRoot}. Changes to
+     * accounts the generator hasn't reached yet are dropped, it reads them from the trie later.
+     *
+     * @param fromRoot the root the pending changes were computed against
+     * @param toRoot the root the copy describes once the changes are applied
+     * @return true if the changes were applied, false if they were discarded
+     */
+    public boolean commit(final Bytes32 fromRoot, final Bytes32 toRoot) {
+      final Lock lock = rwLock.writeLock();
+      lock.lock();
+      try {
+        if (!snapshotRoot.map(fromRoot::equals).orElse(false)) {
+          rollback();
+          return false;
+        }
+        final long number = commitNumber + 1;
+        final Bytes stamp = Bytes.ofUnsignedLong(number);
+        final KeyValueStorageTransaction transaction = keyValueStorage.startTransaction();
+        accounts.forEach(
+            (accountHash, account) -> {
+              if (!isGenerated(accountHash)) {
+                return;
+              }
+              if (account.isPresent()) {
+                transaction.put(accountHash.toArrayUnsafe(), account.get().toArrayUnsafe());
+              } else {
+                transaction.remove(accountHash.toArrayUnsafe());
+              }
+            });
+        for (final Bytes32 accountHash : clearedStorage) {
+          if (isGenerated(accountHash)) {
+            transaction.put(storageClearedKey(accountHash), stamp.toArrayUnsafe());
+          }
+        }
+        storageValues.forEach(
+            (key, value) -> {
+              if (!isGenerated(Bytes32.wrap(key.slice(0, Bytes32.SIZE)))) {
+                return;
+              }
+              if (value.isPresent()) {
+                transaction.put(
+                    key.toArrayUnsafe(), Bytes.concatenate(stamp, value.get()).toArrayUnsafe());
+              } else {
+                transaction.remove(key.toArrayUnsafe());
+              }
+            });
+        transaction.put(SNAPSHOT_COMMIT_NUMBER_KEY, stamp.toArrayUnsafe());
+        transaction.put(SNAPSHOT_ROOT_KEY, toRoot.toArrayUnsafe());
+        transaction.commit();
+        commitNumber = number;
+        snapshotRoot = Optional.of(toRoot);
+        return true;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    public void rollback() {
+      accounts.clear();
+      storageValues.clear();
+      clearedStorage.clear();
+    }
+  }
+}
@@ -31,6 +31,8 @@ import org.apache.tuweni.units.bigints.UInt256;
  */
 public abstract class AbstractCallOperation extends AbstractOperation {
 
+  private final CodeCache codeCache;
+
   public AbstractCallOperation(
       final int opcode,
       final String name,
@@ -38,7 +40,8 @@ public abstract class AbstractCallOperation extends AbstractOperation {
       final int stackItemsProduced,
       final boolean updatesProgramCounter,
       final int opSize,
-      final GasCalculator gasCalculator) {
+      final GasCalculator gasCalculator,
+      final CodeCache codeCache) {
     super(
         opcode,
         name,
@@ -47,6 +50,7 @@ public abstract class AbstractCallOperation extends AbstractOperation {
         updatesProgramCounter,
         opSize,
         gasCalculator);
+    this.codeCache = codeCache;
   }
 
   /**
@@ -182,7 +186,7 @@ public abstract class AbstractCallOperation extends AbstractOperation {
             .sender(sender(frame))
             .value(value(frame))
             .apparentValue(apparentValue(frame))
-            .code(new Code(contract != null ? contract.getCode() : Bytes.EMPTY))
+            .code(codeCache.getCode(contract))
             .blockHeader(frame.getBlockHeader())
             .depth(frame.getMessageStackDepth() + 1)
             .isStatic(isStatic(frame))
@@ -20,15 +20,31 @@ import java.util.BitSet;
 
 import com.google.common.base.MoreObjects;
 import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
 import org.apache.tuweni.units.bigints.UInt256;
 
 /** Represents EVM code associated with an account. */
 public class Code {
 
+  private static final int PUSH1_OPCODE = 0x60;
+  private static final int PUSH32_OPCODE = 0x7f;
+
   /** The bytes representing the code. */
   private final Bytes bytes;
 
-  /** Used to cache valid jump destinations. */
+  /**
+   * Whether the operations of the code are decoded up front, which only pays off for code that is
+   * run many times, such as the code held by the {@link CodeCache}.
+   */
+  private final boolean analyse;
+
+  /**
+   * Used to cache the decoded operations and valid jump destinations. The analysis is immutable
+   * once published so the same code can be shared between threads through the {@link CodeCache}.
+   */
+  private volatile Analysis analysis;
+
+  /** Used to cache valid jump destinations of code that isn't analysed. */
   private BitSet validJumpDestinations;
 
   /**
@@ -37,7 +53,23 @@ public class Code {
    * @param bytes The byte representation of the code.
    */
   public Code(final Bytes bytes) {
+    this(bytes, false);
+  }
+
+  private Code(final Bytes bytes, final boolean analyse) {
     this.bytes = bytes;
+    this.analyse = analyse;
+  }
+
+  /**
+   * Creates code whose operations, jump destinations and pushed values are decoded once, the first
+   * time it is run, and reused by every later run.
+   *
+   * @param bytes The byte representation of the code.
+   * @return the code
+   */
+  static Code analysed(final Bytes bytes) {
+    return new Code(bytes, true);
   }
 
   public Code() {
@@ -85,6 +117,12 @@ public class Code {
     final int jumpDestination = destination.intValue();
     if (jumpDestination > getSize()) return false;
 
+    if (analyse) {
+      return analysis(evm, frame.getContractAccountVersion())
+          .validJumpDestinations
+          .get(jumpDestination);
+    }
+
     if (validJumpDestinations == null) {
       // Calculate valid jump destinations
       validJumpDestinations = new BitSet(getSize());
@@ -100,6 +138,55 @@ public class Code {
     return validJumpDestinations.get(jumpDestination);
   }
 
+  /**
+   * Returns the operation at the specified offset, as decoded by the given EVM.
+   *
+   * @param evm the EVM executing this code
+   * @param contractAccountVersion the version of the account the code belongs to
+   * @param offset the offset of the operation, which must be within the code
+   * @return the operation at the specified offset
+   */
+  Operation operationAt(final EVM evm, final int contractAccountVersion, final int offset) {
+    if (!analyse) {
+      return evm.operationFor(bytes.get(offset), contractAccountVersion);
+    }
+    return analysis(evm, contractAccountVersion).operations[offset];
+  }
+
+  /**
+   * Returns the value pushed by the PUSH operation at the specified offset. Immediate bytes past
+   * the end of the code are read as zero.
+   *
+   * @param offset the offset of the PUSH operation
+   * @param length the number of immediate bytes the operation pushes
+   * @return the value pushed by the operation
+   */
+  public Bytes32 getPushImmediate(final int offset, final int length) {
+    final Analysis current = analysis;
+    if (current != null && current.pushImmediates[offset] != null) {
+      return current.pushImmediates[offset];
+    }
+    return readPushImmediate(offset, length);
+  }
+
+  private Analysis analysis(final EVM evm, final int contractAccountVersion) {
+    Analysis current = analysis;
+    if (current == null || current.evm != evm || current.version != contractAccountVersion) {
+      current = new Analysis(evm, contractAccountVersion);
+      analysis = current;
+    }
+    return current;
+  }
+
+  private Bytes32 readPushImmediate(final int offset, final int length) {
+    final int copyLength = Math.min(length, bytes.size() - offset - 1);
+    final byte[] value = new byte[Bytes32.SIZE];
+    for (int i = 0; i < copyLength; i++) {
+      value[Bytes32.SIZE - length + i] = bytes.get(offset + 1 + i);
+    }
+    return Bytes32.wrap(value);
+  }
+
   public Bytes getBytes() {
     return bytes;
   }
@@ -108,4 +195,37 @@ public class Code {
   public String toString() {
     return MoreObjects.toStringHelper(this).add("bytes", bytes).toString();
   }
+
+  private class Analysis {
+    private final EVM evm;
+    private final int version;
+    // The operation for the opcode at every offset, including offsets within PUSH immediates.
+    private final Operation[] operations;
+    // The pushed value for every PUSH operation, indexed by the offset of the operation.
+    private final Bytes32[] pushImmediates;
+    private final BitSet validJumpDestinations;
+
+    private Analysis(final EVM evm, final int version) {
+      this.evm = evm;
+      this.version = version;
+      final int size = getSize();
+      this.operations = new Operation[size];
+      this.pushImmediates = new Bytes32[size];
+      this.validJumpDestinations = new BitSet(size);
+      for (int offset = 0; offset < size; offset++) {
+        operations[offset] = evm.operationFor(bytes.get(offset), version);
+      }
+      int pc = 0;
+      while (pc < size) {
+        final Operation operation = operations[pc];
+        final int opcode = operation.getOpcode();
+        if (opcode == JumpDestOperation.OPCODE) {
+          validJumpDestinations.set(pc);
+        } else if (opcode >= PUSH1_OPCODE && opcode <= PUSH32_OPCODE) {
+          pushImmediates[pc] = readPushImmediate(pc, operation.getOpSize() - 1);
+        }
+        pc += operation.getOpSize();
+      }
+    }
+  }
 }
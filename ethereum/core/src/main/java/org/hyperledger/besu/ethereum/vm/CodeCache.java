@@ -0,0 +1,114 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * A size-bounded cache of contract {@link Code} keyed by code hash. Each {@link EVM} has its own
+ * cache, so the jump destination analysis and decoded operations kept by each cached {@link Code}
+ * are only ever built for that EVM, and hot contracts are analysed once rather than on every
+ * message call.
+ *
+ * <p>The cache is weighted by an estimate of the bytes retained by the code and its analysis.
+ */
+public class CodeCache {
+
+  public static final long DEFAULT_MAX_SIZE_IN_BYTES = 32L * 1024 * 1024;
+  // Rough per-entry overhead for the key, the code object and the cache bookkeeping.
+  private static final int ENTRY_OVERHEAD_BYTES = 160;
+  // Each code byte is retained alongside an operation reference, a push immediate slot and a bit
+  // of the jump destination bitmap.
+  private static final int BYTES_PER_CODE_BYTE = 16;
+
+  private final Cache<Hash, Code> cache;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+
+  public CodeCache() {
+    this(DEFAULT_MAX_SIZE_IN_BYTES, new NoOpMetricsSystem());
+  }
+
+  public CodeCache(final long maxSizeInBytes, final MetricsSystem metricsSystem) {
+    final Counter evictionCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "evm_code_cache_evictions_total",
+            "Number of code entries evicted from the code cache");
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maxSizeInBytes)
+            .<Hash, Code>weigher(
+                (key, code) -> ENTRY_OVERHEAD_BYTES + code.getSize() * BYTES_PER_CODE_BYTE)
+            .removalListener(
+                notification -> {
+                  if (notification.wasEvicted()) {
+                    evictionCounter.inc();
+                  }
+                })
+            .build();
+    this.hitCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "evm_code_cache_hits_total",
+            "Number of message calls that reused analysed code from the code cache");
+    this.missCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "evm_code_cache_misses_total",
+            "Number of message calls that had to load and analyse code");
+  }
+
+  /**
+   * Returns the code of the specified account, reusing previously analysed code with the same
+   * hash.
+   *
+   * @param account the account whose code to return, or null if the account does not exist
+   * @return the account's code
+   */
+  public Code getCode(final Account account) {
+    if (account == null || !account.hasCode()) {
+      return new Code(Bytes.EMPTY);
+    }
+    final Hash codeHash = account.getCodeHash();
+    final Code cached = cache.getIfPresent(codeHash);
+    if (cached != null) {
+      hitCounter.inc();
+      return cached;
+    }
+    missCounter.inc();
+    // Two threads missing on the same code may both load it, which is harmless as the code is
+    // immutable and either copy can be kept.
+    final Code code = Code.analysed(account.getCode());
+    cache.put(codeHash, code);
+    return code;
+  }
+
+  @VisibleForTesting
+  long size() {
+    cache.cleanUp();
+    return cache.size();
+  }
+}
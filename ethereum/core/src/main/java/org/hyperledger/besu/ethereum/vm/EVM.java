@@ -16,6 +16,7 @@ package org.hyperledger.besu.ethereum.vm;
 
 import static org.apache.logging.log4j.LogManager.getLogger;
 
+import org.hyperledger.besu.ethereum.core.Account;
 import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.vm.MessageFrame.State;
 import org.hyperledger.besu.ethereum.vm.ehalt.ExceptionalHaltException;
@@ -34,21 +35,49 @@ import org.apache.tuweni.bytes.Bytes;
 
 public class EVM {
   private static final Logger LOG = getLogger();
+  private static final int INVALID_OPCODE = 0xfe;
+  private static final EnumSet<ExceptionalHaltReason> NO_HALT_REASONS =
+      EnumSet.noneOf(ExceptionalHaltReason.class);
 
   private final OperationRegistry operations;
   private final Operation invalidOperation;
   private final Operation endOfScriptStop;
+  private final CodeCache codeCache;
 
   public EVM(final OperationRegistry operations, final GasCalculator gasCalculator) {
+    this(operations, gasCalculator, new CodeCache());
+  }
+
+  public EVM(
+      final OperationRegistry operations,
+      final GasCalculator gasCalculator,
+      final CodeCache codeCache) {
     this.operations = operations;
     this.invalidOperation = new InvalidOperation(gasCalculator);
     this.endOfScriptStop = new VirtualOperation(new StopOperation(gasCalculator));
+    this.codeCache = codeCache;
+  }
+
+  /**
+   * Returns the code of the specified account, analysed for this EVM.
+   *
+   * @param account the account whose code to return, or null if the account does not exist
+   * @return the account's code
+   */
+  public Code getCode(final Account account) {
+    return codeCache.getCode(account);
   }
 
   public void runToHalt(final MessageFrame frame, final OperationTracer operationTracer)
       throws ExceptionalHaltException {
-    while (frame.getState() == MessageFrame.State.CODE_EXECUTING) {
-      executeNextOperation(frame, operationTracer);
+    if (operationTracer == OperationTracer.NO_TRACING && !LOG.isTraceEnabled()) {
+      while (frame.getState() == MessageFrame.State.CODE_EXECUTING) {
+        executeNextOperationWithoutTracing(frame);
+      }
+    } else {
+      while (frame.getState() == MessageFrame.State.CODE_EXECUTING) {
+        executeNextOperation(frame, operationTracer);
+      }
     }
   }
 
@@ -84,6 +113,45 @@ public class EVM {
         });
   }
 
+  /**
+   * Executes the next operation without allocating per operation. Only the checks needed to prove
+   * the operation does not halt exceptionally are made, using primitive gas accounting. Anything
+   * unusual (a halt, a gas overflow or a missing cost) is handed to {@link #executeNextOperation}
+   * so that halt reasons and errors are reported exactly as on the traced path.
+   */
+  private void executeNextOperationWithoutTracing(final MessageFrame frame)
+      throws ExceptionalHaltException {
+    final Operation operation =
+        operationAtOffset(frame.getCode(), frame.getContractAccountVersion(), frame.getPC());
+    frame.setCurrentOperation(operation);
+
+    final int stackSize = frame.stackSize();
+    if (operation.getOpcode() == INVALID_OPCODE
+        || stackSize < operation.getStackItemsConsumed()
+        || stackSize + operation.getStackSizeChange() > frame.getMaxStackSize()) {
+      executeNextOperation(frame, OperationTracer.NO_TRACING);
+      return;
+    }
+
+    final Gas cost;
+    try {
+      cost = operation.cost(frame);
+    } catch (final IllegalArgumentException e) {
+      executeNextOperation(frame, OperationTracer.NO_TRACING);
+      return;
+    }
+    if (cost == null
+        || frame.getRemainingGasValue() < cost.toLong()
+        || operation.exceptionalHaltCondition(frame, NO_HALT_REASONS, this).isPresent()) {
+      executeNextOperation(frame, OperationTracer.NO_TRACING);
+      return;
+    }
+
+    frame.decrementRemainingGasValue(cost.toLong());
+    operation.execute(frame);
+    incrementProgramCounter(frame);
+  }
+
   private void evaluateExceptionalHaltReasons(final MessageFrame frame) {
     final EnumSet<ExceptionalHaltReason> haltReasons =
         ExceptionalHaltManager.evaluateAll(frame, this);
@@ -149,12 +217,15 @@ public class EVM {
 
   @VisibleForTesting
   Operation operationAtOffset(final Code code, final int contractAccountVersion, final int offset) {
-    final Bytes bytecode = code.getBytes();
     // If the length of the program code is shorter than the required offset, halt execution.
-    if (offset >= bytecode.size()) {
+    if (offset >= code.getSize()) {
       return endOfScriptStop;
     }
 
-    return operations.getOrDefault(bytecode.get(offset), contractAccountVersion, invalidOperation);
+    return code.operationAt(this, contractAccountVersion, offset);
+  }
+
+  Operation operationFor(final byte opcode, final int contractAccountVersion) {
+    return operations.getOrDefault(opcode, contractAccountVersion, invalidOperation);
   }
 }
@@ -196,12 +196,12 @@ public class MessageFrame {
   private State state;
 
   // Machine state fields.
-  private Gas gasRemaining;
+  private long gasRemaining;
   private final BlockHashLookup blockHashLookup;
   private final int maxStackSize;
   private int pc;
   private final Memory memory;
-  private final OperandStack stack;
+  private final WordOperandStack stack;
   private Bytes output;
   private Bytes returnData;
   private final boolean isStatic;
@@ -275,12 +275,12 @@ public class MessageFrame {
     this.blockchain = blockchain;
     this.messageFrameStack = messageFrameStack;
     this.worldState = worldState;
-    this.gasRemaining = initialGas;
+    this.gasRemaining = initialGas.toLong();
     this.blockHashLookup = blockHashLookup;
     this.maxStackSize = maxStackSize;
     this.pc = 0;
     this.memory = new Memory();
-    this.stack = new PreAllocatedOperandStack(maxStackSize);
+    this.stack = new WordOperandStack(maxStackSize);
     this.output = Bytes.EMPTY;
     this.returnData = Bytes.EMPTY;
     this.logs = new ArrayList<>();
@@ -328,7 +328,7 @@ public class MessageFrame {
 
   /** Deducts the remaining gas. */
   public void clearGasRemaining() {
-    this.gasRemaining = Gas.ZERO;
+    this.gasRemaining = 0;
   }
 
   /**
@@ -337,7 +337,7 @@ public class MessageFrame {
    * @param amount The amount of gas to deduct
    */
   public void decrementRemainingGas(final Gas amount) {
-    this.gasRemaining = gasRemaining.minus(amount);
+    this.gasRemaining -= amount.toLong();
   }
 
   /**
@@ -346,6 +346,24 @@ public class MessageFrame {
    * @return the amount of remaining gas
    */
   public Gas getRemainingGas() {
+    return Gas.of(gasRemaining);
+  }
+
+  /**
+   * Decrement the amount of remaining gas without boxing it, for use on the interpreter fast path.
+   *
+   * @param amount The amount of gas to deduct
+   */
+  void decrementRemainingGasValue(final long amount) {
+    this.gasRemaining -= amount;
+  }
+
+  /**
+   * Return the amount of remaining gas without boxing it, for use on the interpreter fast path.
+   *
+   * @return the amount of remaining gas
+   */
+  long getRemainingGasValue() {
     return gasRemaining;
   }
 
@@ -355,7 +373,7 @@ public class MessageFrame {
    * @param amount The amount of gas to increment
    */
   public void incrementRemainingGas(final Gas amount) {
-    this.gasRemaining = gasRemaining.plus(amount);
+    this.gasRemaining = getRemainingGas().plus(amount).toLong();
   }
 
   /**
@@ -364,7 +382,7 @@ public class MessageFrame {
    * @param amount The amount of remaining gas
    */
   public void setGasRemaining(final Gas amount) {
-    this.gasRemaining = amount;
+    this.gasRemaining = amount.toLong();
   }
 
   /**
@@ -465,6 +483,15 @@ public class MessageFrame {
     stack.set(offset, value);
   }
 
+  /**
+   * Returns the stack as 256-bit words, for operations that compute on the stack in place.
+   *
+   * @return the operand stack of this frame
+   */
+  public WordOperandStack getWordStack() {
+    return stack;
+  }
+
   /**
    * Return the current stack size.
    *
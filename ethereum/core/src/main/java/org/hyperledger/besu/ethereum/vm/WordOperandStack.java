@@ -0,0 +1,581 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * An {@link OperandStack} that stores each 256-bit word as four {@code long} limbs in a single
+ * array, most significant limb first.
+ *
+ * <p>The {@link OperandStack} methods convert to and from {@link Bytes32}, so operations that have
+ * not been migrated keep working unchanged. Migrated operations instead use the arithmetic methods
+ * of this class, which compute on the limbs in place and never allocate. Like the rest of a {@link
+ * MessageFrame}, the stack is not thread safe.
+ */
+public class WordOperandStack implements OperandStack {
+
+  private static final int LIMBS = 4;
+  private static final int INITIAL_CAPACITY = 32;
+  private static final long DIGIT_MASK = 0xFFFFFFFFL;
+
+  private final int maxSize;
+  private long[] limbs;
+  private int size;
+
+  // Scratch space, so multiplication and division do not allocate.
+  private final long[] product = new long[LIMBS];
+  private final long[] power = new long[LIMBS];
+  private final long[] dividend = new long[2 * LIMBS];
+  private final long[] divisor = new long[2 * LIMBS];
+  private final long[] normalizedDividend = new long[2 * LIMBS + 1];
+  private final long[] normalizedDivisor = new long[2 * LIMBS];
+  private final long[] quotient = new long[2 * LIMBS];
+
+  public WordOperandStack(final int maxSize) {
+    if (maxSize < 0) {
+      throw new IllegalArgumentException(
+          String.format("max size (%d) must be non-negative", maxSize));
+    }
+    this.maxSize = maxSize;
+    this.limbs = new long[Math.min(maxSize, INITIAL_CAPACITY) * LIMBS];
+    this.size = 0;
+  }
+
+  @Override
+  public Bytes32 get(final int offset) {
+    if (offset < 0 || offset >= size) {
+      throw new IndexOutOfBoundsException();
+    }
+    final int index = indexOf(offset);
+    final byte[] bytes = new byte[Bytes32.SIZE];
+    for (int limb = 0; limb < LIMBS; limb++) {
+      final long value = limbs[index + limb];
+      for (int i = 0; i < Long.BYTES; i++) {
+        bytes[limb * Long.BYTES + i] = (byte) (value >>> (Long.SIZE - Byte.SIZE * (i + 1)));
+      }
+    }
+    return Bytes32.wrap(bytes);
+  }
+
+  @Override
+  public Bytes32 pop() {
+    if (size == 0) {
+      throw new IllegalStateException("operand stack underflow");
+    }
+    final Bytes32 removed = get(0);
+    size--;
+    return removed;
+  }
+
+  @Override
+  public void bulkPop(final int items) {
+    if (items < 0) {
+      throw new IllegalArgumentException(
+          String.format("requested number of items to bulk pop (%d) is negative", items));
+    }
+    checkArgument(items > 0, "number of items to pop must be greater than 0");
+    if (items > size) {
+      throw new IllegalStateException(
+          String.format("requested to bulk pop %d items off a stack of size %d", items, size));
+    }
+    size -= items;
+  }
+
+  @Override
+  public void push(final Bytes32 operand) {
+    final int index = pushSlot();
+    for (int limb = 0; limb < LIMBS; limb++) {
+      limbs[index + limb] = operand.getLong(limb * Long.BYTES);
+    }
+  }
+
+  @Override
+  public void set(final int offset, final Bytes32 operand) {
+    if (offset < 0 || offset >= size) {
+      throw new IndexOutOfBoundsException();
+    }
+    final int index = indexOf(offset);
+    for (int limb = 0; limb < LIMBS; limb++) {
+      limbs[index + limb] = operand.getLong(limb * Long.BYTES);
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Pushes a copy of the operand at the specified offset from the top of the stack.
+   *
+   * @param offset the position relative to the top of the stack of the operand to copy
+   */
+  public void dup(final int offset) {
+    if (offset < 0 || offset >= size) {
+      throw new IndexOutOfBoundsException();
+    }
+    final int source = indexOf(offset);
+    final int target = pushSlot();
+    System.arraycopy(limbs, source, limbs, target, LIMBS);
+  }
+
+  /**
+   * Swaps the operand at the top of the stack with the operand at the specified offset.
+   *
+   * @param offset the position relative to the top of the stack of the operand to swap with
+   */
+  public void swap(final int offset) {
+    if (offset < 0 || offset >= size) {
+      throw new IndexOutOfBoundsException();
+    }
+    final int top = indexOf(0);
+    final int other = indexOf(offset);
+    for (int limb = 0; limb < LIMBS; limb++) {
+      final long value = limbs[top + limb];
+      limbs[top + limb] = limbs[other + limb];
+      limbs[other + limb] = value;
+    }
+  }
+
+  /** Replaces the top two operands {@code a, b} with {@code a + b}, modulo 2^256. */
+  public void add() {
+    final int b = indexOf(requireOperands(2) - 1);
+    final int a = b + LIMBS;
+    long carry = 0;
+    for (int limb = LIMBS - 1; limb >= 0; limb--) {
+      final long x = limbs[a + limb];
+      final long y = limbs[b + limb];
+      final long sum = x + y + carry;
+      carry = ((x & y) | ((x | y) & ~sum)) >>> 63;
+      limbs[b + limb] = sum;
+    }
+    size--;
+  }
+
+  /** Replaces the top two operands {@code a, b} with {@code a - b}, modulo 2^256. */
+  public void sub() {
+    final int b = indexOf(requireOperands(2) - 1);
+    final int a = b + LIMBS;
+    long borrow = 0;
+    for (int limb = LIMBS - 1; limb >= 0; limb--) {
+      final long x = limbs[a + limb];
+      final long y = limbs[b + limb];
+      final long difference = x - y - borrow;
+      borrow = ((~x & y) | (~(x ^ y) & difference)) >>> 63;
+      limbs[b + limb] = difference;
+    }
+    size--;
+  }
+
+  /** Replaces the top two operands {@code a, b} with {@code a * b}, modulo 2^256. */
+  public void mul() {
+    final int b = indexOf(requireOperands(2) - 1);
+    final int a = b + LIMBS;
+    multiply(limbs, a, limbs, b, limbs, b);
+    size--;
+  }
+
+  /**
+   * Replaces the top two operands {@code a, b} with {@code a / b}, or zero if {@code b} is zero.
+   */
+  public void div() {
+    divide(true);
+  }
+
+  /**
+   * Replaces the top two operands {@code a, b} with {@code a % b}, or zero if {@code b} is zero.
+   */
+  public void mod() {
+    divide(false);
+  }
+
+  /** Replaces the top two operands {@code a, b} with {@code a ^ b}, modulo 2^256. */
+  public void exp() {
+    final int result = indexOf(requireOperands(2) - 1);
+    final int base = result + LIMBS;
+    Arrays.fill(power, 0);
+    power[LIMBS - 1] = 1;
+    for (int bit = Long.SIZE * LIMBS - 1 - leadingZeros(result); bit >= 0; bit--) {
+      multiply(power, 0, power, 0, power, 0);
+      final long limb = limbs[result + LIMBS - 1 - bit / Long.SIZE];
+      if ((limb >>> (bit % Long.SIZE) & 1) != 0) {
+        multiply(power, 0, limbs, base, power, 0);
+      }
+    }
+    System.arraycopy(power, 0, limbs, result, LIMBS);
+    size--;
+  }
+
+  /** Replaces the top two operands {@code a, b} with {@code 1} if {@code a < b}, else zero. */
+  public void lt() {
+    final int b = indexOf(requireOperands(2) - 1);
+    setBoolean(b, compare(b + LIMBS, b) < 0);
+    size--;
+  }
+
+  /** Replaces the top two operands {@code a, b} with {@code 1} if {@code a > b}, else zero. */
+  public void gt() {
+    final int b = indexOf(requireOperands(2) - 1);
+    setBoolean(b, compare(b + LIMBS, b) > 0);
+    size--;
+  }
+
+  /** Replaces the top two operands {@code a, b} with {@code 1} if {@code a == b}, else zero. */
+  public void eq() {
+    final int b = indexOf(requireOperands(2) - 1);
+    setBoolean(b, compare(b + LIMBS, b) == 0);
+    size--;
+  }
+
+  /** Replaces the top operand {@code a} with {@code 1} if {@code a} is zero, else zero. */
+  public void isZero() {
+    final int a = indexOf(requireOperands(1) - 1);
+    setBoolean(a, leadingZeros(a) == Long.SIZE * LIMBS);
+  }
+
+  /** Replaces the top two operands {@code a, b} with {@code a & b}. */
+  public void and() {
+    final int b = indexOf(requireOperands(2) - 1);
+    for (int limb = 0; limb < LIMBS; limb++) {
+      limbs[b + limb] &= limbs[b + LIMBS + limb];
+    }
+    size--;
+  }
+
+  /** Replaces the top two operands {@code a, b} with {@code a | b}. */
+  public void or() {
+    final int b = indexOf(requireOperands(2) - 1);
+    for (int limb = 0; limb < LIMBS; limb++) {
+      limbs[b + limb] |= limbs[b + LIMBS + limb];
+    }
+    size--;
+  }
+
+  /** Replaces the top two operands {@code a, b} with {@code a ^ b}. */
+  public void xor() {
+    final int b = indexOf(requireOperands(2) - 1);
+    for (int limb = 0; limb < LIMBS; limb++) {
+      limbs[b + limb] ^= limbs[b + LIMBS + limb];
+    }
+    size--;
+  }
+
+  /** Replaces the top operand {@code a} with {@code ~a}. */
+  public void not() {
+    final int a = indexOf(requireOperands(1) - 1);
+    for (int limb = 0; limb < LIMBS; limb++) {
+      limbs[a + limb] = ~limbs[a + limb];
+    }
+  }
+
+  /**
+   * Replaces the top two operands {@code shift, value} with {@code value << shift}, which is zero
+   * if {@code shift} is 256 or more.
+   */
+  public void shl() {
+    final int value = indexOf(requireOperands(2) - 1);
+    final int shift = shiftAmount(value + LIMBS);
+    final int limbShift = shift / Long.SIZE;
+    final int bitShift = shift % Long.SIZE;
+    for (int limb = 0; limb < LIMBS; limb++) {
+      final int source = limb + limbShift;
+      long shifted = source < LIMBS ? limbs[value + source] << bitShift : 0;
+      if (bitShift != 0 && source + 1 < LIMBS) {
+        shifted |= limbs[value + source + 1] >>> (Long.SIZE - bitShift);
+      }
+      limbs[value + limb] = shifted;
+    }
+    size--;
+  }
+
+  /**
+   * Replaces the top two operands {@code shift, value} with {@code value >>> shift}, which is zero
+   * if {@code shift} is 256 or more.
+   */
+  public void shr() {
+    final int value = indexOf(requireOperands(2) - 1);
+    final int shift = shiftAmount(value + LIMBS);
+    final int limbShift = shift / Long.SIZE;
+    final int bitShift = shift % Long.SIZE;
+    for (int limb = LIMBS - 1; limb >= 0; limb--) {
+      final int source = limb - limbShift;
+      long shifted = source >= 0 ? limbs[value + source] >>> bitShift : 0;
+      if (bitShift != 0 && source - 1 >= 0) {
+        shifted |= limbs[value + source - 1] << (Long.SIZE - bitShift);
+      }
+      limbs[value + limb] = shifted;
+    }
+    size--;
+  }
+
+  // Returns the shift amount held at the index, or 256 if it is 256 or more.
+  private int shiftAmount(final int index) {
+    if (limbs[index] != 0
+        || limbs[index + 1] != 0
+        || limbs[index + 2] != 0
+        || Long.compareUnsigned(limbs[index + 3], Long.SIZE * LIMBS) >= 0) {
+      return Long.SIZE * LIMBS;
+    }
+    return (int) limbs[index + 3];
+  }
+
+  private void divide(final boolean returnQuotient) {
+    final int b = indexOf(requireOperands(2) - 1);
+    final int a = b + LIMBS;
+    final int dividendDigits = toDigits(a, dividend);
+    final int divisorDigits = toDigits(b, divisor);
+    size--;
+
+    if (divisorDigits == 0) {
+      Arrays.fill(limbs, b, b + LIMBS, 0);
+      return;
+    }
+    if (dividendDigits <= 2 && divisorDigits <= 2) {
+      final long x = limbs[a + LIMBS - 1];
+      final long y = limbs[b + LIMBS - 1];
+      Arrays.fill(limbs, b, b + LIMBS, 0);
+      limbs[b + LIMBS - 1] =
+          returnQuotient ? Long.divideUnsigned(x, y) : Long.remainderUnsigned(x, y);
+      return;
+    }
+    if (compare(a, b) < 0) {
+      if (returnQuotient) {
+        Arrays.fill(limbs, b, b + LIMBS, 0);
+      } else {
+        System.arraycopy(limbs, a, limbs, b, LIMBS);
+      }
+      return;
+    }
+
+    Arrays.fill(quotient, 0);
+    if (divisorDigits == 1) {
+      long remainder = 0;
+      for (int j = dividendDigits - 1; j >= 0; j--) {
+        final long numerator = (remainder << 32) | dividend[j];
+        quotient[j] = Long.divideUnsigned(numerator, divisor[0]);
+        remainder = numerator - quotient[j] * divisor[0];
+      }
+      Arrays.fill(dividend, 0);
+      dividend[0] = remainder;
+    } else {
+      divideDigits(dividendDigits, divisorDigits);
+    }
+    fromDigits(returnQuotient ? quotient : dividend, b);
+  }
+
+  /**
+   * Knuth's algorithm D on base 2^32 digits, as given in Hacker's Delight. Leaves the quotient in
+   * {@link #quotient} and the remainder in {@link #dividend}.
+   */
+  private void divideDigits(final int m, final int n) {
+    final long[] u = dividend;
+    final long[] v = divisor;
+    final long[] un = normalizedDividend;
+    final long[] vn = normalizedDivisor;
+
+    final int s = Integer.numberOfLeadingZeros((int) v[n - 1]);
+    for (int i = n - 1; i > 0; i--) {
+      vn[i] = ((v[i] << s) | (v[i - 1] >>> (32 - s))) & DIGIT_MASK;
+    }
+    vn[0] = (v[0] << s) & DIGIT_MASK;
+    un[m] = (u[m - 1] >>> (32 - s)) & DIGIT_MASK;
+    for (int i = m - 1; i > 0; i--) {
+      un[i] = ((u[i] << s) | (u[i - 1] >>> (32 - s))) & DIGIT_MASK;
+    }
+    un[0] = (u[0] << s) & DIGIT_MASK;
+
+    for (int j = m - n; j >= 0; j--) {
+      final long numerator = (un[j + n] << 32) | un[j + n - 1];
+      long qhat = Long.divideUnsigned(numerator, vn[n - 1]);
+      long rhat = numerator - qhat * vn[n - 1];
+      while (qhat > DIGIT_MASK
+          || Long.compareUnsigned(qhat * vn[n - 2], (rhat << 32) | un[j + n - 2]) > 0) {
+        qhat--;
+        rhat += vn[n - 1];
+        if (rhat > DIGIT_MASK) {
+          break;
+        }
+      }
+
+      long borrow = 0;
+      long t;
+      for (int i = 0; i < n; i++) {
+        final long p = qhat * vn[i];
+        t = un[i + j] - borrow - (p & DIGIT_MASK);
+        un[i + j] = t & DIGIT_MASK;
+        borrow = (p >>> 32) - (t >> 32);
+      }
+      t = un[j + n] - borrow;
+      un[j + n] = t & DIGIT_MASK;
+
+      quotient[j] = qhat;
+      if (t < 0) {
+        quotient[j]--;
+        long carry = 0;
+        for (int i = 0; i < n; i++) {
+          t = un[i + j] + vn[i] + carry;
+          un[i + j] = t & DIGIT_MASK;
+          carry = t >>> 32;
+        }
+        un[j + n] = (un[j + n] + carry) & DIGIT_MASK;
+      }
+    }
+
+    Arrays.fill(u, 0);
+    for (int i = 0; i < n - 1; i++) {
+      u[i] = ((un[i] >>> s) | (un[i + 1] << (32 - s))) & DIGIT_MASK;
+    }
+    u[n - 1] = un[n - 1] >>> s;
+  }
+
+  // Splits the word at the index into little endian base 2^32 digits, returning how many are used.
+  private int toDigits(final int index, final long[] digits) {
+    int used = 0;
+    for (int digit = 0; digit < 2 * LIMBS; digit++) {
+      final long limb = limbs[index + LIMBS - 1 - digit / 2];
+      digits[digit] = (digit % 2 == 0 ? limb : limb >>> 32) & DIGIT_MASK;
+      if (digits[digit] != 0) {
+        used = digit + 1;
+      }
+    }
+    return used;
+  }
+
+  private void fromDigits(final long[] digits, final int index) {
+    for (int limb = 0; limb < LIMBS; limb++) {
+      limbs[index + LIMBS - 1 - limb] = (digits[2 * limb + 1] << 32) | digits[2 * limb];
+    }
+  }
+
+  // Multiplies the words at the given indexes, modulo 2^256. The target may alias either source.
+  private void multiply(
+      final long[] x,
+      final int xIndex,
+      final long[] y,
+      final int yIndex,
+      final long[] target,
+      final int targetIndex) {
+    Arrays.fill(product, 0);
+    for (int i = 0; i < LIMBS; i++) {
+      final long xLimb = x[xIndex + LIMBS - 1 - i];
+      if (xLimb == 0) {
+        continue;
+      }
+      long carry = 0;
+      for (int j = 0; i + j < LIMBS; j++) {
+        final long yLimb = y[yIndex + LIMBS - 1 - j];
+        final long low = xLimb * yLimb;
+        final long high = unsignedMultiplyHigh(xLimb, yLimb);
+        final long partial = product[i + j] + low;
+        final long sum = partial + carry;
+        carry =
+            high
+                + (Long.compareUnsigned(partial, low) < 0 ? 1 : 0)
+                + (Long.compareUnsigned(sum, carry) < 0 ? 1 : 0);
+        product[i + j] = sum;
+      }
+    }
+    for (int limb = 0; limb < LIMBS; limb++) {
+      target[targetIndex + LIMBS - 1 - limb] = product[limb];
+    }
+  }
+
+  private static long unsignedMultiplyHigh(final long x, final long y) {
+    return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+  }
+
+  private int compare(final int first, final int second) {
+    for (int limb = 0; limb < LIMBS; limb++) {
+      final int result = Long.compareUnsigned(limbs[first + limb], limbs[second + limb]);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return 0;
+  }
+
+  private int leadingZeros(final int index) {
+    for (int limb = 0; limb < LIMBS; limb++) {
+      if (limbs[index + limb] != 0) {
+        return limb * Long.SIZE + Long.numberOfLeadingZeros(limbs[index + limb]);
+      }
+    }
+    return Long.SIZE * LIMBS;
+  }
+
+  private void setBoolean(final int index, final boolean value) {
+    limbs[index] = 0;
+    limbs[index + 1] = 0;
+    limbs[index + 2] = 0;
+    limbs[index + 3] = value ? 1 : 0;
+  }
+
+  private int requireOperands(final int count) {
+    if (size < count) {
+      throw new IllegalStateException("operand stack underflow");
+    }
+    return count;
+  }
+
+  private int pushSlot() {
+    if (size == maxSize) {
+      throw new IllegalStateException("operand stack overflow");
+    }
+    final int index = size * LIMBS;
+    if (index == limbs.length) {
+      limbs = Arrays.copyOf(limbs, Math.min(maxSize, size * 2) * LIMBS);
+    }
+    size++;
+    return index;
+  }
+
+  private int indexOf(final int offset) {
+    return (size - 1 - offset) * LIMBS;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < size(); ++i) {
+      builder.append(String.format("\n0x%04X ", i)).append(get(i));
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public int hashCode() {
+    int result = size;
+    for (int i = 0; i < size * LIMBS; i++) {
+      result = 31 * result + Long.hashCode(limbs[i]);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (!(other instanceof WordOperandStack)) {
+      return false;
+    }
+
+    final WordOperandStack that = (WordOperandStack) other;
+    return size == that.size
+        && Arrays.equals(limbs, 0, size * LIMBS, that.limbs, 0, that.size * LIMBS);
+  }
+}
@@ -19,6 +19,7 @@ import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.core.Wei;
 import org.hyperledger.besu.ethereum.vm.AbstractCallOperation;
+import org.hyperledger.besu.ethereum.vm.CodeCache;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 import org.hyperledger.besu.ethereum.vm.Words;
@@ -27,8 +28,8 @@ import org.apache.tuweni.units.bigints.UInt256;
 
 public class CallCodeOperation extends AbstractCallOperation {
 
-  public CallCodeOperation(final GasCalculator gasCalculator) {
-    super(0xF2, "CALLCODE", 7, 1, false, 1, gasCalculator);
+  public CallCodeOperation(final GasCalculator gasCalculator, final CodeCache codeCache) {
+    super(0xF2, "CALLCODE", 7, 1, false, 1, gasCalculator, codeCache);
   }
 
   @Override
@@ -19,6 +19,7 @@ import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.core.Wei;
 import org.hyperledger.besu.ethereum.vm.AbstractCallOperation;
+import org.hyperledger.besu.ethereum.vm.CodeCache;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.ExceptionalHaltReason;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
@@ -32,8 +33,8 @@ import org.apache.tuweni.units.bigints.UInt256;
 
 public class CallOperation extends AbstractCallOperation {
 
-  public CallOperation(final GasCalculator gasCalculator) {
-    super(0xF1, "CALL", 7, 1, false, 1, gasCalculator);
+  public CallOperation(final GasCalculator gasCalculator, final CodeCache codeCache) {
+    super(0xF1, "CALL", 7, 1, false, 1, gasCalculator, codeCache);
   }
 
   @Override
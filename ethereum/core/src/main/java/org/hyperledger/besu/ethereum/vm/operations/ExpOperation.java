@@ -38,11 +38,6 @@ public class ExpOperation extends AbstractOperation {
 
   @Override
   public void execute(final MessageFrame frame) {
-    final UInt256 value0 = UInt256.fromBytes(frame.popStackItem());
-    final UInt256 value1 = UInt256.fromBytes(frame.popStackItem());
-
-    final UInt256 result = value0.pow(value1);
-
-    frame.pushStackItem(result.toBytes());
+    frame.getWordStack().exp();
   }
 }
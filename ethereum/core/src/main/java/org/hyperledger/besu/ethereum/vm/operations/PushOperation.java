@@ -14,16 +14,11 @@
  */
 package org.hyperledger.besu.ethereum.vm.operations;
 
-import static java.lang.Math.min;
-
 import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.vm.AbstractOperation;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
-import org.apache.tuweni.bytes.Bytes;
-import org.apache.tuweni.bytes.MutableBytes32;
-
 public class PushOperation extends AbstractOperation {
 
   private final int length;
@@ -40,12 +35,6 @@ public class PushOperation extends AbstractOperation {
 
   @Override
   public void execute(final MessageFrame frame) {
-    final int pc = frame.getPC();
-    final Bytes code = frame.getCode().getBytes();
-
-    final int copyLength = min(length, code.size() - pc - 1);
-    final MutableBytes32 bytes = MutableBytes32.create();
-    code.slice(pc + 1, copyLength).copyTo(bytes, bytes.size() - length);
-    frame.pushStackItem(bytes);
+    frame.pushStackItem(frame.getCode().getPushImmediate(frame.getPC(), length));
   }
 }
@@ -19,8 +19,6 @@ import org.hyperledger.besu.ethereum.vm.AbstractOperation;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
-import org.apache.tuweni.bytes.Bytes32;
-
 public class SwapOperation extends AbstractOperation {
 
   private final int index;
@@ -37,8 +35,6 @@ public class SwapOperation extends AbstractOperation {
 
   @Override
   public void execute(final MessageFrame frame) {
-    final Bytes32 tmp = frame.getStackItem(0);
-    frame.setStackItem(0, frame.getStackItem(index));
-    frame.setStackItem(index, tmp);
+    frame.getWordStack().swap(index);
   }
 }
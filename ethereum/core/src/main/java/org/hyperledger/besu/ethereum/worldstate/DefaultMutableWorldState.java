@@ -33,10 +33,12 @@ import org.hyperledger.besu.ethereum.trie.StoredMerklePatriciaTrie;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.stream.Stream;
 
@@ -48,6 +50,7 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
   private final WorldStateStorage worldStateStorage;
   private final WorldStatePreimageStorage preimageStorage;
+  private final Optional<WorldStateSnapshotStorage> snapshotStorage;
 
   private final MerklePatriciaTrie<Bytes32, Bytes> accountStateTrie;
   private final Map<Address, MerklePatriciaTrie<Bytes32, Bytes>> updatedStorageTries =
@@ -56,6 +59,12 @@ public class DefaultMutableWorldState implements MutableWorldState {
   private final Map<Bytes32, UInt256> newStorageKeyPreimages = new HashMap<>();
   private final Map<Bytes32, Address> newAccountKeyPreimages = new HashMap<>();
 
+  // Changes since the last persisted root, tracked so they can be replayed onto the snapshot.
+  private Bytes32 persistedRootHash;
+  private final Set<Hash> snapshotDirtyAccounts = new HashSet<>();
+  private final Set<Hash> snapshotClearedStorage = new HashSet<>();
+  private final Map<Hash, Map<Hash, UInt256>> snapshotStorageUpdates = new HashMap<>();
+
   public DefaultMutableWorldState(
       final WorldStateStorage storage, final WorldStatePreimageStorage preimageStorage) {
     this(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH, storage, preimageStorage);
@@ -65,9 +74,19 @@ public class DefaultMutableWorldState implements MutableWorldState {
       final Bytes32 rootHash,
       final WorldStateStorage worldStateStorage,
       final WorldStatePreimageStorage preimageStorage) {
+    this(rootHash, worldStateStorage, preimageStorage, Optional.empty());
+  }
+
+  public DefaultMutableWorldState(
+      final Bytes32 rootHash,
+      final WorldStateStorage worldStateStorage,
+      final WorldStatePreimageStorage preimageStorage,
+      final Optional<WorldStateSnapshotStorage> snapshotStorage) {
     this.worldStateStorage = worldStateStorage;
     this.accountStateTrie = newAccountStateTrie(rootHash);
     this.preimageStorage = preimageStorage;
+    this.snapshotStorage = snapshotStorage;
+    this.persistedRootHash = rootHash;
   }
 
   public DefaultMutableWorldState(final WorldState worldState) {
@@ -81,7 +100,9 @@ public class DefaultMutableWorldState implements MutableWorldState {
     final DefaultMutableWorldState other = (DefaultMutableWorldState) worldState;
     this.worldStateStorage = other.worldStateStorage;
     this.preimageStorage = other.preimageStorage;
+    this.snapshotStorage = other.snapshotStorage;
     this.accountStateTrie = newAccountStateTrie(other.accountStateTrie.getRootHash());
+    this.persistedRootHash = accountStateTrie.getRootHash();
   }
 
   private MerklePatriciaTrie<Bytes32, Bytes> newAccountStateTrie(final Bytes32 rootHash) {
@@ -101,18 +122,29 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
   @Override
   public MutableWorldState copy() {
-    return new DefaultMutableWorldState(rootHash(), worldStateStorage, preimageStorage);
+    return new DefaultMutableWorldState(
+        rootHash(), worldStateStorage, preimageStorage, snapshotStorage);
   }
 
   @Override
   public Account get(final Address address) {
     final Hash addressHash = Hash.hash(address);
-    return accountStateTrie
-        .get(addressHash)
+    return getAccountValue(addressHash)
         .map(bytes -> deserializeAccount(address, addressHash, bytes))
         .orElse(null);
   }
 
+  private Optional<Bytes> getAccountValue(final Hash addressHash) {
+    if (snapshotStorage.isPresent() && !snapshotDirtyAccounts.contains(addressHash)) {
+      final Optional<Bytes> snapshotValue =
+          snapshotStorage.get().getAccount(persistedRootHash, addressHash);
+      if (snapshotValue.isPresent()) {
+        return snapshotValue.filter(value -> !value.isEmpty());
+      }
+    }
+    return accountStateTrie.get(addressHash);
+  }
+
   private WorldStateAccount deserializeAccount(
       final Address address, final Hash addressHash, final Bytes encoded) throws RLPException {
     final RLPInput in = RLP.input(encoded);
@@ -191,6 +223,75 @@ public class DefaultMutableWorldState implements MutableWorldState {
     // Push changes to underlying storage
     preimageUpdater.commit();
     stateUpdater.commit();
+
+    snapshotStorage.ifPresent(this::persistSnapshot);
+    persistedRootHash = accountStateTrie.getRootHash();
+    snapshotDirtyAccounts.clear();
+    snapshotClearedStorage.clear();
+    snapshotStorageUpdates.clear();
+  }
+
+  private void persistSnapshot(final WorldStateSnapshotStorage snapshot) {
+    if (persistedRootHash.equals(accountStateTrie.getRootHash())) {
+      return;
+    }
+    final WorldStateSnapshotStorage.Updater snapshotUpdater = snapshot.updater();
+    snapshotClearedStorage.forEach(snapshotUpdater::clearStorage);
+    snapshotStorageUpdates.forEach(
+        (addressHash, slots) ->
+            slots.forEach(
+                (slotHash, value) -> {
+                  if (value.isZero()) {
+                    snapshotUpdater.removeStorageValue(addressHash, slotHash);
+                  } else {
+                    snapshotUpdater.putStorageValue(
+                        addressHash, slotHash, encodeStorageValue(value));
+                  }
+                }));
+    for (final Hash addressHash : snapshotDirtyAccounts) {
+      final Optional<Bytes> account = accountStateTrie.get(addressHash);
+      if (account.isPresent()) {
+        snapshotUpdater.putAccount(addressHash, account.get());
+      } else {
+        snapshotUpdater.removeAccount(addressHash);
+      }
+    }
+    snapshotUpdater.commit(persistedRootHash, accountStateTrie.getRootHash());
+  }
+
+  private static Bytes encodeStorageValue(final UInt256 value) {
+    return RLP.encode(out -> out.writeBytes(value.toMinimalBytes()));
+  }
+
+  private void trackSnapshotAccountUpdate(final Hash addressHash) {
+    if (snapshotStorage.isPresent()) {
+      snapshotDirtyAccounts.add(addressHash);
+    }
+  }
+
+  private void trackSnapshotStorageCleared(final Hash addressHash) {
+    if (snapshotStorage.isPresent()) {
+      snapshotDirtyAccounts.add(addressHash);
+      snapshotClearedStorage.add(addressHash);
+      snapshotStorageUpdates.remove(addressHash);
+    }
+  }
+
+  private void trackSnapshotAccountCreated(final Hash addressHash) {
+    // An account deleted and re-created within the same updater has no origin, yet its old storage
+    // is still in the snapshot.
+    if (snapshotStorage.isPresent() && accountStateTrie.get(addressHash).isPresent()) {
+      trackSnapshotStorageCleared(addressHash);
+    }
+  }
+
+  private void trackSnapshotStorageUpdate(
+      final Hash addressHash, final Hash slotHash, final UInt256 value) {
+    if (snapshotStorage.isPresent()) {
+      snapshotStorageUpdates
+          .computeIfAbsent(addressHash, __ -> new HashMap<>())
+          .put(slotHash, value);
+    }
   }
 
   private Optional<UInt256> getStorageTrieKeyPreimage(final Bytes32 trieKey) {
@@ -289,13 +390,25 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
     @Override
     public UInt256 getStorageValue(final UInt256 key) {
-      final Optional<Bytes> val = storageTrie().get(Hash.hash(key.toBytes()));
+      final Hash slotHash = Hash.hash(key.toBytes());
+      final Optional<Bytes> val = getStorageSlotValue(slotHash);
       if (!val.isPresent()) {
         return UInt256.ZERO;
       }
       return convertToUInt256(val.get());
     }
 
+    private Optional<Bytes> getStorageSlotValue(final Hash slotHash) {
+      if (snapshotStorage.isPresent() && !snapshotDirtyAccounts.contains(addressHash)) {
+        final Optional<Bytes> snapshotValue =
+            snapshotStorage.get().getStorageValue(persistedRootHash, addressHash, slotHash);
+        if (snapshotValue.isPresent()) {
+          return snapshotValue.filter(value -> !value.isEmpty());
+        }
+      }
+      return storageTrie().get(slotHash);
+    }
+
     @Override
     public UInt256 getOriginalStorageValue(final UInt256 key) {
       return getStorageValue(key);
@@ -305,8 +418,7 @@ public class DefaultMutableWorldState implements MutableWorldState {
     public NavigableMap<Bytes32, AccountStorageEntry> storageEntriesFrom(
         final Bytes32 startKeyHash, final int limit) {
       final NavigableMap<Bytes32, AccountStorageEntry> storageEntries = new TreeMap<>();
-      storageTrie()
-          .entriesFrom(startKeyHash, limit)
+      storageSlotValuesFrom(startKeyHash, limit)
           .forEach(
               (key, value) -> {
                 final AccountStorageEntry entry =
@@ -317,6 +429,19 @@ public class DefaultMutableWorldState implements MutableWorldState {
       return storageEntries;
     }
 
+    private Map<Bytes32, Bytes> storageSlotValuesFrom(final Bytes32 startKeyHash, final int limit) {
+      if (snapshotStorage.isPresent() && !snapshotDirtyAccounts.contains(addressHash)) {
+        final Optional<NavigableMap<Bytes32, Bytes>> snapshotValues =
+            snapshotStorage
+                .get()
+                .getStorageEntriesFrom(persistedRootHash, addressHash, startKeyHash, limit);
+        if (snapshotValues.isPresent()) {
+          return snapshotValues.get();
+        }
+      }
+      return storageTrie().entriesFrom(startKeyHash, limit);
+    }
+
     private UInt256 convertToUInt256(final Bytes value) {
       // TODO: we could probably have an optimized method to decode a single scalar since it's used
       // pretty often.
@@ -350,8 +475,7 @@ public class DefaultMutableWorldState implements MutableWorldState {
       final DefaultMutableWorldState wrapped = wrappedWorldView();
       final Hash addressHash = Hash.hash(address);
       return wrapped
-          .accountStateTrie
-          .get(addressHash)
+          .getAccountValue(addressHash)
           .map(bytes -> wrapped.deserializeAccount(address, addressHash, bytes))
           .orElse(null);
     }
@@ -381,6 +505,7 @@ public class DefaultMutableWorldState implements MutableWorldState {
         wrapped.accountStateTrie.remove(addressHash);
         wrapped.updatedStorageTries.remove(address);
         wrapped.updatedAccountCode.remove(address);
+        wrapped.trackSnapshotStorageCleared(addressHash);
       }
 
       for (final UpdateTrackingAccount<WorldStateAccount> updated : updatedAccounts()) {
@@ -398,6 +523,12 @@ public class DefaultMutableWorldState implements MutableWorldState {
         if (freshState) {
           wrapped.updatedStorageTries.remove(updated.getAddress());
         }
+        if (origin != null && updated.getStorageWasCleared()) {
+          wrapped.trackSnapshotStorageCleared(updated.getAddressHash());
+        } else if (origin == null) {
+          wrapped.trackSnapshotAccountCreated(updated.getAddressHash());
+        }
+        wrapped.trackSnapshotAccountUpdate(updated.getAddressHash());
         final Map<UInt256, UInt256> updatedStorage = updated.getUpdatedStorage();
         if (!updatedStorage.isEmpty()) {
           // Apply any storage updates
@@ -409,12 +540,12 @@ public class DefaultMutableWorldState implements MutableWorldState {
           for (final Map.Entry<UInt256, UInt256> entry : updatedStorage.entrySet()) {
             final UInt256 value = entry.getValue();
             final Hash keyHash = Hash.hash(entry.getKey().toBytes());
+            wrapped.trackSnapshotStorageUpdate(updated.getAddressHash(), keyHash, value);
             if (value.isZero()) {
               storageTrie.remove(keyHash);
             } else {
               wrapped.newStorageKeyPreimages.put(keyHash, entry.getKey());
-              storageTrie.put(
-                  keyHash, RLP.encode(out -> out.writeBytes(entry.getValue().toMinimalBytes())));
+              storageTrie.put(keyHash, encodeStorageValue(value));
             }
           }
           storageRoot = Hash.wrap(storageTrie.getRootHash());
@@ -32,13 +32,22 @@ public class WorldStateArchive {
   private final WorldStateStorage worldStateStorage;
   private final WorldStatePreimageStorage preimageStorage;
   private final WorldStateProofProvider worldStateProof;
+  private final Optional<WorldStateSnapshotStorage> snapshotStorage;
 
   private static final Hash EMPTY_ROOT_HASH = Hash.wrap(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH);
 
   public WorldStateArchive(
       final WorldStateStorage worldStateStorage, final WorldStatePreimageStorage preimageStorage) {
+    this(worldStateStorage, preimageStorage, Optional.empty());
+  }
+
+  public WorldStateArchive(
+      final WorldStateStorage worldStateStorage,
+      final WorldStatePreimageStorage preimageStorage,
+      final Optional<WorldStateSnapshotStorage> snapshotStorage) {
     this.worldStateStorage = worldStateStorage;
     this.preimageStorage = preimageStorage;
+    this.snapshotStorage = snapshotStorage;
     this.worldStateProof = new WorldStateProofProvider(worldStateStorage);
   }
 
@@ -54,7 +63,9 @@ public class WorldStateArchive {
     if (!worldStateStorage.isWorldStateAvailable(rootHash)) {
       return Optional.empty();
     }
-    return Optional.of(new DefaultMutableWorldState(rootHash, worldStateStorage, preimageStorage));
+    return Optional.of(
+        new DefaultMutableWorldState(
+            rootHash, worldStateStorage, preimageStorage, snapshotStorage));
   }
 
   public WorldState get() {
@@ -0,0 +1,111 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+import java.io.Closeable;
+import java.util.NavigableMap;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * A flat copy of the leaves of recent world states, keyed by account hash and by account hash and
+ * slot hash. It allows accounts and storage slots of those states to be read with a single lookup
+ * instead of a full trie traversal.
+ *
+ * <p>Each persisted world state is recorded as the changes against the state it was built on, so
+ * the snapshot can describe the states of competing blocks at the same time. The changes are folded
+ * into the flat copy once the state they lead to is far enough behind the canonical chain head.
+ * Reads for a state the snapshot can't describe return empty so callers fall back to the trie.
+ */
+public interface WorldStateSnapshotStorage extends Closeable {
+
+  /**
+   * Looks up an account in the snapshot.
+   *
+   * @param stateRoot the root of the world state the caller is reading from
+   * @param accountHash the hash of the account address
+   * @return empty if the snapshot does not describe {@code stateRoot}, otherwise the RLP encoded
+   *     account, or {@link Bytes#EMPTY} if the account does not exist
+   */
+  Optional<Bytes> getAccount(Bytes32 stateRoot, Bytes32 accountHash);
+
+  /**
+   * Looks up a storage slot in the snapshot.
+   *
+   * @param stateRoot the root of the world state the caller is reading from
+   * @param accountHash the hash of the account address
+   * @param slotHash the hash of the storage slot key
+   * @return empty if the snapshot does not describe {@code stateRoot}, otherwise the RLP encoded
+   *     value, or {@link Bytes#EMPTY} if the slot is not set
+   */
+  Optional<Bytes> getStorageValue(Bytes32 stateRoot, Bytes32 accountHash, Bytes32 slotHash);
+
+  /**
+   * Reads a range of the storage slots of an account in ascending order of their slot hash.
+   *
+   * @param stateRoot the root of the world state the caller is reading from
+   * @param accountHash the hash of the account address
+   * @param startSlotHash the slot hash to start from, inclusive
+   * @param limit the maximum number of slots to return
+   * @return empty if the snapshot does not describe {@code stateRoot}, otherwise the RLP encoded
+   *     values of the slots that are set, by slot hash
+   */
+  Optional<NavigableMap<Bytes32, Bytes>> getStorageEntriesFrom(
+      Bytes32 stateRoot, Bytes32 accountHash, Bytes32 startSlotHash, int limit);
+
+  /**
+   * Moves the snapshot to a new canonical chain head. Changes far enough behind the head are folded
+   * into the flat copy, and changes that can no longer become canonical are dropped. If the head
+   * can't be reached from the flat copy, as after a deep reorg or when the snapshot is first
+   * enabled, the flat copy is regenerated from the trie of the head in the background.
+   *
+   * @param stateRoot the state root of the new chain head
+   */
+  void setChainHead(Bytes32 stateRoot);
+
+  Updater updater();
+
+  interface Updater {
+
+    Updater putAccount(Bytes32 accountHash, Bytes account);
+
+    Updater removeAccount(Bytes32 accountHash);
+
+    Updater putStorageValue(Bytes32 accountHash, Bytes32 slotHash, Bytes value);
+
+    Updater removeStorageValue(Bytes32 accountHash, Bytes32 slotHash);
+
+    /**
+     * Removes every storage slot of an account without enumerating them. Slots put by this same
+     * updater remain visible.
+     *
+     * @param accountHash the hash of the account address
+     * @return this updater
+     */
+    Updater clearStorage(Bytes32 accountHash);
+
+    /**
+     * Records the pending changes as the difference between two world states.
+     *
+     * @param fromRoot the root the pending changes were computed against
+     * @param toRoot the root of the world state once the changes are applied
+     */
+    void commit(Bytes32 fromRoot, Bytes32 toRoot);
+
+    void rollback();
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.util.Subscribers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * A {@link WorldStateStorage} that holds committed changes in memory and writes them to the
+ * underlying storage in a single transaction once enough commits or bytes have accumulated.
+ *
+ * <p>Each persisted world state commits exactly one updater, so a flush always contains the
+ * complete state of every block it covers. Changes which were not flushed are lost if the process
+ * stops without closing the storage, leaving the chain head without its world state until the
+ * blocks after the last flushed one are processed again.
+ */
+public class WriteBehindWorldStateStorage implements WorldStateStorage {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final WorldStateStorage delegate;
+  private final int maxBufferedCommits;
+  private final long maxBufferedBytes;
+  private final Subscribers<NodesAddedListener> nodeAddedListeners = Subscribers.create();
+  // An empty value records a removal which has not been flushed yet.
+  private final Map<Bytes32, Optional<Bytes>> pending = new ConcurrentHashMap<>();
+  private int bufferedCommits = 0;
+  private long bufferedBytes = 0;
+
+  public WriteBehindWorldStateStorage(
+      final WorldStateStorage delegate, final int maxBufferedCommits, final long maxBufferedBytes) {
+    checkArgument(maxBufferedCommits > 0, "Must buffer at least one commit");
+    this.delegate = delegate;
+    this.maxBufferedCommits = maxBufferedCommits;
+    this.maxBufferedBytes = maxBufferedBytes;
+  }
+
+  @Override
+  public Optional<Bytes> getCode(final Bytes32 codeHash) {
+    final Optional<Bytes> value = pending.get(codeHash);
+    return value != null ? value : delegate.getCode(codeHash);
+  }
+
+  @Override
+  public Optional<Bytes> getAccountStateTrieNode(final Bytes32 nodeHash) {
+    final Optional<Bytes> value = pending.get(nodeHash);
+    return value != null ? value : delegate.getAccountStateTrieNode(nodeHash);
+  }
+
+  @Override
+  public Optional<Bytes> getAccountStorageTrieNode(final Bytes32 nodeHash) {
+    final Optional<Bytes> value = pending.get(nodeHash);
+    return value != null ? value : delegate.getAccountStorageTrieNode(nodeHash);
+  }
+
+  @Override
+  public Optional<Bytes> getNodeData(final Bytes32 hash) {
+    final Optional<Bytes> value = pending.get(hash);
+    return value != null ? value : delegate.getNodeData(hash);
+  }
+
+  @Override
+  public List<Optional<Bytes>> getNodeData(final List<Bytes32> hashes) {
+    final List<Optional<Bytes>> result = new ArrayList<>(hashes.size());
+    final List<Integer> missingIndexes = new ArrayList<>();
+    final List<Bytes32> missingHashes = new ArrayList<>();
+    for (final Bytes32 hash : hashes) {
+      final Optional<Bytes> value = pending.get(hash);
+      if (value == null) {
+        missingIndexes.add(result.size());
+        missingHashes.add(hash);
+      }
+      result.add(value);
+    }
+    if (!missingHashes.isEmpty()) {
+      final List<Optional<Bytes>> loaded = delegate.getNodeData(missingHashes);
+      for (int i = 0; i < missingIndexes.size(); i++) {
+        result.set(missingIndexes.get(i), loaded.get(i));
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public boolean isWorldStateAvailable(final Bytes32 rootHash) {
+    return getAccountStateTrieNode(rootHash).isPresent();
+  }
+
+  @Override
+  public WorldStateStorage.Updater updater() {
+    return new Updater();
+  }
+
+  @Override
+  public long prune(final Predicate<byte[]> inUseCheck) {
+    flush();
+    return delegate.prune(inUseCheck);
+  }
+
+  @Override
+  public long addNodeAddedListener(final NodesAddedListener listener) {
+    return nodeAddedListeners.subscribe(listener);
+  }
+
+  @Override
+  public void removeNodeAddedListener(final long id) {
+    nodeAddedListeners.unsubscribe(id);
+  }
+
+  /** Writes all buffered changes to the underlying storage in a single transaction. */
+  public synchronized void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    final WorldStateStorage.Updater updater = delegate.updater();
+    pending.forEach(
+        (hash, value) -> {
+          if (value.isEmpty()) {
+            updater.removeAccountStateTrieNode(hash);
+          } else if (hash.equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH)) {
+            // Empty trie nodes are never buffered, so this can only be code which hashes to the
+            // same value, and must not be skipped like an empty node would be.
+            updater.putCode(hash, value.get());
+          } else {
+            updater.putAccountStateTrieNode(hash, value.get());
+          }
+        });
+    updater.commit();
+    LOG.debug(
+        "Flushed {} world state entries from {} commits ({} bytes)",
+        pending.size(),
+        bufferedCommits,
+        bufferedBytes);
+    // Reads may still be served from the buffer until it is cleared, which is safe as the
+    // underlying storage now holds the same values.
+    pending.clear();
+    bufferedCommits = 0;
+    bufferedBytes = 0;
+  }
+
+  @VisibleForTesting
+  synchronized int getBufferedCommits() {
+    return bufferedCommits;
+  }
+
+  private synchronized void buffer(final Map<Bytes32, Optional<Bytes>> changes) {
+    changes.forEach(
+        (hash, value) -> {
+          pending.put(hash, value);
+          bufferedBytes += Bytes32.SIZE + value.map(Bytes::size).orElse(0);
+        });
+    bufferedCommits++;
+    if (bufferedCommits >= maxBufferedCommits || bufferedBytes >= maxBufferedBytes) {
+      flush();
+    }
+  }
+
+  private class Updater implements WorldStateStorage.Updater {
+
+    private final Map<Bytes32, Optional<Bytes>> changes = new HashMap<>();
+    private final List<Bytes32> addedNodes = new ArrayList<>();
+
+    @Override
+    public Updater removeAccountStateTrieNode(final Bytes32 nodeHash) {
+      changes.put(nodeHash, Optional.empty());
+      return this;
+    }
+
+    @Override
+    public Updater putCode(final Bytes32 codeHash, final Bytes code) {
+      if (code.size() == 0) {
+        // Don't save empty values
+        return this;
+      }
+      addedNodes.add(codeHash);
+      changes.put(codeHash, Optional.of(code));
+      return this;
+    }
+
+    @Override
+    public Updater putAccountStateTrieNode(final Bytes32 nodeHash, final Bytes node) {
+      return putTrieNode(nodeHash, node);
+    }
+
+    @Override
+    public Updater putAccountStorageTrieNode(final Bytes32 nodeHash, final Bytes node) {
+      return putTrieNode(nodeHash, node);
+    }
+
+    private Updater putTrieNode(final Bytes32 nodeHash, final Bytes node) {
+      if (nodeHash.equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH)) {
+        // Don't save empty nodes
+        return this;
+      }
+      addedNodes.add(nodeHash);
+      changes.put(nodeHash, Optional.of(node));
+      return this;
+    }
+
+    @Override
+    public void commit() {
+      nodeAddedListeners.forEach(listener -> listener.onNodesAdded(addedNodes));
+      buffer(changes);
+    }
+
+    @Override
+    public void rollback() {
+      changes.clear();
+      addedNodes.clear();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.mainnet.MainnetBlockHeaderFunctions;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+
+import java.util.stream.Collectors;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Test;
+
+public class BlockBodyTest {
+
+  private final BlockDataGenerator gen = new BlockDataGenerator();
+
+  @Test
+  public void lazilyReadBodyShouldMatchBodyItWasEncodedFrom() {
+    final BlockBody body = gen.body();
+    final BlockBody lazyBody =
+        BlockBody.readLazilyFrom(
+            RLP.input(RLP.encode(body::writeTo)), new MainnetBlockHeaderFunctions());
+
+    assertThat(lazyBody.getTransactionCount()).isEqualTo(body.getTransactions().size());
+    assertThat(lazyBody.getTransactionHashes())
+        .isEqualTo(
+            body.getTransactions().stream()
+                .map(Transaction::getHash)
+                .collect(Collectors.toList()));
+    assertThat(lazyBody.getTransactions()).isEqualTo(body.getTransactions());
+    assertThat(lazyBody.getOmmers()).isEqualTo(body.getOmmers());
+    assertThat(lazyBody).isEqualTo(body);
+  }
+
+  @Test
+  public void lazilyReadBodyShouldBeWrittenWithItsOriginalEncoding() {
+    final BlockBody body = gen.body();
+    final Bytes encoded = RLP.encode(body::writeTo);
+    final BlockBody lazyBody =
+        BlockBody.readLazilyFrom(RLP.input(encoded), new MainnetBlockHeaderFunctions());
+
+    assertThat(RLP.encode(lazyBody::writeTo)).isEqualTo(encoded);
+    final Block block = new Block(gen.header(), lazyBody);
+    assertThat(block.toRlp()).isEqualTo(new Block(block.getHeader(), body).toRlp());
+  }
+}
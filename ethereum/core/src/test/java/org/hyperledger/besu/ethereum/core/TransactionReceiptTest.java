@@ -40,4 +40,16 @@ public class TransactionReceiptTest {
         TransactionReceipt.readFrom(RLP.input(RLP.encode(receipt::writeToWithRevertReason)));
     assertThat(copy).isEqualTo(receipt);
   }
+
+  @Test
+  public void shouldOnlyWriteRevertReasonWhenRequested() {
+    final BlockDataGenerator gen = new BlockDataGenerator();
+    final TransactionReceipt receipt = gen.receipt(Bytes.fromHexString("0x1122334455667788"));
+    final Bytes withRevertReason = RLP.encode(receipt::writeToWithRevertReason);
+    final TransactionReceipt copy = TransactionReceipt.readFrom(RLP.input(withRevertReason));
+
+    assertThat(RLP.encode(copy::writeToWithRevertReason)).isEqualTo(withRevertReason);
+    assertThat(RLP.encode(copy::writeTo)).isEqualTo(RLP.encode(receipt::writeTo));
+    assertThat(copy.getLogs()).isEqualTo(receipt.getLogs());
+  }
 }
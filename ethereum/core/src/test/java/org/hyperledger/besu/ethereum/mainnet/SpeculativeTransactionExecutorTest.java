@@ -0,0 +1,254 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.config.StubGenesisConfigOptions;
+import org.hyperledger.besu.crypto.SECP256K1.KeyPair;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.AddressHelpers;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.InMemoryStorageProvider;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.PrivacyParameters;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.TransactionTestFixture;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpeculativeTransactionExecutorTest {
+
+  private static final BigInteger CHAIN_ID = BigInteger.valueOf(2018);
+  // Increments storage slot 0.
+  private static final Bytes COUNTER_CODE = Bytes.fromHexString("0x60005460010160005500");
+  // Stores the balance of the block's coinbase in storage slot 0.
+  private static final Bytes COINBASE_BALANCE_CODE = Bytes.fromHexString("0x413160005500");
+
+  private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+  private final MetricsSystem metricsSystem = mock(MetricsSystem.class);
+  private final Counter committedCounter = mock(Counter.class);
+  private final Counter reexecutedCounter = mock(Counter.class);
+  private final Blockchain blockchain = mock(Blockchain.class);
+  private final WorldStateArchive worldStateArchive =
+      InMemoryStorageProvider.createInMemoryWorldStateArchive();
+  private final List<KeyPair> senders =
+      IntStream.range(0, 8).mapToObj(i -> KeyPair.generate()).collect(Collectors.toList());
+  private final Address coinbase = AddressHelpers.ofValue(0xc0ffee);
+  private final Address counterContract = AddressHelpers.ofValue(0x100);
+  private final Address coinbaseBalanceContract = AddressHelpers.ofValue(0x101);
+  private final BlockHeader blockHeader =
+      new BlockHeaderTestFixture().number(1).gasLimit(10_000_000L).coinbase(coinbase).buildHeader();
+
+  private ProtocolSpec<Void> protocolSpec;
+  private Hash initialStateRoot;
+
+  @Before
+  public void setUp() {
+    when(metricsSystem.createCounter(
+            eq(BesuMetricCategory.BLOCKCHAIN),
+            eq("speculative_transactions_committed_total"),
+            any()))
+        .thenReturn(committedCounter);
+    when(metricsSystem.createCounter(
+            eq(BesuMetricCategory.BLOCKCHAIN),
+            eq("speculative_transactions_reexecuted_total"),
+            any()))
+        .thenReturn(reexecutedCounter);
+
+    protocolSpec =
+        new ProtocolScheduleBuilder<>(
+                new StubGenesisConfigOptions().istanbulBlock(0),
+                CHAIN_ID,
+                Function.identity(),
+                new PrivacyParameters(),
+                false)
+            .createProtocolSchedule()
+            .getByBlockNumber(1);
+
+    final MutableWorldState worldState = worldStateArchive.getMutable();
+    final WorldUpdater updater = worldState.updater();
+    senders.forEach(keys -> updater.createAccount(senderOf(keys), 0, Wei.fromEth(1)));
+    updater.createAccount(counterContract).getMutable().setCode(COUNTER_CODE);
+    updater.createAccount(coinbaseBalanceContract).getMutable().setCode(COINBASE_BALANCE_CODE);
+    updater.commit();
+    worldState.persist();
+    initialStateRoot = worldState.rootHash();
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void shouldUseSpeculativeResultsForIndependentTransactions() {
+    final List<Transaction> transactions = new ArrayList<>();
+    for (int i = 0; i < senders.size(); i++) {
+      transactions.add(transfer(senders.get(i), 0, AddressHelpers.ofValue(0x200 + i)));
+    }
+
+    assertSameOutcomeAsSequential(transactions);
+
+    verify(committedCounter, times(transactions.size())).inc();
+    verify(reexecutedCounter, never()).inc();
+  }
+
+  @Test
+  public void shouldReexecuteTransactionsWithStaleReads() {
+    final Address sharedRecipient = AddressHelpers.ofValue(0x300);
+    final List<Transaction> transactions = new ArrayList<>();
+    // Both credit the same account.
+    transactions.add(transfer(senders.get(0), 0, sharedRecipient));
+    transactions.add(transfer(senders.get(1), 0, sharedRecipient));
+    // The second spends from a balance the first one changes.
+    transactions.add(transfer(senders.get(2), 0, senderOf(senders.get(3))));
+    transactions.add(transfer(senders.get(3), 0, sharedRecipient));
+    // Same sender as the first transaction, so it is never speculated.
+    transactions.add(transfer(senders.get(0), 1, sharedRecipient));
+    // Both read and write the same storage slot.
+    transactions.add(call(senders.get(4), counterContract));
+    transactions.add(call(senders.get(5), counterContract));
+    // Observes the coinbase balance, so the fee credit can't be rebased.
+    transactions.add(call(senders.get(6), coinbaseBalanceContract));
+    // Sends value directly to the coinbase.
+    transactions.add(transfer(senders.get(7), 0, coinbase));
+
+    assertSameOutcomeAsSequential(transactions);
+
+    verify(committedCounter, times(3)).inc();
+    verify(reexecutedCounter, times(5)).inc();
+  }
+
+  @Test
+  public void shouldCancelSpeculativeExecutionsWhenBlockProcessingStops() {
+    final List<Runnable> queuedExecutions = new ArrayList<>();
+    final TransactionProcessor transactionProcessor = mock(TransactionProcessor.class);
+    final MainnetBlockProcessor blockProcessor =
+        new MainnetBlockProcessor(
+            transactionProcessor,
+            protocolSpec.getTransactionReceiptFactory(),
+            protocolSpec.getBlockReward(),
+            protocolSpec.getMiningBeneficiaryCalculator(),
+            false);
+    blockProcessor.setSpeculativeTransactionExecutor(
+        new SpeculativeTransactionExecutor(queuedExecutions::add, metricsSystem));
+    // The first transaction doesn't fit in the block, so processing stops before executing it.
+    final BlockHeader smallBlockHeader =
+        new BlockHeaderTestFixture().number(1).gasLimit(20_000L).coinbase(coinbase).buildHeader();
+    final List<Transaction> transactions =
+        List.of(
+            transfer(senders.get(0), 0, AddressHelpers.ofValue(0x200)),
+            transfer(senders.get(1), 0, AddressHelpers.ofValue(0x201)));
+
+    final AbstractBlockProcessor.Result result =
+        blockProcessor.processBlock(
+            blockchain,
+            worldStateArchive.getMutable(initialStateRoot).get(),
+            smallBlockHeader,
+            transactions,
+            emptyList());
+
+    assertThat(result.isSuccessful()).isFalse();
+    assertThat(queuedExecutions).hasSize(2);
+    queuedExecutions.forEach(Runnable::run);
+    verifyNoInteractions(transactionProcessor);
+  }
+
+  private void assertSameOutcomeAsSequential(final List<Transaction> transactions) {
+    final MainnetBlockProcessor sequentialProcessor = createBlockProcessor();
+    final MutableWorldState sequentialState =
+        worldStateArchive.getMutable(initialStateRoot).get();
+    final AbstractBlockProcessor.Result expected =
+        sequentialProcessor.processBlock(
+            blockchain, sequentialState, blockHeader, transactions, emptyList());
+
+    final MainnetBlockProcessor speculativeProcessor = createBlockProcessor();
+    speculativeProcessor.setSpeculativeTransactionExecutor(
+        new SpeculativeTransactionExecutor(executorService, metricsSystem));
+    final MutableWorldState speculativeState =
+        worldStateArchive.getMutable(initialStateRoot).get();
+    final AbstractBlockProcessor.Result actual =
+        speculativeProcessor.processBlock(
+            blockchain, speculativeState, blockHeader, transactions, emptyList());
+
+    assertThat(expected.isSuccessful()).isTrue();
+    assertThat(actual.isSuccessful()).isTrue();
+    assertThat(actual.getReceipts()).isEqualTo(expected.getReceipts());
+    assertThat(speculativeState.rootHash()).isEqualTo(sequentialState.rootHash());
+  }
+
+  private MainnetBlockProcessor createBlockProcessor() {
+    return new MainnetBlockProcessor(
+        protocolSpec.getTransactionProcessor(),
+        protocolSpec.getTransactionReceiptFactory(),
+        protocolSpec.getBlockReward(),
+        protocolSpec.getMiningBeneficiaryCalculator(),
+        false);
+  }
+
+  private static Transaction transfer(final KeyPair keys, final long nonce, final Address to) {
+    return new TransactionTestFixture()
+        .sender(senderOf(keys))
+        .nonce(nonce)
+        .gasLimit(21_000)
+        .to(Optional.of(to))
+        .createTransaction(keys);
+  }
+
+  private static Transaction call(final KeyPair keys, final Address contract) {
+    return new TransactionTestFixture()
+        .sender(senderOf(keys))
+        .gasLimit(100_000)
+        .to(Optional.of(contract))
+        .value(Wei.ZERO)
+        .createTransaction(keys);
+  }
+
+  private static Address senderOf(final KeyPair keys) {
+    return Address.extract(keys.getPublicKey());
+  }
+}
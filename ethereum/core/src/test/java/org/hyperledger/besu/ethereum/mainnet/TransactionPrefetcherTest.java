@@ -0,0 +1,133 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.crypto.SECP256K1.KeyPair;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.AddressHelpers;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.TransactionTestFixture;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransactionPrefetcherTest {
+
+  private final ExecutorService executor = TransactionPrefetcher.createExecutor(2, 16);
+  private final MetricsSystem metricsSystem = mock(MetricsSystem.class);
+  private final Counter hitCounter = mock(Counter.class);
+  private final Counter missCounter = mock(Counter.class);
+  private final MutableWorldState worldState = mock(MutableWorldState.class);
+  private final MutableWorldState worldStateCopy = mock(MutableWorldState.class);
+  private TransactionPrefetcher prefetcher;
+
+  @Before
+  public void setUp() {
+    when(metricsSystem.createCounter(
+            eq(BesuMetricCategory.BLOCKCHAIN), eq("transaction_prefetch_hits_total"), any()))
+        .thenReturn(hitCounter);
+    when(metricsSystem.createCounter(
+            eq(BesuMetricCategory.BLOCKCHAIN), eq("transaction_prefetch_misses_total"), any()))
+        .thenReturn(missCounter);
+    prefetcher = new TransactionPrefetcher(executor, metricsSystem);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void shouldReadSendersAndRecipientsFromWorldStateCopy() {
+    when(worldState.copy()).thenReturn(worldStateCopy);
+    final Address recipient = AddressHelpers.ofValue(1);
+    final Transaction transfer =
+        new TransactionTestFixture()
+            .to(Optional.of(recipient))
+            .createTransaction(KeyPair.generate());
+    final Transaction contractCreation =
+        new TransactionTestFixture().to(Optional.empty()).createTransaction(KeyPair.generate());
+
+    prefetcher.prefetch(worldState, Arrays.asList(transfer, contractCreation));
+
+    verify(worldStateCopy, timeout(1000)).get(transfer.getSender());
+    verify(worldStateCopy, timeout(1000)).get(recipient);
+    verify(worldStateCopy, timeout(1000)).get(contractCreation.getSender());
+    verify(worldState, never()).get(any());
+  }
+
+  @Test
+  public void shouldCountTransactionsWhoseAccountsWerePrefetched() throws Exception {
+    when(worldState.copy()).thenReturn(worldStateCopy);
+    final Address recipient = AddressHelpers.ofValue(1);
+    final Transaction transfer =
+        new TransactionTestFixture()
+            .to(Optional.of(recipient))
+            .createTransaction(KeyPair.generate());
+
+    final TransactionPrefetcher.BlockPrefetch prefetch =
+        prefetcher.prefetch(worldState, Collections.singletonList(transfer));
+    executor.shutdown();
+    assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+    prefetch.transactionStarted(transfer);
+
+    verify(hitCounter).inc();
+    verify(missCounter, never()).inc();
+  }
+
+  @Test
+  public void shouldCountTransactionsExecutedBeforeTheirAccountsWerePrefetched() {
+    final Transaction transfer =
+        new TransactionTestFixture()
+            .to(Optional.of(AddressHelpers.ofValue(1)))
+            .createTransaction(KeyPair.generate());
+
+    // Without a world state copy, nothing is prefetched.
+    final TransactionPrefetcher.BlockPrefetch prefetch =
+        prefetcher.prefetch(worldState, Collections.singletonList(transfer));
+    prefetch.transactionStarted(transfer);
+
+    verify(missCounter).inc();
+    verify(hitCounter, never()).inc();
+  }
+
+  @Test
+  public void shouldNotCopyWorldStateWhenThereAreNoTransactions() {
+    prefetcher.prefetch(worldState, emptyList());
+
+    verify(worldState, never()).copy();
+  }
+}
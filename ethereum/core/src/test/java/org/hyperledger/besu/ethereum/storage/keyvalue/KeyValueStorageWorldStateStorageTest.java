@@ -184,6 +184,96 @@ public class KeyValueStorageWorldStateStorageTest {
     assertThat(emptyStorage().isWorldStateAvailable(Hash.EMPTY_TRIE_HASH)).isTrue();
   }
 
+  @Test
+  public void getNodeData_servesCachedValueAfterFirstRead() {
+    final Bytes bytes = Bytes.fromHexString("0x123456");
+    final Hash hash = Hash.hash(bytes);
+    final InMemoryKeyValueStorage keyValueStorage = new InMemoryKeyValueStorage();
+    final TrieNodeCache nodeCache = new TrieNodeCache(1024);
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(keyValueStorage, nodeCache);
+    storage.updater().putAccountStateTrieNode(hash, bytes).commit();
+
+    assertThat(storage.getAccountStateTrieNode(hash)).contains(bytes);
+    assertThat(nodeCache.get(hash)).contains(bytes);
+  }
+
+  @Test
+  public void removeAccountStateTrieNode_invalidatesCachedNode() {
+    final Bytes bytes = Bytes.fromHexString("0x123456");
+    final Hash hash = Hash.hash(bytes);
+    final TrieNodeCache nodeCache = new TrieNodeCache(1024);
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage(), nodeCache);
+    storage.updater().putAccountStateTrieNode(hash, bytes).commit();
+    assertThat(storage.getAccountStateTrieNode(hash)).contains(bytes);
+
+    storage.updater().removeAccountStateTrieNode(hash).commit();
+
+    assertThat(nodeCache.get(hash)).isEmpty();
+    assertThat(storage.getAccountStateTrieNode(hash)).isEmpty();
+  }
+
+  @Test
+  public void prune_invalidatesCachedNodesThatAreNotInUse() {
+    final Bytes keptBytes = Bytes.fromHexString("0x12");
+    final Bytes prunedBytes = Bytes.fromHexString("0x1234");
+    final Hash keptHash = Hash.hash(keptBytes);
+    final Hash prunedHash = Hash.hash(prunedBytes);
+    final TrieNodeCache nodeCache = new TrieNodeCache(1024);
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage(), nodeCache);
+    storage
+        .updater()
+        .putAccountStateTrieNode(keptHash, keptBytes)
+        .putAccountStateTrieNode(prunedHash, prunedBytes)
+        .commit();
+    storage.getAccountStateTrieNode(keptHash);
+    storage.getAccountStateTrieNode(prunedHash);
+
+    storage.prune(key -> Bytes.wrap(key).equals(keptHash));
+
+    assertThat(nodeCache.get(keptHash)).contains(keptBytes);
+    assertThat(nodeCache.get(prunedHash)).isEmpty();
+    assertThat(storage.getAccountStateTrieNode(prunedHash)).isEmpty();
+  }
+
+  @Test
+  public void prune_dropsNodesReadBeforeThePruneThatAreCachedAfterIt() {
+    final Bytes bytes = Bytes.fromHexString("0x1234");
+    final Hash hash = Hash.hash(bytes);
+    final TrieNodeCache nodeCache = new TrieNodeCache(1024);
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage(), nodeCache);
+    storage.updater().putAccountStateTrieNode(hash, bytes).commit();
+
+    // A reader loads the node, then the pruner removes it before the reader caches it.
+    final long loadGeneration = nodeCache.loadGeneration();
+    storage.prune(key -> false);
+    nodeCache.putLoaded(hash, bytes.toArrayUnsafe(), loadGeneration);
+
+    assertThat(nodeCache.get(hash)).isEmpty();
+    assertThat(storage.getAccountStateTrieNode(hash)).isEmpty();
+  }
+
+  @Test
+  public void getNodeData_doesNotCacheNodesReadWhilePruning() {
+    final Bytes bytes = Bytes.fromHexString("0x1234");
+    final Hash hash = Hash.hash(bytes);
+    final TrieNodeCache nodeCache = new TrieNodeCache(1024);
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage(), nodeCache);
+    storage.updater().putAccountStateTrieNode(hash, bytes).commit();
+
+    nodeCache.startPruning();
+    assertThat(storage.getAccountStateTrieNode(hash)).contains(bytes);
+    assertThat(nodeCache.get(hash)).isEmpty();
+    nodeCache.finishPruning(key -> true);
+
+    assertThat(storage.getAccountStateTrieNode(hash)).contains(bytes);
+    assertThat(nodeCache.get(hash)).contains(bytes);
+  }
+
   private WorldStateKeyValueStorage emptyStorage() {
     return new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
   }
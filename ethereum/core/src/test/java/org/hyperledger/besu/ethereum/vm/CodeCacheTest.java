@@ -0,0 +1,113 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.mainnet.SpuriousDragonGasCalculator;
+import org.hyperledger.besu.ethereum.vm.operations.JumpDestOperation;
+import org.hyperledger.besu.ethereum.vm.operations.PushOperation;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Test;
+
+public class CodeCacheTest {
+
+  // PUSH1 0x5b JUMPDEST PUSH2 0x01
+  private static final Bytes CODE = Bytes.fromHexString("0x605b5b6101");
+
+  private final CodeCache codeCache = new CodeCache(1024 * 1024, new NoOpMetricsSystem());
+
+  @Test
+  public void shouldReuseCodeForAccountsWithTheSameCodeHash() {
+    final Code first = codeCache.getCode(accountWithCode(CODE));
+    final Code second = codeCache.getCode(accountWithCode(CODE));
+
+    assertThat(second).isSameAs(first);
+    assertThat(first.getBytes()).isEqualTo(CODE);
+    assertThat(codeCache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldReturnEmptyCodeForMissingAccount() {
+    assertThat(codeCache.getCode(null).getSize()).isZero();
+    assertThat(codeCache.size()).isZero();
+  }
+
+  @Test
+  public void shouldEvictCodeWhenFull() {
+    final CodeCache smallCache = new CodeCache(1, new NoOpMetricsSystem());
+
+    smallCache.getCode(accountWithCode(CODE));
+
+    assertThat(smallCache.size()).isZero();
+  }
+
+  @Test
+  public void shouldOnlyTreatJumpDestOutsidePushImmediatesAsValid() {
+    final EVM evm = createEvm();
+    final MessageFrame frame = mock(MessageFrame.class);
+    when(frame.getContractAccountVersion()).thenReturn(Account.DEFAULT_VERSION);
+    final Code code = codeCache.getCode(accountWithCode(CODE));
+
+    assertThat(code.isValidJumpDestination(evm, frame, UInt256.valueOf(1))).isFalse();
+    assertThat(code.isValidJumpDestination(evm, frame, UInt256.valueOf(2))).isTrue();
+  }
+
+  @Test
+  public void shouldValidateJumpDestinationsOfCodeOutsideTheCache() {
+    final EVM evm = createEvm();
+    final MessageFrame frame = mock(MessageFrame.class);
+    when(frame.getContractAccountVersion()).thenReturn(Account.DEFAULT_VERSION);
+    final Code code = new Code(CODE);
+
+    assertThat(code.isValidJumpDestination(evm, frame, UInt256.valueOf(1))).isFalse();
+    assertThat(code.isValidJumpDestination(evm, frame, UInt256.valueOf(2))).isTrue();
+  }
+
+  @Test
+  public void shouldPadTruncatedPushImmediates() {
+    final EVM evm = createEvm();
+    final Code code = codeCache.getCode(accountWithCode(CODE));
+    evm.operationAtOffset(code, Account.DEFAULT_VERSION, 0);
+
+    assertThat(code.getPushImmediate(0, 1)).isEqualTo(Bytes32.fromHexStringLenient("0x5b"));
+    assertThat(code.getPushImmediate(3, 2)).isEqualTo(Bytes32.fromHexStringLenient("0x0100"));
+  }
+
+  private static EVM createEvm() {
+    final GasCalculator gasCalculator = new SpuriousDragonGasCalculator();
+    final OperationRegistry registry = new OperationRegistry();
+    registry.put(new PushOperation(1, gasCalculator), Account.DEFAULT_VERSION);
+    registry.put(new PushOperation(2, gasCalculator), Account.DEFAULT_VERSION);
+    registry.put(new JumpDestOperation(gasCalculator), Account.DEFAULT_VERSION);
+    return new EVM(registry, gasCalculator);
+  }
+
+  private static Account accountWithCode(final Bytes code) {
+    final Account account = mock(Account.class);
+    when(account.hasCode()).thenReturn(true);
+    when(account.getCode()).thenReturn(code);
+    when(account.getCodeHash()).thenReturn(Hash.hash(code));
+    return account;
+  }
+}
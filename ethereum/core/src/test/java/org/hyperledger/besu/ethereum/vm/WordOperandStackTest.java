@@ -0,0 +1,198 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Test;
+
+public class WordOperandStackTest {
+
+  private static final BigInteger MODULUS = BigInteger.ONE.shiftLeft(256);
+  private static final BigInteger SHIFT_LIMIT = BigInteger.valueOf(256);
+
+  private final Random random = new Random(1);
+
+  @Test
+  public void construction() {
+    final OperandStack stack = new WordOperandStack(1);
+    assertThat(stack.size()).isEqualTo(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void construction_NegativeMaximumSize() {
+    new WordOperandStack(-1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void push_StackOverflow() {
+    final OperandStack stack = new WordOperandStack(1);
+    stack.push(Bytes32.fromHexString("0x01"));
+    stack.push(Bytes32.fromHexString("0x02"));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void pop_StackUnderflow() {
+    final OperandStack stack = new WordOperandStack(1);
+    stack.pop();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void add_StackUnderflow() {
+    final WordOperandStack stack = new WordOperandStack(2);
+    stack.push(Bytes32.fromHexString("0x01"));
+    stack.add();
+  }
+
+  @Test
+  public void pushPop() {
+    final OperandStack stack = new WordOperandStack(1);
+    stack.push(Bytes32.fromHexString("0x01"));
+    assertThat(stack.size()).isEqualTo(1);
+    assertThat(stack.pop()).isEqualTo(Bytes32.fromHexString("0x01"));
+  }
+
+  @Test
+  public void pushBeyondInitialCapacity() {
+    final OperandStack stack = new WordOperandStack(1024);
+    for (int i = 0; i < 1024; i++) {
+      stack.push(UInt256.valueOf(i).toBytes());
+    }
+    assertThat(stack.size()).isEqualTo(1024);
+    for (int i = 0; i < 1024; i++) {
+      assertThat(stack.get(i)).isEqualTo(UInt256.valueOf(1023 - i).toBytes());
+    }
+  }
+
+  @Test
+  public void set() {
+    final OperandStack stack = new WordOperandStack(3);
+    stack.push(Bytes32.fromHexString("0x01"));
+    stack.push(Bytes32.fromHexString("0x02"));
+    stack.push(Bytes32.fromHexString("0x03"));
+    stack.set(2, Bytes32.fromHexString("0x04"));
+    assertThat(stack.size()).isEqualTo(3);
+    assertThat(stack.get(0)).isEqualTo(Bytes32.fromHexString("0x03"));
+    assertThat(stack.get(1)).isEqualTo(Bytes32.fromHexString("0x02"));
+    assertThat(stack.get(2)).isEqualTo(Bytes32.fromHexString("0x04"));
+  }
+
+  @Test
+  public void dupAndSwap() {
+    final WordOperandStack stack = new WordOperandStack(4);
+    stack.push(Bytes32.fromHexString("0x01"));
+    stack.push(Bytes32.fromHexString("0x02"));
+    stack.push(Bytes32.fromHexString("0x03"));
+    stack.dup(2);
+    stack.swap(2);
+    assertThat(stack.size()).isEqualTo(4);
+    assertThat(stack.get(0)).isEqualTo(Bytes32.fromHexString("0x02"));
+    assertThat(stack.get(1)).isEqualTo(Bytes32.fromHexString("0x03"));
+    assertThat(stack.get(2)).isEqualTo(Bytes32.fromHexString("0x01"));
+    assertThat(stack.get(3)).isEqualTo(Bytes32.fromHexString("0x01"));
+  }
+
+  @Test
+  public void arithmeticMatchesBigInteger() {
+    assertBinaryOperation(WordOperandStack::add, BigInteger::add);
+    assertBinaryOperation(WordOperandStack::sub, BigInteger::subtract);
+    assertBinaryOperation(WordOperandStack::mul, BigInteger::multiply);
+    assertBinaryOperation(
+        WordOperandStack::div, (a, b) -> b.signum() == 0 ? BigInteger.ZERO : a.divide(b));
+    assertBinaryOperation(
+        WordOperandStack::mod, (a, b) -> b.signum() == 0 ? BigInteger.ZERO : a.mod(b));
+    assertBinaryOperation(WordOperandStack::exp, (a, b) -> a.modPow(b, MODULUS));
+  }
+
+  @Test
+  public void comparisonAndBitwiseOperationsMatchBigInteger() {
+    assertBinaryOperation(WordOperandStack::lt, (a, b) -> bool(a.compareTo(b) < 0));
+    assertBinaryOperation(WordOperandStack::gt, (a, b) -> bool(a.compareTo(b) > 0));
+    assertBinaryOperation(WordOperandStack::eq, (a, b) -> bool(a.equals(b)));
+    assertBinaryOperation(WordOperandStack::and, BigInteger::and);
+    assertBinaryOperation(WordOperandStack::or, BigInteger::or);
+    assertBinaryOperation(WordOperandStack::xor, BigInteger::xor);
+    assertBinaryOperation(
+        WordOperandStack::shl,
+        (shift, value) ->
+            shift.compareTo(SHIFT_LIMIT) >= 0
+                ? BigInteger.ZERO
+                : value.shiftLeft(shift.intValue()));
+    assertBinaryOperation(
+        WordOperandStack::shr,
+        (shift, value) ->
+            shift.compareTo(SHIFT_LIMIT) >= 0
+                ? BigInteger.ZERO
+                : value.shiftRight(shift.intValue()));
+  }
+
+  @Test
+  public void unaryOperations() {
+    final WordOperandStack stack = new WordOperandStack(2);
+    stack.push(Bytes32.ZERO);
+    stack.isZero();
+    assertThat(stack.get(0)).isEqualTo(UInt256.ONE.toBytes());
+    stack.isZero();
+    assertThat(stack.get(0)).isEqualTo(Bytes32.ZERO);
+    stack.not();
+    assertThat(stack.pop()).isEqualTo(UInt256.MAX_VALUE.toBytes());
+  }
+
+  private void assertBinaryOperation(
+      final Consumer<WordOperandStack> operation, final BinaryOperator<BigInteger> expected) {
+    for (int i = 0; i < 2000; i++) {
+      final BigInteger a = i % 4 == 1 ? BigInteger.valueOf(random.nextInt(300)) : randomWord();
+      final BigInteger b = i % 4 == 0 ? BigInteger.valueOf(random.nextInt(300)) : randomWord();
+      final WordOperandStack stack = new WordOperandStack(3);
+      stack.push(Bytes32.fromHexString("0x1234"));
+      stack.push(toBytes(b));
+      stack.push(toBytes(a));
+
+      operation.accept(stack);
+
+      assertThat(stack.size()).isEqualTo(2);
+      assertThat(stack.pop()).isEqualTo(toBytes(expected.apply(a, b)));
+      assertThat(stack.pop()).isEqualTo(Bytes32.fromHexString("0x1234"));
+    }
+  }
+
+  private BigInteger randomWord() {
+    switch (random.nextInt(5)) {
+      case 0:
+        return BigInteger.valueOf(random.nextInt(3));
+      case 1:
+        return new BigInteger(64, random);
+      case 2:
+        return MODULUS.subtract(BigInteger.ONE).subtract(new BigInteger(32, random));
+      default:
+        return new BigInteger(random.nextInt(257), random);
+    }
+  }
+
+  private static BigInteger bool(final boolean value) {
+    return value ? BigInteger.ONE : BigInteger.ZERO;
+  }
+
+  private static Bytes32 toBytes(final BigInteger value) {
+    return UInt256.valueOf(value.mod(MODULUS)).toBytes();
+  }
+}
@@ -14,10 +14,9 @@
  */
 package org.hyperledger.besu.ethereum.vm.operations;
 
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.assertThat;
 
+import org.hyperledger.besu.ethereum.core.MessageFrameTestFixture;
 import org.hyperledger.besu.ethereum.mainnet.SpuriousDragonGasCalculator;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
@@ -126,11 +125,13 @@ public class ShrOperationTest {
 
   @Test
   public void shiftOperation() {
-    frame = mock(MessageFrame.class);
-    when(frame.popStackItem())
-        .thenReturn(Bytes32.fromHexStringLenient(shift))
-        .thenReturn(Bytes32.fromHexString(number));
+    frame =
+        new MessageFrameTestFixture()
+            .pushStackItem(Bytes32.fromHexString(number))
+            .pushStackItem(Bytes32.fromHexStringLenient(shift))
+            .build();
     operation.execute(frame);
-    verify(frame).pushStackItem(Bytes32.fromHexString(expectedResult));
+    assertThat(frame.stackSize()).isEqualTo(1);
+    assertThat(frame.popStackItem()).isEqualTo(Bytes32.fromHexString(expectedResult));
   }
 }
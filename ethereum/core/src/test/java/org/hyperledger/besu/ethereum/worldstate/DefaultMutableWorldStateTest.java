@@ -27,8 +27,11 @@ import org.hyperledger.besu.ethereum.core.Wei;
 import org.hyperledger.besu.ethereum.core.WorldState;
 import org.hyperledger.besu.ethereum.core.WorldState.StreamableAccount;
 import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.storage.keyvalue.LayeredWorldStateSnapshotStorage;
 import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStateKeyValueStorage;
 import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStatePreimageKeyValueStorage;
+import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStateSnapshotKeyValueStorage;
 import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
@@ -36,10 +39,12 @@ import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 import org.apache.tuweni.units.bigints.UInt256;
@@ -677,4 +682,269 @@ public class DefaultMutableWorldStateTest {
     worldState.persist();
     assertThat(worldState.get(ADDRESS).storageEntriesFrom(Hash.ZERO, 10)).isEqualTo(finalEntries);
   }
+
+  @Test
+  public void snapshot_servesPersistedAccountsAndStorage() {
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
+    final WorldStateSnapshotStorage snapshot = createSnapshot(storage, 0);
+    final MutableWorldState worldState = createEmptyWithSnapshot(storage, snapshot);
+    final WorldUpdater updater = worldState.updater();
+    final MutableAccount account = updater.createAccount(ADDRESS).getMutable();
+    account.setBalance(Wei.of(100000));
+    account.setStorageValue(UInt256.ONE, UInt256.valueOf(2));
+    updater.commit();
+    worldState.persist();
+
+    // Served from the diff layer of the persisted state, then from the flat copy.
+    assertThat(snapshotBalance(snapshot, worldState)).contains(Wei.of(100000));
+    assertThat(snapshotStorageValue(snapshot, worldState, UInt256.ONE))
+        .contains(encodeStorageValue(UInt256.valueOf(2)));
+    snapshot.setChainHead(worldState.rootHash());
+    assertThat(snapshotBalance(snapshot, worldState)).contains(Wei.of(100000));
+    assertThat(snapshotStorageValue(snapshot, worldState, UInt256.ONE))
+        .contains(encodeStorageValue(UInt256.valueOf(2)));
+    assertThat(worldState.get(ADDRESS).getBalance()).isEqualTo(Wei.of(100000));
+    assertThat(worldState.get(ADDRESS).getStorageValue(UInt256.ONE)).isEqualTo(UInt256.valueOf(2));
+  }
+
+  @Test
+  public void snapshot_removesStorageOfDeletedAccounts() {
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
+    final WorldStateSnapshotStorage snapshot = createSnapshot(storage, 0);
+    final MutableWorldState worldState = createEmptyWithSnapshot(storage, snapshot);
+    WorldUpdater updater = worldState.updater();
+    updater.createAccount(ADDRESS).getMutable().setStorageValue(UInt256.ONE, UInt256.valueOf(2));
+    updater.commit();
+    worldState.persist();
+    snapshot.setChainHead(worldState.rootHash());
+
+    updater = worldState.updater();
+    updater.deleteAccount(ADDRESS);
+    updater.commit();
+    worldState.persist();
+
+    assertThat(worldState.rootHash()).isEqualTo(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH);
+    assertThat(snapshot.getAccount(worldState.rootHash(), Hash.hash(ADDRESS)))
+        .contains(Bytes.EMPTY);
+    assertThat(snapshotStorageValue(snapshot, worldState, UInt256.ONE)).contains(Bytes.EMPTY);
+    snapshot.setChainHead(worldState.rootHash());
+    assertThat(snapshot.getAccount(worldState.rootHash(), Hash.hash(ADDRESS)))
+        .contains(Bytes.EMPTY);
+    assertThat(snapshotStorageValue(snapshot, worldState, UInt256.ONE)).contains(Bytes.EMPTY);
+    assertThat(worldState.get(ADDRESS)).isNull();
+  }
+
+  @Test
+  public void snapshot_hidesClearedStorageButServesStorageWrittenAfterwards() {
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
+    final WorldStateSnapshotStorage snapshot = createSnapshot(storage, 0);
+    final MutableWorldState worldState = createEmptyWithSnapshot(storage, snapshot);
+    WorldUpdater updater = worldState.updater();
+    final MutableAccount account = updater.createAccount(ADDRESS).getMutable();
+    account.setStorageValue(UInt256.ONE, UInt256.valueOf(2));
+    account.setStorageValue(UInt256.valueOf(2), UInt256.valueOf(3));
+    updater.commit();
+    worldState.persist();
+    snapshot.setChainHead(worldState.rootHash());
+
+    updater = worldState.updater();
+    updater.deleteAccount(ADDRESS);
+    updater.createAccount(ADDRESS).getMutable().setStorageValue(UInt256.ONE, UInt256.valueOf(4));
+    updater.commit();
+    worldState.persist();
+    snapshot.setChainHead(worldState.rootHash());
+
+    updater = worldState.updater();
+    updater.getAccount(ADDRESS).getMutable().setStorageValue(UInt256.valueOf(3), UInt256.ONE);
+    updater.commit();
+    worldState.persist();
+    snapshot.setChainHead(worldState.rootHash());
+
+    assertThat(snapshotStorageValue(snapshot, worldState, UInt256.ONE))
+        .contains(encodeStorageValue(UInt256.valueOf(4)));
+    assertThat(snapshotStorageValue(snapshot, worldState, UInt256.valueOf(2)))
+        .contains(Bytes.EMPTY);
+    assertThat(snapshotStorageValue(snapshot, worldState, UInt256.valueOf(3)))
+        .contains(encodeStorageValue(UInt256.ONE));
+    assertThat(worldState.get(ADDRESS).getStorageValue(UInt256.ONE)).isEqualTo(UInt256.valueOf(4));
+    assertThat(worldState.get(ADDRESS).getStorageValue(UInt256.valueOf(2))).isEqualTo(UInt256.ZERO);
+  }
+
+  @Test
+  public void snapshot_servesStorageRangesWithoutClearedSlots() {
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
+    final WorldStateSnapshotStorage snapshot = createSnapshot(storage, 0);
+    final MutableWorldState worldState = createEmptyWithSnapshot(storage, snapshot);
+    WorldUpdater updater = worldState.updater();
+    MutableAccount account = updater.createAccount(ADDRESS).getMutable();
+    account.setStorageValue(UInt256.ONE, UInt256.valueOf(2));
+    account.setStorageValue(UInt256.valueOf(2), UInt256.valueOf(3));
+    updater.commit();
+    worldState.persist();
+    snapshot.setChainHead(worldState.rootHash());
+
+    updater = worldState.updater();
+    account = updater.getAccount(ADDRESS).getMutable();
+    account.clearStorage();
+    account.setStorageValue(UInt256.valueOf(3), UInt256.valueOf(4));
+    account.setStorageValue(UInt256.valueOf(4), UInt256.valueOf(5));
+    updater.commit();
+    worldState.persist();
+
+    // Ranges aren't served while a diff layer touches the account's storage.
+    assertThat(
+            snapshot.getStorageEntriesFrom(
+                worldState.rootHash(), Hash.hash(ADDRESS), Hash.ZERO, 10))
+        .isEmpty();
+    snapshot.setChainHead(worldState.rootHash());
+
+    final Map<Bytes32, Bytes> snapshotEntries =
+        snapshot
+            .getStorageEntriesFrom(worldState.rootHash(), Hash.hash(ADDRESS), Hash.ZERO, 10)
+            .orElseThrow();
+    assertThat(snapshotEntries)
+        .containsOnlyKeys(
+            Hash.hash(UInt256.valueOf(3).toBytes()), Hash.hash(UInt256.valueOf(4).toBytes()));
+    assertThat(
+            snapshot
+                .getStorageEntriesFrom(worldState.rootHash(), Hash.hash(ADDRESS), Hash.ZERO, 1)
+                .orElseThrow())
+        .hasSize(1);
+
+    final Map<Bytes32, AccountStorageEntry> entries =
+        worldState.get(ADDRESS).storageEntriesFrom(Hash.ZERO, 10);
+    assertThat(entries.keySet()).isEqualTo(snapshotEntries.keySet());
+    assertThat(entries.get(Hash.hash(UInt256.valueOf(3).toBytes())).getValue())
+        .isEqualTo(UInt256.valueOf(4));
+  }
+
+  @Test
+  public void snapshot_followsTheCanonicalChainAfterAForkBlock() {
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
+    final WorldStateSnapshotKeyValueStorage diskLayer =
+        new WorldStateSnapshotKeyValueStorage(new InMemoryKeyValueStorage());
+    final WorldStateSnapshotStorage snapshot =
+        new LayeredWorldStateSnapshotStorage(
+            diskLayer, storage, 1, MoreExecutors.newDirectExecutorService());
+    snapshot.setChainHead(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH);
+    final MutableWorldState parent = createEmptyWithSnapshot(storage, snapshot);
+    WorldUpdater updater = parent.updater();
+    updater.createAccount(ADDRESS).getMutable().setBalance(Wei.of(50000));
+    updater.commit();
+    parent.persist();
+    snapshot.setChainHead(parent.rootHash());
+
+    // The canonical block and a fork block built on the same parent.
+    final MutableWorldState canonical = parent.copy();
+    updater = canonical.updater();
+    updater.getAccount(ADDRESS).getMutable().setBalance(Wei.of(100000));
+    updater.commit();
+    canonical.persist();
+    final MutableWorldState fork = parent.copy();
+    updater = fork.updater();
+    updater.getAccount(ADDRESS).getMutable().setBalance(Wei.of(200000));
+    updater.commit();
+    fork.persist();
+    snapshot.setChainHead(canonical.rootHash());
+
+    assertThat(diskLayer.getSnapshotRoot()).contains(parent.rootHash());
+    assertThat(snapshotBalance(snapshot, canonical)).contains(Wei.of(100000));
+    assertThat(snapshotBalance(snapshot, fork)).contains(Wei.of(200000));
+
+    // The canonical chain continues, folding its blocks into the flat copy.
+    final Hash canonicalParentRoot = canonical.rootHash();
+    updater = canonical.updater();
+    updater.getAccount(ADDRESS).getMutable().setBalance(Wei.of(300000));
+    updater.commit();
+    canonical.persist();
+    snapshot.setChainHead(canonical.rootHash());
+
+    assertThat(diskLayer.getSnapshotRoot()).contains(canonicalParentRoot);
+    assertThat(snapshotBalance(snapshot, canonical)).contains(Wei.of(300000));
+    // The fork can no longer become canonical, so its layer is gone and reads use the trie.
+    assertThat(snapshot.getAccount(fork.rootHash(), Hash.hash(ADDRESS))).isEmpty();
+    assertThat(fork.get(ADDRESS).getBalance()).isEqualTo(Wei.of(200000));
+
+    updater = canonical.updater();
+    updater.getAccount(ADDRESS).getMutable().setBalance(Wei.of(400000));
+    updater.commit();
+    canonical.persist();
+    snapshot.setChainHead(canonical.rootHash());
+
+    assertThat(snapshotBalance(snapshot, canonical)).contains(Wei.of(400000));
+    assertThat(canonical.get(ADDRESS).getBalance()).isEqualTo(Wei.of(400000));
+  }
+
+  @Test
+  public void snapshot_isGeneratedForAnExistingWorldState() {
+    final WorldStateKeyValueStorage storage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
+    final WorldStatePreimageKeyValueStorage preimageStorage =
+        new WorldStatePreimageKeyValueStorage(new InMemoryKeyValueStorage());
+    final MutableWorldState existing = new DefaultMutableWorldState(storage, preimageStorage);
+    final WorldUpdater updater = existing.updater();
+    final MutableAccount account = updater.createAccount(ADDRESS).getMutable();
+    account.setBalance(Wei.of(100000));
+    account.setStorageValue(UInt256.ONE, UInt256.valueOf(2));
+    updater.commit();
+    existing.persist();
+
+    final WorldStateSnapshotStorage snapshot = createSnapshot(storage, 0);
+    assertThat(snapshot.getAccount(existing.rootHash(), Hash.hash(ADDRESS))).isEmpty();
+    snapshot.setChainHead(existing.rootHash());
+
+    assertThat(snapshotBalance(snapshot, existing)).contains(Wei.of(100000));
+    assertThat(snapshotStorageValue(snapshot, existing, UInt256.ONE))
+        .contains(encodeStorageValue(UInt256.valueOf(2)));
+    assertThat(
+            snapshot
+                .getStorageEntriesFrom(existing.rootHash(), Hash.hash(ADDRESS), Hash.ZERO, 10)
+                .orElseThrow())
+        .containsOnlyKeys(Hash.hash(UInt256.ONE.toBytes()));
+  }
+
+  private static Optional<Wei> snapshotBalance(
+      final WorldStateSnapshotStorage snapshot, final MutableWorldState worldState) {
+    return snapshot
+        .getAccount(worldState.rootHash(), Hash.hash(ADDRESS))
+        .map(value -> StateTrieAccountValue.readFrom(RLP.input(value)).getBalance());
+  }
+
+  private static Optional<Bytes> snapshotStorageValue(
+      final WorldStateSnapshotStorage snapshot,
+      final MutableWorldState worldState,
+      final UInt256 key) {
+    return snapshot.getStorageValue(
+        worldState.rootHash(), Hash.hash(ADDRESS), Hash.hash(key.toBytes()));
+  }
+
+  private static Bytes encodeStorageValue(final UInt256 value) {
+    return RLP.encode(out -> out.writeBytes(value.toMinimalBytes()));
+  }
+
+  private static WorldStateSnapshotStorage createSnapshot(
+      final WorldStateStorage storage, final int retainedLayers) {
+    final WorldStateSnapshotStorage snapshot =
+        new LayeredWorldStateSnapshotStorage(
+            new WorldStateSnapshotKeyValueStorage(new InMemoryKeyValueStorage()),
+            storage,
+            retainedLayers,
+            MoreExecutors.newDirectExecutorService());
+    snapshot.setChainHead(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH);
+    return snapshot;
+  }
+
+  private static MutableWorldState createEmptyWithSnapshot(
+      final WorldStateStorage storage, final WorldStateSnapshotStorage snapshot) {
+    return new DefaultMutableWorldState(
+        MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH,
+        storage,
+        new WorldStatePreimageKeyValueStorage(new InMemoryKeyValueStorage()),
+        Optional.of(snapshot));
+  }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.Test;
+
+public class WriteBehindWorldStateStorageTest {
+
+  private static final Bytes NODE_1 = Bytes.fromHexString("0x0101");
+  private static final Bytes NODE_2 = Bytes.fromHexString("0x0202");
+  private static final Bytes NODE_3 = Bytes.fromHexString("0x0303");
+
+  private final WorldStateKeyValueStorage underlyingStorage =
+      new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
+
+  @Test
+  public void shouldServeBufferedNodesBeforeTheyAreWritten() {
+    final WriteBehindWorldStateStorage storage = createStorage(3, Long.MAX_VALUE);
+
+    storage.updater().putAccountStateTrieNode(Hash.hash(NODE_1), NODE_1).commit();
+    storage.updater().putAccountStorageTrieNode(Hash.hash(NODE_2), NODE_2).commit();
+
+    assertThat(storage.getBufferedCommits()).isEqualTo(2);
+    assertThat(storage.getAccountStateTrieNode(Hash.hash(NODE_1))).contains(NODE_1);
+    assertThat(storage.getNodeData(List.of(Hash.hash(NODE_1), Hash.hash(NODE_2))))
+        .containsExactly(Optional.of(NODE_1), Optional.of(NODE_2));
+    assertThat(storage.isWorldStateAvailable(Hash.hash(NODE_1))).isTrue();
+    assertThat(underlyingStorage.getNodeData(Hash.hash(NODE_1))).isEmpty();
+    assertThat(underlyingStorage.getNodeData(Hash.hash(NODE_2))).isEmpty();
+  }
+
+  @Test
+  public void shouldWriteBufferedNodesOnceBlockLimitIsReached() {
+    final WriteBehindWorldStateStorage storage = createStorage(2, Long.MAX_VALUE);
+
+    storage.updater().putAccountStateTrieNode(Hash.hash(NODE_1), NODE_1).commit();
+    storage.updater().putAccountStateTrieNode(Hash.hash(NODE_2), NODE_2).commit();
+    storage.updater().putAccountStateTrieNode(Hash.hash(NODE_3), NODE_3).commit();
+
+    assertThat(storage.getBufferedCommits()).isEqualTo(1);
+    assertThat(underlyingStorage.getNodeData(Hash.hash(NODE_1))).contains(NODE_1);
+    assertThat(underlyingStorage.getNodeData(Hash.hash(NODE_2))).contains(NODE_2);
+    assertThat(underlyingStorage.getNodeData(Hash.hash(NODE_3))).isEmpty();
+    assertThat(storage.getNodeData(Hash.hash(NODE_3))).contains(NODE_3);
+  }
+
+  @Test
+  public void shouldWriteBufferedNodesOnceSizeLimitIsReached() {
+    final WriteBehindWorldStateStorage storage = createStorage(100, Bytes32.SIZE + 1);
+
+    storage.updater().putAccountStateTrieNode(Hash.hash(NODE_1), NODE_1).commit();
+
+    assertThat(storage.getBufferedCommits()).isZero();
+    assertThat(underlyingStorage.getNodeData(Hash.hash(NODE_1))).contains(NODE_1);
+  }
+
+  @Test
+  public void shouldHideAndWriteBufferedRemovals() {
+    underlyingStorage.updater().putAccountStateTrieNode(Hash.hash(NODE_1), NODE_1).commit();
+    final WriteBehindWorldStateStorage storage = createStorage(100, Long.MAX_VALUE);
+
+    storage.updater().removeAccountStateTrieNode(Hash.hash(NODE_1)).commit();
+
+    assertThat(storage.getAccountStateTrieNode(Hash.hash(NODE_1))).isEmpty();
+    assertThat(underlyingStorage.getAccountStateTrieNode(Hash.hash(NODE_1))).contains(NODE_1);
+
+    storage.flush();
+
+    assertThat(underlyingStorage.getAccountStateTrieNode(Hash.hash(NODE_1))).isEmpty();
+  }
+
+  @Test
+  public void shouldWriteCodeWithTheSameHashAsTheEmptyTrieNode() {
+    final WriteBehindWorldStateStorage storage = createStorage(100, Long.MAX_VALUE);
+
+    storage.updater().putCode(MerklePatriciaTrie.EMPTY_TRIE_NODE).commit();
+    storage.flush();
+
+    assertThat(underlyingStorage.getCode(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH))
+        .contains(MerklePatriciaTrie.EMPTY_TRIE_NODE);
+  }
+
+  @Test
+  public void shouldDiscardRolledBackChanges() {
+    final WriteBehindWorldStateStorage storage = createStorage(100, Long.MAX_VALUE);
+
+    final WorldStateStorage.Updater updater = storage.updater();
+    updater.putAccountStateTrieNode(Hash.hash(NODE_1), NODE_1);
+    updater.rollback();
+    updater.commit();
+
+    assertThat(storage.getNodeData(Hash.hash(NODE_1))).isEmpty();
+  }
+
+  @Test
+  public void shouldNotifyListenersWhenChangesAreBuffered() {
+    final WriteBehindWorldStateStorage storage = createStorage(100, Long.MAX_VALUE);
+    final List<Bytes32> addedNodes = new ArrayList<>();
+    storage.addNodeAddedListener(addedNodes::addAll);
+
+    storage.updater().putAccountStateTrieNode(Hash.hash(NODE_1), NODE_1).commit();
+
+    assertThat(addedNodes).containsExactly(Hash.hash(NODE_1));
+  }
+
+  private WriteBehindWorldStateStorage createStorage(
+      final int maxBufferedBlocks, final long maxBufferedBytes) {
+    return new WriteBehindWorldStateStorage(underlyingStorage, maxBufferedBlocks, maxBufferedBytes);
+  }
+}
@@ -45,6 +45,8 @@ import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksD
 import org.hyperledger.besu.services.BesuConfigurationImpl;
 import org.hyperledger.besu.services.tasks.CachingTaskCollection;
 import org.hyperledger.besu.services.tasks.FlatFileTaskCollection;
+import org.hyperledger.besu.services.tasks.PriorityTaskCollection;
+import org.hyperledger.besu.services.tasks.TaskCollection;
 
 import java.nio.file.Path;
 import java.time.Clock;
@@ -60,6 +62,7 @@ import com.google.common.io.RecursiveDeleteOption;
 import org.apache.tuweni.bytes.Bytes;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -68,6 +71,13 @@ import org.openjdk.jmh.annotations.TearDown;
 @State(Scope.Thread)
 public class WorldStateDownloaderBenchmark {
 
+  @Param({"fifo", "priority"})
+  public String taskOrder;
+
+  // The number of requests held in memory before the rest are written to disk.
+  @Param({"0", "1000"})
+  public int taskCacheSize;
+
   private final BlockDataGenerator dataGen = new BlockDataGenerator();
   private Path tempDir;
   private BlockHeader blockHeader;
@@ -76,7 +86,7 @@ public class WorldStateDownloaderBenchmark {
   private WorldStateStorage worldStateStorage;
   private RespondingEthPeer peer;
   private Responder responder;
-  private CachingTaskCollection<NodeDataRequest> pendingRequests;
+  private TaskCollection<NodeDataRequest> pendingRequests;
   private StorageProvider storageProvider;
   private EthProtocolManager ethProtocolManager;
 
@@ -104,13 +114,13 @@ public class WorldStateDownloaderBenchmark {
         createKeyValueStorageProvider(tempDir, tempDir.resolve("database"));
     worldStateStorage = storageProvider.createWorldStateStorage();
 
+    final FlatFileTaskCollection<NodeDataRequest> spilledRequests =
+        new FlatFileTaskCollection<>(
+            tempDir.resolve("fastsync"), NodeDataRequest::serialize, NodeDataRequest::deserialize);
     pendingRequests =
-        new CachingTaskCollection<>(
-            new FlatFileTaskCollection<>(
-                tempDir.resolve("fastsync"),
-                NodeDataRequest::serialize,
-                NodeDataRequest::deserialize),
-            0);
+        taskOrder.equals("priority")
+            ? new PriorityTaskCollection<>(spilledRequests, taskCacheSize)
+            : new CachingTaskCollection<>(spilledRequests, taskCacheSize);
     worldStateDownloader =
         new WorldStateDownloader(
             ethContext,
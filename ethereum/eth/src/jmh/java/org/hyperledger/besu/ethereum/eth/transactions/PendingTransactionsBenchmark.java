@@ -0,0 +1,103 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.transactions;
+
+import org.hyperledger.besu.crypto.SECP256K1.KeyPair;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.TransactionTestFixture;
+import org.hyperledger.besu.ethereum.eth.transactions.PendingTransactions.TransactionSelectionResult;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures contention between threads adding and removing remote transactions from many senders
+ * while another thread repeatedly selects transactions for a block.
+ */
+@State(Scope.Group)
+public class PendingTransactionsBenchmark {
+
+  private static final int SENDERS = 512;
+  private static final int TRANSACTIONS_PER_SENDER = 16;
+  private static final int MAX_PENDING_TRANSACTIONS = SENDERS * TRANSACTIONS_PER_SENDER / 2;
+
+  private final AtomicInteger nextTransaction = new AtomicInteger();
+  private Transaction[] transactions;
+  private PendingTransactions pendingTransactions;
+
+  @Setup(Level.Trial)
+  public void createTransactions() {
+    final KeyPair keyPair = KeyPair.generate();
+    transactions = new Transaction[SENDERS * TRANSACTIONS_PER_SENDER];
+    for (int sender = 0; sender < SENDERS; sender++) {
+      final Address senderAddress = Address.fromHexString(String.format("%040x", sender + 1));
+      for (int nonce = 0; nonce < TRANSACTIONS_PER_SENDER; nonce++) {
+        // Interleave senders so that consecutive additions rarely share a sender.
+        transactions[nonce * SENDERS + sender] =
+            new TransactionTestFixture()
+                .sender(senderAddress)
+                .nonce(nonce)
+                .createTransaction(keyPair);
+      }
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void createPendingTransactions() {
+    pendingTransactions =
+        new PendingTransactions(
+            TransactionPoolConfiguration.DEFAULT_TX_RETENTION_HOURS,
+            MAX_PENDING_TRANSACTIONS,
+            Clock.systemUTC(),
+            new NoOpMetricsSystem());
+    nextTransaction.set(0);
+  }
+
+  @Benchmark
+  @Group("contention")
+  @GroupThreads(7)
+  public boolean addOrRemoveTransaction() {
+    final Transaction transaction =
+        transactions[Math.floorMod(nextTransaction.getAndIncrement(), transactions.length)];
+    if (pendingTransactions.addRemoteTransaction(transaction)) {
+      return true;
+    }
+    // The transaction is already pending, so remove it to keep the pool changing.
+    pendingTransactions.transactionAddedToBlock(transaction);
+    return false;
+  }
+
+  @Benchmark
+  @Group("contention")
+  @GroupThreads(1)
+  public void selectTransactions(final Blackhole blackhole) {
+    pendingTransactions.selectTransactions(
+        transaction -> {
+          blackhole.consume(transaction);
+          return TransactionSelectionResult.CONTINUE;
+        });
+  }
+}
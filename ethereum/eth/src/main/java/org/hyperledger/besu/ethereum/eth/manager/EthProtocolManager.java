@@ -107,7 +107,13 @@ public class EthProtocolManager implements ProtocolManager, MinedBlockObserver {
     }
 
     // Set up request handlers
-    new EthServer(blockchain, worldStateArchive, ethMessages, ethereumWireProtocolConfiguration);
+    new EthServer(
+        blockchain,
+        worldStateArchive,
+        ethMessages,
+        scheduler,
+        ethereumWireProtocolConfiguration,
+        metricsSystem);
   }
 
   public EthProtocolManager(
@@ -15,7 +15,6 @@
 package org.hyperledger.besu.ethereum.eth.manager;
 
 import org.hyperledger.besu.ethereum.chain.Blockchain;
-import org.hyperledger.besu.ethereum.core.BlockBody;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.TransactionReceipt;
@@ -33,114 +32,247 @@ import org.hyperledger.besu.ethereum.eth.messages.ReceiptsMessage;
 import org.hyperledger.besu.ethereum.p2p.rlpx.connections.PeerConnection.PeerNotConnected;
 import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
 import org.hyperledger.besu.ethereum.p2p.rlpx.wire.messages.DisconnectMessage.DisconnectReason;
+import org.hyperledger.besu.ethereum.rlp.RLP;
 import org.hyperledger.besu.ethereum.rlp.RLPException;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer.TimingContext;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
 
+/**
+ * Responds to requests for chain and world state data from peers.
+ *
+ * <p>Requests are served by the scheduler's server workers rather than on the thread that
+ * dispatched the message. Each peer's requests are served one at a time and in order, with a
+ * peer's next request only being queued behind the requests of other peers once its previous one
+ * is complete, so that a few busy peers can't occupy every worker. Requests beyond {@link
+ * #MAX_PENDING_REQUESTS_PER_PEER} waiting for the same peer are dropped.
+ *
+ * <p>The encoded bodies and receipts of recently requested blocks are cached so that blocks
+ * requested by many peers, typically those near the chain head, are only read and encoded once.
+ */
 class EthServer {
   private static final Logger LOG = LogManager.getLogger();
 
+  static final int MAX_PENDING_REQUESTS_PER_PEER = 32;
+  private static final int ENCODED_RESPONSE_CACHE_SIZE = 256;
+
   private final Blockchain blockchain;
   private final WorldStateArchive worldStateArchive;
   private final EthMessages ethMessages;
+  private final EthScheduler ethScheduler;
   private final EthProtocolConfiguration ethereumWireProtocolConfiguration;
+  private final Cache<Hash, Bytes> encodedBodies =
+      CacheBuilder.newBuilder().maximumSize(ENCODED_RESPONSE_CACHE_SIZE).build();
+  private final Cache<Hash, Bytes> encodedReceipts =
+      CacheBuilder.newBuilder().maximumSize(ENCODED_RESPONSE_CACHE_SIZE).build();
+  private final Map<EthPeer, Deque<Runnable>> pendingRequests = new HashMap<>();
+  private final LabelledMetric<Counter> servedBytesCounter;
+  private final LabelledMetric<Counter> droppedRequestsCounter;
+  private final LabelledMetric<OperationTimer> requestTimer;
 
   EthServer(
       final Blockchain blockchain,
       final WorldStateArchive worldStateArchive,
       final EthMessages ethMessages,
-      final EthProtocolConfiguration ethereumWireProtocolConfiguration) {
+      final EthScheduler ethScheduler,
+      final EthProtocolConfiguration ethereumWireProtocolConfiguration,
+      final MetricsSystem metricsSystem) {
     this.blockchain = blockchain;
     this.worldStateArchive = worldStateArchive;
     this.ethMessages = ethMessages;
+    this.ethScheduler = ethScheduler;
     this.ethereumWireProtocolConfiguration = ethereumWireProtocolConfiguration;
+    this.servedBytesCounter =
+        metricsSystem.createLabelledCounter(
+            BesuMetricCategory.NETWORK,
+            "eth_server_response_bytes_total",
+            "Total size of responses sent to peers by request type",
+            "message");
+    this.droppedRequestsCounter =
+        metricsSystem.createLabelledCounter(
+            BesuMetricCategory.NETWORK,
+            "eth_server_dropped_requests_total",
+            "Number of requests from peers dropped because too many were already pending",
+            "message");
+    this.requestTimer =
+        metricsSystem.createLabelledTimer(
+            BesuMetricCategory.NETWORK,
+            "eth_server_request_latency_seconds",
+            "Time from receiving a request from a peer to sending the response by request type",
+            "message");
     this.setupListeners();
   }
 
   private void setupListeners() {
-    ethMessages.subscribe(EthPV62.GET_BLOCK_HEADERS, this::handleGetBlockHeaders);
-    ethMessages.subscribe(EthPV62.GET_BLOCK_BODIES, this::handleGetBlockBodies);
-    ethMessages.subscribe(EthPV63.GET_RECEIPTS, this::handleGetReceipts);
-    ethMessages.subscribe(EthPV63.GET_NODE_DATA, this::handleGetNodeData);
+    ethMessages.subscribe(
+        EthPV62.GET_BLOCK_HEADERS,
+        message -> enqueueRequest(message, "GET_BLOCK_HEADERS", this::handleGetBlockHeaders));
+    ethMessages.subscribe(
+        EthPV62.GET_BLOCK_BODIES,
+        message -> enqueueRequest(message, "GET_BLOCK_BODIES", this::handleGetBlockBodies));
+    ethMessages.subscribe(
+        EthPV63.GET_RECEIPTS,
+        message -> enqueueRequest(message, "GET_RECEIPTS", this::handleGetReceipts));
+    ethMessages.subscribe(
+        EthPV63.GET_NODE_DATA,
+        message -> enqueueRequest(message, "GET_NODE_DATA", this::handleGetNodeData));
   }
 
-  private void handleGetBlockHeaders(final EthMessage message) {
-    LOG.trace("Responding to GET_BLOCK_HEADERS request");
-    try {
-      final MessageData response =
-          constructGetHeadersResponse(
-              blockchain,
-              message.getData(),
-              ethereumWireProtocolConfiguration.getMaxGetBlockHeaders());
-      message.getPeer().send(response);
-    } catch (final RLPException e) {
-      LOG.debug(
-          "Received malformed GET_BLOCK_HEADERS message, disconnecting: {}", message.getPeer(), e);
-      message.getPeer().disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
-    } catch (final PeerNotConnected peerNotConnected) {
-      // Peer disconnected before we could respond - nothing to do
+  private void enqueueRequest(
+      final EthMessage message,
+      final String messageName,
+      final Function<EthMessage, MessageData> handler) {
+    final EthPeer peer = message.getPeer();
+    final TimingContext timingContext = requestTimer.labels(messageName).startTimer();
+    final Runnable request = () -> respond(message, messageName, handler, timingContext);
+    final boolean isOnlyPendingRequest;
+    synchronized (pendingRequests) {
+      final Deque<Runnable> peerRequests =
+          pendingRequests.computeIfAbsent(peer, key -> new ArrayDeque<>());
+      if (peerRequests.size() >= MAX_PENDING_REQUESTS_PER_PEER) {
+        LOG.trace("Dropping {} request from {}, too many pending requests", messageName, peer);
+        droppedRequestsCounter.labels(messageName).inc();
+        return;
+      }
+      peerRequests.add(request);
+      isOnlyPendingRequest = peerRequests.size() == 1;
+    }
+    if (isOnlyPendingRequest) {
+      scheduleNextRequest(peer);
     }
   }
 
-  private void handleGetBlockBodies(final EthMessage message) {
-    LOG.trace("Responding to GET_BLOCK_BODIES request");
+  private void scheduleNextRequest(final EthPeer peer) {
     try {
-      final MessageData response =
-          constructGetBodiesResponse(
-              blockchain,
-              message.getData(),
-              ethereumWireProtocolConfiguration.getMaxGetBlockBodies());
-      message.getPeer().send(response);
-    } catch (final RLPException e) {
-      LOG.debug(
-          "Received malformed GET_BLOCK_BODIES message, disconnecting: {}", message.getPeer(), e);
-      message.getPeer().disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
-    } catch (final PeerNotConnected peerNotConnected) {
-      // Peer disconnected before we could respond - nothing to do
+      ethScheduler.scheduleServerTask(() -> serveNextRequest(peer));
+    } catch (final RejectedExecutionException e) {
+      LOG.debug("Unable to serve requests from {}, dropping pending requests", peer);
+      synchronized (pendingRequests) {
+        pendingRequests.remove(peer);
+      }
     }
   }
 
-  private void handleGetReceipts(final EthMessage message) {
-    LOG.trace("Responding to GET_RECEIPTS request");
+  private void serveNextRequest(final EthPeer peer) {
+    final Runnable request;
+    synchronized (pendingRequests) {
+      request = pendingRequests.get(peer).peek();
+    }
     try {
-      final MessageData response =
-          constructGetReceiptsResponse(
-              blockchain, message.getData(), ethereumWireProtocolConfiguration.getMaxGetReceipts());
-      message.getPeer().send(response);
-    } catch (final RLPException e) {
-      LOG.debug("Received malformed GET_RECEIPTS message, disconnecting: {}", message.getPeer(), e);
-      message.getPeer().disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
-    } catch (final PeerNotConnected peerNotConnected) {
-      // Peer disconnected before we could respond - nothing to do
+      request.run();
+    } finally {
+      final boolean hasMoreRequests;
+      synchronized (pendingRequests) {
+        final Deque<Runnable> peerRequests = pendingRequests.get(peer);
+        peerRequests.poll();
+        hasMoreRequests = !peerRequests.isEmpty();
+        if (!hasMoreRequests) {
+          pendingRequests.remove(peer);
+        }
+      }
+      if (hasMoreRequests) {
+        // Go to the back of the queue so other peers' requests are served in between.
+        scheduleNextRequest(peer);
+      }
     }
   }
 
-  private void handleGetNodeData(final EthMessage message) {
-    LOG.trace("Responding to GET_NODE_DATA request");
+  private void respond(
+      final EthMessage message,
+      final String messageName,
+      final Function<EthMessage, MessageData> handler,
+      final TimingContext timingContext) {
+    if (message.getPeer().isDisconnected()) {
+      return;
+    }
+    LOG.trace("Responding to {} request", messageName);
     try {
-      final MessageData response =
-          constructGetNodeDataResponse(
-              worldStateArchive,
-              message.getData(),
-              ethereumWireProtocolConfiguration.getMaxGetNodeData());
+      final MessageData response = handler.apply(message);
       message.getPeer().send(response);
+      servedBytesCounter.labels(messageName).inc(response.getSize());
+      timingContext.stopTimer();
     } catch (final RLPException e) {
       LOG.debug(
-          "Received malformed GET_NODE_DATA message, disconnecting: {}", message.getPeer(), e);
+          "Received malformed {} message, disconnecting: {}", messageName, message.getPeer(), e);
       message.getPeer().disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
     } catch (final PeerNotConnected peerNotConnected) {
       // Peer disconnected before we could respond - nothing to do
+    } catch (final RuntimeException e) {
+      // Keep serving this peer's remaining requests.
+      LOG.error("Failed to respond to {} request from {}", messageName, message.getPeer(), e);
+    }
+  }
+
+  private MessageData handleGetBlockHeaders(final EthMessage message) {
+    return constructGetHeadersResponse(
+        blockchain, message.getData(), ethereumWireProtocolConfiguration.getMaxGetBlockHeaders());
+  }
+
+  private MessageData handleGetBlockBodies(final EthMessage message) {
+    return constructGetBodiesResponse(
+        hash -> getCached(encodedBodies, hash, () -> getEncodedBody(blockchain, hash)),
+        message.getData(),
+        ethereumWireProtocolConfiguration.getMaxGetBlockBodies());
+  }
+
+  private MessageData handleGetReceipts(final EthMessage message) {
+    return constructGetReceiptsResponse(
+        hash -> getCached(encodedReceipts, hash, () -> getEncodedReceipts(blockchain, hash)),
+        message.getData(),
+        ethereumWireProtocolConfiguration.getMaxGetReceipts());
+  }
+
+  private MessageData handleGetNodeData(final EthMessage message) {
+    return constructGetNodeDataResponse(
+        worldStateArchive,
+        message.getData(),
+        ethereumWireProtocolConfiguration.getMaxGetNodeData());
+  }
+
+  private static Optional<Bytes> getCached(
+      final Cache<Hash, Bytes> cache, final Hash hash, final Supplier<Optional<Bytes>> loader) {
+    final Bytes cached = cache.getIfPresent(hash);
+    if (cached != null) {
+      return Optional.of(cached);
     }
+    // Only blocks we have are cached, as a block we don't have yet may be imported later.
+    final Optional<Bytes> loaded = loader.get();
+    loaded.ifPresent(encoded -> cache.put(hash, encoded));
+    return loaded;
+  }
+
+  private static Optional<Bytes> getEncodedBody(final Blockchain blockchain, final Hash hash) {
+    return blockchain.getBlockBody(hash).map(body -> RLP.encode(body::writeTo));
+  }
+
+  private static Optional<Bytes> getEncodedReceipts(final Blockchain blockchain, final Hash hash) {
+    return blockchain
+        .getTxReceipts(hash)
+        .map(receipts -> RLP.encode(out -> out.writeList(receipts, TransactionReceipt::writeTo)));
   }
 
   static MessageData constructGetHeadersResponse(
@@ -182,44 +314,52 @@ class EthServer {
 
   static MessageData constructGetBodiesResponse(
       final Blockchain blockchain, final MessageData message, final int requestLimit) {
+    return constructGetBodiesResponse(
+        hash -> getEncodedBody(blockchain, hash), message, requestLimit);
+  }
+
+  private static MessageData constructGetBodiesResponse(
+      final Function<Hash, Optional<Bytes>> encodedBodies,
+      final MessageData message,
+      final int requestLimit) {
     final GetBlockBodiesMessage getBlockBodiesMessage = GetBlockBodiesMessage.readFrom(message);
     final Iterable<Hash> hashes = getBlockBodiesMessage.hashes();
 
-    final Collection<BlockBody> bodies = new ArrayList<>();
+    final List<Bytes> bodies = new ArrayList<>();
     int count = 0;
     for (final Hash hash : hashes) {
       if (count >= requestLimit) {
         break;
       }
       count++;
-      final Optional<BlockBody> maybeBody = blockchain.getBlockBody(hash);
-      if (!maybeBody.isPresent()) {
-        continue;
-      }
-      bodies.add(maybeBody.get());
+      encodedBodies.apply(hash).ifPresent(bodies::add);
     }
-    return BlockBodiesMessage.create(bodies);
+    return BlockBodiesMessage.createUnsafe(bodies);
   }
 
   static MessageData constructGetReceiptsResponse(
       final Blockchain blockchain, final MessageData message, final int requestLimit) {
+    return constructGetReceiptsResponse(
+        hash -> getEncodedReceipts(blockchain, hash), message, requestLimit);
+  }
+
+  private static MessageData constructGetReceiptsResponse(
+      final Function<Hash, Optional<Bytes>> encodedReceipts,
+      final MessageData message,
+      final int requestLimit) {
     final GetReceiptsMessage getReceipts = GetReceiptsMessage.readFrom(message);
     final Iterable<Hash> hashes = getReceipts.hashes();
 
-    final List<List<TransactionReceipt>> receipts = new ArrayList<>();
+    final List<Bytes> receipts = new ArrayList<>();
     int count = 0;
     for (final Hash hash : hashes) {
       if (count >= requestLimit) {
         break;
       }
       count++;
-      final Optional<List<TransactionReceipt>> maybeReceipts = blockchain.getTxReceipts(hash);
-      if (!maybeReceipts.isPresent()) {
-        continue;
-      }
-      receipts.add(maybeReceipts.get());
+      encodedReceipts.apply(hash).ifPresent(receipts::add);
     }
-    return ReceiptsMessage.create(receipts);
+    return ReceiptsMessage.createUnsafe(receipts);
   }
 
   static MessageData constructGetNodeDataResponse(
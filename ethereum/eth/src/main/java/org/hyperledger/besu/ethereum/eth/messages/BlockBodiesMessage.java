@@ -49,6 +49,21 @@ public final class BlockBodiesMessage extends AbstractMessageData {
     return new BlockBodiesMessage(tmp.encoded());
   }
 
+  /**
+   * Create a message from block bodies that are already RLP encoded, without checking that they
+   * are valid RLP.
+   *
+   * @param encodedBodies the RLP encoded block bodies
+   * @return the message
+   */
+  public static BlockBodiesMessage createUnsafe(final Iterable<Bytes> encodedBodies) {
+    final BytesValueRLPOutput tmp = new BytesValueRLPOutput();
+    tmp.startList();
+    encodedBodies.forEach(tmp::writeRLPUnsafe);
+    tmp.endList();
+    return new BlockBodiesMessage(tmp.encoded());
+  }
+
   private BlockBodiesMessage(final Bytes data) {
     super(data);
   }
@@ -53,6 +53,21 @@ public final class ReceiptsMessage extends AbstractMessageData {
     return new ReceiptsMessage(tmp.encoded());
   }
 
+  /**
+   * Create a message from the receipts of each block, already RLP encoded as a list per block,
+   * without checking that they are valid RLP.
+   *
+   * @param encodedReceipts the RLP encoded list of receipts for each block
+   * @return the message
+   */
+  public static ReceiptsMessage createUnsafe(final Iterable<Bytes> encodedReceipts) {
+    final BytesValueRLPOutput tmp = new BytesValueRLPOutput();
+    tmp.startList();
+    encodedReceipts.forEach(tmp::writeRLPUnsafe);
+    tmp.endList();
+    return new ReceiptsMessage(tmp.encoded());
+  }
+
   private ReceiptsMessage(final Bytes data) {
     super(data);
   }
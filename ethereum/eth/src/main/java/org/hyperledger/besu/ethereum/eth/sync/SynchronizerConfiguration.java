@@ -46,6 +46,7 @@ public class SynchronizerConfiguration {
   public static final int DEFAULT_COMPUTATION_PARALLELISM = 2;
   public static final int DEFAULT_WORLD_STATE_TASK_CACHE_SIZE =
       CachingTaskCollection.DEFAULT_CACHE_SIZE;
+  public static final boolean DEFAULT_WORLD_STATE_DEPTH_FIRST_ENABLED = false;
 
   // Fast sync config
   private final int fastSyncPivotDistance;
@@ -55,6 +56,7 @@ public class SynchronizerConfiguration {
   private final int worldStateRequestParallelism;
   private final int worldStateMaxRequestsWithoutProgress;
   private final int worldStateTaskCacheSize;
+  private final boolean worldStateDepthFirstEnabled;
 
   // Block propagation config
   private final Range<Long> blockPropagationRange;
@@ -83,6 +85,7 @@ public class SynchronizerConfiguration {
       final int worldStateMaxRequestsWithoutProgress,
       final long worldStateMinMillisBeforeStalling,
       final int worldStateTaskCacheSize,
+      final boolean worldStateDepthFirstEnabled,
       final Range<Long> blockPropagationRange,
       final SyncMode syncMode,
       final long downloaderChangeTargetThresholdByHeight,
@@ -102,6 +105,7 @@ public class SynchronizerConfiguration {
     this.worldStateMaxRequestsWithoutProgress = worldStateMaxRequestsWithoutProgress;
     this.worldStateMinMillisBeforeStalling = worldStateMinMillisBeforeStalling;
     this.worldStateTaskCacheSize = worldStateTaskCacheSize;
+    this.worldStateDepthFirstEnabled = worldStateDepthFirstEnabled;
     this.blockPropagationRange = blockPropagationRange;
     this.syncMode = syncMode;
     this.downloaderChangeTargetThresholdByHeight = downloaderChangeTargetThresholdByHeight;
@@ -215,6 +219,16 @@ public class SynchronizerConfiguration {
     return worldStateTaskCacheSize;
   }
 
+  /**
+   * Whether world state node data requests are downloaded deepest first rather than in the order
+   * they were discovered.
+   *
+   * @return true if the deepest requests are downloaded first
+   */
+  public boolean isWorldStateDepthFirstEnabled() {
+    return worldStateDepthFirstEnabled;
+  }
+
   public int getMaxTrailingPeers() {
     return maxTrailingPeers;
   }
@@ -243,6 +257,7 @@ public class SynchronizerConfiguration {
         DEFAULT_WORLD_STATE_MAX_REQUESTS_WITHOUT_PROGRESS;
     private long worldStateMinMillisBeforeStalling = DEFAULT_WORLD_STATE_MIN_MILLIS_BEFORE_STALLING;
     private int worldStateTaskCacheSize = DEFAULT_WORLD_STATE_TASK_CACHE_SIZE;
+    private boolean worldStateDepthFirstEnabled = DEFAULT_WORLD_STATE_DEPTH_FIRST_ENABLED;
 
     public Builder fastSyncPivotDistance(final int distance) {
       fastSyncPivotDistance = distance;
@@ -342,6 +357,12 @@ public class SynchronizerConfiguration {
 
     public Builder worldStateTaskCacheSize(final int worldStateTaskCacheSize) {
       this.worldStateTaskCacheSize = worldStateTaskCacheSize;
+    this.worldStateDepthFirstEnabled = worldStateDepthFirstEnabled;
+      return this;
+    }
+
+    public Builder worldStateDepthFirstEnabled(final boolean worldStateDepthFirstEnabled) {
+      this.worldStateDepthFirstEnabled = worldStateDepthFirstEnabled;
       return this;
     }
 
@@ -360,6 +381,7 @@ public class SynchronizerConfiguration {
           worldStateMaxRequestsWithoutProgress,
           worldStateMinMillisBeforeStalling,
           worldStateTaskCacheSize,
+          worldStateDepthFirstEnabled,
           blockPropagationRange,
           syncMode,
           downloaderChangeTargetThresholdByHeight,
@@ -29,11 +29,14 @@ import org.hyperledger.besu.metrics.BesuMetricCategory;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.services.tasks.CachingTaskCollection;
 import org.hyperledger.besu.services.tasks.FlatFileTaskCollection;
+import org.hyperledger.besu.services.tasks.PriorityTaskCollection;
+import org.hyperledger.besu.services.tasks.TaskCollection;
 
 import java.io.File;
 import java.nio.file.Path;
 import java.time.Clock;
 import java.util.Optional;
+import java.util.function.IntSupplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -68,11 +71,12 @@ public class FastDownloaderFactory {
       return Optional.empty();
     }
 
-    final CachingTaskCollection<NodeDataRequest> taskCollection =
+    final TaskCollection<NodeDataRequest> taskCollection =
         createWorldStateDownloaderTaskCollection(
             getStateQueueDirectory(dataDirectory),
             metricsSystem,
-            syncConfig.getWorldStateTaskCacheSize());
+            syncConfig.getWorldStateTaskCacheSize(),
+            syncConfig.isWorldStateDepthFirstEnabled());
     final WorldStateDownloader worldStateDownloader =
         new WorldStateDownloader(
             ethContext,
@@ -119,15 +123,27 @@ public class FastDownloaderFactory {
     }
   }
 
-  private static CachingTaskCollection<NodeDataRequest> createWorldStateDownloaderTaskCollection(
+  private static TaskCollection<NodeDataRequest> createWorldStateDownloaderTaskCollection(
       final Path dataDirectory,
       final MetricsSystem metricsSystem,
-      final int worldStateTaskCacheSize) {
-    final CachingTaskCollection<NodeDataRequest> taskCollection =
-        new CachingTaskCollection<>(
-            new FlatFileTaskCollection<>(
-                dataDirectory, NodeDataRequest::serialize, NodeDataRequest::deserialize),
-            worldStateTaskCacheSize);
+      final int worldStateTaskCacheSize,
+      final boolean worldStateDepthFirstEnabled) {
+    final FlatFileTaskCollection<NodeDataRequest> spilledRequests =
+        new FlatFileTaskCollection<>(
+            dataDirectory, NodeDataRequest::serialize, NodeDataRequest::deserialize);
+    final TaskCollection<NodeDataRequest> taskCollection;
+    final IntSupplier cacheSize;
+    if (worldStateDepthFirstEnabled) {
+      final PriorityTaskCollection<NodeDataRequest> priorityTaskCollection =
+          new PriorityTaskCollection<>(spilledRequests, worldStateTaskCacheSize);
+      taskCollection = priorityTaskCollection;
+      cacheSize = priorityTaskCollection::cacheSize;
+    } else {
+      final CachingTaskCollection<NodeDataRequest> cachingTaskCollection =
+          new CachingTaskCollection<>(spilledRequests, worldStateTaskCacheSize);
+      taskCollection = cachingTaskCollection;
+      cacheSize = cachingTaskCollection::cacheSize;
+    }
 
     metricsSystem.createLongGauge(
         BesuMetricCategory.SYNCHRONIZER,
@@ -139,7 +155,7 @@ public class FastDownloaderFactory {
         BesuMetricCategory.SYNCHRONIZER,
         "world_state_pending_requests_cache_size",
         "Pending request cache size for fast sync world state download",
-        taskCollection::cacheSize);
+        cacheSize);
 
     return taskCollection;
   }
@@ -21,19 +21,27 @@ import org.hyperledger.besu.plugin.services.metrics.Counter;
 import org.hyperledger.besu.services.pipeline.Pipe;
 import org.hyperledger.besu.services.tasks.Task;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
 
 public class LoadLocalDataStep {
 
   private final WorldStateStorage worldStateStorage;
+  private final RecentlyPersistedNodes recentlyPersistedNodes;
   private final Counter existingNodeCounter;
 
   public LoadLocalDataStep(
-      final WorldStateStorage worldStateStorage, final MetricsSystem metricsSystem) {
+      final WorldStateStorage worldStateStorage,
+      final RecentlyPersistedNodes recentlyPersistedNodes,
+      final MetricsSystem metricsSystem) {
     this.worldStateStorage = worldStateStorage;
+    this.recentlyPersistedNodes = recentlyPersistedNodes;
     existingNodeCounter =
         metricsSystem.createCounter(
             BesuMetricCategory.SYNCHRONIZER,
@@ -44,14 +52,54 @@ public class LoadLocalDataStep {
   public Stream<Task<NodeDataRequest>> loadLocalData(
       final Task<NodeDataRequest> task, final Pipe<Task<NodeDataRequest>> completedTasks) {
     final NodeDataRequest request = task.getData();
-    final Optional<Bytes> existingData = request.getExistingData(worldStateStorage);
-    if (existingData.isPresent()) {
-      existingNodeCounter.inc();
-      request.setData(existingData.get());
-      request.setRequiresPersisting(false);
-      completedTasks.put(task);
+    final Optional<Bytes> existingData =
+        recentlyPersistedNodes
+            .get(request.getHash())
+            .or(() -> request.getExistingData(worldStateStorage));
+    if (completeIfPresent(task, existingData, completedTasks)) {
       return Stream.empty();
     }
     return Stream.of(task);
   }
+
+  public Stream<Task<NodeDataRequest>> loadLocalData(
+      final List<Task<NodeDataRequest>> tasks, final Pipe<Task<NodeDataRequest>> completedTasks) {
+    final List<Task<NodeDataRequest>> uncachedTasks = new ArrayList<>();
+    for (final Task<NodeDataRequest> task : tasks) {
+      final Optional<Bytes> cachedData = recentlyPersistedNodes.get(task.getData().getHash());
+      if (!completeIfPresent(task, cachedData, completedTasks)) {
+        uncachedTasks.add(task);
+      }
+    }
+    if (uncachedTasks.isEmpty()) {
+      return Stream.empty();
+    }
+
+    final List<Bytes32> hashes =
+        uncachedTasks.stream().map(task -> task.getData().getHash()).collect(Collectors.toList());
+    final List<Optional<Bytes>> existingData = worldStateStorage.getNodeData(hashes);
+    final List<Task<NodeDataRequest>> remainingTasks = new ArrayList<>();
+    for (int i = 0; i < uncachedTasks.size(); i++) {
+      final Task<NodeDataRequest> task = uncachedTasks.get(i);
+      if (!completeIfPresent(task, existingData.get(i), completedTasks)) {
+        remainingTasks.add(task);
+      }
+    }
+    return remainingTasks.stream();
+  }
+
+  private boolean completeIfPresent(
+      final Task<NodeDataRequest> task,
+      final Optional<Bytes> existingData,
+      final Pipe<Task<NodeDataRequest>> completedTasks) {
+    if (existingData.isEmpty()) {
+      return false;
+    }
+    existingNodeCounter.inc();
+    final NodeDataRequest request = task.getData();
+    request.setData(existingData.get());
+    request.setRequiresPersisting(false);
+    completedTasks.put(task);
+    return true;
+  }
 }
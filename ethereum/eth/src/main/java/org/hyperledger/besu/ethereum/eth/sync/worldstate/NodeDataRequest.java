@@ -21,17 +21,19 @@ import org.hyperledger.besu.ethereum.rlp.RLP;
 import org.hyperledger.besu.ethereum.rlp.RLPInput;
 import org.hyperledger.besu.ethereum.rlp.RLPOutput;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
+import org.hyperledger.besu.services.tasks.TasksPriorityProvider;
 
 import java.util.Optional;
 import java.util.stream.Stream;
 
 import org.apache.tuweni.bytes.Bytes;
 
-public abstract class NodeDataRequest {
+public abstract class NodeDataRequest implements TasksPriorityProvider {
   private final RequestType requestType;
   private final Hash hash;
   private Bytes data;
   private boolean requiresPersisting = true;
+  private int depth = 0;
 
   protected NodeDataRequest(final RequestType requestType, final Hash hash) {
     this.requestType = requestType;
@@ -59,6 +61,7 @@ public abstract class NodeDataRequest {
     in.enterList();
     final RequestType requestType = RequestType.fromValue(in.readByte());
     final Hash hash = Hash.wrap(in.readBytes32());
+    final int depth = in.isEndOfCurrentList() ? 0 : in.readIntScalar();
     in.leaveList();
 
     final NodeDataRequest deserialized;
@@ -78,13 +81,14 @@ public abstract class NodeDataRequest {
                 + NodeDataRequest.class.getSimpleName());
     }
 
-    return deserialized;
+    return deserialized.setDepth(depth);
   }
 
   private void writeTo(final RLPOutput out) {
     out.startList();
     out.writeByte(requestType.getValue());
     out.writeBytes(hash);
+    out.writeIntScalar(depth);
     out.endList();
   }
 
@@ -105,6 +109,26 @@ public abstract class NodeDataRequest {
     return this;
   }
 
+  /** @return The number of nodes between this one and the root of the world state trie. */
+  @Override
+  public int getDepth() {
+    return depth;
+  }
+
+  public NodeDataRequest setDepth(final int depth) {
+    this.depth = depth;
+    return this;
+  }
+
+  /**
+   * Storage and code requests come before account trie nodes of the same depth, so that accounts
+   * that have been started are finished before moving on to the next ones.
+   */
+  @Override
+  public long getPriority() {
+    return requestType == RequestType.ACCOUNT_TRIE_NODE ? 0 : 1;
+  }
+
   public NodeDataRequest setRequiresPersisting(final boolean requiresPersisting) {
     this.requiresPersisting = requiresPersisting;
     return this;
@@ -23,9 +23,13 @@ import java.util.List;
 
 public class PersistDataStep {
   private final WorldStateStorage worldStateStorage;
+  private final RecentlyPersistedNodes recentlyPersistedNodes;
 
-  public PersistDataStep(final WorldStateStorage worldStateStorage) {
+  public PersistDataStep(
+      final WorldStateStorage worldStateStorage,
+      final RecentlyPersistedNodes recentlyPersistedNodes) {
     this.worldStateStorage = worldStateStorage;
+    this.recentlyPersistedNodes = recentlyPersistedNodes;
   }
 
   public List<Task<NodeDataRequest>> persist(
@@ -45,6 +49,11 @@ public class PersistDataStep {
               }
             });
     updater.commit();
+    // Only once committed, as requests completed from these skip persisting their data.
+    tasks.stream()
+        .map(Task::getData)
+        .filter(request -> request.getData() != null && !isRootState(blockHeader, request))
+        .forEach(request -> recentlyPersistedNodes.add(request.getHash(), request.getData()));
     return tasks;
   }
 
@@ -0,0 +1,59 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.sync.worldstate;
+
+import java.util.Optional;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * Keeps the data of the nodes most recently persisted by the world state download, so requests for
+ * them can be completed without reading the database.
+ *
+ * <p>The same nodes are often requested again shortly after being downloaded, for instance the code
+ * and storage shared by many copies of a contract. Lookups for nodes that aren't stored at all are
+ * left to the database, whose bloom filters answer them without reading from disk: a filter of the
+ * nodes persisted here could not tell whether a node it hasn't seen was stored before the download
+ * started.
+ */
+public class RecentlyPersistedNodes {
+
+  public static final long DEFAULT_MAX_SIZE_IN_BYTES = 64 * 1024 * 1024;
+
+  private final Cache<Bytes32, Bytes> nodes;
+
+  public RecentlyPersistedNodes(final long maxSizeInBytes) {
+    this.nodes =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maxSizeInBytes)
+            .<Bytes32, Bytes>weigher((hash, data) -> Bytes32.SIZE + data.size())
+            .build();
+  }
+
+  public RecentlyPersistedNodes() {
+    this(DEFAULT_MAX_SIZE_IN_BYTES);
+  }
+
+  public void add(final Bytes32 hash, final Bytes data) {
+    nodes.put(hash, data);
+  }
+
+  public Optional<Bytes> get(final Bytes32 hash) {
+    return Optional.ofNullable(nodes.getIfPresent(hash));
+  }
+}
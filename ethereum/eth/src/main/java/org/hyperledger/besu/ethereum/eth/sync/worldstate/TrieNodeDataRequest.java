@@ -38,6 +38,7 @@ abstract class TrieNodeDataRequest extends NodeDataRequest {
     }
 
     final List<Node<Bytes>> nodes = TrieNodeDecoder.decodeNodes(getData());
+    final int childDepth = getDepth() + 1;
     return nodes.stream()
         .flatMap(
             node -> {
@@ -48,7 +49,8 @@ abstract class TrieNodeDataRequest extends NodeDataRequest {
                     .map(this::getRequestsFromTrieNodeValue)
                     .orElseGet(Stream::empty);
               }
-            });
+            })
+        .map(child -> child.setDepth(childDepth));
   }
 
   private boolean nodeIsHashReferencedDescendant(final Node<Bytes> node) {
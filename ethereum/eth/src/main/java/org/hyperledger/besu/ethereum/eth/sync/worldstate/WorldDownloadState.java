@@ -19,8 +19,8 @@ import org.hyperledger.besu.ethereum.eth.manager.EthScheduler;
 import org.hyperledger.besu.ethereum.eth.manager.task.EthTask;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage.Updater;
-import org.hyperledger.besu.services.tasks.CachingTaskCollection;
 import org.hyperledger.besu.services.tasks.Task;
+import org.hyperledger.besu.services.tasks.TaskCollection;
 import org.hyperledger.besu.util.ExceptionUtils;
 
 import java.time.Clock;
@@ -29,6 +29,10 @@ import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
@@ -39,7 +43,7 @@ class WorldDownloadState {
   private static final Logger LOG = LogManager.getLogger();
 
   private final boolean downloadWasResumed;
-  private final CachingTaskCollection<NodeDataRequest> pendingRequests;
+  private final TaskCollection<NodeDataRequest> pendingRequests;
   private final int maxRequestsWithoutProgress;
   private final Clock clock;
   private final Set<EthTask<?>> outstandingRequests =
@@ -52,9 +56,14 @@ class WorldDownloadState {
   private volatile long timestampOfLastProgress;
   private Bytes rootNodeData;
   private WorldStateDownloadProcess worldStateDownloadProcess;
+  // Requests are enqueued and dequeued without holding this object's lock. Enqueuing holds the
+  // read lock so no request is added once cleanup has cleared the pending requests, and this
+  // object is only notified when threads are waiting for a request.
+  private final ReadWriteLock pendingRequestsLock = new ReentrantReadWriteLock();
+  private final AtomicInteger waitingThreads = new AtomicInteger();
 
   public WorldDownloadState(
-      final CachingTaskCollection<NodeDataRequest> pendingRequests,
+      final TaskCollection<NodeDataRequest> pendingRequests,
       final int maxRequestsWithoutProgress,
       final long minMillisBeforeStalling,
       final Clock clock) {
@@ -89,7 +98,13 @@ class WorldDownloadState {
     for (final EthTask<?> outstandingRequest : outstandingRequests) {
       outstandingRequest.cancel();
     }
-    pendingRequests.clear();
+    final Lock lock = pendingRequestsLock.writeLock();
+    lock.lock();
+    try {
+      pendingRequests.clear();
+    } finally {
+      lock.unlock();
+    }
 
     if (error != null) {
       if (worldStateDownloadProcess != null) {
@@ -121,31 +136,50 @@ class WorldDownloadState {
     return downloadFuture;
   }
 
-  public synchronized void enqueueRequest(final NodeDataRequest request) {
-    if (!internalFuture.isDone()) {
-      pendingRequests.add(request);
-      notifyAll();
-    }
+  public void enqueueRequest(final NodeDataRequest request) {
+    enqueueRequests(Stream.of(request));
   }
 
-  public synchronized void enqueueRequests(final Stream<NodeDataRequest> requests) {
-    if (!internalFuture.isDone()) {
+  public void enqueueRequests(final Stream<NodeDataRequest> requests) {
+    final Lock lock = pendingRequestsLock.readLock();
+    lock.lock();
+    try {
+      if (internalFuture.isDone()) {
+        return;
+      }
       requests.forEach(pendingRequests::add);
-      notifyAll();
+    } finally {
+      lock.unlock();
+    }
+    if (waitingThreads.get() > 0) {
+      notifyTaskAvailable();
     }
   }
 
-  public synchronized Task<NodeDataRequest> dequeueRequestBlocking() {
+  public Task<NodeDataRequest> dequeueRequestBlocking() {
     while (!internalFuture.isDone()) {
       final Task<NodeDataRequest> task = pendingRequests.remove();
       if (task != null) {
         return task;
       }
-      try {
-        wait();
-      } catch (final InterruptedException e) {
-        Thread.currentThread().interrupt();
-        return null;
+      synchronized (this) {
+        waitingThreads.incrementAndGet();
+        try {
+          // Check again now this thread is counted as waiting, so a request enqueued in between
+          // either is found here or notifies this thread.
+          final Task<NodeDataRequest> enqueuedTask = pendingRequests.remove();
+          if (enqueuedTask != null) {
+            return enqueuedTask;
+          }
+          if (!internalFuture.isDone()) {
+            wait();
+          }
+        } catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return null;
+        } finally {
+          waitingThreads.decrementAndGet();
+        }
       }
     }
     return null;
@@ -220,9 +220,10 @@ public class WorldStateDownloadProcess {
                   new TaskQueueIterator(downloadState),
                   bufferCapacity,
                   outputCounter)
+              .inBatches(hashCountPerRequest)
               .thenFlatMapInParallel(
                   "requestLoadLocalData",
-                  task -> loadLocalDataStep.loadLocalData(task, requestsToComplete),
+                  tasks -> loadLocalDataStep.loadLocalData(tasks, requestsToComplete),
                   3,
                   bufferCapacity)
               .inBatches(hashCountPerRequest)
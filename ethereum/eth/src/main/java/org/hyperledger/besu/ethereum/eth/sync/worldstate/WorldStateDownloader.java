@@ -20,7 +20,7 @@ import org.hyperledger.besu.ethereum.eth.manager.EthContext;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
 import org.hyperledger.besu.metrics.BesuMetricCategory;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
-import org.hyperledger.besu.services.tasks.CachingTaskCollection;
+import org.hyperledger.besu.services.tasks.TaskCollection;
 
 import java.time.Clock;
 import java.util.concurrent.CompletableFuture;
@@ -39,18 +39,20 @@ public class WorldStateDownloader {
   private final MetricsSystem metricsSystem;
 
   private final EthContext ethContext;
-  private final CachingTaskCollection<NodeDataRequest> taskCollection;
+  private final TaskCollection<NodeDataRequest> taskCollection;
   private final int hashCountPerRequest;
   private final int maxOutstandingRequests;
   private final int maxNodeRequestsWithoutProgress;
   private final WorldStateStorage worldStateStorage;
+  // Kept across downloads, as the state of a new pivot block shares most nodes with the last one.
+  private final RecentlyPersistedNodes recentlyPersistedNodes = new RecentlyPersistedNodes();
 
   private final AtomicReference<WorldDownloadState> downloadState = new AtomicReference<>();
 
   public WorldStateDownloader(
       final EthContext ethContext,
       final WorldStateStorage worldStateStorage,
-      final CachingTaskCollection<NodeDataRequest> taskCollection,
+      final TaskCollection<NodeDataRequest> taskCollection,
       final int hashCountPerRequest,
       final int maxOutstandingRequests,
       final int maxNodeRequestsWithoutProgress,
@@ -127,9 +129,10 @@ public class WorldStateDownloader {
           WorldStateDownloadProcess.builder()
               .hashCountPerRequest(hashCountPerRequest)
               .maxOutstandingRequests(maxOutstandingRequests)
-              .loadLocalDataStep(new LoadLocalDataStep(worldStateStorage, metricsSystem))
+              .loadLocalDataStep(
+                  new LoadLocalDataStep(worldStateStorage, recentlyPersistedNodes, metricsSystem))
               .requestDataStep(new RequestDataStep(ethContext, metricsSystem))
-              .persistDataStep(new PersistDataStep(worldStateStorage))
+              .persistDataStep(new PersistDataStep(worldStateStorage, recentlyPersistedNodes))
               .completeTaskStep(
                   new CompleteTaskStep(worldStateStorage, metricsSystem, taskCollection::size))
               .downloadState(newDownloadState)
@@ -34,34 +34,49 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.util.concurrent.Striped;
 
 /**
  * Holds the current set of pending transactions with the ability to iterate them based on priority
  * for mining or look-up by hash.
  *
- * <p>This class is safe for use across multiple threads.
+ * <p>This class is safe for use across multiple threads. Changes to the transactions of a sender
+ * are made while holding that sender's lock, taken from a fixed set of striped locks, so senders
+ * which don't share a lock stripe never wait for each other. The priority index is a concurrent
+ * sorted set, which lets block creation iterate over it without blocking additions. Evictions to
+ * keep the pool within its size limit are serialized with a separate lock.
  */
 public class PendingTransactions {
 
+  private static final int SENDER_LOCK_STRIPES = 64;
+
   private final int maxTransactionRetentionHours;
   private final Clock clock;
 
   private final Map<Hash, TransactionInfo> pendingTransactions = new ConcurrentHashMap<>();
-  private final SortedSet<TransactionInfo> prioritizedTransactions =
-      new TreeSet<>(
+  private final NavigableSet<TransactionInfo> prioritizedTransactions =
+      new ConcurrentSkipListSet<>(
           comparing(TransactionInfo::isReceivedFromLocalSource)
               .thenComparing(TransactionInfo::getSequence)
               .reversed());
-  private final Map<Address, TransactionsForSenderInfo> transactionsBySender = new HashMap<>();
+  private final Map<Address, TransactionsForSenderInfo> transactionsBySender =
+      new ConcurrentHashMap<>();
+  private final Striped<Lock> senderLocks = Striped.lock(SENDER_LOCK_STRIPES);
+  private final Lock evictionLock = new ReentrantLock();
 
   private final Subscribers<PendingTransactionListener> pendingTransactionSubscribers =
       Subscribers.create();
@@ -145,16 +160,22 @@ public class PendingTransactions {
     doRemoveTransaction(transaction, true);
   }
 
-  private void doRemoveTransaction(final Transaction transaction, final boolean addedToBlock) {
-    synchronized (pendingTransactions) {
+  private boolean doRemoveTransaction(final Transaction transaction, final boolean addedToBlock) {
+    final Lock senderLock = senderLocks.get(transaction.getSender());
+    senderLock.lock();
+    try {
       final TransactionInfo removedTransactionInfo =
           pendingTransactions.remove(transaction.getHash());
-      if (removedTransactionInfo != null) {
-        prioritizedTransactions.remove(removedTransactionInfo);
-        removeTransactionTrackedBySenderAndNonce(transaction);
-        incrementTransactionRemovedCounter(
-            removedTransactionInfo.isReceivedFromLocalSource(), addedToBlock);
+      if (removedTransactionInfo == null) {
+        return false;
       }
+      prioritizedTransactions.remove(removedTransactionInfo);
+      removeTransactionTrackedBySenderAndNonce(removedTransactionInfo);
+      incrementTransactionRemovedCounter(
+          removedTransactionInfo.isReceivedFromLocalSource(), addedToBlock);
+      return true;
+    } finally {
+      senderLock.unlock();
     }
   }
 
@@ -166,83 +187,128 @@ public class PendingTransactions {
   }
 
   /*
-   * The BlockTransaction selection process (part of block mining) requires synchronised access to
-   * all pendingTransactions - this allows it to iterate over the available transactions without
-   * releasing the lock in between items.
+   * The BlockTransaction selection process (part of block mining) iterates over the weakly
+   * consistent priority index rather than locking the pool, so transactions keep being added while
+   * a block is built. Each sender's transactions are copied under the sender's lock the first time
+   * the sender is reached, giving a consistent nonce order for that sender.
    *
    */
   public void selectTransactions(final TransactionSelector selector) {
-    synchronized (pendingTransactions) {
-      final List<Transaction> transactionsToRemove = new ArrayList<>();
-      final Map<Address, AccountTransactionOrder> accountTransactions = new HashMap<>();
-      for (final TransactionInfo transactionInfo : prioritizedTransactions) {
-        final AccountTransactionOrder accountTransactionOrder =
-            accountTransactions.computeIfAbsent(
-                transactionInfo.getSender(), this::createSenderTransactionOrder);
-
-        for (final Transaction transactionToProcess :
-            accountTransactionOrder.transactionsToProcess(transactionInfo.getTransaction())) {
-          final TransactionSelectionResult result =
-              selector.evaluateTransaction(transactionToProcess);
-          switch (result) {
-            case DELETE_TRANSACTION_AND_CONTINUE:
-              transactionsToRemove.add(transactionToProcess);
-              break;
-            case CONTINUE:
-              break;
-            case COMPLETE_OPERATION:
-              transactionsToRemove.forEach(this::removeTransaction);
-              return;
-            default:
-              throw new RuntimeException("Illegal value for TransactionSelectionResult.");
-          }
+    final List<Transaction> transactionsToRemove = new ArrayList<>();
+    final Map<Address, AccountTransactionOrder> accountTransactions = new HashMap<>();
+    for (final TransactionInfo transactionInfo : prioritizedTransactions) {
+      final AccountTransactionOrder accountTransactionOrder =
+          accountTransactions.computeIfAbsent(
+              transactionInfo.getSender(), this::createSenderTransactionOrder);
+
+      for (final Transaction transactionToProcess :
+          accountTransactionOrder.transactionsToProcess(transactionInfo.getTransaction())) {
+        final TransactionSelectionResult result =
+            selector.evaluateTransaction(transactionToProcess);
+        switch (result) {
+          case DELETE_TRANSACTION_AND_CONTINUE:
+            transactionsToRemove.add(transactionToProcess);
+            break;
+          case CONTINUE:
+            break;
+          case COMPLETE_OPERATION:
+            transactionsToRemove.forEach(this::removeTransaction);
+            return;
+          default:
+            throw new RuntimeException("Illegal value for TransactionSelectionResult.");
         }
       }
-      transactionsToRemove.forEach(this::removeTransaction);
     }
+    transactionsToRemove.forEach(this::removeTransaction);
   }
 
   private AccountTransactionOrder createSenderTransactionOrder(final Address address) {
-    return new AccountTransactionOrder(
-        transactionsBySender.get(address).getTransactionsInfos().values().stream()
-            .map(TransactionInfo::getTransaction));
+    final Lock senderLock = senderLocks.get(address);
+    senderLock.lock();
+    try {
+      final TransactionsForSenderInfo transactionsForSenderInfo = transactionsBySender.get(address);
+      if (transactionsForSenderInfo == null) {
+        // All of the sender's transactions were removed after the iteration reached them.
+        return new AccountTransactionOrder(Stream.empty());
+      }
+      return new AccountTransactionOrder(
+          transactionsForSenderInfo.getTransactionsInfos().values().stream()
+              .map(TransactionInfo::getTransaction));
+    } finally {
+      senderLock.unlock();
+    }
   }
 
   private boolean addTransaction(final TransactionInfo transactionInfo) {
-    Optional<Transaction> droppedTransaction = Optional.empty();
-    synchronized (pendingTransactions) {
+    final Optional<TransactionInfo> replacedTransaction;
+    final Lock senderLock = senderLocks.get(transactionInfo.getSender());
+    senderLock.lock();
+    try {
       if (pendingTransactions.containsKey(transactionInfo.getHash())) {
         return false;
       }
 
-      if (!addTransactionForSenderAndNonce(transactionInfo)) {
+      final TransactionInfo existingTransaction =
+          getTrackedTransactionBySenderAndNonce(transactionInfo);
+      if (existingTransaction != null && !shouldReplace(existingTransaction, transactionInfo)) {
         return false;
       }
-      prioritizedTransactions.add(transactionInfo);
-      pendingTransactions.put(transactionInfo.getHash(), transactionInfo);
+      replacedTransaction = Optional.ofNullable(existingTransaction);
+      replacedTransaction.ifPresent(
+          replaced -> doRemoveTransaction(replaced.getTransaction(), false));
 
-      if (pendingTransactions.size() > maxPendingTransactions) {
-        final TransactionInfo toRemove = prioritizedTransactions.last();
-        doRemoveTransaction(toRemove.getTransaction(), false);
-        droppedTransaction = Optional.of(toRemove.getTransaction());
-      }
+      trackTransactionBySenderAndNonce(transactionInfo);
+      pendingTransactions.put(transactionInfo.getHash(), transactionInfo);
+      prioritizedTransactions.add(transactionInfo);
+    } finally {
+      senderLock.unlock();
     }
+
+    replacedTransaction.ifPresent(replaced -> notifyTransactionDropped(replaced.getTransaction()));
     notifyTransactionAdded(transactionInfo.getTransaction());
-    droppedTransaction.ifPresent(this::notifyTransactionDropped);
+    evictLowestPriorityTransactions();
     return true;
   }
 
-  private boolean addTransactionForSenderAndNonce(final TransactionInfo transactionInfo) {
-    final TransactionInfo existingTransaction =
-        getTrackedTransactionBySenderAndNonce(transactionInfo);
-    if (existingTransaction != null) {
-      if (!shouldReplace(existingTransaction, transactionInfo)) {
+  private void evictLowestPriorityTransactions() {
+    if (pendingTransactions.size() <= maxPendingTransactions) {
+      return;
+    }
+    // Evictions are serialized and each one measures the excess once, so adders racing each other
+    // don't all evict for the same overflow. Each eviction only takes the lock of the evicted
+    // transaction's sender, so other senders can keep adding transactions meanwhile.
+    evictionLock.lock();
+    try {
+      long excess = pendingTransactions.size() - maxPendingTransactions;
+      while (excess > 0 && pendingTransactions.size() > maxPendingTransactions) {
+        final TransactionInfo candidate;
+        try {
+          candidate = prioritizedTransactions.last();
+        } catch (final NoSuchElementException e) {
+          return;
+        }
+        if (evictTransaction(candidate)) {
+          excess--;
+          notifyTransactionDropped(candidate.getTransaction());
+        }
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private boolean evictTransaction(final TransactionInfo candidate) {
+    final Lock senderLock = senderLocks.get(candidate.getSender());
+    senderLock.lock();
+    try {
+      // The candidate may have been replaced or removed before the lock was taken.
+      if (getTrackedTransactionBySenderAndNonce(candidate) != candidate) {
         return false;
       }
-      removeTransaction(existingTransaction.getTransaction());
+      return doRemoveTransaction(candidate.getTransaction(), false);
+    } finally {
+      senderLock.unlock();
     }
-    trackTransactionBySenderAndNonce(transactionInfo);
-    return true;
   }
 
   private void trackTransactionBySenderAndNonce(final TransactionInfo transactionInfo) {
@@ -252,13 +318,13 @@ public class PendingTransactions {
     transactionsForSenderInfo.addTransactionToTrack(transactionInfo.getNonce(), transactionInfo);
   }
 
-  private void removeTransactionTrackedBySenderAndNonce(final Transaction transaction) {
-    Optional.ofNullable(transactionsBySender.get(transaction.getSender()))
+  private void removeTransactionTrackedBySenderAndNonce(final TransactionInfo transactionInfo) {
+    Optional.ofNullable(transactionsBySender.get(transactionInfo.getSender()))
         .ifPresent(
             transactionsForSender -> {
-              transactionsForSender.getTransactionsInfos().remove(transaction.getNonce());
+              transactionsForSender.getTransactionsInfos().remove(transactionInfo.getNonce());
               if (transactionsForSender.getTransactionsInfos().isEmpty()) {
-                transactionsBySender.remove(transaction.getSender());
+                transactionsBySender.remove(transactionInfo.getSender());
                 transactionsForSender.updateGaps();
               }
             });
@@ -267,9 +333,10 @@ public class PendingTransactions {
   private TransactionInfo getTrackedTransactionBySenderAndNonce(
       final TransactionInfo transactionInfo) {
     final TransactionsForSenderInfo transactionsForSenderInfo =
-        transactionsBySender.computeIfAbsent(
-            transactionInfo.getSender(), key -> new TransactionsForSenderInfo());
-    return transactionsForSenderInfo.getTransactionsInfos().get(transactionInfo.getNonce());
+        transactionsBySender.get(transactionInfo.getSender());
+    return transactionsForSenderInfo == null
+        ? null
+        : transactionsForSenderInfo.getTransactionsInfos().get(transactionInfo.getNonce());
   }
 
   private boolean shouldReplace(
@@ -327,7 +394,9 @@ public class PendingTransactions {
   }
 
   public OptionalLong getNextNonceForSender(final Address sender) {
-    synchronized (pendingTransactions) {
+    final Lock senderLock = senderLocks.get(sender);
+    senderLock.lock();
+    try {
       final TransactionsForSenderInfo transactionsForSenderInfo = transactionsBySender.get(sender);
       if (transactionsForSenderInfo == null
           || transactionsForSenderInfo.getTransactionsInfos().isEmpty()) {
@@ -337,6 +406,8 @@ public class PendingTransactions {
       } else {
         return OptionalLong.of(transactionsForSenderInfo.getTransactionsInfos().lastKey() + 1);
       }
+    } finally {
+      senderLock.unlock();
     }
   }
 
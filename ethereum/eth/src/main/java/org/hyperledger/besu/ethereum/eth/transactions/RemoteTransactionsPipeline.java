@@ -0,0 +1,190 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.transactions;
+
+import static org.apache.logging.log4j.LogManager.getLogger;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.eth.manager.EthScheduler;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer.TimingContext;
+import org.hyperledger.besu.services.pipeline.Pipe;
+import org.hyperledger.besu.services.pipeline.Pipeline;
+import org.hyperledger.besu.services.pipeline.PipelineBuilder;
+import org.hyperledger.besu.util.ExceptionUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Validates and adds transactions received from peers to the transaction pool in stages, so that
+ * bursts of transactions messages don't queue up behind each other on the transaction workers.
+ *
+ * <pre>
+ *   received -&gt; deduplicated -&gt; sender recovered (in parallel) -&gt; batched -&gt; added
+ * </pre>
+ *
+ * Transactions recently added to the pool, or rejected because their signature is invalid, are
+ * dropped before any work is done for them. Transactions rejected for reasons that may change, such
+ * as a nonce gap or the chain head world state not being available, are not remembered so a peer
+ * resending them later can still get them added. Recovering the sender
+ * from the signature is the most expensive part of validation and is spread across several
+ * threads, while the remaining validation and insertion is done for a batch of transactions at a
+ * time, reading each sender's account from the chain head world state once per batch.
+ *
+ * <p>The number of items added to and removed from the pipe after each stage is reported by the
+ * {@code remote_transactions_pipeline_processed_total} metric, the difference being the depth of
+ * that stage's queue, and the time spent processing items in each stage by {@code
+ * remote_transactions_pipeline_stage_duration}.
+ */
+class RemoteTransactionsPipeline {
+
+  private static final Logger LOG = getLogger();
+
+  private static final int BUFFER_SIZE = 2000;
+  private static final int BATCH_SIZE = 200;
+  private static final int RECENTLY_SEEN_TRANSACTIONS = 50_000;
+  private static final int SENDER_RECOVERY_THREADS =
+      Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+  private static final String RECEIVED_STAGE = "remoteTransactionReceived";
+  private static final String DEDUPLICATED_STAGE = "remoteTransactionDeduplicated";
+  private static final String SENDER_RECOVERED_STAGE = "remoteTransactionSenderRecovered";
+  private static final String ADDED_STAGE = "remoteTransactionsAdded";
+
+  private final TransactionPool transactionPool;
+  private final EthScheduler ethScheduler;
+  private final LabelledMetric<Counter> outputCounter;
+  private final LabelledMetric<OperationTimer> stageTimer;
+  // Written by the sender recovery and add stages, read by the deduplication stage.
+  private final Cache<Hash, Boolean> recentlySeenTransactions =
+      CacheBuilder.newBuilder().maximumSize(RECENTLY_SEEN_TRANSACTIONS).build();
+  private Pipeline<Transaction> pipeline;
+
+  RemoteTransactionsPipeline(
+      final TransactionPool transactionPool,
+      final EthScheduler ethScheduler,
+      final MetricsSystem metricsSystem) {
+    this.transactionPool = transactionPool;
+    this.ethScheduler = ethScheduler;
+    this.outputCounter =
+        metricsSystem.createLabelledCounter(
+            BesuMetricCategory.TRANSACTION_POOL,
+            "remote_transactions_pipeline_processed_total",
+            "Number of transactions processed by each remote transaction pipeline stage",
+            "step",
+            "action");
+    this.stageTimer =
+        metricsSystem.createLabelledTimer(
+            BesuMetricCategory.TRANSACTION_POOL,
+            "remote_transactions_pipeline_stage_duration",
+            "Time taken to process transactions in each remote transaction pipeline stage",
+            "step");
+  }
+
+  /**
+   * Queues transactions to be validated and added to the transaction pool. Blocks while the
+   * pipeline is full.
+   *
+   * @param transactions the transactions received from a peer
+   */
+  void addTransactions(final Collection<Transaction> transactions) {
+    if (!transactionPool.isAcceptingRemoteTransactions()) {
+      return;
+    }
+    final Pipe<Transaction> inputPipe = getInputPipe();
+    transactions.forEach(inputPipe::put);
+  }
+
+  private synchronized Pipe<Transaction> getInputPipe() {
+    if (pipeline == null) {
+      final Pipeline<Transaction> newPipeline = createPipeline();
+      pipeline = newPipeline;
+      ethScheduler
+          .startPipeline(newPipeline)
+          .whenComplete(
+              (result, error) -> {
+                if (error != null
+                    && !(ExceptionUtils.rootCause(error) instanceof CancellationException)) {
+                  LOG.error("Remote transaction pipeline failed", error);
+                  pipelineFailed(newPipeline);
+                }
+              });
+    }
+    return pipeline.getInputPipe();
+  }
+
+  private synchronized void pipelineFailed(final Pipeline<Transaction> failedPipeline) {
+    // The next batch of transactions starts a new pipeline instead of blocking on a dead one.
+    if (pipeline == failedPipeline) {
+      pipeline = null;
+    }
+  }
+
+  private Pipeline<Transaction> createPipeline() {
+    return PipelineBuilder.<Transaction>createPipeline(RECEIVED_STAGE, BUFFER_SIZE, outputCounter)
+        .thenFlatMap(DEDUPLICATED_STAGE, this::deduplicate, BUFFER_SIZE)
+        .thenFlatMapInParallel(
+            SENDER_RECOVERED_STAGE, this::recoverSender, SENDER_RECOVERY_THREADS, BUFFER_SIZE)
+        .inBatches(BATCH_SIZE)
+        .andFinishWith(ADDED_STAGE, this::addBatch);
+  }
+
+  private Stream<Transaction> deduplicate(final Transaction transaction) {
+    try (final TimingContext ignored = stageTimer.labels(DEDUPLICATED_STAGE).startTimer()) {
+      final Hash hash = transaction.getHash();
+      if (recentlySeenTransactions.getIfPresent(hash) != null
+          || transactionPool.getPendingTransactions().containsTransaction(hash)) {
+        return Stream.empty();
+      }
+      return Stream.of(transaction);
+    }
+  }
+
+  private Stream<Transaction> recoverSender(final Transaction transaction) {
+    try (final TimingContext ignored = stageTimer.labels(SENDER_RECOVERED_STAGE).startTimer()) {
+      // The sender is cached by the transaction so validation doesn't have to recover it again.
+      transaction.getSender();
+      return Stream.of(transaction);
+    } catch (final IllegalStateException e) {
+      LOG.trace("Unable to recover sender of transaction {}. Discarding.", transaction, e);
+      // An invalid signature stays invalid, so there's no point recovering it again.
+      recentlySeenTransactions.put(transaction.getHash(), Boolean.TRUE);
+      return Stream.empty();
+    }
+  }
+
+  private void addBatch(final List<Transaction> transactions) {
+    try (final TimingContext ignored = stageTimer.labels(ADDED_STAGE).startTimer()) {
+      for (final Transaction added : transactionPool.addRemoteTransactions(transactions)) {
+        recentlySeenTransactions.put(added.getHash(), Boolean.TRUE);
+      }
+    } catch (final RuntimeException e) {
+      // Keep the pipeline running for the transactions that follow.
+      LOG.error("Failed to add remote transactions to the transaction pool", e);
+    }
+  }
+}
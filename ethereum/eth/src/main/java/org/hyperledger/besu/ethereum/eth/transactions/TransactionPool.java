@@ -14,6 +14,7 @@
  */
 package org.hyperledger.besu.ethereum.eth.transactions;
 
+import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
 import static org.apache.logging.log4j.LogManager.getLogger;
 import static org.hyperledger.besu.ethereum.mainnet.TransactionValidator.TransactionInvalidReason.CHAIN_HEAD_WORLD_STATE_NOT_AVAILABLE;
@@ -24,9 +25,11 @@ import org.hyperledger.besu.ethereum.chain.BlockAddedObserver;
 import org.hyperledger.besu.ethereum.chain.Blockchain;
 import org.hyperledger.besu.ethereum.chain.MutableBlockchain;
 import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Transaction;
 import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldState;
 import org.hyperledger.besu.ethereum.eth.manager.EthContext;
 import org.hyperledger.besu.ethereum.eth.manager.EthPeer;
 import org.hyperledger.besu.ethereum.eth.sync.state.SyncState;
@@ -41,10 +44,15 @@ import org.hyperledger.besu.plugin.services.metrics.Counter;
 import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import org.apache.logging.log4j.Logger;
 
 /**
@@ -129,10 +137,13 @@ public class TransactionPool implements BlockAddedObserver {
     return validationResult;
   }
 
-  public void addRemoteTransactions(final Collection<Transaction> transactions) {
-    if (!syncState.isInSync(SYNC_TOLERANCE)) {
-      return;
+  public Set<Transaction> addRemoteTransactions(final Collection<Transaction> transactions) {
+    if (!isAcceptingRemoteTransactions()) {
+      return emptySet();
     }
+    // The chain head world state is loaded once for the whole batch and each sender's account is
+    // only read once, however many of its transactions the batch contains.
+    final ChainHeadState chainHeadState = new ChainHeadState();
     final Set<Transaction> addedTransactions = new HashSet<>();
     for (final Transaction transaction : transactions) {
       if (pendingTransactions.containsTransaction(transaction.getHash())) {
@@ -144,7 +155,7 @@ public class TransactionPool implements BlockAddedObserver {
         continue;
       }
       final ValidationResult<TransactionInvalidReason> validationResult =
-          validateTransaction(transaction);
+          validateTransaction(transaction, chainHeadState);
       if (validationResult.isValid()) {
         final boolean added = pendingTransactions.addRemoteTransaction(transaction);
         if (added) {
@@ -162,6 +173,11 @@ public class TransactionPool implements BlockAddedObserver {
     if (!addedTransactions.isEmpty()) {
       transactionBatchAddedListener.onTransactionsAdded(addedTransactions);
     }
+    return addedTransactions;
+  }
+
+  boolean isAcceptingRemoteTransactions() {
+    return syncState.isInSync(SYNC_TOLERANCE);
   }
 
   public long subscribePendingTransactions(final PendingTransactionListener listener) {
@@ -198,13 +214,18 @@ public class TransactionPool implements BlockAddedObserver {
 
   private ValidationResult<TransactionInvalidReason> validateTransaction(
       final Transaction transaction) {
+    return validateTransaction(transaction, new ChainHeadState());
+  }
+
+  private ValidationResult<TransactionInvalidReason> validateTransaction(
+      final Transaction transaction, final ChainHeadState chainHeadState) {
     final ValidationResult<TransactionInvalidReason> basicValidationResult =
         getTransactionValidator().validate(transaction);
     if (!basicValidationResult.isValid()) {
       return basicValidationResult;
     }
 
-    final BlockHeader chainHeadBlockHeader = getChainHeadBlockHeader();
+    final BlockHeader chainHeadBlockHeader = chainHeadState.getBlockHeader();
     if (transaction.getGasLimit() > chainHeadBlockHeader.getGasLimit()) {
       return ValidationResult.invalid(
           TransactionInvalidReason.EXCEEDS_BLOCK_GAS_LIMIT,
@@ -213,12 +234,12 @@ public class TransactionPool implements BlockAddedObserver {
               transaction.getGasLimit(), chainHeadBlockHeader.getGasLimit()));
     }
 
-    return protocolContext
-        .getWorldStateArchive()
-        .get(chainHeadBlockHeader.getStateRoot())
+    return chainHeadState
+        .getWorldState()
         .map(
             worldState -> {
-              final Account senderAccount = worldState.get(transaction.getSender());
+              final Account senderAccount =
+                  chainHeadState.getAccount(worldState, transaction.getSender());
               return getTransactionValidator()
                   .validateForSender(
                       transaction, senderAccount, TransactionValidationParams.transactionPool());
@@ -231,6 +252,35 @@ public class TransactionPool implements BlockAddedObserver {
     return blockchain.getBlockHeader(blockchain.getChainHeadHash()).get();
   }
 
+  /**
+   * The chain head as seen when validation of a batch of transactions started. The world state is
+   * only loaded once a transaction passes the checks which don't need it, and accounts are cached
+   * as they are read.
+   */
+  private class ChainHeadState {
+    private final BlockHeader blockHeader = getChainHeadBlockHeader();
+    private final Supplier<Optional<WorldState>> worldState =
+        Suppliers.memoize(
+            () -> protocolContext.getWorldStateArchive().get(blockHeader.getStateRoot()));
+    // Accounts which don't exist are cached as null values.
+    private final Map<Address, Account> accounts = new HashMap<>();
+
+    BlockHeader getBlockHeader() {
+      return blockHeader;
+    }
+
+    Optional<WorldState> getWorldState() {
+      return worldState.get();
+    }
+
+    Account getAccount(final WorldState worldState, final Address address) {
+      if (!accounts.containsKey(address)) {
+        accounts.put(address, worldState.get(address));
+      }
+      return accounts.get(address);
+    }
+  }
+
   public interface TransactionBatchAddedListener {
 
     void onTransactionsAdded(Iterable<Transaction> transactions);
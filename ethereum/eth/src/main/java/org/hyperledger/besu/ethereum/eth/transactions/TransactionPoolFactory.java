@@ -65,7 +65,8 @@ public class TransactionPoolFactory {
             ethContext.getScheduler(),
             new TransactionsMessageProcessor(
                 transactionTracker,
-                transactionPool,
+                new RemoteTransactionsPipeline(
+                    transactionPool, ethContext.getScheduler(), metricsSystem),
                 metricsSystem.createCounter(
                     BesuMetricCategory.TRANSACTION_POOL,
                     "transactions_messages_skipped_total",
@@ -38,15 +38,15 @@ class TransactionsMessageProcessor {
   private static final int SKIPPED_MESSAGES_LOGGING_THRESHOLD = 1000;
   private static final Logger LOG = getLogger();
   private final PeerTransactionTracker transactionTracker;
-  private final TransactionPool transactionPool;
+  private final RemoteTransactionsPipeline remoteTransactionsPipeline;
   private final Counter totalSkippedTransactionsMessageCounter;
 
   public TransactionsMessageProcessor(
       final PeerTransactionTracker transactionTracker,
-      final TransactionPool transactionPool,
+      final RemoteTransactionsPipeline remoteTransactionsPipeline,
       final Counter metricsCounter) {
     this.transactionTracker = transactionTracker;
-    this.transactionPool = transactionPool;
+    this.remoteTransactionsPipeline = remoteTransactionsPipeline;
     this.totalSkippedTransactionsMessageCounter =
         new RunnableCounter(
             metricsCounter,
@@ -79,7 +79,7 @@ class TransactionsMessageProcessor {
           transactionsMessage.transactions(Transaction::readFrom);
       final Set<Transaction> transactions = Sets.newHashSet(readTransactions);
       transactionTracker.markTransactionsAsSeen(peer, transactions);
-      transactionPool.addRemoteTransactions(transactions);
+      remoteTransactionsPipeline.addTransactions(transactions);
     } catch (final RLPException ex) {
       if (peer != null) {
         LOG.debug("Malformed transaction message received, disconnecting: {}", peer, ex);
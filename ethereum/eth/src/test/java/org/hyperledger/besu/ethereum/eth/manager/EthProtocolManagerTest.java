@@ -1073,8 +1073,9 @@ public final class EthProtocolManagerTest {
     final ExecutorService transactions = mock(ExecutorService.class);
     final ExecutorService services = mock(ExecutorService.class);
     final ExecutorService computations = mock(ExecutorService.class);
+    final ExecutorService server = mock(ExecutorService.class);
     final EthScheduler ethScheduler =
-        new EthScheduler(worker, scheduled, transactions, services, computations);
+        new EthScheduler(worker, scheduled, transactions, services, computations, server);
 
     // Create the fake TransactionMessage to feed to the EthManager.
     final BlockDataGenerator gen = new BlockDataGenerator(1);
@@ -1113,7 +1114,7 @@ public final class EthProtocolManagerTest {
       ethManager.processMessage(EthProtocol.ETH63, new DefaultMessage(peer, transactionMessage));
 
       // Verify the regular message executor and scheduled executor got nothing to execute.
-      verifyZeroInteractions(worker, scheduled);
+      verifyZeroInteractions(worker, scheduled, server);
       // Verify our transactions executor got something to execute.
       verify(transactions).execute(any());
     }
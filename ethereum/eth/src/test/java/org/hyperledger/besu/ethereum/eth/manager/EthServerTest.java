@@ -15,17 +15,25 @@
 package org.hyperledger.besu.ethereum.eth.manager;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.BlockBody;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.eth.EthProtocolConfiguration;
+import org.hyperledger.besu.ethereum.eth.messages.BlockBodiesMessage;
+import org.hyperledger.besu.ethereum.eth.messages.GetBlockBodiesMessage;
 import org.hyperledger.besu.ethereum.eth.messages.GetNodeDataMessage;
 import org.hyperledger.besu.ethereum.eth.messages.NodeDataMessage;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
 
 import java.util.Optional;
 
@@ -45,11 +53,17 @@ public class EthServerTest {
   private final WorldStateArchive worldStateArchive = mock(WorldStateArchive.class);
   private final EthPeer ethPeer = mock(EthPeer.class);
   private final EthMessages ethMessages = new EthMessages();
+  private final DeterministicEthScheduler ethScheduler = new DeterministicEthScheduler();
 
   @Before
   public void setUp() {
     new EthServer(
-        blockchain, worldStateArchive, ethMessages, new EthProtocolConfiguration(2, 2, 2, 2));
+        blockchain,
+        worldStateArchive,
+        ethMessages,
+        ethScheduler,
+        new EthProtocolConfiguration(2, 2, 2, 2),
+        new NoOpMetricsSystem());
   }
 
   @Test
@@ -91,4 +105,32 @@ public class EthServerTest {
 
     verify(ethPeer).send(NodeDataMessage.create(singletonList(VALUE1)));
   }
+
+  @Test
+  public void shouldOnlyReadRecentlyServedBlockBodiesOnce() throws Exception {
+    final BlockBody body = new BlockBody(emptyList(), emptyList());
+    when(blockchain.getBlockBody(HASH1)).thenReturn(Optional.of(body));
+    final MessageData request = GetBlockBodiesMessage.create(singletonList(HASH1));
+    ethMessages.dispatch(new EthMessage(ethPeer, request));
+    ethMessages.dispatch(new EthMessage(ethPeer, request));
+
+    verify(ethPeer, times(2)).send(BlockBodiesMessage.create(singletonList(body)));
+    verify(blockchain).getBlockBody(HASH1);
+  }
+
+  @Test
+  public void shouldDropRequestsWhenTooManyArePendingForPeer() throws Exception {
+    when(worldStateArchive.getNodeData(HASH1)).thenReturn(Optional.of(VALUE1));
+    ethScheduler.disableAutoRun();
+    final MessageData request = GetNodeDataMessage.create(singletonList(HASH1));
+    for (int i = 0; i < EthServer.MAX_PENDING_REQUESTS_PER_PEER + 1; i++) {
+      ethMessages.dispatch(new EthMessage(ethPeer, request));
+    }
+
+    while (ethScheduler.getPendingFuturesCount() > 0) {
+      ethScheduler.runPendingFutures();
+    }
+
+    verify(ethPeer, times(EthServer.MAX_PENDING_REQUESTS_PER_PEER)).send(any());
+  }
 }
@@ -17,6 +17,7 @@ package org.hyperledger.besu.ethereum.eth.sync.worldstate;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hyperledger.besu.metrics.noop.NoOpMetricsSystem.NO_OP_COUNTER;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
@@ -26,6 +27,7 @@ import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
 import org.hyperledger.besu.services.pipeline.Pipe;
 import org.hyperledger.besu.services.tasks.Task;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -44,8 +46,9 @@ public class LoadLocalDataStepTest {
 
   private final Pipe<Task<NodeDataRequest>> completedTasks =
       new Pipe<>(10, NO_OP_COUNTER, NO_OP_COUNTER, NO_OP_COUNTER);
+  private final RecentlyPersistedNodes recentlyPersistedNodes = new RecentlyPersistedNodes();
   private final LoadLocalDataStep loadLocalDataStep =
-      new LoadLocalDataStep(worldStateStorage, new NoOpMetricsSystem());
+      new LoadLocalDataStep(worldStateStorage, recentlyPersistedNodes, new NoOpMetricsSystem());
 
   @Test
   public void shouldReturnStreamWithUnchangedTaskWhenDataNotPresent() {
@@ -71,4 +74,42 @@ public class LoadLocalDataStepTest {
     request.persist(updater);
     verifyZeroInteractions(updater);
   }
+
+  @Test
+  public void shouldLoadBatchOfTasksWithSingleStorageLookup() {
+    final Bytes missingData = Bytes.of(4, 5, 6);
+    final Hash missingHash = Hash.hash(missingData);
+    final Task<NodeDataRequest> missingTask =
+        new StubTask(NodeDataRequest.createCodeRequest(missingHash));
+    when(worldStateStorage.getNodeData(List.of(HASH, missingHash)))
+        .thenReturn(List.of(Optional.of(DATA), Optional.empty()));
+
+    final Stream<Task<NodeDataRequest>> output =
+        loadLocalDataStep.loadLocalData(List.of(task, missingTask), completedTasks);
+
+    assertThat(completedTasks.poll()).isSameAs(task);
+    assertThat(completedTasks.poll()).isNull();
+    assertThat(request.getData()).isEqualTo(DATA);
+    assertThat(output).containsExactly(missingTask);
+  }
+
+  @Test
+  public void shouldLoadRecentlyPersistedNodesWithoutStorageLookup() {
+    final Bytes missingData = Bytes.of(4, 5, 6);
+    final Hash missingHash = Hash.hash(missingData);
+    final Task<NodeDataRequest> missingTask =
+        new StubTask(NodeDataRequest.createCodeRequest(missingHash));
+    recentlyPersistedNodes.add(HASH, DATA);
+    when(worldStateStorage.getNodeData(List.of(missingHash)))
+        .thenReturn(List.of(Optional.empty()));
+
+    final Stream<Task<NodeDataRequest>> output =
+        loadLocalDataStep.loadLocalData(List.of(task, missingTask), completedTasks);
+
+    assertThat(completedTasks.poll()).isSameAs(task);
+    assertThat(completedTasks.poll()).isNull();
+    assertThat(request.getData()).isEqualTo(DATA);
+    assertThat(output).containsExactly(missingTask);
+    verify(worldStateStorage).getNodeData(List.of(missingHash));
+  }
 }
@@ -17,6 +17,10 @@ package org.hyperledger.besu.ethereum.eth.sync.worldstate;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import org.hyperledger.besu.ethereum.core.BlockDataGenerator;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+
+import org.apache.tuweni.bytes.Bytes;
 
 import org.junit.Test;
 
@@ -35,6 +39,7 @@ public class NodeDataRequestTest {
   public void serializesStorageTrieNodeRequests() {
     BlockDataGenerator gen = new BlockDataGenerator(0);
     StorageTrieNodeDataRequest request = NodeDataRequest.createStorageDataRequest(gen.hash());
+    request.setDepth(12);
     NodeDataRequest sedeRequest = serializeThenDeserialize(request);
     assertRequestsEquals(sedeRequest, request);
     assertThat(sedeRequest).isInstanceOf(StorageTrieNodeDataRequest.class);
@@ -49,6 +54,24 @@ public class NodeDataRequestTest {
     assertThat(sedeRequest).isInstanceOf(CodeNodeDataRequest.class);
   }
 
+  @Test
+  public void deserializesRequestsWithoutDepth() {
+    BlockDataGenerator gen = new BlockDataGenerator(0);
+    Hash hash = gen.hash();
+    Bytes encoded =
+        RLP.encode(
+            out -> {
+              out.startList();
+              out.writeByte(RequestType.ACCOUNT_TRIE_NODE.getValue());
+              out.writeBytes(hash);
+              out.endList();
+            });
+    NodeDataRequest request = NodeDataRequest.deserialize(encoded);
+    assertThat(request).isInstanceOf(AccountTrieNodeDataRequest.class);
+    assertThat(request.getHash()).isEqualTo(hash);
+    assertThat(request.getDepth()).isZero();
+  }
+
   private NodeDataRequest serializeThenDeserialize(final NodeDataRequest request) {
     return NodeDataRequest.deserialize(NodeDataRequest.serialize(request));
   }
@@ -57,5 +80,6 @@ public class NodeDataRequestTest {
     assertThat(actual.getRequestType()).isEqualTo(expected.getRequestType());
     assertThat(actual.getHash()).isEqualTo(expected.getHash());
     assertThat(actual.getData()).isEqualTo(expected.getData());
+    assertThat(actual.getDepth()).isEqualTo(expected.getDepth());
   }
 }
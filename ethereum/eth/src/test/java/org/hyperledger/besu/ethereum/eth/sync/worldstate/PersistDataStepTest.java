@@ -43,7 +43,9 @@ public class PersistDataStepTest {
   private final BlockHeader blockHeader =
       new BlockHeaderTestFixture().stateRoot(Hash.hash(rootNodeData)).buildHeader();
 
-  private final PersistDataStep persistDataStep = new PersistDataStep(worldStateStorage);
+  private final RecentlyPersistedNodes recentlyPersistedNodes = new RecentlyPersistedNodes();
+  private final PersistDataStep persistDataStep =
+      new PersistDataStep(worldStateStorage, recentlyPersistedNodes);
 
   @Test
   public void shouldPersistDataWhenPresent() {
@@ -61,6 +63,18 @@ public class PersistDataStepTest {
     assertDataPersisted(tasks);
   }
 
+  @Test
+  public void shouldRememberRecentlyPersistedNodes() {
+    final Task<NodeDataRequest> withData = createTaskWithData(1, 2, 3);
+    final Task<NodeDataRequest> rootNode = createTaskWithData(rootNodeData);
+
+    persistDataStep.persist(asList(withData, rootNode), blockHeader, downloadState);
+
+    assertThat(recentlyPersistedNodes.get(withData.getData().getHash()))
+        .contains(withData.getData().getData());
+    assertThat(recentlyPersistedNodes.get(rootNode.getData().getHash())).isEmpty();
+  }
+
   @Test
   public void shouldSkipPersistingTasksWithNoData() {
     final Task<NodeDataRequest> withData = createTaskWithData(1, 2, 3);
@@ -34,6 +34,10 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalLong;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.google.common.collect.Lists;
 import org.junit.Test;
@@ -637,6 +641,101 @@ public class PendingTransactionsTest {
         .hasValue(7);
   }
 
+  @Test
+  public void shouldTrackTransactionsFromManySendersAddedConcurrently() throws Exception {
+    final int senderCount = 8;
+    final int transactionsPerSender = 20;
+    final PendingTransactions transactions =
+        new PendingTransactions(
+            TransactionPoolConfiguration.DEFAULT_TX_RETENTION_HOURS,
+            senderCount * transactionsPerSender,
+            TestClock.fixed(),
+            metricsSystem);
+    final ExecutorService executor = Executors.newFixedThreadPool(senderCount);
+    final CountDownLatch start = new CountDownLatch(1);
+    try {
+      final List<Future<?>> results = new ArrayList<>();
+      for (int i = 0; i < senderCount; i++) {
+        final Address sender = Address.fromHexString(String.format("%040x", i + 1));
+        results.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  for (int nonce = 0; nonce < transactionsPerSender; nonce++) {
+                    transactions.addRemoteTransaction(
+                        new TransactionTestFixture()
+                            .sender(sender)
+                            .nonce(nonce)
+                            .createTransaction(KEYS1));
+                  }
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (final Future<?> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(transactions.size()).isEqualTo(senderCount * transactionsPerSender);
+    for (int i = 0; i < senderCount; i++) {
+      final Address sender = Address.fromHexString(String.format("%040x", i + 1));
+      assertThat(transactions.getNextNonceForSender(sender))
+          .isEqualTo(OptionalLong.of(transactionsPerSender));
+    }
+  }
+
+  @Test
+  public void shouldEvictDownToTheLimitWhenTransactionsAreAddedConcurrently() throws Exception {
+    final int senderCount = 8;
+    final int transactionsPerSender = 50;
+    final PendingTransactions transactions =
+        new PendingTransactions(
+            TransactionPoolConfiguration.DEFAULT_TX_RETENTION_HOURS,
+            MAX_TRANSACTIONS,
+            TestClock.fixed(),
+            metricsSystem);
+    final ExecutorService executor = Executors.newFixedThreadPool(senderCount);
+    final CountDownLatch start = new CountDownLatch(1);
+    try {
+      final List<Future<?>> results = new ArrayList<>();
+      for (int i = 0; i < senderCount; i++) {
+        final Address sender = Address.fromHexString(String.format("%040x", i + 1));
+        results.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  for (int nonce = 0; nonce < transactionsPerSender; nonce++) {
+                    transactions.addRemoteTransaction(
+                        new TransactionTestFixture()
+                            .sender(sender)
+                            .nonce(nonce)
+                            .createTransaction(KEYS1));
+                    // Replacements race with the evictions of the same sender's transactions.
+                    transactions.addRemoteTransaction(
+                        new TransactionTestFixture()
+                            .sender(sender)
+                            .nonce(nonce)
+                            .gasPrice(Wei.of(5000))
+                            .createTransaction(KEYS1));
+                  }
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (final Future<?> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(transactions.size()).isEqualTo(MAX_TRANSACTIONS);
+    assertThat(transactions.getTransactionInfo()).hasSize(MAX_TRANSACTIONS);
+  }
+
   private void addLocalTransactions(final int... nonces) {
     for (int nonce : nonces) {
       transactions.addLocalTransaction(createTransaction(nonce));
@@ -0,0 +1,142 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.transactions;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.ethereum.core.BlockDataGenerator;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.eth.manager.EthScheduler;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RemoteTransactionsPipelineTest {
+
+  private final BlockDataGenerator generator = new BlockDataGenerator();
+  private final Transaction transaction1 = generator.transaction();
+  private final Transaction transaction2 = generator.transaction();
+  private final Transaction transaction3 = generator.transaction();
+
+  private final TransactionPool transactionPool = mock(TransactionPool.class);
+  private final PendingTransactions pendingTransactions = mock(PendingTransactions.class);
+  private final EthScheduler ethScheduler = new EthScheduler(1, 1, 1, new NoOpMetricsSystem());
+  private final List<Transaction> addedTransactions = new CopyOnWriteArrayList<>();
+  private final Set<Transaction> rejectedTransactions = ConcurrentHashMap.newKeySet();
+
+  private final RemoteTransactionsPipeline pipeline =
+      new RemoteTransactionsPipeline(transactionPool, ethScheduler, new NoOpMetricsSystem());
+
+  @Before
+  public void setUp() {
+    when(transactionPool.isAcceptingRemoteTransactions()).thenReturn(true);
+    when(transactionPool.getPendingTransactions()).thenReturn(pendingTransactions);
+    doAnswer(
+            invocation -> {
+              final Collection<Transaction> transactions = invocation.getArgument(0);
+              final Set<Transaction> added = new HashSet<>();
+              for (final Transaction transaction : transactions) {
+                if (!rejectedTransactions.contains(transaction)
+                    && !addedTransactions.contains(transaction)) {
+                  addedTransactions.add(transaction);
+                  added.add(transaction);
+                }
+              }
+              return added;
+            })
+        .when(transactionPool)
+        .addRemoteTransactions(any());
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    ethScheduler.stop();
+    ethScheduler.awaitStop();
+  }
+
+  @Test
+  public void shouldAddReceivedTransactionsToTransactionPool() {
+    pipeline.addTransactions(asList(transaction1, transaction2, transaction3));
+
+    await()
+        .untilAsserted(
+            () ->
+                assertThat(addedTransactions)
+                    .containsExactlyInAnyOrder(transaction1, transaction2, transaction3));
+  }
+
+  @Test
+  public void shouldOnlyAddRecentlySeenTransactionsOnce() {
+    pipeline.addTransactions(asList(transaction1, transaction2));
+    pipeline.addTransactions(asList(transaction2, transaction3, transaction1));
+
+    await()
+        .untilAsserted(
+            () ->
+                assertThat(addedTransactions)
+                    .containsExactlyInAnyOrder(transaction1, transaction2, transaction3));
+  }
+
+  @Test
+  public void shouldRetryTransactionsRejectedByTheTransactionPool() {
+    rejectedTransactions.add(transaction1);
+    pipeline.addTransactions(asList(transaction1, transaction2));
+    await().untilAsserted(() -> assertThat(addedTransactions).containsExactly(transaction2));
+
+    rejectedTransactions.clear();
+    pipeline.addTransactions(asList(transaction1, transaction2));
+
+    await()
+        .untilAsserted(
+            () -> assertThat(addedTransactions).containsExactly(transaction2, transaction1));
+  }
+
+  @Test
+  public void shouldNotAddTransactionsAlreadyPending() {
+    when(pendingTransactions.containsTransaction(transaction1.getHash())).thenReturn(true);
+
+    pipeline.addTransactions(asList(transaction1, transaction2));
+
+    await().untilAsserted(() -> assertThat(addedTransactions).containsExactly(transaction2));
+  }
+
+  @Test
+  public void shouldIgnoreTransactionsWhenNotAcceptingRemoteTransactions() {
+    when(transactionPool.isAcceptingRemoteTransactions()).thenReturn(false);
+
+    pipeline.addTransactions(asList(transaction1, transaction2));
+
+    verify(transactionPool).isAcceptingRemoteTransactions();
+    verifyZeroInteractions(pendingTransactions);
+    assertThat(addedTransactions).isEmpty();
+  }
+}
@@ -37,7 +37,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 @RunWith(MockitoJUnitRunner.class)
 public class TransactionsMessageProcessorTest {
 
-  @Mock private TransactionPool transactionPool;
+  @Mock private RemoteTransactionsPipeline remoteTransactionsPipeline;
   @Mock private PeerTransactionTracker transactionTracker;
   @Mock private Counter totalSkippedTransactionsMessageCounter;
   @Mock private EthPeer peer1;
@@ -61,14 +61,14 @@ public class TransactionsMessageProcessorTest {
   }
 
   @Test
-  public void shouldAddReceivedTransactionsToTransactionPool() {
+  public void shouldAddReceivedTransactionsToRemoteTransactionsPipeline() {
     messageHandler.processTransactionsMessage(
         peer1,
         TransactionsMessage.create(asList(transaction1, transaction2, transaction3)),
         now(),
         ofMinutes(1));
-    verify(transactionPool)
-        .addRemoteTransactions(ImmutableSet.of(transaction1, transaction2, transaction3));
+    verify(remoteTransactionsPipeline)
+        .addTransactions(ImmutableSet.of(transaction1, transaction2, transaction3));
   }
 
   @Test
@@ -83,13 +83,13 @@ public class TransactionsMessageProcessorTest {
   }
 
   @Test
-  public void shouldNotAddReceivedTransactionsToTransactionPoolIfExpired() {
+  public void shouldNotAddReceivedTransactionsToRemoteTransactionsPipelineIfExpired() {
     messageHandler.processTransactionsMessage(
         peer1,
         TransactionsMessage.create(asList(transaction1, transaction2, transaction3)),
         now().minus(ofMinutes(1)),
         ofMillis(1));
-    verifyZeroInteractions(transactionPool);
+    verifyZeroInteractions(remoteTransactionsPipeline);
     verify(totalSkippedTransactionsMessageCounter).inc(1);
   }
 }
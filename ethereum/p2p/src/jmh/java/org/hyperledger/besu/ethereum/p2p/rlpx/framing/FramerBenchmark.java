@@ -0,0 +1,92 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.p2p.rlpx.framing;
+
+import org.hyperledger.besu.ethereum.p2p.rlpx.handshake.HandshakeSecrets;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.RawMessage;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.apache.tuweni.bytes.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Measures the throughput of framing and deframing large messages, such as block bodies. */
+@State(Scope.Thread)
+public class FramerBenchmark {
+
+  @Param({"1048576", "5242880", "10485760"})
+  public int messageSize;
+
+  @Param({"false", "true"})
+  public boolean compression;
+
+  private MessageData message;
+  private Framer sendingFramer;
+  private Framer receivingFramer;
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    final Random random = new Random(1);
+    final byte[] data = new byte[messageSize];
+    random.nextBytes(data);
+    // Make part of the message compressible, like RLP encoded chain data.
+    Arrays.fill(data, 0, messageSize / 2, (byte) 0);
+    message = new RawMessage(0x06, Bytes.wrap(data));
+
+    final byte[] secret = new byte[32];
+    random.nextBytes(secret);
+    sendingFramer = new Framer(new HandshakeSecrets(secret, secret, secret));
+    receivingFramer = new Framer(new HandshakeSecrets(secret, secret, secret));
+    if (compression) {
+      sendingFramer.enableCompression();
+      receivingFramer.enableCompression();
+    }
+  }
+
+  @Benchmark
+  public int frame() {
+    final ByteBuf buf = allocate();
+    try {
+      sendingFramer.frame(message, buf);
+      return buf.readableBytes();
+    } finally {
+      buf.release();
+    }
+  }
+
+  @Benchmark
+  public MessageData frameAndDeframe() {
+    final ByteBuf buf = allocate();
+    try {
+      sendingFramer.frame(message, buf);
+      return receivingFramer.deframe(buf);
+    } finally {
+      buf.release();
+    }
+  }
+
+  private ByteBuf allocate() {
+    return PooledByteBufAllocator.DEFAULT.heapBuffer(sendingFramer.maxFramedSize(message));
+  }
+}
@@ -28,10 +28,21 @@ final class MessageFramer extends MessageToByteEncoder<OutboundMessage> {
   private final Framer framer;
 
   MessageFramer(final CapabilityMultiplexer multiplexer, final Framer framer) {
+    // Frames are encrypted with array based ciphers, so build them in heap buffers where they can
+    // be encrypted in place.
+    super(false);
     this.multiplexer = multiplexer;
     this.framer = framer;
   }
 
+  @Override
+  protected ByteBuf allocateBuffer(
+      final ChannelHandlerContext ctx, final OutboundMessage msg, final boolean preferDirect) {
+    // Allocate the whole frame up front rather than copying large messages as the buffer grows.
+    final int size = framer.maxFramedSize(msg.getData());
+    return preferDirect ? ctx.alloc().ioBuffer(size) : ctx.alloc().heapBuffer(size);
+  }
+
   @Override
   protected void encode(
       final ChannelHandlerContext ctx, final OutboundMessage msg, final ByteBuf out) {
@@ -49,6 +49,11 @@ import org.bouncycastle.crypto.params.ParametersWithIV;
  * fragmented frames, as well as streams of multiple messages within the same incoming buffer, as
  * long as the order of incoming bytes matches the underlying TCP sequence.
  *
+ * <p>Frames are encrypted, decrypted and authenticated in place, directly in the {@link ByteBuf}
+ * when it is backed by an array, so each message is copied as few times as possible. Deframing
+ * and framing keep separate state, so each may be done by a different thread, but each must only
+ * be done by one thread at a time, as is the case for a channel's event loop.
+ *
  * @see <a href="https://github.com/ethereum/devp2p/blob/master/rlpx.md#framing">RLPx framing</a>
  */
 public class Framer {
@@ -74,10 +79,11 @@ public class Framer {
   private static final SnappyCompressor compressor = new SnappyCompressor();
   private final StreamCipher encryptor;
   private final StreamCipher decryptor;
-  private final BlockCipher macEncryptor;
+  private final BlockCipher ingressMacEncryptor;
+  private final BlockCipher egressMacEncryptor;
   private boolean headerProcessed;
   private int frameSize;
-  private boolean compressionEnabled = false;
+  private volatile boolean compressionEnabled = false;
 
   /**
    * Creates a new framer out of the handshake secrets derived during the cryptographic handshake.
@@ -96,8 +102,11 @@ public class Framer {
     decryptor = new SICBlockCipher(new AESEngine());
     decryptor.init(false, new ParametersWithIV(aesKey, IV));
 
-    macEncryptor = new AESEngine();
-    macEncryptor.init(true, macKey);
+    ingressMacEncryptor = new AESEngine();
+    ingressMacEncryptor.init(true, macKey);
+
+    egressMacEncryptor = new AESEngine();
+    egressMacEncryptor.init(true, macKey);
   }
 
   public void enableCompression() {
@@ -126,6 +135,8 @@ public class Framer {
    * consuming it from the byte buffer. The caller should call this method again with the same byte
    * buffer to continue extracting more messages, if possible.
    *
+   * <p>Frames are decrypted in place, so the bytes consumed from the buffer are overwritten.
+   *
    * <p>When this method throws an exception, it is recommended that the caller scraps away the RLPx
    * connection, as the digests and stream ciphers could have become corrupted.
    *
@@ -134,7 +145,7 @@ public class Framer {
    *     could be extracted yet.
    * @throws FramingException Thrown when a decryption or internal error occurs.
    */
-  public synchronized MessageData deframe(final ByteBuf buf) throws FramingException {
+  public MessageData deframe(final ByteBuf buf) throws FramingException {
     if (buf == null || !buf.isReadable()) {
       return null;
     }
@@ -146,7 +157,6 @@ public class Framer {
       }
       frameSize = processHeader(buf.readSlice(LENGTH_FULL_HEADER));
       headerProcessed = true;
-      buf.discardReadBytes();
     }
 
     final int size = frameSize + padding16(frameSize) + LENGTH_MAC;
@@ -155,7 +165,6 @@ public class Framer {
     }
 
     final MessageData msg = processFrame(buf.readSlice(size), frameSize);
-    buf.discardReadBytes();
     headerProcessed = false;
     return msg;
   }
@@ -184,7 +193,7 @@ public class Framer {
 
     // Header MAC validation.
     byte[] expectedMac = new byte[16];
-    macEncryptor.processBlock(secrets.getIngressMac(), 0, expectedMac, 0);
+    ingressMacEncryptor.processBlock(secrets.getIngressMac(), 0, expectedMac, 0);
     expectedMac = secrets.updateIngress(xor(expectedMac, hCipher)).getIngressMac();
     expectedMac = Arrays.copyOf(expectedMac, LENGTH_MAC);
 
@@ -220,7 +229,6 @@ public class Framer {
           h.readableBytes());
     }
 
-    h.discardReadBytes();
     return frameSize;
   }
 
@@ -240,40 +248,56 @@ public class Framer {
       throw error("Expected %s bytes in header, got %s", expectedSize, f.readableBytes());
     }
 
-    final byte[] frameData = new byte[frameSize + pad];
+    // Decrypt the frame in the buffer's own array if it has one, otherwise copy it out once.
+    final int frameDataLength = frameSize + pad;
+    final boolean isSharedArray = f.hasArray();
+    final byte[] frameData;
+    final int offset;
+    if (isSharedArray) {
+      frameData = f.array();
+      offset = f.arrayOffset() + f.readerIndex();
+    } else {
+      frameData = new byte[frameDataLength];
+      offset = 0;
+      f.getBytes(f.readerIndex(), frameData);
+    }
     final byte[] fMac = new byte[LENGTH_MAC];
-    f.readBytes(frameData).readBytes(fMac);
+    f.getBytes(f.readerIndex() + frameDataLength, fMac);
+    f.skipBytes(expectedSize);
 
     // Validate the frame's MAC.
-    final byte[] fMacSeed = secrets.updateIngress(frameData).getIngressMac();
+    final byte[] fMacSeed =
+        secrets.updateIngress(frameData, offset, frameDataLength).getIngressMac();
     final byte[] fMacSeedEnc = new byte[16];
-    macEncryptor.processBlock(fMacSeed, 0, fMacSeedEnc, 0);
+    ingressMacEncryptor.processBlock(fMacSeed, 0, fMacSeedEnc, 0);
     byte[] expectedMac = secrets.updateIngress(xor(fMacSeedEnc, fMacSeed)).getIngressMac();
     expectedMac = Arrays.copyOf(expectedMac, LENGTH_MAC);
 
     validateMac(fMac, expectedMac);
 
     // Decrypt frame data.
-    decryptor.processBytes(frameData, 0, frameData.length, frameData, 0);
+    decryptor.processBytes(frameData, offset, frameDataLength, frameData, offset);
 
     // Read the id.
-    final Bytes idbv = RLP.decodeOne(Bytes.of(frameData[0]));
+    final Bytes idbv = RLP.decodeOne(Bytes.of(frameData[offset]));
     final int id = idbv.isZero() || idbv.size() == 0 ? 0 : idbv.get(0);
 
-    // Write message data to ByteBuf, decompressing as necessary
+    // Read the message data, decompressing straight out of the frame as necessary
+    final int dataOffset = offset + LENGTH_MESSAGE_ID;
+    final int dataLength = frameSize - LENGTH_MESSAGE_ID;
     final Bytes data;
     if (compressionEnabled) {
-      final byte[] compressedMessageData = Arrays.copyOfRange(frameData, 1, frameData.length - pad);
-      final int uncompressedLength = compressor.uncompressedLength(compressedMessageData);
+      final int uncompressedLength =
+          compressor.uncompressedLength(frameData, dataOffset, dataLength);
       if (uncompressedLength >= LENGTH_MAX_MESSAGE_FRAME) {
         throw error("Message size %s in excess of maximum length.", uncompressedLength);
       }
-      final byte[] decompressedMessageData = compressor.decompress(compressedMessageData);
-      data = Bytes.wrap(decompressedMessageData);
+      data = Bytes.wrap(compressor.decompress(frameData, dataOffset, dataLength));
+    } else if (isSharedArray) {
+      // The buffer's array is reused for the bytes that follow, so the message needs a copy.
+      data = Bytes.wrap(Arrays.copyOfRange(frameData, dataOffset, dataOffset + dataLength));
     } else {
-      // Move data to a ByteBuf
-      final int messageLength = frameSize - LENGTH_MESSAGE_ID;
-      data = Bytes.wrap(frameData, 1, messageLength);
+      data = Bytes.wrap(frameData, dataOffset, dataLength);
     }
 
     return new RawMessage(id, data);
@@ -291,30 +315,62 @@ public class Framer {
    * Frames a message for sending to an RLPx peer, encrypting it and calculating the appropriate
    * MACs.
    *
+   * <p>The frame is built in place in the output buffer if it is backed by an array, and is
+   * otherwise built in a temporary array and copied to the buffer once.
+   *
    * @param message The message to frame.
    * @param output The {@link ByteBuf} to write framed data to.
    */
-  public synchronized void frame(final MessageData message, final ByteBuf output) {
+  public void frame(final MessageData message, final ByteBuf output) {
     Preconditions.checkArgument(
         message.getSize() < LENGTH_MAX_MESSAGE_FRAME, "Message size in excess of maximum length.");
-    // Compress message
-    if (compressionEnabled) {
-      // Extract data from message
-      // Compress data
-      final byte[] compressed = compressor.compress(message.getData().toArrayUnsafe());
-      // Construct new, compressed message
-      frameMessage(new RawMessage(message.getCode(), Bytes.wrap(compressed)), output);
-    } else {
-      frameMessage(message, output);
-    }
+    frameMessage(message, output, compressionEnabled);
+  }
+
+  /**
+   * Returns the most bytes that framing a message could write, so output buffers can be allocated
+   * at their final size rather than growing as the frame is written.
+   *
+   * @param message The message to frame.
+   * @return The maximum size of the framed message.
+   */
+  public int maxFramedSize(final MessageData message) {
+    return LENGTH_FULL_HEADER + maxFrameDataSize(message, compressionEnabled) + LENGTH_MAC;
   }
 
   @VisibleForTesting
   void frameMessage(final MessageData message, final ByteBuf buf) {
-    final int frameSize = message.getSize() + LENGTH_MESSAGE_ID;
-    final int pad = padding16(frameSize);
+    frameMessage(message, buf, false);
+  }
+
+  private void frameMessage(final MessageData message, final ByteBuf buf, final boolean compress) {
+    final int maxFrameDataSize = maxFrameDataSize(message, compress);
+    buf.ensureWritable(LENGTH_FULL_HEADER + maxFrameDataSize + LENGTH_MAC);
+    final int headerIndex = buf.writerIndex();
+    final int frameIndex = headerIndex + LENGTH_FULL_HEADER;
+    final boolean inPlace = buf.hasArray();
+    final byte[] f = inPlace ? buf.array() : new byte[maxFrameDataSize];
+    final int offset = inPlace ? buf.arrayOffset() + frameIndex : 0;
 
+    // Write the id and the, possibly compressed, message data into the frame.
     final byte id = (byte) message.getCode();
+    final Bytes bv = id == 0 ? RLP.NULL : RLP.encodeOne(Bytes.of(id));
+    assert bv.size() == 1;
+    f[offset] = bv.get(0);
+    final Bytes data = message.getData();
+    final int dataLength;
+    if (compress) {
+      dataLength =
+          compressor.compress(
+              data.toArrayUnsafe(), 0, data.size(), f, offset + LENGTH_MESSAGE_ID);
+    } else {
+      data.copyTo(MutableBytes.wrap(f), offset + LENGTH_MESSAGE_ID);
+      dataLength = data.size();
+    }
+    final int frameSize = dataLength + LENGTH_MESSAGE_ID;
+    final int pad = padding16(frameSize);
+    // Zero-padded to 16-byte boundary.
+    Arrays.fill(f, offset + frameSize, offset + frameSize + pad, (byte) 0x00);
 
     // Generate the header data.
     final byte[] h = new byte[LENGTH_HEADER_DATA];
@@ -327,30 +383,35 @@ public class Framer {
 
     // Generate the header MAC.
     byte[] hMac = Arrays.copyOf(secrets.getEgressMac(), LENGTH_MAC);
-    macEncryptor.processBlock(hMac, 0, hMac, 0);
+    egressMacEncryptor.processBlock(hMac, 0, hMac, 0);
     hMac = secrets.updateEgress(xor(h, hMac)).getEgressMac();
     hMac = Arrays.copyOf(hMac, LENGTH_MAC);
-    buf.writeBytes(h).writeBytes(hMac);
+    buf.setBytes(headerIndex, h).setBytes(headerIndex + LENGTH_HEADER_DATA, hMac, 0, LENGTH_MAC);
 
     // Encrypt payload.
-    final MutableBytes f = MutableBytes.create(frameSize + pad);
-
-    final Bytes bv = id == 0 ? RLP.NULL : RLP.encodeOne(Bytes.of(id));
-    assert bv.size() == 1;
-    f.set(0, bv.get(0));
-
-    // Zero-padded to 16-byte boundary.
-    message.getData().copyTo(f, 1);
-    encryptor.processBytes(f.toArrayUnsafe(), 0, f.size(), f.toArrayUnsafe(), 0);
+    final int frameDataLength = frameSize + pad;
+    encryptor.processBytes(f, offset, frameDataLength, f, offset);
+    if (!inPlace) {
+      buf.setBytes(frameIndex, f, 0, frameDataLength);
+    }
 
     // Calculate the frame MAC.
     final byte[] fMacSeed =
-        Arrays.copyOf(secrets.updateEgress(f.toArrayUnsafe()).getEgressMac(), LENGTH_MAC);
+        Arrays.copyOf(
+            secrets.updateEgress(f, offset, frameDataLength).getEgressMac(), LENGTH_MAC);
     byte[] fMac = new byte[16];
-    macEncryptor.processBlock(fMacSeed, 0, fMac, 0);
+    egressMacEncryptor.processBlock(fMacSeed, 0, fMac, 0);
     fMac = Arrays.copyOf(secrets.updateEgress(xor(fMac, fMacSeed)).getEgressMac(), LENGTH_MAC);
 
-    buf.writeBytes(f.toArrayUnsafe()).writeBytes(fMac);
+    buf.setBytes(frameIndex + frameDataLength, fMac);
+    buf.writerIndex(frameIndex + frameDataLength + LENGTH_MAC);
+  }
+
+  private int maxFrameDataSize(final MessageData message, final boolean compress) {
+    final int maxDataLength =
+        compress ? compressor.maxCompressedLength(message.getSize()) : message.getSize();
+    final int maxFrameSize = LENGTH_MESSAGE_ID + maxDataLength;
+    return maxFrameSize + padding16(maxFrameSize);
   }
 
   private static int padding16(final int size) {
@@ -53,4 +53,61 @@ public class SnappyCompressor {
       throw new FramingException("Snappy uncompressedLength failed", e);
     }
   }
+
+  /**
+   * Compresses a range of an array into another array.
+   *
+   * @param uncompressed the array containing the data to compress
+   * @param offset the offset of the data in the array
+   * @param length the length of the data
+   * @param output the array to write the compressed data to, which must have at least {@link
+   *     #maxCompressedLength(int)} bytes available from {@code outputOffset}
+   * @param outputOffset the offset in the output array to start writing at
+   * @return the length of the compressed data
+   */
+  public int compress(
+      final byte[] uncompressed,
+      final int offset,
+      final int length,
+      final byte[] output,
+      final int outputOffset) {
+    checkNotNull(uncompressed, "input data must not be null");
+    try {
+      return Snappy.compress(uncompressed, offset, length, output, outputOffset);
+    } catch (final IOException e) {
+      throw new FramingException("Snappy compression failed", e);
+    }
+  }
+
+  /**
+   * Decompresses a range of an array into a new array.
+   *
+   * @param compressed the array containing the compressed data
+   * @param offset the offset of the compressed data in the array
+   * @param length the length of the compressed data
+   * @return the decompressed data
+   */
+  public byte[] decompress(final byte[] compressed, final int offset, final int length) {
+    checkNotNull(compressed, "input data must not be null");
+    try {
+      final byte[] uncompressed = new byte[Snappy.uncompressedLength(compressed, offset, length)];
+      Snappy.uncompress(compressed, offset, length, uncompressed, 0);
+      return uncompressed;
+    } catch (final IOException e) {
+      throw new FramingException("Snappy decompression failed", e);
+    }
+  }
+
+  public int uncompressedLength(final byte[] compressed, final int offset, final int length) {
+    checkNotNull(compressed, "input data must not be null");
+    try {
+      return Snappy.uncompressedLength(compressed, offset, length);
+    } catch (final IOException e) {
+      throw new FramingException("Snappy uncompressedLength failed", e);
+    }
+  }
+
+  public int maxCompressedLength(final int uncompressedLength) {
+    return Snappy.maxCompressedLength(uncompressedLength);
+  }
 }
@@ -72,7 +72,19 @@ public class HandshakeSecrets {
    * @return Returns this instance for fluent chaining.
    */
   public HandshakeSecrets updateEgress(final byte[] bytes) {
-    egressMac.update(bytes, 0, bytes.length);
+    return updateEgress(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Updates the egress mac with a range of the provided bytes.
+   *
+   * @param bytes The array containing bytes of the outgoing message.
+   * @param offset The offset of the bytes in the array.
+   * @param length The number of bytes.
+   * @return Returns this instance for fluent chaining.
+   */
+  public HandshakeSecrets updateEgress(final byte[] bytes, final int offset, final int length) {
+    egressMac.update(bytes, offset, length);
     return this;
   }
 
@@ -83,7 +95,19 @@ public class HandshakeSecrets {
    * @return Returns this instance for fluent chaining.
    */
   public HandshakeSecrets updateIngress(final byte[] bytes) {
-    ingressMac.update(bytes, 0, bytes.length);
+    return updateIngress(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Updates the ingress mac with a range of the provided bytes.
+   *
+   * @param bytes The array containing bytes of the incoming message.
+   * @param offset The offset of the bytes in the array.
+   * @param length The number of bytes.
+   * @return Returns this instance for fluent chaining.
+   */
+  public HandshakeSecrets updateIngress(final byte[] bytes, final int offset, final int length) {
+    ingressMac.update(bytes, offset, length);
     return this;
   }
 
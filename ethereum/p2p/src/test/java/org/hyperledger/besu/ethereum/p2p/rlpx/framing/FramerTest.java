@@ -17,6 +17,7 @@ package org.hyperledger.besu.ethereum.p2p.rlpx.framing;
 import static io.netty.buffer.ByteBufUtil.decodeHexDump;
 import static io.netty.buffer.Unpooled.buffer;
 import static io.netty.buffer.Unpooled.wrappedBuffer;
+import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.StreamSupport.stream;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -31,6 +32,7 @@ import org.hyperledger.besu.ethereum.p2p.rlpx.wire.messages.DisconnectMessage;
 import org.hyperledger.besu.ethereum.p2p.rlpx.wire.messages.DisconnectMessage.DisconnectReason;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
 
@@ -217,6 +219,38 @@ public class FramerTest {
     }
   }
 
+  @Test
+  public void shouldRoundTripLargeMessagesThroughHeapAndDirectBuffers() {
+    final byte[] secret = new byte[32];
+    new Random(1).nextBytes(secret);
+    final Framer sendingFramer = new Framer(new HandshakeSecrets(secret, secret, secret));
+    final Framer receivingFramer = new Framer(new HandshakeSecrets(secret, secret, secret));
+
+    final byte[] data = new byte[1024 * 1024 + 5];
+    new Random(2).nextBytes(data);
+    // Leave part of the message compressible.
+    Arrays.fill(data, 0, data.length / 2, (byte) 0x42);
+    final MessageData message = new RawMessage(0x13, Bytes.wrap(data));
+
+    for (final boolean compression : asList(false, true)) {
+      if (compression) {
+        sendingFramer.enableCompression();
+        receivingFramer.enableCompression();
+      }
+      for (final ByteBuf buf : asList(Unpooled.buffer(), Unpooled.directBuffer())) {
+        sendingFramer.frame(message, buf);
+        sendingFramer.frame(message, buf);
+
+        for (int i = 0; i < 2; i++) {
+          final MessageData received = receivingFramer.deframe(buf);
+          assertThat(received.getCode()).isEqualTo(message.getCode());
+          assertThat(received.getData()).isEqualTo(message.getData());
+        }
+        assertThat(buf.readableBytes()).isZero();
+      }
+    }
+  }
+
   @Test
   public void shouldThrowFramingExceptionWhenMessageIsNotCompressedButShouldBe() {
     final HandshakeSecrets secrets =
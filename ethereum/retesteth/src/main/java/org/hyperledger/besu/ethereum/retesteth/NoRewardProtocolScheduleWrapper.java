@@ -24,6 +24,8 @@ import org.hyperledger.besu.ethereum.mainnet.MainnetBlockImporter;
 import org.hyperledger.besu.ethereum.mainnet.MainnetBlockProcessor;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSpec;
+import org.hyperledger.besu.ethereum.mainnet.SpeculativeTransactionExecutor;
+import org.hyperledger.besu.ethereum.mainnet.TransactionPrefetcher;
 
 import java.math.BigInteger;
 import java.util.Optional;
@@ -84,4 +86,15 @@ public class NoRewardProtocolScheduleWrapper<C> implements ProtocolSchedule<C> {
   public void setTransactionFilter(final TransactionFilter transactionFilter) {
     delegate.setTransactionFilter(transactionFilter);
   }
+
+  @Override
+  public void setSpeculativeTransactionExecutor(
+      final SpeculativeTransactionExecutor speculativeTransactionExecutor) {
+    delegate.setSpeculativeTransactionExecutor(speculativeTransactionExecutor);
+  }
+
+  @Override
+  public void setTransactionPrefetcher(final TransactionPrefetcher transactionPrefetcher) {
+    delegate.setTransactionPrefetcher(transactionPrefetcher);
+  }
 }
@@ -19,6 +19,7 @@ import static org.hyperledger.besu.config.JsonUtil.normalizeKeys;
 import org.hyperledger.besu.config.JsonGenesisConfigOptions;
 import org.hyperledger.besu.config.JsonUtil;
 import org.hyperledger.besu.ethereum.ProtocolContext;
+import org.hyperledger.besu.ethereum.api.jsonrpc.JsonRpcConfiguration;
 import org.hyperledger.besu.ethereum.api.jsonrpc.internal.processor.BlockReplay;
 import org.hyperledger.besu.ethereum.api.query.BlockchainQueries;
 import org.hyperledger.besu.ethereum.blockcreation.IncrementingNonceGenerator;
@@ -57,9 +58,12 @@ import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
 import org.hyperledger.besu.util.Subscribers;
 
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Suppliers;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -70,6 +74,10 @@ public class RetestethContext {
       (final byte[] buffer, final long nonce, final long number, final byte[] headerHash) -> {};
 
   private final ReentrantLock contextLock = new ReentrantLock();
+  // Kept across context resets rather than starting new threads for every test.
+  private final Supplier<ForkJoinPool> replayPool =
+      Suppliers.memoize(
+          () -> BlockReplay.createReplayPool(JsonRpcConfiguration.DEFAULT_TRACING_THREADS));
   private Address coinbase;
   private MutableBlockchain blockchain;
   private ProtocolContext<Void> protocolContext;
@@ -156,7 +164,8 @@ public class RetestethContext {
         new BlockReplay(
             protocolSchedule,
             blockchainQueries.getBlockchain(),
-            blockchainQueries.getWorldStateArchive());
+            blockchainQueries.getWorldStateArchive(),
+            replayPool);
 
     // mining support
 
@@ -0,0 +1,85 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.plugin.services.storage;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+/**
+ * Iterates over a range of a storage that has no native iteration support, by sorting the keys
+ * within the range up front and reading each value as the iterator reaches its key. Keys removed
+ * after the iterator was created are skipped.
+ */
+final class FilteredKeyValueStorageIterator implements KeyValueStorageIterator {
+
+  private final KeyValueStorage storage;
+  private final NavigableSet<byte[]> keys;
+  private final byte[] fromKey;
+  private Iterator<byte[]> keyIterator;
+  private Map.Entry<byte[], byte[]> nextEntry;
+
+  private FilteredKeyValueStorageIterator(
+      final KeyValueStorage storage, final NavigableSet<byte[]> keys, final byte[] fromKey) {
+    this.storage = storage;
+    this.keys = keys;
+    this.fromKey = fromKey;
+    this.keyIterator = keys.iterator();
+  }
+
+  static FilteredKeyValueStorageIterator create(
+      final KeyValueStorage storage, final byte[] fromKey, final byte[] toKey) {
+    final NavigableSet<byte[]> keys = new TreeSet<>(Arrays::compareUnsigned);
+    keys.addAll(
+        storage.getAllKeysThat(
+            key ->
+                Arrays.compareUnsigned(key, fromKey) >= 0
+                    && (toKey.length == 0 || Arrays.compareUnsigned(key, toKey) < 0)));
+    return new FilteredKeyValueStorageIterator(storage, keys, fromKey);
+  }
+
+  @Override
+  public void seek(final byte[] key) {
+    final byte[] seekKey = Arrays.compareUnsigned(key, fromKey) < 0 ? fromKey : key;
+    keyIterator = keys.tailSet(seekKey, true).iterator();
+    nextEntry = null;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (nextEntry == null && keyIterator.hasNext()) {
+      final byte[] key = keyIterator.next();
+      storage.get(key).ifPresent(value -> nextEntry = new SimpleImmutableEntry<>(key, value));
+    }
+    return nextEntry != null;
+  }
+
+  @Override
+  public Map.Entry<byte[], byte[]> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final Map.Entry<byte[], byte[]> entry = nextEntry;
+    nextEntry = null;
+    return entry;
+  }
+
+  @Override
+  public void close() {}
+}
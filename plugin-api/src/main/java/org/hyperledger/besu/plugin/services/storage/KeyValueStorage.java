@@ -18,6 +18,9 @@ import org.hyperledger.besu.plugin.Unstable;
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -60,6 +63,23 @@ public interface KeyValueStorage extends Closeable {
    */
   Optional<byte[]> get(byte[] key) throws StorageException;
 
+  /**
+   * Retrieves the values associated with a batch of keys. Implementations backed by a database
+   * should override this to fetch all keys in a single round trip.
+   *
+   * @param keys the keys whose associated values are being retrieved.
+   * @return a list with one entry per key, in the same order as the keys, each containing the
+   *     associated value, otherwise empty.
+   * @throws StorageException problem encountered during the retrieval attempt.
+   */
+  default List<Optional<byte[]>> getAll(final List<byte[]> keys) throws StorageException {
+    final List<Optional<byte[]>> values = new ArrayList<>(keys.size());
+    for (final byte[] key : keys) {
+      values.add(get(key));
+    }
+    return values;
+  }
+
   /**
    * Performs an evaluation against each key in the store, keeping the entries that pass, removing
    * those that fail.
@@ -80,6 +100,47 @@ public interface KeyValueStorage extends Closeable {
    */
   Set<byte[]> getAllKeysThat(Predicate<byte[]> returnCondition);
 
+  /**
+   * Iterates over the entries whose keys are within the given range, in ascending order of their
+   * keys compared as unsigned bytes. Entries are only read as the iterator advances.
+   *
+   * <p>The default implementation collects and sorts the matching keys with {@link
+   * #getAllKeysThat(Predicate)} and reads each value with {@link #get(byte[])}. Implementations
+   * backed by a database should override this to iterate natively.
+   *
+   * @param fromKey the inclusive lower bound of the keys to iterate over.
+   * @param toKey the exclusive upper bound of the keys to iterate over, or an empty array to
+   *     iterate to the last key in the store.
+   * @return an iterator over the entries in the range, which must be closed after use.
+   * @throws StorageException problem encountered when starting the iteration.
+   */
+  default KeyValueStorageIterator iterator(final byte[] fromKey, final byte[] toKey)
+      throws StorageException {
+    return FilteredKeyValueStorageIterator.create(this, fromKey, toKey);
+  }
+
+  /**
+   * Iterates over the entries whose keys start with the given prefix, in ascending order of their
+   * keys compared as unsigned bytes. Entries are only read as the iterator advances.
+   *
+   * @param prefix the prefix of the keys to iterate over, an empty prefix matches every key.
+   * @return an iterator over the matching entries, which must be closed after use.
+   * @throws StorageException problem encountered when starting the iteration.
+   */
+  default KeyValueStorageIterator iteratorWithPrefix(final byte[] prefix) throws StorageException {
+    // The first key after every key with the prefix, found by incrementing the last byte that can
+    // be incremented. A prefix of only 0xff bytes has no such key.
+    int length = prefix.length;
+    while (length > 0 && prefix[length - 1] == (byte) 0xff) {
+      length--;
+    }
+    final byte[] toKey = Arrays.copyOf(prefix, length);
+    if (length > 0) {
+      toKey[length - 1]++;
+    }
+    return iterator(prefix, toKey);
+  }
+
   /**
    * Begins a fresh transaction, for sequencing operations for later atomic execution.
    *
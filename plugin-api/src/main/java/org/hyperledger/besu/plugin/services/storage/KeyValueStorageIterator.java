@@ -0,0 +1,47 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.plugin.services.storage;
+
+import org.hyperledger.besu.plugin.Unstable;
+import org.hyperledger.besu.plugin.services.exception.StorageException;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Iterates over a range of key-value entries in ascending order of their keys, comparing keys as
+ * unsigned bytes.
+ *
+ * <p>Entries are read from the storage as the iterator advances, so a consumer controls how much
+ * is read at a time. The iterator holds resources of the storage and must be closed once it is no
+ * longer required.
+ */
+@Unstable
+public interface KeyValueStorageIterator
+    extends Iterator<Map.Entry<byte[], byte[]>>, AutoCloseable {
+
+  /**
+   * Moves the iterator to the first entry whose key is equal to or greater than the given key.
+   * Keys before the lower bound of the iterated range are treated as the lower bound.
+   *
+   * @param key the key to move to.
+   * @throws StorageException problem encountered when moving through the storage.
+   */
+  void seek(byte[] key) throws StorageException;
+
+  /** Releases the resources held by the iterator. */
+  @Override
+  void close();
+}
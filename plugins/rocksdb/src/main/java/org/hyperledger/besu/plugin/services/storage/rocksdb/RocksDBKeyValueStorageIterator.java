@@ -0,0 +1,120 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.plugin.services.storage.rocksdb;
+
+import org.hyperledger.besu.plugin.services.exception.StorageException;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageIterator;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.Slice;
+
+/**
+ * Iterates over a key range with a {@link RocksIterator}. The upper bound is handed to RocksDB so
+ * it can stop reading at the end of the range, and the read ahead size lets sequential scans read
+ * larger blocks from disk.
+ */
+public class RocksDBKeyValueStorageIterator implements KeyValueStorageIterator {
+
+  private final RocksIterator rocksIterator;
+  private final ReadOptions readOptions;
+  private final Optional<Slice> upperBound;
+  private final byte[] fromKey;
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+
+  private RocksDBKeyValueStorageIterator(
+      final RocksIterator rocksIterator,
+      final ReadOptions readOptions,
+      final Optional<Slice> upperBound,
+      final byte[] fromKey) {
+    this.rocksIterator = rocksIterator;
+    this.readOptions = readOptions;
+    this.upperBound = upperBound;
+    this.fromKey = fromKey;
+  }
+
+  /**
+   * Creates an iterator positioned at the first key in the range.
+   *
+   * @param iteratorFactory creates the underlying iterator with the given read options
+   * @param fromKey the inclusive lower bound of the range
+   * @param toKey the exclusive upper bound of the range, or empty for no upper bound
+   * @param readaheadSize the number of bytes to read ahead, or 0 to leave it to RocksDB
+   * @return the iterator
+   */
+  public static RocksDBKeyValueStorageIterator create(
+      final Function<ReadOptions, RocksIterator> iteratorFactory,
+      final byte[] fromKey,
+      final byte[] toKey,
+      final long readaheadSize) {
+    final ReadOptions readOptions = new ReadOptions().setReadaheadSize(readaheadSize);
+    final Optional<Slice> upperBound =
+        toKey.length == 0 ? Optional.empty() : Optional.of(new Slice(toKey));
+    upperBound.ifPresent(readOptions::setIterateUpperBound);
+    final RocksDBKeyValueStorageIterator iterator =
+        new RocksDBKeyValueStorageIterator(
+            iteratorFactory.apply(readOptions), readOptions, upperBound, fromKey);
+    iterator.seek(fromKey);
+    return iterator;
+  }
+
+  @Override
+  public void seek(final byte[] key) {
+    rocksIterator.seek(Arrays.compareUnsigned(key, fromKey) < 0 ? fromKey : key);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (rocksIterator.isValid()) {
+      return true;
+    }
+    try {
+      // An iterator also becomes invalid when reading fails, which is only reported here.
+      rocksIterator.status();
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+    return false;
+  }
+
+  @Override
+  public Map.Entry<byte[], byte[]> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final Map.Entry<byte[], byte[]> entry =
+        new AbstractMap.SimpleImmutableEntry<>(rocksIterator.key(), rocksIterator.value());
+    rocksIterator.next();
+    return entry;
+  }
+
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      rocksIterator.close();
+      readOptions.close();
+      upperBound.ifPresent(Slice::close);
+    }
+  }
+}
@@ -23,6 +23,7 @@ public class RocksDBCLIOptions {
   public static final long DEFAULT_CACHE_CAPACITY = 8388608;
   public static final int DEFAULT_MAX_BACKGROUND_COMPACTIONS = 4;
   public static final int DEFAULT_BACKGROUND_THREAD_COUNT = 4;
+  public static final long DEFAULT_ITERATOR_READAHEAD_SIZE = 262144;
 
   private static final String MAX_OPEN_FILES_FLAG = "--Xplugin-rocksdb-max-open-files";
   private static final String CACHE_CAPACITY_FLAG = "--Xplugin-rocksdb-cache-capacity";
@@ -30,6 +31,8 @@ public class RocksDBCLIOptions {
       "--Xplugin-rocksdb-max-background-compactions";
   private static final String BACKGROUND_THREAD_COUNT_FLAG =
       "--Xplugin-rocksdb-background-thread-count";
+  private static final String ITERATOR_READAHEAD_SIZE_FLAG =
+      "--Xplugin-rocksdb-iterator-readahead-size";
 
   @CommandLine.Option(
       names = {MAX_OPEN_FILES_FLAG},
@@ -63,6 +66,15 @@ public class RocksDBCLIOptions {
       description = "Number of RocksDB background threads (default: ${DEFAULT-VALUE})")
   int backgroundThreadCount;
 
+  @CommandLine.Option(
+      names = {ITERATOR_READAHEAD_SIZE_FLAG},
+      hidden = true,
+      defaultValue = "262144",
+      paramLabel = "<LONG>",
+      description =
+          "Number of bytes RocksDB reads ahead when iterating over a key range, 0 to let RocksDB decide (default: ${DEFAULT-VALUE})")
+  long iteratorReadaheadSize;
+
   private RocksDBCLIOptions() {}
 
   public static RocksDBCLIOptions create() {
@@ -75,12 +87,17 @@ public class RocksDBCLIOptions {
     options.cacheCapacity = config.getCacheCapacity();
     options.maxBackgroundCompactions = config.getMaxBackgroundCompactions();
     options.backgroundThreadCount = config.getBackgroundThreadCount();
+    options.iteratorReadaheadSize = config.getIteratorReadaheadSize();
     return options;
   }
 
   public RocksDBFactoryConfiguration toDomainObject() {
     return new RocksDBFactoryConfiguration(
-        maxOpenFiles, maxBackgroundCompactions, backgroundThreadCount, cacheCapacity);
+        maxOpenFiles,
+        maxBackgroundCompactions,
+        backgroundThreadCount,
+        cacheCapacity,
+        iteratorReadaheadSize);
   }
 
   @Override
@@ -90,6 +107,7 @@ public class RocksDBCLIOptions {
         .add("cacheCapacity", cacheCapacity)
         .add("maxBackgroundCompactions", maxBackgroundCompactions)
         .add("backgroundThreadCount", backgroundThreadCount)
+        .add("iteratorReadaheadSize", iteratorReadaheadSize)
         .toString();
   }
 }
@@ -24,6 +24,7 @@ public class RocksDBConfiguration {
   private final int maxBackgroundCompactions;
   private final int backgroundThreadCount;
   private final long cacheCapacity;
+  private final long iteratorReadaheadSize;
 
   public RocksDBConfiguration(
       final Path databaseDir,
@@ -31,12 +32,14 @@ public class RocksDBConfiguration {
       final int maxBackgroundCompactions,
       final int backgroundThreadCount,
       final long cacheCapacity,
+      final long iteratorReadaheadSize,
       final String label) {
     this.maxBackgroundCompactions = maxBackgroundCompactions;
     this.backgroundThreadCount = backgroundThreadCount;
     this.databaseDir = databaseDir;
     this.maxOpenFiles = maxOpenFiles;
     this.cacheCapacity = cacheCapacity;
+    this.iteratorReadaheadSize = iteratorReadaheadSize;
     this.label = label;
   }
 
@@ -60,6 +63,10 @@ public class RocksDBConfiguration {
     return cacheCapacity;
   }
 
+  public long getIteratorReadaheadSize() {
+    return iteratorReadaheadSize;
+  }
+
   public String getLabel() {
     return label;
   }
@@ -14,22 +14,40 @@
  */
 package org.hyperledger.besu.plugin.services.storage.rocksdb.configuration;
 
+import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_ITERATOR_READAHEAD_SIZE;
+
 public class RocksDBFactoryConfiguration {
 
   private final int maxOpenFiles;
   private final int maxBackgroundCompactions;
   private final int backgroundThreadCount;
   private final long cacheCapacity;
+  private final long iteratorReadaheadSize;
 
   public RocksDBFactoryConfiguration(
       final int maxOpenFiles,
       final int maxBackgroundCompactions,
       final int backgroundThreadCount,
       final long cacheCapacity) {
+    this(
+        maxOpenFiles,
+        maxBackgroundCompactions,
+        backgroundThreadCount,
+        cacheCapacity,
+        DEFAULT_ITERATOR_READAHEAD_SIZE);
+  }
+
+  public RocksDBFactoryConfiguration(
+      final int maxOpenFiles,
+      final int maxBackgroundCompactions,
+      final int backgroundThreadCount,
+      final long cacheCapacity,
+      final long iteratorReadaheadSize) {
     this.maxBackgroundCompactions = maxBackgroundCompactions;
     this.backgroundThreadCount = backgroundThreadCount;
     this.maxOpenFiles = maxOpenFiles;
     this.cacheCapacity = cacheCapacity;
+    this.iteratorReadaheadSize = iteratorReadaheadSize;
   }
 
   public int getMaxOpenFiles() {
@@ -47,4 +65,8 @@ public class RocksDBFactoryConfiguration {
   public long getCacheCapacity() {
     return cacheCapacity;
   }
+
+  public long getIteratorReadaheadSize() {
+    return iteratorReadaheadSize;
+  }
 }
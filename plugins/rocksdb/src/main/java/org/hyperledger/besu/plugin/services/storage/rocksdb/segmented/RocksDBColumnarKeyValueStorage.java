@@ -19,7 +19,9 @@ import static java.util.Objects.requireNonNullElse;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageIterator;
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBKeyValueStorageIterator;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetrics;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetricsFactory;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDbUtil;
@@ -30,6 +32,7 @@ import org.hyperledger.besu.services.kvstore.SegmentedKeyValueStorageTransaction
 import java.io.Closeable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -44,6 +47,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
 import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
 import org.rocksdb.ColumnFamilyOptions;
@@ -66,6 +70,9 @@ public class RocksDBColumnarKeyValueStorage
 
   private static final Logger LOG = LogManager.getLogger();
   private static final String DEFAULT_COLUMN = "default";
+  // Lets lookups for keys that aren't stored, like most world state nodes during fast sync, be
+  // answered from memory instead of reading a block from each level.
+  private static final int BLOOM_FILTER_BITS_PER_KEY = 10;
 
   private final DBOptions options;
   private final TransactionDBOptions txOptions;
@@ -73,6 +80,7 @@ public class RocksDBColumnarKeyValueStorage
   private final AtomicBoolean closed = new AtomicBoolean(false);
   private final Map<String, ColumnFamilyHandle> columnHandlesByName;
   private final RocksDBMetrics metrics;
+  private final long iteratorReadaheadSize;
 
   public RocksDBColumnarKeyValueStorage(
       final RocksDBConfiguration configuration,
@@ -84,7 +92,12 @@ public class RocksDBColumnarKeyValueStorage
     try {
       final List<ColumnFamilyDescriptor> columnDescriptors =
           segments.stream()
-              .map(segment -> new ColumnFamilyDescriptor(segment.getId()))
+              .map(
+                  segment ->
+                      new ColumnFamilyDescriptor(
+                          segment.getId(),
+                          new ColumnFamilyOptions()
+                              .setTableFormatConfig(createSegmentTableConfig())))
               .collect(Collectors.toList());
       columnDescriptors.add(
           new ColumnFamilyDescriptor(
@@ -113,6 +126,7 @@ public class RocksDBColumnarKeyValueStorage
               columnDescriptors,
               columnHandles);
       metrics = rocksDBMetricsFactory.create(metricsSystem, configuration, db, stats);
+      iteratorReadaheadSize = configuration.getIteratorReadaheadSize();
       final Map<Bytes, String> segmentsById =
           segments.stream()
               .collect(
@@ -139,6 +153,11 @@ public class RocksDBColumnarKeyValueStorage
     return new BlockBasedTableConfig().setBlockCache(cache);
   }
 
+  private BlockBasedTableConfig createSegmentTableConfig() {
+    return new BlockBasedTableConfig()
+        .setFilterPolicy(new BloomFilter(BLOOM_FILTER_BITS_PER_KEY, false));
+  }
+
   @Override
   public ColumnFamilyHandle getSegmentIdentifierByName(final SegmentIdentifier segment) {
     return columnHandlesByName.get(segment.getName());
@@ -156,6 +175,22 @@ public class RocksDBColumnarKeyValueStorage
     }
   }
 
+  @Override
+  public List<Optional<byte[]>> getAll(final ColumnFamilyHandle segment, final List<byte[]> keys)
+      throws StorageException {
+    throwIfClosed();
+
+    try (final OperationTimer.TimingContext ignored = metrics.getReadLatency().startTimer()) {
+      final List<byte[]> values =
+          db.multiGetAsList(Collections.nCopies(keys.size(), segment), keys);
+      final List<Optional<byte[]>> result = new ArrayList<>(values.size());
+      values.forEach(value -> result.add(Optional.ofNullable(value)));
+      return result;
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
   @Override
   public Transaction<ColumnFamilyHandle> startTransaction() throws StorageException {
     throwIfClosed();
@@ -201,6 +236,18 @@ public class RocksDBColumnarKeyValueStorage
     return returnedKeys;
   }
 
+  @Override
+  public KeyValueStorageIterator iterator(
+      final ColumnFamilyHandle segmentHandle, final byte[] fromKey, final byte[] toKey)
+      throws StorageException {
+    throwIfClosed();
+    return RocksDBKeyValueStorageIterator.create(
+        readOptions -> db.newIterator(segmentHandle, readOptions),
+        fromKey,
+        toKey,
+        iteratorReadaheadSize);
+  }
+
   @Override
   public void clear(final ColumnFamilyHandle segmentHandle) {
     try (final RocksIterator rocksIterator = db.newIterator(segmentHandle)) {
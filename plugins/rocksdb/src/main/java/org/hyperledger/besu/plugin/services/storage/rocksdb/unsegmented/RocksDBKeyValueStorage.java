@@ -18,13 +18,17 @@ import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageIterator;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBKeyValueStorageIterator;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetrics;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetricsFactory;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDbUtil;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBConfiguration;
 import org.hyperledger.besu.services.kvstore.KeyValueStorageTransactionTransitionValidatorDecorator;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -34,6 +38,7 @@ import com.google.common.collect.Sets;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
 import org.rocksdb.LRUCache;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDBException;
@@ -50,12 +55,16 @@ public class RocksDBKeyValueStorage implements KeyValueStorage {
   }
 
   private static final Logger LOG = LogManager.getLogger();
+  // Lets lookups for keys that aren't stored be answered from memory instead of reading a block
+  // from each level.
+  private static final int BLOOM_FILTER_BITS_PER_KEY = 10;
 
   private final Options options;
   private final TransactionDBOptions txOptions;
   private final TransactionDB db;
   private final AtomicBoolean closed = new AtomicBoolean(false);
   private final RocksDBMetrics rocksDBMetrics;
+  private final long iteratorReadaheadSize;
 
   public RocksDBKeyValueStorage(
       final RocksDBConfiguration configuration,
@@ -76,6 +85,7 @@ public class RocksDBKeyValueStorage implements KeyValueStorage {
       txOptions = new TransactionDBOptions();
       db = TransactionDB.open(options, txOptions, configuration.getDatabaseDir().toString());
       rocksDBMetrics = rocksDBMetricsFactory.create(metricsSystem, configuration, db, stats);
+      iteratorReadaheadSize = configuration.getIteratorReadaheadSize();
     } catch (final RocksDBException e) {
       throw new StorageException(e);
     }
@@ -116,6 +126,21 @@ public class RocksDBKeyValueStorage implements KeyValueStorage {
     }
   }
 
+  @Override
+  public List<Optional<byte[]>> getAll(final List<byte[]> keys) throws StorageException {
+    throwIfClosed();
+
+    try (final OperationTimer.TimingContext ignored =
+        rocksDBMetrics.getReadLatency().startTimer()) {
+      final List<byte[]> values = db.multiGetAsList(keys);
+      final List<Optional<byte[]>> result = new ArrayList<>(values.size());
+      values.forEach(value -> result.add(Optional.ofNullable(value)));
+      return result;
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
   @Override
   public long removeAllKeysUnless(final Predicate<byte[]> retainCondition) throws StorageException {
     long removedNodeCounter = 0;
@@ -151,6 +176,14 @@ public class RocksDBKeyValueStorage implements KeyValueStorage {
     return returnedKeys;
   }
 
+  @Override
+  public KeyValueStorageIterator iterator(final byte[] fromKey, final byte[] toKey)
+      throws StorageException {
+    throwIfClosed();
+    return RocksDBKeyValueStorageIterator.create(
+        db::newIterator, fromKey, toKey, iteratorReadaheadSize);
+  }
+
   @Override
   public KeyValueStorageTransaction startTransaction() throws StorageException {
     throwIfClosed();
@@ -170,7 +203,9 @@ public class RocksDBKeyValueStorage implements KeyValueStorage {
 
   private BlockBasedTableConfig createBlockBasedTableConfig(final RocksDBConfiguration config) {
     final LRUCache cache = new LRUCache(config.getCacheCapacity());
-    return new BlockBasedTableConfig().setBlockCache(cache);
+    return new BlockBasedTableConfig()
+        .setBlockCache(cache)
+        .setFilterPolicy(new BloomFilter(BLOOM_FILTER_BITS_PER_KEY, false));
   }
 
   private void throwIfClosed() {
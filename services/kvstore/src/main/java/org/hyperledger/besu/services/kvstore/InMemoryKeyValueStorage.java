@@ -16,6 +16,7 @@ package org.hyperledger.besu.services.kvstore;
 
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageIterator;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
 
 import java.util.HashMap;
@@ -98,6 +99,17 @@ public class InMemoryKeyValueStorage implements KeyValueStorage {
         .collect(Collectors.toSet());
   }
 
+  @Override
+  public KeyValueStorageIterator iterator(final byte[] fromKey, final byte[] toKey) {
+    final Lock lock = rwLock.readLock();
+    lock.lock();
+    try {
+      return InMemoryKeyValueStorageIterator.create(hashValueStore, fromKey, toKey);
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public void close() {}
 
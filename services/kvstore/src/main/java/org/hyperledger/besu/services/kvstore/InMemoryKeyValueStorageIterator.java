@@ -0,0 +1,76 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.services.kvstore;
+
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageIterator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Iterates over a sorted copy of the entries of an in-memory store that are within a key range,
+ * taken when the iterator is created.
+ */
+class InMemoryKeyValueStorageIterator implements KeyValueStorageIterator {
+
+  private final NavigableMap<byte[], byte[]> entries;
+  private final byte[] fromKey;
+  private Iterator<Map.Entry<byte[], byte[]>> iterator;
+
+  private InMemoryKeyValueStorageIterator(
+      final NavigableMap<byte[], byte[]> entries, final byte[] fromKey) {
+    this.entries = entries;
+    this.fromKey = fromKey;
+    this.iterator = entries.entrySet().iterator();
+  }
+
+  static InMemoryKeyValueStorageIterator create(
+      final Map<Bytes, byte[]> store, final byte[] fromKey, final byte[] toKey) {
+    final NavigableMap<byte[], byte[]> entries = new TreeMap<>(Arrays::compareUnsigned);
+    store.forEach(
+        (key, value) -> {
+          final byte[] keyBytes = key.toArrayUnsafe();
+          if (Arrays.compareUnsigned(keyBytes, fromKey) >= 0
+              && (toKey.length == 0 || Arrays.compareUnsigned(keyBytes, toKey) < 0)) {
+            entries.put(keyBytes, value);
+          }
+        });
+    return new InMemoryKeyValueStorageIterator(entries, fromKey);
+  }
+
+  @Override
+  public void seek(final byte[] key) {
+    final byte[] seekKey = Arrays.compareUnsigned(key, fromKey) < 0 ? fromKey : key;
+    iterator = entries.tailMap(seekKey, true).entrySet().iterator();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return iterator.hasNext();
+  }
+
+  @Override
+  public Map.Entry<byte[], byte[]> next() {
+    return iterator.next();
+  }
+
+  @Override
+  public void close() {}
+}
@@ -15,9 +15,12 @@
 package org.hyperledger.besu.services.kvstore;
 
 import org.hyperledger.besu.plugin.services.exception.StorageException;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageIterator;
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
 
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -38,6 +41,20 @@ public interface SegmentedKeyValueStorage<S> extends Closeable {
    */
   Optional<byte[]> get(S segment, byte[] key) throws StorageException;
 
+  /**
+   * @param segment the segment
+   * @param keys Indexes into persistent data repository.
+   * @return The values persisted at each key index, in the same order as the keys.
+   */
+  default List<Optional<byte[]>> getAll(final S segment, final List<byte[]> keys)
+      throws StorageException {
+    final List<Optional<byte[]>> values = new ArrayList<>(keys.size());
+    for (final byte[] key : keys) {
+      values.add(get(segment, key));
+    }
+    return values;
+  }
+
   default boolean containsKey(final S segment, final byte[] key) throws StorageException {
     return get(segment, key).isPresent();
   }
@@ -53,6 +70,15 @@ public interface SegmentedKeyValueStorage<S> extends Closeable {
 
   Set<byte[]> getAllKeysThat(S segmentHandle, Predicate<byte[]> returnCondition);
 
+  /**
+   * @param segmentHandle the segment
+   * @param fromKey Inclusive lower bound of the keys to iterate over.
+   * @param toKey Exclusive upper bound of the keys to iterate over, or empty for no upper bound.
+   * @return An iterator over the entries in the range, which must be closed after use.
+   */
+  KeyValueStorageIterator iterator(S segmentHandle, byte[] fromKey, byte[] toKey)
+      throws StorageException;
+
   void clear(S segmentHandle);
 
   /**
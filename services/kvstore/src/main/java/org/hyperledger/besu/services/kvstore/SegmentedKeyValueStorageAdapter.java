@@ -16,10 +16,12 @@ package org.hyperledger.besu.services.kvstore;
 
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageIterator;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -50,6 +52,11 @@ public class SegmentedKeyValueStorageAdapter<S> implements KeyValueStorage {
     return storage.get(segmentHandle, key);
   }
 
+  @Override
+  public List<Optional<byte[]>> getAll(final List<byte[]> keys) throws StorageException {
+    return storage.getAll(segmentHandle, keys);
+  }
+
   @Override
   public long removeAllKeysUnless(final Predicate<byte[]> retainCondition) throws StorageException {
     return storage.removeAllEntriesUnless(segmentHandle, retainCondition);
@@ -60,6 +67,12 @@ public class SegmentedKeyValueStorageAdapter<S> implements KeyValueStorage {
     return storage.getAllKeysThat(segmentHandle, returnCondition);
   }
 
+  @Override
+  public KeyValueStorageIterator iterator(final byte[] fromKey, final byte[] toKey)
+      throws StorageException {
+    return storage.iterator(segmentHandle, fromKey, toKey);
+  }
+
   @Override
   public void close() throws IOException {
     storage.close();
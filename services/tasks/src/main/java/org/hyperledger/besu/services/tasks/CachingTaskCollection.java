@@ -15,26 +15,38 @@
 package org.hyperledger.besu.services.tasks;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
-import java.util.HashSet;
-import java.util.Queue;
-import java.util.Set;
-
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds up to a maximum number of tasks in memory in front of another, usually disk backed,
+ * collection that takes the tasks added once the cache is full.
+ *
+ * <p>Cached tasks are spread over several queues so threads adding and removing tasks at the same
+ * time rarely contend on the same one: each thread uses the queue its id maps to, and steals from
+ * the other end of the other queues when its own is empty. The number of cached and outstanding
+ * tasks is kept in counters rather than a set guarded by a lock, and clearing the collection swaps
+ * in new queues and counters, so tasks removed before it was cleared can't affect it anymore.
+ */
 public class CachingTaskCollection<T> implements TaskCollection<T> {
 
   public static final int DEFAULT_CACHE_SIZE = 1_000_000;
+  private static final int QUEUE_COUNT = Math.max(2, Runtime.getRuntime().availableProcessors());
   private final int maxCacheSize;
 
   // The underlying collection
   private final TaskCollection<T> wrappedCollection;
   /**
-   * A cache of tasks to operate on before going to {@link CachingTaskCollection#wrappedCollection}
+   * The tasks to operate on before going to {@link CachingTaskCollection#wrappedCollection}, and
+   * the tasks removed from them but not completed yet.
    */
-  private final Queue<Task<T>> cache = new ArrayDeque<>();
-  // Tasks that have been removed, but not marked completed yet
-  private final Set<Task<T>> outstandingTasks = new HashSet<>();
+  private volatile Cache<T> cache = new Cache<>();
 
-  private boolean closed = false;
+  private volatile boolean closed = false;
 
   public CachingTaskCollection(final TaskCollection<T> collection, final int maxCacheSize) {
     this.wrappedCollection = collection;
@@ -46,74 +58,68 @@ public class CachingTaskCollection<T> implements TaskCollection<T> {
   }
 
   @Override
-  public synchronized void add(final T taskData) {
+  public void add(final T taskData) {
     assertNotClosed();
-    if (cacheSize() >= maxCacheSize) {
+    final Cache<T> currentCache = cache;
+    if (currentCache.size() >= maxCacheSize) {
       // Too many tasks in the cache, push this to the underlying collection
       wrappedCollection.add(taskData);
       return;
     }
 
-    Task<T> newTask = new CachedTask<>(this, taskData);
-    cache.add(newTask);
+    currentCache.add(new CachedTask<>(this, currentCache, taskData));
   }
 
   @Override
-  public synchronized Task<T> remove() {
+  public Task<T> remove() {
     assertNotClosed();
-    if (cache.size() == 0) {
+    final Task<T> pendingTask = cache.poll();
+    if (pendingTask == null) {
       return wrappedCollection.remove();
     }
-
-    final Task<T> pendingTask = cache.remove();
-    outstandingTasks.add(pendingTask);
     return pendingTask;
   }
 
   @Override
-  public synchronized void clear() {
+  public void clear() {
     assertNotClosed();
     wrappedCollection.clear();
-    outstandingTasks.clear();
-    cache.clear();
+    cache = new Cache<>();
   }
 
   @Override
-  public synchronized long size() {
-    return wrappedCollection.size() + cache.size();
+  public long size() {
+    return wrappedCollection.size() + cache.cachedTasks.sum();
   }
 
-  public synchronized int cacheSize() {
-    return outstandingTasks.size() + cache.size();
+  public int cacheSize() {
+    return (int) cache.size();
   }
 
   @Override
-  public synchronized boolean isEmpty() {
+  public boolean isEmpty() {
     return size() == 0;
   }
 
   /** @return True if all tasks have been removed and processed. */
   @Override
-  public synchronized boolean allTasksCompleted() {
-    return cacheSize() == 0 && wrappedCollection.allTasksCompleted();
-  }
-
-  private synchronized boolean completePendingTask(final CachedTask<T> cachedTask) {
-    return outstandingTasks.remove(cachedTask);
+  public boolean allTasksCompleted() {
+    return cache.size() == 0 && wrappedCollection.allTasksCompleted();
   }
 
-  private synchronized void failPendingTask(final CachedTask<T> cachedTask) {
-    if (completePendingTask(cachedTask)) {
-      cache.add(cachedTask);
+  private void failPendingTask(final CachedTask<T> cachedTask) {
+    final Cache<T> taskCache = cachedTask.cache;
+    if (taskCache == cache && !closed) {
+      taskCache.add(new CachedTask<>(this, taskCache, cachedTask.data));
     }
+    taskCache.outstandingTasks.decrement();
   }
 
   @Override
-  public synchronized void close() throws IOException {
-    outstandingTasks.clear();
-    cache.clear();
-    wrappedCollection.close();
+  public void close() throws IOException {
     closed = true;
+    cache = new Cache<>();
+    wrappedCollection.close();
   }
 
   private void assertNotClosed() {
@@ -122,12 +128,58 @@ public class CachingTaskCollection<T> implements TaskCollection<T> {
     }
   }
 
+  private static class Cache<T> {
+    private final List<Deque<CachedTask<T>>> queues = new ArrayList<>(QUEUE_COUNT);
+    private final LongAdder cachedTasks = new LongAdder();
+    // Tasks that have been removed, but not marked completed yet
+    private final LongAdder outstandingTasks = new LongAdder();
+
+    private Cache() {
+      for (int i = 0; i < QUEUE_COUNT; i++) {
+        queues.add(new ConcurrentLinkedDeque<>());
+      }
+    }
+
+    private static int queueIndexForCurrentThread() {
+      return (int) (Thread.currentThread().getId() % QUEUE_COUNT);
+    }
+
+    private long size() {
+      return cachedTasks.sum() + outstandingTasks.sum();
+    }
+
+    private void add(final CachedTask<T> task) {
+      // Counted before it's queued so it is never removed before being counted.
+      cachedTasks.increment();
+      queues.get(queueIndexForCurrentThread()).addLast(task);
+    }
+
+    private CachedTask<T> poll() {
+      final int ownQueue = queueIndexForCurrentThread();
+      for (int i = 0; i < QUEUE_COUNT; i++) {
+        final Deque<CachedTask<T>> queue = queues.get((ownQueue + i) % QUEUE_COUNT);
+        final CachedTask<T> task = i == 0 ? queue.pollFirst() : queue.pollLast();
+        if (task != null) {
+          // Counted as outstanding first so the cache never looks empty while it is in neither.
+          outstandingTasks.increment();
+          cachedTasks.decrement();
+          return task;
+        }
+      }
+      return null;
+    }
+  }
+
   private static class CachedTask<T> implements Task<T> {
+    private final AtomicBoolean completed = new AtomicBoolean(false);
     private final CachingTaskCollection<T> cachingTaskCollection;
+    private final Cache<T> cache;
     private final T data;
 
-    private CachedTask(final CachingTaskCollection<T> cachingTaskCollection, final T data) {
+    private CachedTask(
+        final CachingTaskCollection<T> cachingTaskCollection, final Cache<T> cache, final T data) {
       this.cachingTaskCollection = cachingTaskCollection;
+      this.cache = cache;
       this.data = data;
     }
 
@@ -138,12 +190,16 @@ public class CachingTaskCollection<T> implements TaskCollection<T> {
 
     @Override
     public void markCompleted() {
-      cachingTaskCollection.completePendingTask(this);
+      if (completed.compareAndSet(false, true)) {
+        cache.outstandingTasks.decrement();
+      }
     }
 
     @Override
     public void markFailed() {
-      cachingTaskCollection.failPendingTask(this);
+      if (completed.compareAndSet(false, true)) {
+        cachingTaskCollection.failPendingTask(this);
+      }
     }
   }
 }
@@ -14,41 +14,69 @@
  */
 package org.hyperledger.besu.services.tasks;
 
-import java.io.File;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
-import java.util.HashSet;
+import java.util.Deque;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Function;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
 
+/**
+ * Stores tasks in a series of segment files, read in the order they were written.
+ *
+ * <p>Adding a task only serializes it and queues it for a background writer, so callers never wait
+ * on disk. Tasks are removed from the oldest segment, which is deleted once it has been
+ * read. When there is nothing left to read from the segments, the remaining queued tasks are
+ * written straight away by the removing thread. Adding and removing tasks use separate locks, and
+ * outstanding tasks are tracked in a concurrent set.
+ */
 public class FlatFileTaskCollection<T> implements TaskCollection<T> {
   private static final Logger LOG = LogManager.getLogger();
   private static final long DEFAULT_FILE_ROLL_SIZE_BYTES = 1024 * 1024 * 10; // 10Mb
   static final String FILENAME_PREFIX = "tasks";
-  private final Set<FlatFileTask<T>> outstandingTasks = new HashSet<>();
+  private final Set<FlatFileTask<T>> outstandingTasks = ConcurrentHashMap.newKeySet();
 
   private final Path storageDirectory;
   private final Function<T, Bytes> serializer;
   private final Function<Bytes, T> deserializer;
-  private final long rollWhenFileSizeExceedsBytes;
+  private final int segmentSize;
 
-  private final ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+  // Tasks serialized but not written to a segment yet, in the order they were added.
+  private final Queue<Bytes> pendingWrites = new ConcurrentLinkedQueue<>();
+  // Segments with tasks left to read, oldest first, the last one being written to.
+  private final Deque<Segment> segments = new ConcurrentLinkedDeque<>();
+  private final Object readLock = new Object();
+  private final Object writeLock = new Object();
+  // Counts tasks when they are added, before they are queued, and uncounts them when removed or
+  // discarded, so it never falls behind the tasks that can be read.
+  private final AtomicLong size = new AtomicLong();
+  private final ExecutorService writerExecutor;
 
-  private FileChannel readFileChannel;
-  private FileChannel writeFileChannel;
+  private volatile Thread writerThread;
 
-  private long size = 0;
-  private int readFileNumber = 0;
-  private int writeFileNumber = 0;
+  private Segment writeSegment; // guarded by writeLock
+  private volatile RuntimeException writeFailure;
+  private volatile boolean closed = false;
 
   public FlatFileTaskCollection(
       final Path storageDirectory,
@@ -65,169 +93,215 @@ public class FlatFileTaskCollection<T> implements TaskCollection<T> {
     this.storageDirectory = storageDirectory;
     this.serializer = serializer;
     this.deserializer = deserializer;
-    this.rollWhenFileSizeExceedsBytes = rollWhenFileSizeExceedsBytes;
-    writeFileChannel = openWriteFileChannel(writeFileNumber);
-    readFileChannel = openReadFileChannel(readFileNumber);
+    this.segmentSize = (int) Math.min(rollWhenFileSizeExceedsBytes, Integer.MAX_VALUE);
+    writeSegment = openSegment(0, segmentSize);
+    segments.add(writeSegment);
+    writerExecutor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("FlatFileTaskCollection-Writer-%d")
+                .setDaemon(true)
+                .build());
+    writerExecutor.execute(this::writePendingTasks);
   }
 
-  private FileChannel openReadFileChannel(final int fileNumber) {
+  private Segment openSegment(final int fileNumber, final int capacity) {
     try {
-      return FileChannel.open(
-          pathForFileNumber(fileNumber),
-          StandardOpenOption.DELETE_ON_CLOSE,
-          StandardOpenOption.READ);
-    } catch (final IOException e) {
-      throw new StorageException(e);
-    }
-  }
-
-  private FileChannel openWriteFileChannel(final int fileNumber) {
-    try {
-      return FileChannel.open(
-          pathForFileNumber(fileNumber),
-          StandardOpenOption.TRUNCATE_EXISTING,
-          StandardOpenOption.WRITE,
-          StandardOpenOption.CREATE);
+      return Segment.open(pathForFileNumber(fileNumber), fileNumber, capacity);
     } catch (final IOException e) {
       throw new StorageException(e);
     }
   }
 
   @Override
-  public synchronized void add(final T taskData) {
+  public void add(final T taskData) {
+    assertWritable();
     final Bytes data = serializer.apply(taskData);
-    try {
-      writeTaskData(data);
-      size++;
-      if (writeFileChannel.size() > rollWhenFileSizeExceedsBytes) {
-        LOG.debug("Writing reached end of file {}", writeFileNumber);
-        writeFileChannel.close();
-        writeFileNumber++;
-        writeFileChannel = openWriteFileChannel(writeFileNumber);
-      }
-    } catch (final IOException e) {
-      throw new StorageException(e);
-    }
+    // Counted before it's queued so it is never removed before being counted.
+    size.incrementAndGet();
+    pendingWrites.add(data);
+    LockSupport.unpark(writerThread);
   }
 
   @Override
-  public synchronized Task<T> remove() {
+  public Task<T> remove() {
     if (isEmpty()) {
       return null;
     }
-    try {
-      final ByteBuffer dataBuffer = readNextTaskData();
-      final T data = deserializer.apply(Bytes.wrapByteBuffer(dataBuffer));
-      final FlatFileTask<T> task = new FlatFileTask<>(this, data);
-      outstandingTasks.add(task);
-      size--;
-      return task;
-    } catch (final IOException e) {
-      throw new StorageException(e);
+    final Bytes data;
+    synchronized (readLock) {
+      Bytes nextData = readNextTaskData();
+      while (nextData == null && size.get() > 0 && !closed) {
+        // The writer hasn't caught up, so write the remaining tasks now rather than waiting. A
+        // task being added may be counted but not queued yet, so try again until it is.
+        flushPendingWrites();
+        nextData = readNextTaskData();
+        if (nextData == null) {
+          Thread.onSpinWait();
+        }
+      }
+      if (nextData == null) {
+        return null;
+      }
+      data = nextData;
+      size.decrementAndGet();
     }
+    final FlatFileTask<T> task = new FlatFileTask<>(this, deserializer.apply(data));
+    outstandingTasks.add(task);
+    return task;
   }
 
-  private ByteBuffer readNextTaskData() throws IOException {
-    final int dataLength = readDataLength();
-    final ByteBuffer dataBuffer = ByteBuffer.allocate(dataLength);
-    readBytes(dataBuffer, dataLength);
-    return dataBuffer;
-  }
-
-  private void writeTaskData(final Bytes data) throws IOException {
-    final long offset = writeFileChannel.size();
-    writeDataLength(data.size(), offset);
-    writeFileChannel.write(ByteBuffer.wrap(data.toArrayUnsafe()), offset + Integer.BYTES);
+  private Bytes readNextTaskData() {
+    Segment segment = segments.peekFirst();
+    while (segment != null) {
+      // Checked before reading, as the segment is only sealed once everything has been written.
+      final boolean sealed = segment.isSealed();
+      final Bytes data;
+      try {
+        data = segment.read();
+      } catch (final IOException e) {
+        throw new StorageException(e);
+      }
+      if (data != null || !sealed) {
+        return data;
+      }
+      LOG.debug("Reading reached end of file {}", segment.getNumber());
+      segments.pollFirst();
+      deleteSegment(segment);
+      segment = segments.peekFirst();
+    }
+    return null;
   }
 
-  private int readDataLength() throws IOException {
-    lengthBuffer.position(0);
-    lengthBuffer.limit(Integer.BYTES);
-    readBytes(lengthBuffer, Integer.BYTES);
-    return lengthBuffer.getInt(0);
+  private void writePendingTasks() {
+    writerThread = Thread.currentThread();
+    while (!closed) {
+      if (pendingWrites.isEmpty()) {
+        LockSupport.park(this);
+        continue;
+      }
+      try {
+        flushPendingWrites();
+      } catch (final RuntimeException e) {
+        LOG.error("Failed to write tasks to disk", e);
+        writeFailure = e;
+        return;
+      }
+    }
   }
 
-  private void writeDataLength(final int size, final long offset) throws IOException {
-    lengthBuffer.position(0);
-    lengthBuffer.putInt(size);
-    lengthBuffer.flip();
-    writeFileChannel.write(lengthBuffer, offset);
+  @VisibleForTesting
+  void flushPendingWrites() {
+    synchronized (writeLock) {
+      Bytes data;
+      while (!closed && (data = pendingWrites.poll()) != null) {
+        writeTaskData(data);
+      }
+    }
   }
 
-  private void readBytes(final ByteBuffer buffer, final int expectedLength) throws IOException {
-    int readBytes = readFileChannel.read(buffer);
-
-    if (readBytes == -1 && writeFileNumber > readFileNumber) {
-      LOG.debug("Reading reached end of file {}", readFileNumber);
-      readFileChannel.close();
-      readFileNumber++;
-      readFileChannel = openReadFileChannel(readFileNumber);
-
-      readBytes = readFileChannel.read(buffer);
+  private void writeTaskData(final Bytes data) {
+    if (!writeSegment.hasRoomFor(data.size())) {
+      LOG.debug("Writing reached end of file {}", writeSegment.getNumber());
+      final Segment nextSegment =
+          openSegment(
+              writeSegment.getNumber() + 1, Math.max(segmentSize, Integer.BYTES + data.size()));
+      segments.addLast(nextSegment);
+      writeSegment.seal();
+      writeSegment = nextSegment;
     }
-    if (readBytes != expectedLength) {
-      throw new IllegalStateException(
-          "Task queue corrupted. Expected to read "
-              + expectedLength
-              + " bytes but only got "
-              + readBytes);
+    try {
+      writeSegment.write(data);
+    } catch (final IOException e) {
+      throw new StorageException(e);
     }
   }
 
   @Override
-  public synchronized long size() {
-    return size;
+  public long size() {
+    return size.get();
   }
 
   @Override
-  public synchronized boolean isEmpty() {
+  public boolean isEmpty() {
     return size() == 0;
   }
 
   @VisibleForTesting
   int getReadFileNumber() {
-    return readFileNumber;
+    final Segment readSegment = segments.peekFirst();
+    return readSegment != null ? readSegment.getNumber() : getWriteFileNumber();
   }
 
   @VisibleForTesting
   int getWriteFileNumber() {
-    return writeFileNumber;
+    synchronized (writeLock) {
+      return writeSegment.getNumber();
+    }
   }
 
   @Override
-  public synchronized void clear() {
-    outstandingTasks.clear();
-    try {
-      readFileChannel.close();
-      writeFileChannel.close();
-      for (int i = readFileNumber; i <= writeFileNumber; i++) {
-        final File file = pathForFileNumber(i).toFile();
-        if (!file.delete() && file.exists()) {
-          LOG.error("Failed to delete tasks file {}", file.getAbsolutePath());
+  public void clear() {
+    synchronized (readLock) {
+      synchronized (writeLock) {
+        outstandingTasks.clear();
+        // Only uncount the tasks actually discarded. A task being added concurrently may already be
+        // counted but not queued yet, and must stay counted until it is removed.
+        long discarded = 0;
+        while (pendingWrites.poll() != null) {
+          discarded++;
+        }
+        for (final Segment segment : segments) {
+          discarded += segment.getUnreadCount();
+          deleteSegment(segment);
         }
+        segments.clear();
+        writeSegment = openSegment(0, segmentSize);
+        segments.add(writeSegment);
+        size.addAndGet(-discarded);
       }
-      readFileNumber = 0;
-      writeFileNumber = 0;
-      writeFileChannel = openWriteFileChannel(writeFileNumber);
-      readFileChannel = openReadFileChannel(readFileNumber);
-      size = 0;
-    } catch (final IOException e) {
-      throw new StorageException(e);
     }
   }
 
   @Override
-  public synchronized boolean allTasksCompleted() {
+  public boolean allTasksCompleted() {
     return isEmpty() && outstandingTasks.isEmpty();
   }
 
   @Override
-  public synchronized void close() {
+  public void close() {
+    closed = true;
+    LockSupport.unpark(writerThread);
+    writerExecutor.shutdown();
     try {
-      readFileChannel.close();
-      writeFileChannel.close();
+      // Wait for the writer to stop so it isn't writing to the segments as they are deleted.
+      if (!writerExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+        LOG.warn("Timed out waiting for tasks writer to stop");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (readLock) {
+      synchronized (writeLock) {
+        pendingWrites.clear();
+        segments.forEach(this::deleteSegment);
+        segments.clear();
+      }
+    }
+  }
+
+  private void assertWritable() {
+    if (writeFailure != null) {
+      throw new StorageException(writeFailure);
+    }
+  }
+
+  private void deleteSegment(final Segment segment) {
+    try {
+      segment.close();
+      Files.deleteIfExists(segment.getPath());
     } catch (final IOException e) {
-      throw new StorageException(e);
+      LOG.error("Failed to delete tasks file {}", segment.getPath().toAbsolutePath(), e);
     }
   }
 
@@ -235,11 +309,11 @@ public class FlatFileTaskCollection<T> implements TaskCollection<T> {
     return storageDirectory.resolve(FILENAME_PREFIX + fileNumber);
   }
 
-  private synchronized boolean markTaskCompleted(final FlatFileTask<T> task) {
+  private boolean markTaskCompleted(final FlatFileTask<T> task) {
     return outstandingTasks.remove(task);
   }
 
-  private synchronized void handleFailedTask(final FlatFileTask<T> task) {
+  private void handleFailedTask(final FlatFileTask<T> task) {
     if (markTaskCompleted(task)) {
       add(task.getData());
     }
@@ -251,6 +325,121 @@ public class FlatFileTaskCollection<T> implements TaskCollection<T> {
     }
   }
 
+  /**
+   * A file holding length prefixed tasks. Only the writer writes to it, publishing each task by
+   * advancing the volatile write position, and only threads holding the read lock read from it.
+   * Tasks are written and read with positional channel operations rather than through a mapping,
+   * so closing the channel releases the file straight away and it can always be deleted.
+   */
+  private static class Segment {
+    private final Path path;
+    private final int number;
+    private final int capacity;
+    private final FileChannel channel;
+
+    private volatile int writePosition = 0;
+    private volatile boolean sealed = false;
+    private int readPosition = 0;
+    // Guarded by the write and read locks respectively.
+    private int writeCount = 0;
+    private int readCount = 0;
+
+    private Segment(
+        final Path path, final int number, final int capacity, final FileChannel channel) {
+      this.path = path;
+      this.number = number;
+      this.capacity = capacity;
+      this.channel = channel;
+    }
+
+    static Segment open(final Path path, final int number, final int capacity) throws IOException {
+      final FileChannel channel =
+          FileChannel.open(
+              path,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      return new Segment(path, number, capacity, channel);
+    }
+
+    Path getPath() {
+      return path;
+    }
+
+    int getNumber() {
+      return number;
+    }
+
+    boolean isSealed() {
+      return sealed;
+    }
+
+    int getUnreadCount() {
+      return writeCount - readCount;
+    }
+
+    boolean hasRoomFor(final int dataLength) {
+      return capacity - writePosition >= Integer.BYTES + dataLength;
+    }
+
+    void write(final Bytes data) throws IOException {
+      final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + data.size());
+      buffer.putInt(data.size());
+      buffer.put(data.toArrayUnsafe());
+      buffer.flip();
+      int position = writePosition;
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+      writeCount++;
+      writePosition = position;
+    }
+
+    void seal() {
+      sealed = true;
+    }
+
+    Bytes read() throws IOException {
+      final int limit = writePosition;
+      if (readPosition >= limit) {
+        return null;
+      }
+      final ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+      readFully(lengthBuffer, readPosition);
+      final int dataLength = lengthBuffer.getInt(0);
+      final int dataPosition = readPosition + Integer.BYTES;
+      if (dataLength < 0 || dataLength > limit - dataPosition) {
+        throw new IllegalStateException(
+            "Task queue corrupted. Expected to read "
+                + dataLength
+                + " bytes but only "
+                + (limit - dataPosition)
+                + " are available");
+      }
+      final ByteBuffer dataBuffer = ByteBuffer.allocate(dataLength);
+      readFully(dataBuffer, dataPosition);
+      readPosition = dataPosition + dataLength;
+      readCount++;
+      return Bytes.wrap(dataBuffer.array());
+    }
+
+    private void readFully(final ByteBuffer buffer, final int position) throws IOException {
+      int offset = position;
+      while (buffer.hasRemaining()) {
+        final int read = channel.read(buffer, offset);
+        if (read < 0) {
+          throw new EOFException("Unexpected end of tasks file " + path);
+        }
+        offset += read;
+      }
+    }
+
+    void close() throws IOException {
+      channel.close();
+    }
+  }
+
   private static class FlatFileTask<T> implements Task<T> {
     private final AtomicBoolean completed = new AtomicBoolean(false);
     private final FlatFileTaskCollection<T> parentQueue;
@@ -0,0 +1,211 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.services.tasks;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds up to a maximum number of tasks in memory, handing out the deepest ones first, in front of
+ * another, usually disk backed, collection.
+ *
+ * <p>Tasks of the same depth are handed out by decreasing {@link
+ * TasksPriorityProvider#getPriority()} and then in the order they were added. Processing the
+ * deepest tasks first finishes each part of the structure being processed before starting new
+ * ones, which keeps the number of tasks waiting small. When the cache is full, the task with the
+ * lowest priority is moved to the underlying collection, so only the shallowest tasks, which are
+ * processed last, are spilled and they are only read back once the cache is empty.
+ */
+public class PriorityTaskCollection<T extends TasksPriorityProvider> implements TaskCollection<T> {
+
+  private static final Comparator<PriorityTask<?>> TASK_ORDER =
+      Comparator.<PriorityTask<?>>comparingInt(task -> -task.depth)
+          .thenComparingLong(task -> -task.priority)
+          .thenComparingLong(task -> task.sequence);
+
+  public static final int DEFAULT_CACHE_SIZE = 1_000_000;
+  private final int maxCacheSize;
+  private final TaskCollection<T> wrappedCollection;
+  private final AtomicLong nextSequence = new AtomicLong();
+  /**
+   * The tasks to operate on before going to {@link PriorityTaskCollection#wrappedCollection}, and
+   * the tasks removed from them but not completed yet.
+   */
+  private volatile Cache<T> cache = new Cache<>();
+
+  private volatile boolean closed = false;
+
+  public PriorityTaskCollection(final TaskCollection<T> collection, final int maxCacheSize) {
+    this.wrappedCollection = collection;
+    this.maxCacheSize = maxCacheSize;
+  }
+
+  @Override
+  public void add(final T taskData) {
+    assertNotClosed();
+    final Cache<T> currentCache = cache;
+    currentCache.add(
+        new PriorityTask<>(this, currentCache, taskData, nextSequence.getAndIncrement()));
+    if (currentCache.size() > maxCacheSize) {
+      // Too many tasks in the cache, push the one that would be processed last to the underlying
+      // collection
+      final PriorityTask<T> lowestPriorityTask = currentCache.pollLowest();
+      if (lowestPriorityTask != null) {
+        wrappedCollection.add(lowestPriorityTask.data);
+      }
+    }
+  }
+
+  @Override
+  public Task<T> remove() {
+    assertNotClosed();
+    final Task<T> pendingTask = cache.pollHighest();
+    if (pendingTask == null) {
+      return wrappedCollection.remove();
+    }
+    return pendingTask;
+  }
+
+  @Override
+  public void clear() {
+    assertNotClosed();
+    wrappedCollection.clear();
+    cache = new Cache<>();
+  }
+
+  @Override
+  public long size() {
+    return wrappedCollection.size() + cache.cachedTasks.sum();
+  }
+
+  public int cacheSize() {
+    return (int) cache.size();
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /** @return True if all tasks have been removed and processed. */
+  @Override
+  public boolean allTasksCompleted() {
+    return cache.size() == 0 && wrappedCollection.allTasksCompleted();
+  }
+
+  private void failPendingTask(final PriorityTask<T> task) {
+    final Cache<T> taskCache = task.cache;
+    if (taskCache == cache && !closed) {
+      // Keeps its place in the order so it is retried before any task added since.
+      taskCache.add(new PriorityTask<>(this, taskCache, task.data, task.sequence));
+    }
+    taskCache.outstandingTasks.decrement();
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    cache = new Cache<>();
+    wrappedCollection.close();
+  }
+
+  private void assertNotClosed() {
+    if (closed) {
+      throw new IllegalStateException("Attempt to access closed " + getClass().getSimpleName());
+    }
+  }
+
+  private static class Cache<T extends TasksPriorityProvider> {
+    private final NavigableSet<PriorityTask<T>> tasks = new ConcurrentSkipListSet<>(TASK_ORDER);
+    private final LongAdder cachedTasks = new LongAdder();
+    // Tasks that have been removed, but not marked completed yet
+    private final LongAdder outstandingTasks = new LongAdder();
+
+    private long size() {
+      return cachedTasks.sum() + outstandingTasks.sum();
+    }
+
+    private void add(final PriorityTask<T> task) {
+      // Counted before it's queued so it is never removed before being counted.
+      cachedTasks.increment();
+      tasks.add(task);
+    }
+
+    private PriorityTask<T> pollHighest() {
+      final PriorityTask<T> task = tasks.pollFirst();
+      if (task != null) {
+        // Counted as outstanding first so the cache never looks empty while it is in neither.
+        outstandingTasks.increment();
+        cachedTasks.decrement();
+      }
+      return task;
+    }
+
+    private PriorityTask<T> pollLowest() {
+      final PriorityTask<T> task = tasks.pollLast();
+      if (task != null) {
+        cachedTasks.decrement();
+      }
+      return task;
+    }
+  }
+
+  private static class PriorityTask<T extends TasksPriorityProvider> implements Task<T> {
+    private final AtomicBoolean completed = new AtomicBoolean(false);
+    private final PriorityTaskCollection<T> priorityTaskCollection;
+    private final Cache<T> cache;
+    private final T data;
+    private final int depth;
+    private final long priority;
+    private final long sequence;
+
+    private PriorityTask(
+        final PriorityTaskCollection<T> priorityTaskCollection,
+        final Cache<T> cache,
+        final T data,
+        final long sequence) {
+      this.priorityTaskCollection = priorityTaskCollection;
+      this.cache = cache;
+      this.data = data;
+      this.depth = data.getDepth();
+      this.priority = data.getPriority();
+      this.sequence = sequence;
+    }
+
+    @Override
+    public T getData() {
+      return data;
+    }
+
+    @Override
+    public void markCompleted() {
+      if (completed.compareAndSet(false, true)) {
+        cache.outstandingTasks.decrement();
+      }
+    }
+
+    @Override
+    public void markFailed() {
+      if (completed.compareAndSet(false, true)) {
+        priorityTaskCollection.failPendingTask(this);
+      }
+    }
+  }
+}
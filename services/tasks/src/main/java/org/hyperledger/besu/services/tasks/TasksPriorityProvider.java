@@ -0,0 +1,28 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.services.tasks;
+
+/** Decides the order in which a {@link PriorityTaskCollection} hands out its tasks. */
+public interface TasksPriorityProvider {
+
+  /**
+   * @return The depth of the task in the structure being processed. Deeper tasks are removed
+   *     first, so that the parts of the structure already started are finished before new ones.
+   */
+  int getDepth();
+
+  /** @return The priority of the task among the tasks of the same depth, highest first. */
+  long getPriority();
+}
@@ -20,6 +20,10 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.tuweni.bytes.Bytes;
@@ -182,6 +186,58 @@ public class CachingTaskCollectionTest {
         .isInstanceOf(IllegalStateException.class);
   }
 
+  @Test
+  public void processTasksConcurrently() throws Exception {
+    final int threadCount = 8;
+    final int tasksPerThread = 1000;
+    final CachingTaskCollection<Bytes> taskCollection = createCachingCollection(100);
+    final Set<Bytes> processed = ConcurrentHashMap.newKeySet();
+    final AtomicInteger failures = new AtomicInteger();
+    final CountDownLatch start = new CountDownLatch(1);
+
+    final List<Thread> threads = new ArrayList<>();
+    for (int thread = 0; thread < threadCount; thread++) {
+      final int threadNumber = thread;
+      threads.add(
+          new Thread(
+              () -> {
+                try {
+                  start.await();
+                } catch (final InterruptedException e) {
+                  throw new IllegalStateException(e);
+                }
+                for (int i = 0; i < tasksPerThread; i++) {
+                  taskCollection.add(Bytes.ofUnsignedInt(threadNumber * tasksPerThread + i));
+                  final Task<Bytes> task = taskCollection.remove();
+                  if (task == null) {
+                    continue;
+                  }
+                  // Fail some tasks so they have to be processed again.
+                  if (task.getData().toInt() % 10 == 0 && failures.getAndIncrement() % 2 == 0) {
+                    task.markFailed();
+                  } else {
+                    processed.add(task.getData());
+                    task.markCompleted();
+                  }
+                }
+              }));
+    }
+    threads.forEach(Thread::start);
+    start.countDown();
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+
+    getAllTasks(taskCollection)
+        .forEach(
+            task -> {
+              processed.add(task.getData());
+              task.markCompleted();
+            });
+    assertThat(processed).hasSize(threadCount * tasksPerThread);
+    assertThat(taskCollection.allTasksCompleted()).isTrue();
+  }
+
   private List<Bytes> generateTasks(
       final TaskCollection<Bytes> taskCollection, final int taskCount) {
     final List<Bytes> taskData = new ArrayList<>();
@@ -82,9 +82,32 @@ public class FlatFileTaskCollectionTest
     }
   }
 
+  @Test
+  public void shouldOnlyUncountDiscardedTasksWhenCleared() throws Exception {
+    final Path dataDir = folder.newFolder().toPath();
+    try (final FlatFileTaskCollection<Bytes> queue = createQueue(dataDir)) {
+      final List<Bytes> tasks = new ArrayList<>();
+      addItem(queue, tasks, 0);
+      addItem(queue, tasks, 1);
+      queue.add(Bytes.of(2));
+      queue.remove();
+
+      queue.clear();
+      assertThat(queue.size()).isZero();
+
+      queue.add(Bytes.of(3));
+      assertThat(queue.size()).isEqualTo(1);
+      assertThat(queue.remove().getData()).isEqualTo(Bytes.of(3));
+      assertThat(queue.isEmpty()).isTrue();
+      assertThat(queue.remove()).isNull();
+    }
+  }
+
   private void addItem(
       final FlatFileTaskCollection<Bytes> queue, final List<Bytes> tasks, final int value) {
     tasks.add(Bytes.of(value));
     queue.add(Bytes.of(value));
+    // Tasks are written to disk in the background, so wait for it to check which file it's in.
+    queue.flushPendingWrites();
   }
 }
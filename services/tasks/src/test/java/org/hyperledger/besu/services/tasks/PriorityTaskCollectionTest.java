@@ -0,0 +1,188 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.services.tasks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PriorityTaskCollectionTest {
+  private InMemoryTaskQueue<TestTask> wrappedTaskCollection;
+
+  @Before
+  public void setup() {
+    wrappedTaskCollection = new InMemoryTaskQueue<>();
+  }
+
+  @Test
+  public void removesDeepestTasksFirst() {
+    final PriorityTaskCollection<TestTask> taskCollection = createPriorityCollection(10);
+    final TestTask shallow = new TestTask("shallow", 1, 0);
+    final TestTask deepest = new TestTask("deepest", 3, 0);
+    final TestTask deep = new TestTask("deep", 2, 0);
+    taskCollection.add(shallow);
+    taskCollection.add(deepest);
+    taskCollection.add(deep);
+
+    assertThat(getTaskData(getAllTasks(taskCollection))).containsExactly(deepest, deep, shallow);
+  }
+
+  @Test
+  public void removesHighestPriorityTasksFirstWithinTheSameDepth() {
+    final PriorityTaskCollection<TestTask> taskCollection = createPriorityCollection(10);
+    final TestTask first = new TestTask("first", 2, 0);
+    final TestTask second = new TestTask("second", 2, 0);
+    final TestTask highPriority = new TestTask("highPriority", 2, 1);
+    final TestTask deeper = new TestTask("deeper", 3, 0);
+    taskCollection.add(first);
+    taskCollection.add(second);
+    taskCollection.add(highPriority);
+    taskCollection.add(deeper);
+
+    assertThat(getTaskData(getAllTasks(taskCollection)))
+        .containsExactly(deeper, highPriority, first, second);
+  }
+
+  @Test
+  public void spillsLowestPriorityTasksWhenCacheIsFull() {
+    final PriorityTaskCollection<TestTask> taskCollection = createPriorityCollection(2);
+    final TestTask root = new TestTask("root", 0, 0);
+    final TestTask child = new TestTask("child", 1, 0);
+    final TestTask grandChild = new TestTask("grandChild", 2, 0);
+    taskCollection.add(root);
+    taskCollection.add(child);
+    taskCollection.add(grandChild);
+
+    assertThat(taskCollection.size()).isEqualTo(3);
+    assertThat(taskCollection.cacheSize()).isEqualTo(2);
+    assertThat(wrappedTaskCollection.size()).isEqualTo(1);
+    assertThat(wrappedTaskCollection.remove().getData()).isEqualTo(root);
+  }
+
+  @Test
+  public void removesSpilledTasksOnceCacheIsEmpty() {
+    final PriorityTaskCollection<TestTask> taskCollection = createPriorityCollection(1);
+    final TestTask shallow = new TestTask("shallow", 1, 0);
+    final TestTask deep = new TestTask("deep", 2, 0);
+    taskCollection.add(shallow);
+    taskCollection.add(deep);
+
+    assertThat(getTaskData(getAllTasks(taskCollection))).containsExactly(deep, shallow);
+  }
+
+  @Test
+  public void retriesFailedTasksBeforeLaterTasksOfTheSamePriority() {
+    final PriorityTaskCollection<TestTask> taskCollection = createPriorityCollection(10);
+    final TestTask first = new TestTask("first", 1, 0);
+    final TestTask second = new TestTask("second", 1, 0);
+    taskCollection.add(first);
+    taskCollection.add(second);
+
+    final Task<TestTask> task = taskCollection.remove();
+    assertThat(task.getData()).isEqualTo(first);
+    task.markFailed();
+    assertThat(taskCollection.size()).isEqualTo(2);
+
+    assertThat(getTaskData(getAllTasks(taskCollection))).containsExactly(first, second);
+  }
+
+  @Test
+  public void completeTasks() {
+    final PriorityTaskCollection<TestTask> taskCollection = createPriorityCollection(2);
+    for (int i = 0; i < 5; i++) {
+      taskCollection.add(new TestTask("task" + i, i % 3, 0));
+    }
+    assertThat(taskCollection.allTasksCompleted()).isFalse();
+
+    final List<Task<TestTask>> tasks = getAllTasks(taskCollection);
+    assertThat(tasks).hasSize(5);
+    assertThat(taskCollection.size()).isEqualTo(0);
+    assertThat(taskCollection.allTasksCompleted()).isFalse();
+
+    tasks.forEach(Task::markCompleted);
+    assertThat(taskCollection.allTasksCompleted()).isTrue();
+  }
+
+  @Test
+  public void doesNotRequeueFailedTasksAfterClear() {
+    final PriorityTaskCollection<TestTask> taskCollection = createPriorityCollection(10);
+    taskCollection.add(new TestTask("task", 1, 0));
+    final Task<TestTask> task = taskCollection.remove();
+
+    taskCollection.clear();
+    task.markFailed();
+
+    assertThat(taskCollection.isEmpty()).isTrue();
+    assertThat(taskCollection.allTasksCompleted()).isTrue();
+  }
+
+  @Test
+  public void close() throws IOException {
+    final PriorityTaskCollection<TestTask> taskCollection = createPriorityCollection(10);
+    taskCollection.close();
+    assertThatThrownBy(() -> taskCollection.add(new TestTask("task", 1, 0)))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  private PriorityTaskCollection<TestTask> createPriorityCollection(final int cacheSize) {
+    return new PriorityTaskCollection<>(wrappedTaskCollection, cacheSize);
+  }
+
+  private List<TestTask> getTaskData(final List<Task<TestTask>> tasks) {
+    return tasks.stream().map(Task::getData).collect(Collectors.toList());
+  }
+
+  private List<Task<TestTask>> getAllTasks(final TaskCollection<TestTask> taskCollection) {
+    final List<Task<TestTask>> tasks = new ArrayList<>();
+    while (taskCollection.size() > 0) {
+      tasks.add(taskCollection.remove());
+    }
+    return tasks;
+  }
+
+  private static class TestTask implements TasksPriorityProvider {
+    private final String name;
+    private final int depth;
+    private final long priority;
+
+    private TestTask(final String name, final int depth, final long priority) {
+      this.name = name;
+      this.depth = depth;
+      this.priority = priority;
+    }
+
+    @Override
+    public int getDepth() {
+      return depth;
+    }
+
+    @Override
+    public long getPriority() {
+      return priority;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+}
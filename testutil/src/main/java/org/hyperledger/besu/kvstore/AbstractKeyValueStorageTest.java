@@ -17,11 +17,13 @@ package org.hyperledger.besu.kvstore;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageIterator;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -102,6 +104,95 @@ public abstract class AbstractKeyValueStorageTest {
             bytesFromHexString("10"), bytesFromHexString("11"), bytesFromHexString("12"));
   }
 
+  @Test
+  public void getAll() throws Exception {
+    final KeyValueStorage store = createStore();
+    final KeyValueStorageTransaction tx = store.startTransaction();
+    tx.put(bytesFromHexString("0F"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("10"), bytesFromHexString("0DEF"));
+    tx.commit();
+
+    final List<Optional<byte[]>> values =
+        store.getAll(
+            Arrays.asList(
+                bytesFromHexString("10"), bytesFromHexString("11"), bytesFromHexString("0F")));
+
+    assertThat(values).hasSize(3);
+    assertThat(values.get(0)).contains(bytesFromHexString("0DEF"));
+    assertThat(values.get(1)).isEmpty();
+    assertThat(values.get(2)).contains(bytesFromHexString("0ABC"));
+  }
+
+  @Test
+  public void iterator() throws Exception {
+    final KeyValueStorage store = createStore();
+    final KeyValueStorageTransaction tx = store.startTransaction();
+    tx.put(bytesFromHexString("12"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("0F"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("1001"), bytesFromHexString("0DEF"));
+    tx.put(bytesFromHexString("FF"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("10"), bytesFromHexString("0ABC"));
+    tx.commit();
+
+    try (final KeyValueStorageIterator iterator =
+        store.iterator(bytesFromHexString("10"), bytesFromHexString("12"))) {
+      assertThat(iterator.hasNext()).isTrue();
+      final Map.Entry<byte[], byte[]> entry = iterator.next();
+      assertThat(entry.getKey()).containsExactly(bytesFromHexString("10"));
+      assertThat(entry.getValue()).containsExactly(bytesFromHexString("0ABC"));
+      assertThat(keys(iterator)).containsExactly(Bytes.fromHexString("1001"));
+    }
+    try (final KeyValueStorageIterator iterator =
+        store.iterator(bytesFromHexString("11"), new byte[0])) {
+      assertThat(keys(iterator))
+          .containsExactly(Bytes.fromHexString("12"), Bytes.fromHexString("FF"));
+    }
+  }
+
+  @Test
+  public void iteratorWithPrefix() throws Exception {
+    final KeyValueStorage store = createStore();
+    final KeyValueStorageTransaction tx = store.startTransaction();
+    tx.put(bytesFromHexString("0F"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("1001"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("10"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("11"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("FF01"), bytesFromHexString("0ABC"));
+    tx.commit();
+
+    try (final KeyValueStorageIterator iterator =
+        store.iteratorWithPrefix(bytesFromHexString("10"))) {
+      assertThat(keys(iterator))
+          .containsExactly(Bytes.fromHexString("10"), Bytes.fromHexString("1001"));
+    }
+    try (final KeyValueStorageIterator iterator =
+        store.iteratorWithPrefix(bytesFromHexString("FF"))) {
+      assertThat(keys(iterator)).containsExactly(Bytes.fromHexString("FF01"));
+    }
+  }
+
+  @Test
+  public void iteratorSeek() throws Exception {
+    final KeyValueStorage store = createStore();
+    final KeyValueStorageTransaction tx = store.startTransaction();
+    tx.put(bytesFromHexString("0F"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("10"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("11"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("12"), bytesFromHexString("0ABC"));
+    tx.commit();
+
+    try (final KeyValueStorageIterator iterator =
+        store.iterator(bytesFromHexString("10"), new byte[0])) {
+      iterator.seek(bytesFromHexString("1100"));
+      assertThat(keys(iterator)).containsExactly(Bytes.fromHexString("12"));
+
+      iterator.seek(bytesFromHexString("00"));
+      assertThat(keys(iterator))
+          .containsExactly(
+              Bytes.fromHexString("10"), Bytes.fromHexString("11"), Bytes.fromHexString("12"));
+    }
+  }
+
   @Test
   public void containsKey() throws Exception {
     final KeyValueStorage store = createStore();
@@ -401,6 +492,12 @@ public abstract class AbstractKeyValueStorageTest {
     store.close();
   }
 
+  private List<Bytes> keys(final KeyValueStorageIterator iterator) {
+    final List<Bytes> keys = new ArrayList<>();
+    iterator.forEachRemaining(entry -> keys.add(Bytes.wrap(entry.getKey())));
+    return keys;
+  }
+
   /*
    * Used to mimic the wrapping with Bytes performed in Besu
    */